@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.io.IOException;
+
+/**
+ * A {@link DataInput} that decodes Base64 text on the fly. Unlike {@code new DataInput(Base64.decode(encoded))}
+ * it never materializes the decoded byte array: each quantum of four characters is decoded when the
+ * reader asks for the next byte. Whitespace (line breaks in particular) is skipped, padding ends the stream.
+ * <p/>
+ * Lazy values remember the position of their content in the Base64 text (the start of its quantum and
+ * the offset within), and decode it from there when they are accessed.
+ *
+ * @author Heiko Braun
+ */
+public class Base64DataInput extends DataInput {
+
+    private static final byte WHITE_SPACE = -5;
+    private static final byte PADDING = -2;
+    private static final byte INVALID = -1;
+
+    private static final byte[] DECODABET = new byte[128];
+
+    static {
+        for (int i = 0; i < DECODABET.length; i++) {
+            DECODABET[i] = INVALID;
+        }
+        final String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODABET[alphabet.charAt(i)] = (byte) i;
+        }
+        DECODABET[' '] = WHITE_SPACE;
+        DECODABET['\t'] = WHITE_SPACE;
+        DECODABET['\n'] = WHITE_SPACE;
+        DECODABET['\r'] = WHITE_SPACE;
+        DECODABET['='] = PADDING;
+    }
+
+    private final String encoded;
+    private final int length;
+    private int pos = 0;
+
+    // the current quantum, left aligned to 24 bits, and where it starts in the text
+    private int start = 0;
+    private int quantum = 0;
+    private int available = 0;
+    private int next = 0;
+
+    public Base64DataInput(final String encoded) {
+        if (encoded == null) {
+            throw new NullPointerException("Input string was null.");
+        }
+        this.encoded = encoded;
+        this.length = encoded.length();
+    }
+
+    /**
+     * @param lazy whether collection values should be decoded lazily, see {@link DataInput#isLazy()}
+     */
+    Base64DataInput(final String encoded, final boolean lazy) {
+        super(lazy);
+        if (encoded == null) {
+            throw new NullPointerException("Input string was null.");
+        }
+        this.encoded = encoded;
+        this.length = encoded.length();
+    }
+
+    @Override
+    int position() {
+        return next == available ? pos << 2 : start << 2 | next;
+    }
+
+    @Override
+    DataInput at(final int position) throws IOException {
+        final Base64DataInput in = new Base64DataInput(encoded, true);
+        in.seek(position);
+        return in;
+    }
+
+    @Override
+    void seek(final int position) throws IOException {
+        pos = position >>> 2;
+        next = available = 0;
+        final int offset = position & 3;
+        if (offset > 0 && decodeQuantum()) {
+            next = offset;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (next == available && !decodeQuantum()) {
+            return -1;
+        }
+        return (quantum >>> (16 - 8 * next++)) & 0xFF;
+    }
+
+    private boolean decodeQuantum() throws IOException {
+        final String encoded = this.encoded;
+        start = pos;
+        int bits = 0;
+        int sextets = 0;
+        while (sextets < 4 && pos < length) {
+            final char c = encoded.charAt(pos++);
+            final byte decoded = c < 128 ? DECODABET[c] : INVALID;
+            if (decoded >= 0) {
+                bits = (bits << 6) | decoded;
+                sextets++;
+            } else if (decoded == PADDING) {
+                pos = length;
+            } else if (decoded != WHITE_SPACE) {
+                throw new IOException("Bad Base64 input character decimal: " + (int) c);
+            }
+        }
+
+        next = 0;
+        if (sextets < 2) {
+            available = 0;
+            return false;
+        }
+        quantum = bits << (6 * (4 - sextets));
+        available = sextets - 1;
+        return true;
+    }
+}
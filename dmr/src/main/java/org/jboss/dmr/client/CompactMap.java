@@ -0,0 +1,237 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Insertion ordered map for the children of small objects. Keys and values are kept in two parallel arrays
+ * and looked up by a linear scan, which needs a fraction of the memory of a {@link java.util.LinkedHashMap}
+ * (no entry objects, no hash table) and is just as fast for a handful of keys.
+ * <p>
+ * {@link ObjectModelValue} switches to a <tt>LinkedHashMap</tt> once an object grows beyond {@link #MAX_SIZE}.
+ *
+ * @author Heiko Braun
+ */
+final class CompactMap extends AbstractMap<String, ModelNode> {
+
+    static final int MAX_SIZE = 12;
+
+    private static final String[] NO_KEYS = new String[0];
+
+    private String[] keys;
+    private ModelNode[] values;
+    private int size;
+    private int modCount;
+
+    CompactMap() {
+        this(0);
+    }
+
+    CompactMap(final int capacity) {
+        keys = capacity == 0 ? NO_KEYS : new String[capacity];
+        values = capacity == 0 ? ListModelValue.NO_NODES : new ModelNode[capacity];
+    }
+
+    private int indexOf(final Object key) {
+        final String[] keys = this.keys;
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) != -1;
+    }
+
+    @Override
+    public ModelNode get(final Object key) {
+        final int index = indexOf(key);
+        return index == -1 ? null : values[index];
+    }
+
+    @Override
+    public ModelNode put(final String key, final ModelNode value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        final int index = indexOf(key);
+        if (index != -1) {
+            final ModelNode previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        if (size == keys.length) {
+            final int capacity = Math.max(4, size * 2);
+            final String[] newKeys = new String[capacity];
+            final ModelNode[] newValues = new ModelNode[capacity];
+            System.arraycopy(keys, 0, newKeys, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            keys = newKeys;
+            values = newValues;
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public ModelNode remove(final Object key) {
+        final int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        final ModelNode previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    private void removeAt(final int index) {
+        final int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(values, index + 1, values, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            keys[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, ModelNode>> entrySet() {
+        return new AbstractSet<Map.Entry<String, ModelNode>>() {
+            @Override
+            public Iterator<Map.Entry<String, ModelNode>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, ModelNode>> {
+        private int next = 0;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Map.Entry<String, ModelNode> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return new Entry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class Entry implements Map.Entry<String, ModelNode> {
+        private final int index;
+
+        Entry(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public ModelNode getValue() {
+            return values[index];
+        }
+
+        @Override
+        public ModelNode setValue(final ModelNode value) {
+            final ModelNode previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+            final ModelNode value = getValue();
+            return getKey().equals(entry.getKey()) && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            final ModelNode value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+    }
+}
@@ -20,18 +20,159 @@
 package org.jboss.dmr.client;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * see also http://quake2-gwt-port.googlecode.com/hg/src/com/google/gwt/corp/emul/java/io/DataInputStream.java?r=5c7c4b545ff4a8875b4cab5d77492d37e150d46b
+ * <p>
+ * All multi-byte reads go through {@link #read()}, so subclasses only need to provide the byte source
+ * (see {@link Base64DataInput}). The scratch buffers are reused across calls, which keeps the decoding of
+ * large responses free of per-value allocations.
  */
 public class DataInput {
     private int pos = 0;
     private byte[] bytes;
+    private boolean lazy = false;
+
+    // lazy inputs: the input the lazy values are read from later on
+    private DataInput origin = this;
+    // the recorded extents of the nested values of the value that is being materialized
+    private Extent[] extents;
+    private int nextExtent = 0;
+
+    private final byte[] scratch = new byte[8];
+    private final StringBuilder utf = new StringBuilder();
+    private byte[] key;
 
     public DataInput(byte[] bytes) {
         this.bytes = bytes;
     }
 
+    /**
+     * Create an input that decodes {@link ModelType#OBJECT} and {@link ModelType#LIST} values lazily,
+     * i.e. only records their extent in {@code bytes} and decodes them on first access.
+     *
+     * @param bytes the source, which is retained until all lazy values have been materialized
+     * @param pos the offset to start reading at
+     * @param lazy whether collection values should be decoded lazily
+     */
+    DataInput(byte[] bytes, int pos, boolean lazy) {
+        this.bytes = bytes;
+        this.pos = pos;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Constructor for subclasses that override {@link #read()}.
+     */
+    protected DataInput() {
+        this.bytes = null;
+    }
+
+    /**
+     * Constructor for subclasses that override {@link #read()} and support lazy decoding,
+     * see {@link #position()}, {@link #at(int)} and {@link #seek(int)}.
+     */
+    DataInput(boolean lazy) {
+        this.bytes = null;
+        this.lazy = lazy;
+    }
+
+    boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * The current position, as understood by {@link #at(int)} and {@link #seek(int)}.
+     */
+    int position() {
+        return pos;
+    }
+
+    /**
+     * A new lazy input over the same source, starting at the given position.
+     */
+    DataInput at(int position) throws IOException {
+        return new DataInput(bytes, position, true);
+    }
+
+    void seek(int position) throws IOException {
+        pos = position;
+    }
+
+    /**
+     * A lazy input for materializing the object or list of the given extent. The extents of its
+     * nested objects and lists are known already, so they are not skipped again.
+     */
+    DataInput open(final Extent extent) throws IOException {
+        final DataInput in = at(extent.start);
+        in.origin = origin;
+        in.extents = extent.nested;
+        return in;
+    }
+
+    /**
+     * The input lazy values are materialized from.
+     */
+    DataInput origin() {
+        return origin;
+    }
+
+    /**
+     * Move past the content of the object or list at the current position and return its extent.
+     * The first pass over a lazy value records the extents of all nested objects and lists, when
+     * one of them is materialized later on its children are not skipped again.
+     *
+     * @param type {@link ModelType#OBJECT} or {@link ModelType#LIST}
+     */
+    Extent skip(final ModelType type) throws IOException {
+        if (extents != null) {
+            final Extent extent = extents[nextExtent++];
+            seek(extent.end);
+            return extent;
+        }
+
+        final Extent extent = new Extent(position());
+        List<Extent> nested = null;
+        final int count = readInt();
+        for (int i = 0; i < count; i++) {
+            if (type == ModelType.OBJECT) {
+                skipBytes(readUnsignedShort());
+            }
+            nested = ModelNode.skipExternal(this, nested);
+        }
+        if (nested != null) {
+            extent.nested = nested.toArray(new Extent[nested.size()]);
+        }
+        extent.end = position();
+        return extent;
+    }
+
+    /**
+     * Where a lazily read object or list starts and ends, and the extents of the objects
+     * and lists it contains (not counting those within these), in the order they are read.
+     */
+    static final class Extent {
+        private static final Extent[] NONE = new Extent[0];
+
+        final int start;
+        int end;
+        Extent[] nested = NONE;
+
+        Extent(final int start) {
+            this.start = start;
+        }
+
+        static List<Extent> add(List<Extent> extents, final Extent extent) {
+            if (extents == null) {
+                extents = new ArrayList<Extent>();
+            }
+            extents.add(extent);
+            return extents;
+        }
+    }
+
     public int read() throws IOException {
         if (pos >= bytes.length)
             return -1;
@@ -59,9 +200,8 @@ public class DataInput {
 
     public double readDouble() throws IOException {
         // See  https://issues.jboss.org/browse/AS7-4126
-        //return IEEE754.toDouble(bytes[pos++], bytes[pos++], bytes[pos++], bytes[pos++], bytes[pos++], bytes[pos++], bytes[pos++], bytes[pos++]);
-        byte doubleBytes[] = new byte[8];
-        readFully(doubleBytes);
+        final byte[] doubleBytes = scratch;
+        readFully(doubleBytes, 8);
 
         return IEEE754.toDouble(
                 doubleBytes[0],
@@ -75,7 +215,9 @@ public class DataInput {
     }
 
     public float readFloat() throws IOException {
-        return IEEE754.toFloat(bytes[pos++], bytes[pos++], bytes[pos++], bytes[pos++]);
+        final byte[] floatBytes = scratch;
+        readFully(floatBytes, 4);
+        return IEEE754.toFloat(floatBytes[0], floatBytes[1], floatBytes[2], floatBytes[3]);
     }
 
     public int readInt() throws IOException {
@@ -92,18 +234,9 @@ public class DataInput {
 
     public long readLong() throws IOException
     {
-        byte longBytes[] = new byte[8];
-        readFully(longBytes);
-
-        return (((long)longBytes[0] << 56) +
-                ((long)(longBytes[1] & 255) << 48) +
-                ((long)(longBytes[2] & 255) << 40) +
-                ((long)(longBytes[3] & 255) << 32) +
-                ((long)(longBytes[4] & 255) << 24) +
-                ((longBytes[5] & 255) << 16) +
-                ((longBytes[6] & 255) <<  8) +
-                ((longBytes[7] & 255) <<  0));
-
+        final long high = readInt();
+        final long low = readInt() & 0xFFFFFFFFL;
+        return (high << 32) | low;
     }
 
     public short readShort() throws IOException {
@@ -113,8 +246,62 @@ public class DataInput {
     }
 
     public String readUTF() throws IOException {
-        int bytes = readUnsignedShort();
-        StringBuilder sb = new StringBuilder();
+        return readUTF(readUnsignedShort());
+    }
+
+    /**
+     * Read an object key or property name. Same encoding as {@link #readUTF()}, but keys are
+     * shared through the {@link KeyPool}: known keys are not decoded again.
+     */
+    String readKey() throws IOException {
+        final int length = readUnsignedShort();
+        if (length > KeyPool.MAX_KEY_LENGTH) {
+            return readUTF(length);
+        }
+
+        if (key == null) {
+            key = new byte[KeyPool.MAX_KEY_LENGTH];
+        }
+        final byte[] buffer = key;
+        readFully(buffer, length);
+
+        final KeyPool pool = KeyPool.SHARED;
+        final int hash = KeyPool.hash(buffer, length);
+        String value = pool.get(buffer, length, hash);
+        if (value == null) {
+            value = decodeUTF(buffer, length);
+            pool.put(buffer, length, value);
+        }
+        return value;
+    }
+
+    private String decodeUTF(final byte[] buffer, final int length) throws IOException {
+        final StringBuilder sb = utf;
+        sb.setLength(0);
+
+        // keys are plain ASCII most of the time
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = buffer[i] >= 0;
+        }
+        if (ascii) {
+            for (int i = 0; i < length; i++) {
+                sb.append((char) buffer[i]);
+            }
+            return sb.toString();
+        }
+
+        final DataInput in = new DataInput(buffer, 0, false);
+        int bytes = length;
+        while (bytes > 0) {
+            bytes -= in.readUtfChar(sb);
+        }
+        return sb.toString();
+    }
+
+    private String readUTF(int bytes) throws IOException {
+        final StringBuilder sb = utf;
+        sb.setLength(0);
 
         while (bytes > 0) {
             bytes -= readUtfChar(sb);
@@ -177,14 +364,38 @@ public class DataInput {
         return ((a << 8) | b);
     }
 
+    /**
+     * Unlike {@link java.io.DataInput#skipBytes(int)} this doesn't stop at the end of the input:
+     * skipping is used to find the extent of lazily decoded values, which must be complete.
+     *
+     * @throws IOException if fewer than <tt>n</tt> bytes remain
+     */
     public int skipBytes(int n) throws IOException {
-        // note: This is actually a valid implementation of this method, rendering it quite useless...
-        return 0;
+        if (n < 0) {
+            throw new IOException("Illegal length: " + n);
+        }
+        if (bytes == null) {
+            for (int i = 0; i < n; i++) {
+                if (read() == -1) {
+                    throw new IOException("EOF after " + i + " of " + n + " bytes");
+                }
+            }
+            return n;
+        }
+        if (bytes.length - pos < n) {
+            throw new IOException("EOF after " + (bytes.length - pos) + " of " + n + " bytes");
+        }
+        pos += n;
+        return n;
+    }
+
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, b.length);
     }
 
-    public void readFully(byte[] b) {
-        for (int i = 0; i < b.length; i++) {
-            b[i] = bytes[pos++];
+    private void readFully(byte[] b, int len) throws IOException {
+        for (int i = 0; i < len; i++) {
+            b[i] = (byte) readUnsignedByte();
         }
     }
 
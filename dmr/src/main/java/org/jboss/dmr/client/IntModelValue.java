@@ -28,6 +28,11 @@ import java.math.BigInteger;
  */
 final class IntModelValue extends ModelValue {
 
+    // small values (sizes, port offsets, counters) are shared
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final IntModelValue[] CACHE = new IntModelValue[CACHE_HIGH - CACHE_LOW + 1];
+
     private final int value;
 
     IntModelValue(final int value) {
@@ -35,6 +40,18 @@ final class IntModelValue extends ModelValue {
         this.value = value;
     }
 
+    static IntModelValue valueOf(final int value) {
+        if (value < CACHE_LOW || value > CACHE_HIGH) {
+            return new IntModelValue(value);
+        }
+        final int index = value - CACHE_LOW;
+        IntModelValue cached = CACHE[index];
+        if (cached == null) {
+            cached = CACHE[index] = new IntModelValue(value);
+        }
+        return cached;
+    }
+
     @Override
     void writeExternal(final DataOutput out) throws IOException {
         out.writeInt(value);
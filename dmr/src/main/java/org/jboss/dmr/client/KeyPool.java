@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Shared table of the object keys and property names read by {@link DataInput#readKey()}.
+ * <p>
+ * The same keys (<tt>description</tt>, <tt>value-type</tt>, <tt>access-type</tt>, ...) are repeated thousands
+ * of times in description responses. Keys are looked up by their encoded bytes, so a known key is neither decoded
+ * nor allocated again and all objects share a single instance.
+ * <p>
+ * The well-known keys the pool is seeded with are kept for good. Other keys are learned in a bounded, direct-mapped
+ * cache: a key replaces whatever key occupies its slot. Keys that are only seen once, i.e. the resource names of a
+ * large child listing, are evicted again by the next keys and can't crowd out the ones that keep coming back.
+ * <p>
+ * Entries are immutable and published with a single write, so a concurrent lookup sees either nothing,
+ * the previous entry or a complete new one. No other state is shared.
+ *
+ * @author Heiko Braun
+ */
+final class KeyPool {
+
+    /**
+     * Longer keys are not pooled
+     */
+    static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * Slots for learned keys, a power of two
+     */
+    static final int CACHE_SIZE = 2048;
+
+    static final KeyPool SHARED = new KeyPool(
+            ACCESS_TYPE, ADDRESS, ALLOWED, ATTRIBUTES, CHILDREN, CHILD_TYPE, DEFAULT, DESCRIPTION,
+            DOMAIN_FAILURE_DESCRIPTION, DOMAIN_RESULTS, FAILURE_DESCRIPTION, HEAD_COMMENT_ALLOWED, INCLUDE_RUNTIME,
+            MAX, MAX_LENGTH, MAX_OCCURS, MIN, MIN_LENGTH, MIN_OCCURS, MIN_VALUE, MODEL_DESCRIPTION, NAME,
+            NAMESPACES, NILLABLE, OP, OPERATIONS, OPERATION_NAME, OPERATION_HEADERS, OUTCOME, PROFILE,
+            REPLY_PROPERTIES, REQUEST_PROPERTIES, REQUIRED, RESPONSE, RESULT, ROLLED_BACK, SERVER_GROUPS, STEPS,
+            STORAGE, TAIL_COMMENT_ALLOWED, TYPE, VALUE, VALUE_TYPE,
+            "access-constraints", "alternatives", "capability-reference", "deprecated", "expressions-allowed",
+            "response-headers", "requires", "restart-required", "runtime-only", "read-only", "since", "unit",
+            "step-1", "step-2", "step-3", "step-4", "step-5", "step-6", "step-7", "step-8");
+
+    private static final class Entry {
+        final byte[] encoded;
+        final String key;
+        final int hash;
+
+        Entry(final byte[] encoded, final String key, final int hash) {
+            this.encoded = encoded;
+            this.key = key;
+            this.hash = hash;
+        }
+    }
+
+    // well-known keys: open addressing, at most half full and never modified after construction
+    private final Entry[] known;
+
+    // learned keys: direct-mapped, an entry replaces the one in its slot
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+
+    KeyPool(final String... knownKeys) {
+        int capacity = 2;
+        while (capacity < knownKeys.length * 2) {
+            capacity <<= 1;
+        }
+        known = new Entry[capacity];
+        for (final String key : knownKeys) {
+            final byte[] encoded = encodeAscii(key);
+            final int hash = hash(encoded, encoded.length);
+            int i = spread(hash) & (capacity - 1);
+            while (known[i] != null) {
+                if (known[i].hash == hash && matches(known[i].encoded, encoded, encoded.length)) {
+                    break;
+                }
+                i = (i + 1) & (capacity - 1);
+            }
+            known[i] = new Entry(encoded, key, hash);
+        }
+    }
+
+    static int hash(final byte[] buffer, final int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        return hash;
+    }
+
+    /**
+     * @return the pooled key for the encoded bytes, or {@code null}
+     */
+    String get(final byte[] buffer, final int length, final int hash) {
+        final Entry[] known = this.known;
+        final int mask = known.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            final Entry entry = known[i];
+            if (entry == null) {
+                break;
+            }
+            if (entry.hash == hash && matches(entry.encoded, buffer, length)) {
+                return entry.key;
+            }
+        }
+
+        final Entry entry = cache[spread(hash) & (CACHE_SIZE - 1)];
+        if (entry != null && entry.hash == hash && matches(entry.encoded, buffer, length)) {
+            return entry.key;
+        }
+        return null;
+    }
+
+    /**
+     * Learn a key that {@link #get(byte[], int, int)} didn't find, evicting the key in its slot.
+     */
+    void put(final byte[] buffer, final int length, final String key) {
+        if (length > MAX_KEY_LENGTH) {
+            return;
+        }
+        final int hash = hash(buffer, length);
+        final byte[] encoded = new byte[length];
+        System.arraycopy(buffer, 0, encoded, 0, length);
+        cache[spread(hash) & (CACHE_SIZE - 1)] = new Entry(encoded, key, hash);
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(final byte[] encoded, final byte[] buffer, final int length) {
+        if (encoded.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (encoded[i] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encodeAscii(final String key) {
+        final byte[] encoded = new byte[key.length()];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = (byte) key.charAt(i);
+        }
+        return encoded;
+    }
+}
@@ -32,7 +32,11 @@ import java.util.NoSuchElementException;
 final class ListModelValue extends ModelValue {
 
     public static final ModelNode[] NO_NODES = new ModelNode[0];
-    private final List<ModelNode> list;
+    private List<ModelNode> list;
+
+    // the undecoded content of lazily read lists, see DataInput#isLazy()
+    private DataInput source;
+    private DataInput.Extent extent;
 
     ListModelValue() {
         super(ModelType.LIST);
@@ -41,7 +45,7 @@ final class ListModelValue extends ModelValue {
 
     private ListModelValue(final ListModelValue orig) {
         super(ModelType.LIST);
-        list = new ArrayList<ModelNode>(orig.list);
+        list = new ArrayList<ModelNode>(orig.list());
     }
 
     ListModelValue(final List<ModelNode> list) {
@@ -51,6 +55,15 @@ final class ListModelValue extends ModelValue {
 
     ListModelValue(final DataInput in) throws IOException {
         super(ModelType.LIST);
+        if (in.isLazy()) {
+            source = in.origin();
+            extent = in.skip(ModelType.LIST);
+            return;
+        }
+        this.list = read(in);
+    }
+
+    private static List<ModelNode> read(final DataInput in) throws IOException {
         final int count = in.readInt();
         final ArrayList<ModelNode> list = new ArrayList<ModelNode>();
         for (int i = 0; i < count; i ++) {
@@ -58,12 +71,25 @@ final class ListModelValue extends ModelValue {
             value.readExternal(in);
             list.add(value);
         }
-        this.list = list;
+        return list;
+    }
+
+    private List<ModelNode> list() {
+        if (list == null) {
+            try {
+                list = read(source.open(extent));
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            source = null;
+            extent = null;
+        }
+        return list;
     }
 
     @Override
     void writeExternal(final DataOutput out) throws IOException {
-        final List<ModelNode> list = this.list;
+        final List<ModelNode> list = list();
         final int size = list.size();
         out.writeInt(size);
         for (final ModelNode node : list) {
@@ -73,7 +99,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     ModelValue protect() {
-        final List<ModelNode> list = this.list;
+        final List<ModelNode> list = list();
         for (final ModelNode node : list) {
             node.protect();
         }
@@ -92,7 +118,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     int asInt() {
-        return list.size();
+        return list().size();
     }
 
     @Override
@@ -102,7 +128,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     boolean asBoolean() {
-        return ! list.isEmpty();
+        return ! list().isEmpty();
     }
 
     @Override
@@ -112,8 +138,8 @@ final class ListModelValue extends ModelValue {
 
     @Override
     Property asProperty() {
-        if (list.size() == 2) {
-            return new Property(list.get(0).asString(), list.get(1));
+        if (list().size() == 2) {
+            return new Property(list().get(0).asString(), list().get(1));
         } else {
             return super.asProperty();
         }
@@ -122,7 +148,7 @@ final class ListModelValue extends ModelValue {
     @Override
     List<Property> asPropertyList() {
         final List<Property> propertyList = new ArrayList<Property>();
-        final Iterator<ModelNode> i = list.iterator();
+        final Iterator<ModelNode> i = list().iterator();
         while (i.hasNext()) {
             final ModelNode node = i.next();
             if (node.getType() == ModelType.PROPERTY) {
@@ -139,7 +165,7 @@ final class ListModelValue extends ModelValue {
     @Override
     ModelNode asObject() {
         final ModelNode node = new ModelNode();
-        final Iterator<ModelNode> i = list.iterator();
+        final Iterator<ModelNode> i = list().iterator();
         while (i.hasNext()) {
             final ModelNode name = i.next();
             if (name.getType() == ModelType.PROPERTY) {
@@ -155,7 +181,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     ModelNode getChild(final int index) {
-        final List<ModelNode> list = this.list;
+        final List<ModelNode> list = list();
         final int size = list.size();
         if (size <= index) {
             for (int i = 0; i < index - size + 1; i ++) {
@@ -165,16 +191,22 @@ final class ListModelValue extends ModelValue {
         return list.get(index);
     }
 
+    @Override
+    ModelNode findChild(final int index) {
+        final List<ModelNode> list = list();
+        return 0 <= index && index < list.size() ? list.get(index) : null;
+    }
+
     @Override
     ModelNode addChild() {
         final ModelNode node = new ModelNode();
-        list.add(node);
+        list().add(node);
         return node;
     }
 
     @Override
     List<ModelNode> asList() {
-        return Collections.unmodifiableList(list);
+        return Collections.unmodifiableList(list());
     }
 
     @Override
@@ -184,8 +216,8 @@ final class ListModelValue extends ModelValue {
 
     @Override
     ModelValue resolve() {
-        final ArrayList<ModelNode> copy = new ArrayList<ModelNode>(list.size());
-        for (final ModelNode node : list) {
+        final ArrayList<ModelNode> copy = new ArrayList<ModelNode>(list().size());
+        for (final ModelNode node : list()) {
             copy.add(node.resolve());
         }
         return new ListModelValue(copy);
@@ -200,7 +232,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     void format(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
-        final boolean multiLine = multiLineRequested && list.size() > 1;
+        final boolean multiLine = multiLineRequested && list().size() > 1;
         final List<ModelNode> list = asList();
         final Iterator<ModelNode> iterator = list.iterator();
         builder.append('[');
@@ -226,7 +258,7 @@ final class ListModelValue extends ModelValue {
 
     @Override
     void formatAsJSON(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
-        final boolean multiLine = multiLineRequested && list.size() > 1;
+        final boolean multiLine = multiLineRequested && list().size() > 1;
         final List<ModelNode> list = asList();
         final Iterator<ModelNode> iterator = list.iterator();
         builder.append('[');
@@ -268,23 +300,23 @@ final class ListModelValue extends ModelValue {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ListModelValue other) {
-        return this == other || other != null && list.equals(other.list);
+        return this == other || other != null && list().equals(other.list());
     }
 
     @Override
     public int hashCode() {
-        return list.hashCode();
+        return list().hashCode();
     }
 
     @Override
     boolean has(final int index) {
-        return 0 <= index && index < list.size();
+        return 0 <= index && index < list().size();
     }
 
     @Override
     ModelNode requireChild(final int index) throws NoSuchElementException {
         try {
-            return list.get(index);
+            return list().get(index);
         } catch (final IndexOutOfBoundsException e) {
             return super.requireChild(index);
         }
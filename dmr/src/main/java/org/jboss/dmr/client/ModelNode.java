@@ -59,6 +59,13 @@ public class ModelNode implements Cloneable, Exportable {
     private static final String SUCCESS = "success";
     private static final String FAILURE_DESCRIPTION = "failure-description";
 
+    private static final ModelNode UNDEFINED;
+
+    static {
+        UNDEFINED = new ModelNode();
+        UNDEFINED.protect();
+    }
+
     private boolean protect = false;
     private ModelValue value = ModelValue.UNDEFINED;
 
@@ -285,7 +292,7 @@ public class ModelNode implements Cloneable, Exportable {
     @Export("setInt")
     public ModelNode set(final int newValue) {
         checkProtect();
-        value = new IntModelValue(newValue);
+        value = IntModelValue.valueOf(newValue);
         return this;
     }
 
@@ -445,6 +452,10 @@ public class ModelNode implements Cloneable, Exportable {
         return this;
     }
 
+    ModelValue getModelValue() {
+        return value;
+    }
+
     void setNoCopy(final ModelNode child) {
         value = child.value;
     }
@@ -1147,7 +1158,8 @@ public class ModelNode implements Cloneable, Exportable {
      * @return {@code true} if there is a node at the given index and its {@link #getType() type} is not {@link ModelType.UNDEFINED}
      */
     public boolean hasDefined(int index) {
-        return value.has(index) && get(index).isDefined();
+        final ModelNode child = value.findChild(index);
+        return child != null && child.isDefined();
     }
 
     /**
@@ -1159,7 +1171,7 @@ public class ModelNode implements Cloneable, Exportable {
      */
     @Export("hasDefinedKey")
     public boolean hasDefined(String key) {
-        return value.has(key) && get(key).isDefined();
+        return value.hasDefined(key);
     }
 
     /**
@@ -1200,6 +1212,49 @@ public class ModelNode implements Cloneable, Exportable {
         return current;
     }
 
+    /**
+     * Recursively look up the children of this node with the given names.  Unlike {@link #get(String...)} this
+     * never modifies the node: nothing is created if a child along the path does not exist.
+     * <p>
+     * Use it to probe responses and descriptions.  The returned node should be treated as read-only.
+     *
+     * @param names the child names
+     * @return the child, or {@code null} if it does not exist or a node along the path has no named children
+     */
+    @NoExport
+    public ModelNode find(final String... names) {
+        ModelNode current = this;
+        for (int i = 0; i < names.length && current != null; i++) {
+            current = current.value.findChild(names[i]);
+        }
+        return current;
+    }
+
+    /**
+     * Look up the child with the given index without creating it.
+     *
+     * @param index the child index
+     * @return the child, or {@code null} if it does not exist
+     */
+    @NoExport
+    public ModelNode find(final int index) {
+        return value.findChild(index);
+    }
+
+    /**
+     * Like {@link #find(String...)}, but returns an undefined node instead of {@code null}, so the
+     * result can be queried right away: {@code response.read(RESULT, "step-1", RESULT).asList()}.
+     * The undefined node is shared and protected, it can't be modified.
+     *
+     * @param names the child names
+     * @return the child or an undefined node
+     */
+    @NoExport
+    public ModelNode read(final String... names) {
+        final ModelNode child = find(names);
+        return child != null ? child : UNDEFINED;
+    }
+
     /**
      * Get a human-readable string representation of this model node, formatted nicely (possibly on multiple lines).
      *
@@ -1207,7 +1262,7 @@ public class ModelNode implements Cloneable, Exportable {
      */
     @Override
     public String toString() {
-        return value.toString();
+        return ModelWriter.dmr(this).asString();
     }
 
     /**
@@ -1217,19 +1272,38 @@ public class ModelNode implements Cloneable, Exportable {
      * @return The JSON string.
      */
     public String toJSONString(final boolean compact) {
-        return value.toJSONString(compact);
+        return ModelWriter.json(this, compact).asString();
     }
 
     public String toJSONString() {
-        return value.toJSONString(false);
+        return toJSONString(false);
     }
 
 
+    /**
+     * Decode a node from its Base64 representation, deferring the decoding of nested objects and lists
+     * until they are accessed. Use this for large responses of which only a small part is read.
+     * The Base64 text is decoded on the fly and retained as long as any undecoded value is reachable.
+     *
+     * @param encoded the Base64 representation
+     * @return the model node
+     */
+    @NoExport
+    public static ModelNode fromBase64Lazy(String encoded) {
+        ModelNode node = new ModelNode();
+        try {
+            node.readExternal(new Base64DataInput(encoded, true));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return node;
+    }
+
     @ExportStaticMethod()
     public static ModelNode fromBase64(String encoded) {
     	ModelNode node = new ModelNode();
     	try {
-			node.readExternal(new DataInput(Base64.decode(encoded)));
+			node.readExternal(new Base64DataInput(encoded));
 		} catch (IOException e) {
 			throw new IllegalArgumentException(e);
 		}
@@ -1330,7 +1404,8 @@ public class ModelNode implements Cloneable, Exportable {
     }
 
     /**
-     * Clone this model node.
+     * Clone this model node.  Objects are copied lazily: the clone shares the content with this node
+     * until either of them is modified, so cloning large responses and descriptions is cheap.
      *
      * @return the clone
      */
@@ -1389,7 +1464,7 @@ public class ModelNode implements Cloneable, Exportable {
                 case BYTES: b = new byte[in.readInt()]; in.readFully(b); new BytesModelValue(b); return;
                 case DOUBLE: value = new DoubleModelValue(in.readDouble()); return;
                 case EXPRESSION: value = new ExpressionValue(in.readUTF()); return;
-                case INT: value = new IntModelValue(in.readInt()); return;
+                case INT: value = IntModelValue.valueOf(in.readInt()); return;
                 case LIST: value = new ListModelValue(in); return;
                 case LONG: value = new LongModelValue(in.readLong()); return;
                 case OBJECT: value = new ObjectModelValue(in); return;
@@ -1405,6 +1480,36 @@ public class ModelNode implements Cloneable, Exportable {
         }
     }
 
+    /**
+     * Skip over the binary representation of a node without creating any values. Used to
+     * record the extent of lazily decoded values, see {@link DataInput#skip(ModelType)}.
+     *
+     * @param in the source
+     * @param extents the extents of the objects and lists skipped so far, or {@code null}
+     * @return the extents, including the object or list that has been skipped
+     * @throws IOException if an I/O error occurs
+     */
+    static List<DataInput.Extent> skipExternal(final DataInput in, final List<DataInput.Extent> extents) throws IOException {
+        final ModelType type = ModelType.forChar((char) (in.readByte() & 0xff));
+        switch (type) {
+            case UNDEFINED: return extents;
+            case BIG_DECIMAL:
+            case EXPRESSION:
+            case STRING: in.skipBytes(in.readUnsignedShort()); return extents;
+            case BIG_INTEGER:
+            case BYTES: in.skipBytes(in.readInt()); return extents;
+            case BOOLEAN:
+            case TYPE: in.skipBytes(1); return extents;
+            case INT: in.skipBytes(4); return extents;
+            case DOUBLE:
+            case LONG: in.skipBytes(8); return extents;
+            case LIST:
+            case OBJECT: return DataInput.Extent.add(extents, in.skip(type));
+            case PROPERTY: in.skipBytes(in.readUnsignedShort()); return skipExternal(in, extents);
+            default: throw new IllegalStateException("Invalid type read: " + type);
+        }
+    }
+
     private void checkProtect() {
         if (protect) {
             throw new UnsupportedOperationException();
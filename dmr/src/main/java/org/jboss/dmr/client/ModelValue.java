@@ -106,6 +106,24 @@ abstract class ModelValue implements Cloneable {
         throw new IllegalArgumentException();
     }
 
+    /**
+     * Like {@link #getChild(String)}, but never creates the child.
+     *
+     * @return the child or {@code null}
+     */
+    ModelNode findChild(final String name) {
+        return null;
+    }
+
+    ModelNode findChild(final int index) {
+        return null;
+    }
+
+    boolean hasDefined(final String key) {
+        final ModelNode child = findChild(key);
+        return child != null && child.isDefined();
+    }
+
     ModelNode getChild(final int index) {
         throw new IllegalArgumentException();
     }
@@ -0,0 +1,323 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formats a {@link ModelNode} in the DMR notation of {@link ModelNode#toString()} or as JSON.
+ * <p>
+ * Unlike the recursive formatter, the writer keeps its position on an explicit stack and can emit the text in
+ * chunks: each call to {@link #write(StringBuilder, int)} appends roughly the requested number of characters
+ * and returns whether there is more. UI code can use it in an incremental command and yield to the event loop
+ * between the chunks. A {@link #limit(int) limit} cuts off the output of huge nodes.
+ * <p>
+ * Strings are escaped through a lookup table, and runs of characters that need no escaping are appended in one go.
+ *
+ * @author Heiko Braun
+ */
+public class ModelWriter {
+
+    public static final String TRUNCATED = "\n... (truncated)";
+
+    private static final int OBJECT = 0;
+    private static final int LIST = 1;
+    private static final int PROPERTY = 2;
+
+    // escape sequences for the DMR and JSON notation, null if the character is appended as is
+    private static final String[] DMR_ESCAPES = new String[128];
+    private static final String[] JSON_ESCAPES = new String[0xA0];
+
+    static {
+        DMR_ESCAPES['"'] = "\\\"";
+        DMR_ESCAPES['\\'] = "\\\\";
+
+        for (char c = 0; c < JSON_ESCAPES.length; c++) {
+            if (c <= 0x1F || c >= 0x7F) {
+                JSON_ESCAPES[c] = unicodeEscape(c);
+            }
+        }
+        JSON_ESCAPES['"'] = "\\\"";
+        JSON_ESCAPES['\\'] = "\\\\";
+        JSON_ESCAPES['\b'] = "\\b";
+        JSON_ESCAPES['\f'] = "\\f";
+        JSON_ESCAPES['\n'] = "\\n";
+        JSON_ESCAPES['\r'] = "\\r";
+        JSON_ESCAPES['\t'] = "\\t";
+        JSON_ESCAPES['/'] = "\\/";
+    }
+
+    private static final class Frame {
+        final int kind;
+        final Iterator<?> children;
+        final int indent;
+        final boolean multiLine;
+        boolean first = true;
+
+        Frame(final int kind, final Iterator<?> children, final int indent, final boolean multiLine) {
+            this.kind = kind;
+            this.children = children;
+            this.indent = indent;
+            this.multiLine = multiLine;
+        }
+    }
+
+    private final boolean json;
+    private final boolean multiLineRequested;
+    private final List<Frame> stack = new ArrayList<Frame>();
+
+    // the next value to write
+    private ModelValue pending;
+    private int pendingIndent;
+    private boolean pendingMultiLine;
+
+    private int limit = Integer.MAX_VALUE;
+    private int written = 0;
+    private boolean done = false;
+    private boolean truncated = false;
+
+    private ModelWriter(final ModelNode node, final boolean json, final boolean multiLine) {
+        this.json = json;
+        this.multiLineRequested = multiLine;
+        this.pending = node.getModelValue();
+        this.pendingIndent = 0;
+        this.pendingMultiLine = multiLine;
+    }
+
+    /**
+     * The notation of {@link ModelNode#toString()}
+     */
+    public static ModelWriter dmr(final ModelNode node) {
+        return new ModelWriter(node, false, true);
+    }
+
+    /**
+     * The notation of {@link ModelNode#toJSONString(boolean)}
+     */
+    public static ModelWriter json(final ModelNode node, final boolean compact) {
+        return new ModelWriter(node, true, !compact);
+    }
+
+    /**
+     * Stop after the given number of characters and append {@link #TRUNCATED}.
+     */
+    public ModelWriter limit(final int maxChars) {
+        if (maxChars < 0) {
+            throw new IllegalArgumentException("Illegal limit: " + maxChars);
+        }
+        this.limit = maxChars;
+        return this;
+    }
+
+    /**
+     * Append the next chunk.
+     *
+     * @param out the target, can be drained between calls
+     * @param chunkSize the number of characters after which to stop. A single string value is never split,
+     *                  so a chunk can be larger.
+     * @return {@code true} if there is more to write
+     */
+    public boolean write(final StringBuilder out, final int chunkSize) {
+        if (done) {
+            return false;
+        }
+
+        final int start = out.length();
+        while (!done && out.length() - start < chunkSize && written + out.length() - start <= limit) {
+            next(out);
+        }
+
+        final int appended = out.length() - start;
+        if (written + appended > limit) {
+            out.setLength(start + (limit - written));
+            out.append(TRUNCATED);
+            written = limit;
+            truncated = true;
+            done = true;
+            stack.clear();
+            pending = null;
+        } else {
+            written += appended;
+        }
+        return !done;
+    }
+
+    /**
+     * Write everything at once.
+     */
+    public String asString() {
+        final StringBuilder out = new StringBuilder();
+        while (write(out, Integer.MAX_VALUE)) {
+            // continue
+        }
+        return out.toString();
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private void next(final StringBuilder out) {
+        if (pending != null) {
+            final ModelValue value = pending;
+            pending = null;
+            open(out, value, pendingIndent, pendingMultiLine);
+            return;
+        }
+
+        if (stack.isEmpty()) {
+            done = true;
+            return;
+        }
+
+        final Frame frame = stack.get(stack.size() - 1);
+        if (frame.children.hasNext()) {
+            final Object child = frame.children.next();
+            if (!frame.first) {
+                if (frame.multiLine) {
+                    indent(out.append(",\n"), frame.indent + 1);
+                } else {
+                    out.append(json && frame.kind == OBJECT ? ", " : ",");
+                }
+            }
+            frame.first = false;
+
+            final ModelNode node;
+            if (frame.kind == OBJECT) {
+                final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) child;
+                appendString(out, (String) entry.getKey());
+                out.append(json ? " : " : " => ");
+                node = (ModelNode) entry.getValue();
+            } else {
+                node = (ModelNode) child;
+            }
+            pending = node.getModelValue();
+            pendingIndent = frame.multiLine ? frame.indent + 1 : frame.indent;
+            pendingMultiLine = multiLineRequested;
+        } else {
+            stack.remove(stack.size() - 1);
+            if (frame.multiLine) {
+                indent(out.append('\n'), frame.indent);
+            }
+            out.append(frame.kind == OBJECT ? '}' : frame.kind == LIST ? ']' : ')');
+        }
+    }
+
+    private void open(final StringBuilder out, final ModelValue value, final int indent, final boolean multiLineRequested) {
+        switch (value.getType()) {
+            case OBJECT: {
+                final boolean multiLine = multiLineRequested && value.asInt() > 1;
+                out.append('{');
+                if (multiLine) {
+                    indent(out.append('\n'), indent + 1);
+                }
+                stack.add(new Frame(OBJECT, ((ObjectModelValue) value).entries().iterator(), indent, multiLine));
+                break;
+            }
+            case LIST: {
+                final boolean multiLine = multiLineRequested && value.asInt() > 1;
+                out.append('[');
+                if (multiLine) {
+                    indent(out.append('\n'), indent + 1);
+                }
+                stack.add(new Frame(LIST, value.asList().iterator(), indent, multiLine));
+                break;
+            }
+            case STRING:
+                appendString(out, value.asString());
+                break;
+            case PROPERTY:
+                if (json) {
+                    value.formatAsJSON(out, indent, multiLineRequested);
+                } else {
+                    // like PropertyModelValue#asString(): the value is always formatted on multiple lines
+                    final Property property = value.asProperty();
+                    out.append('(');
+                    appendString(out, property.getName());
+                    out.append(" => ");
+                    stack.add(new Frame(PROPERTY, Collections.emptyList().iterator(), indent, false));
+                    pending = property.getValue().getModelValue();
+                    pendingIndent = 0;
+                    pendingMultiLine = true;
+                }
+                break;
+            default:
+                if (json) {
+                    value.formatAsJSON(out, indent, multiLineRequested);
+                } else {
+                    value.format(out, indent, multiLineRequested);
+                }
+        }
+    }
+
+    private void appendString(final StringBuilder out, final String value) {
+        if (json) {
+            escape(out, value, JSON_ESCAPES, true);
+        } else {
+            escape(out, value, DMR_ESCAPES, false);
+        }
+    }
+
+    private static void escape(final StringBuilder out, final String value, final String[] escapes, final boolean json) {
+        out.append('"');
+        final int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final String escaped;
+            if (c < escapes.length) {
+                escaped = escapes[c];
+            } else if (json && c >= 0x2000 && c <= 0x20FF) {
+                escaped = unicodeEscape(c);
+            } else {
+                escaped = null;
+            }
+            if (escaped != null) {
+                out.append(value, start, i).append(escaped);
+                start = i + 1;
+            }
+        }
+        if (start == 0) {
+            out.append(value);
+        } else {
+            out.append(value, start, length);
+        }
+        out.append('"');
+    }
+
+    private static String unicodeEscape(final char c) {
+        final String hex = Integer.toHexString(c).toUpperCase();
+        final StringBuilder escaped = new StringBuilder("\\u");
+        for (int i = hex.length(); i < 4; i++) {
+            escaped.append('0');
+        }
+        return escaped.append(hex).toString();
+    }
+
+    private static void indent(final StringBuilder out, final int count) {
+        for (int i = 0; i < count; i++) {
+            out.append("    ");
+        }
+    }
+}
@@ -30,14 +30,28 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
+ * Copies share the map of the original until either of them hands out a child for modification,
+ * see {@link #copy()}. Small objects keep their children in a {@link CompactMap}.
+ *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 final class ObjectModelValue extends ModelValue {
-    private final Map<String, ModelNode> map;
+
+    // objects with more children use a LinkedHashMap, 0 disables compact maps (used to compare footprints)
+    static int maxCompactSize = CompactMap.MAX_SIZE;
+
+    private Map<String, ModelNode> map;
+
+    // the map is shared with a copy and must not be modified
+    private boolean shared;
+
+    // the undecoded content of lazily read objects, see DataInput#isLazy()
+    private DataInput source;
+    private DataInput.Extent extent;
 
     protected ObjectModelValue() {
         super(ModelType.OBJECT);
-        map = new LinkedHashMap<String, ModelNode>();
+        map = newMap(0);
     }
 
     private ObjectModelValue(final Map<String, ModelNode> map) {
@@ -45,22 +59,82 @@ final class ObjectModelValue extends ModelValue {
         this.map = map;
     }
 
+    private ObjectModelValue(final Map<String, ModelNode> map, final boolean shared) {
+        super(ModelType.OBJECT);
+        this.map = map;
+        this.shared = shared;
+    }
+
+    private ObjectModelValue(final DataInput source, final DataInput.Extent extent) {
+        super(ModelType.OBJECT);
+        this.source = source;
+        this.extent = extent;
+    }
+
     ObjectModelValue(final DataInput in) throws IOException {
         super(ModelType.OBJECT);
+        if (in.isLazy()) {
+            source = in.origin();
+            extent = in.skip(ModelType.OBJECT);
+            return;
+        }
+        this.map = read(in);
+    }
+
+    private static Map<String, ModelNode> read(final DataInput in) throws IOException {
         final int count = in.readInt();
-        final LinkedHashMap<String, ModelNode> map = new LinkedHashMap<String, ModelNode>();
+        final Map<String, ModelNode> map = newMap(count);
         for (int i = 0; i < count; i ++) {
-            final String key = in.readUTF();
+            final String key = in.readKey();
             final ModelNode value = new ModelNode();
             value.readExternal(in);
             map.put(key, value);
         }
-        this.map = map;
+        return map;
+    }
+
+    private static Map<String, ModelNode> newMap(final int size) {
+        return size <= maxCompactSize && maxCompactSize > 0 ? new CompactMap(size) : new LinkedHashMap<String, ModelNode>();
+    }
+
+    private static boolean isModifiable(final Map<String, ModelNode> map) {
+        return map instanceof CompactMap || map.getClass() == LinkedHashMap.class;
+    }
+
+    private Map<String, ModelNode> map() {
+        if (map == null) {
+            try {
+                map = read(source.open(extent));
+            } catch (IOException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            source = null;
+            extent = null;
+        }
+        return map;
+    }
+
+    /**
+     * The map for modifications, or for handing out children that might be modified.
+     * A shared map is replaced by a private one first, with its children copied
+     * the same way, so only the current level is copied.
+     */
+    private Map<String, ModelNode> owned() {
+        final Map<String, ModelNode> map = map();
+        if (shared) {
+            final Map<String, ModelNode> newMap = newMap(map.size());
+            for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
+                newMap.put(entry.getKey(), entry.getValue().clone());
+            }
+            this.map = newMap;
+            shared = false;
+        }
+        return this.map;
     }
 
     @Override
     void writeExternal(final DataOutput out) throws IOException {
-        final Map<String, ModelNode> map = this.map;
+        final Map<String, ModelNode> map = map();
         final int size = map.size();
         out.writeInt(size);
         for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
@@ -71,11 +145,11 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     ModelValue protect() {
-        final Map<String, ModelNode> map = this.map;
+        final Map<String, ModelNode> map = owned();
         for (final ModelNode node : map.values()) {
             node.protect();
         }
-        return map.getClass() == LinkedHashMap.class ? new ObjectModelValue(Collections.unmodifiableMap(map)) : this;
+        return isModifiable(map) ? new ObjectModelValue(Collections.unmodifiableMap(map)) : this;
     }
 
     @Override
@@ -88,26 +162,46 @@ final class ObjectModelValue extends ModelValue {
         if (name == null) {
             return null;
         }
+        final Map<String, ModelNode> map = owned();
         final ModelNode node = map.get(name);
         if (node != null) {
             return node;
         }
         final ModelNode newNode = new ModelNode();
         map.put(name, newNode);
+        if (map instanceof CompactMap && map.size() > maxCompactSize) {
+            this.map = new LinkedHashMap<String, ModelNode>(map);
+        }
         return newNode;
     }
 
+    @Override
+    ModelNode findChild(final String name) {
+        final ModelNode node = map().get(name);
+        if (node == null || !shared) {
+            return node;
+        }
+        // don't let modifications leak into the copies
+        return node.clone();
+    }
+
+    @Override
+    boolean hasDefined(final String key) {
+        final ModelNode node = map().get(key);
+        return node != null && node.isDefined();
+    }
+
     @Override
     ModelNode removeChild(final String name) {
         if (name == null) {
             return null;
         }
-        return map.remove(name);
+        return owned().remove(name);
     }
 
     @Override
     int asInt() {
-        return map.size();
+        return map().size();
     }
 
     @Override
@@ -127,18 +221,18 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     boolean asBoolean() {
-        return ! map.isEmpty();
+        return ! map().isEmpty();
     }
 
     @Override
     boolean asBoolean(final boolean defVal) {
-        return ! map.isEmpty();
+        return ! map().isEmpty();
     }
 
     @Override
     Property asProperty() {
-        if (map.size() == 1) {
-            final Map.Entry<String, ModelNode> entry = map.entrySet().iterator().next();
+        if (map().size() == 1) {
+            final Map.Entry<String, ModelNode> entry = map().entrySet().iterator().next();
             return new Property(entry.getKey(), entry.getValue());
         }
         return super.asProperty();
@@ -147,34 +241,48 @@ final class ObjectModelValue extends ModelValue {
     @Override
     List<Property> asPropertyList() {
         final List<Property> propertyList = new ArrayList<Property>();
-        for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
+        for (final Map.Entry<String, ModelNode> entry : map().entrySet()) {
             propertyList.add(new Property(entry.getKey(), entry.getValue()));
         }
         return propertyList;
     }
 
+    /**
+     * Copies are cheap: until the content has been decoded, the copy decodes the same bytes.
+     * Otherwise the map is shared until one of the values needs to be modified.
+     * Protected maps are never modified, so only the copy needs to take care.
+     */
     @Override
     ModelValue copy() {
-        return copy(false);
+        if (map == null) {
+            return new ObjectModelValue(source, extent);
+        }
+        if (isModifiable(map)) {
+            shared = true;
+        }
+        return new ObjectModelValue(map, true);
     }
 
     @Override
     ModelValue resolve() {
-        return copy(true);
-    }
-
-    ModelValue copy(final boolean resolve) {
-        final LinkedHashMap<String, ModelNode> newMap = new LinkedHashMap<String, ModelNode>();
-        for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
-            newMap.put(entry.getKey(), resolve ? entry.getValue().resolve() : entry.getValue().clone());
+        final Map<String, ModelNode> newMap = newMap(map().size());
+        for (final Map.Entry<String, ModelNode> entry : map().entrySet()) {
+            newMap.put(entry.getKey(), entry.getValue().resolve());
         }
         return new ObjectModelValue(newMap);
     }
 
+    /**
+     * The children for read-only iteration, i.e. by the {@link ModelWriter}
+     */
+    Set<Map.Entry<String, ModelNode>> entries() {
+        return map().entrySet();
+    }
+
     @Override
     List<ModelNode> asList() {
         final ArrayList<ModelNode> nodes = new ArrayList<ModelNode>();
-        for (final Map.Entry<String, ModelNode> entry : map.entrySet()) {
+        for (final Map.Entry<String, ModelNode> entry : map().entrySet()) {
             final ModelNode node = new ModelNode();
             node.set(entry.getKey(), entry.getValue());
             nodes.add(node);
@@ -184,7 +292,7 @@ final class ObjectModelValue extends ModelValue {
 
     @Override
     Set<String> getKeys() {
-        return map.keySet();
+        return shared ? Collections.unmodifiableSet(map().keySet()) : map().keySet();
     }
 
     @Override
@@ -197,11 +305,11 @@ final class ObjectModelValue extends ModelValue {
     @Override
     void format(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
         builder.append('{');
-        final boolean multiLine = multiLineRequested && map.size() > 1;
+        final boolean multiLine = multiLineRequested && map().size() > 1;
         if (multiLine) {
             indent(builder.append('\n'), indent + 1);
         }
-        final Iterator<Map.Entry<String, ModelNode>> iterator = map.entrySet().iterator();
+        final Iterator<Map.Entry<String, ModelNode>> iterator = map().entrySet().iterator();
         while (iterator.hasNext()) {
             final Map.Entry<String, ModelNode> entry = iterator.next();
             builder.append(quote(entry.getKey()));
@@ -225,11 +333,11 @@ final class ObjectModelValue extends ModelValue {
     @Override
     void formatAsJSON(final StringBuilder builder, final int indent, final boolean multiLineRequested) {
         builder.append('{');
-        final boolean multiLine = multiLineRequested && map.size() > 1;
+        final boolean multiLine = multiLineRequested && map().size() > 1;
         if(multiLine) {
             indent(builder.append('\n'), indent + 1);
         }
-        final Iterator<Map.Entry<String, ModelNode>> iterator = map.entrySet().iterator();
+        final Iterator<Map.Entry<String, ModelNode>> iterator = map().entrySet().iterator();
         while (iterator.hasNext()) {
             final Map.Entry<String, ModelNode> entry = iterator.next();
             builder.append(quote(entry.getKey()));
@@ -268,22 +376,22 @@ final class ObjectModelValue extends ModelValue {
      * @return {@code true} if they are equal, {@code false} otherwise
      */
     public boolean equals(final ObjectModelValue other) {
-        return this == other || other != null && other.map.equals(map);
+        return this == other || other != null && other.map().equals(map());
     }
 
     @Override
     public int hashCode() {
-        return map.hashCode();
+        return map().hashCode();
     }
 
     @Override
     boolean has(final String key) {
-        return map.containsKey(key);
+        return map().containsKey(key);
     }
 
     @Override
     ModelNode requireChild(final String name) throws NoSuchElementException {
-        final ModelNode node = map.get(name);
+        final ModelNode node = owned().get(name);
         if (node != null) {
             return node;
         }
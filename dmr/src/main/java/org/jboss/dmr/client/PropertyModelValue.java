@@ -52,7 +52,7 @@ final class PropertyModelValue extends ModelValue {
     PropertyModelValue(final DataInput in) throws IOException {
         super(ModelType.PROPERTY);
         final ModelNode node = new ModelNode();
-        final String name = in.readUTF();
+        final String name = in.readKey();
         node.readExternal(in);
         property = new Property(name, node);
     }
@@ -115,6 +115,16 @@ final class PropertyModelValue extends ModelValue {
         return index == 0 ? property.getValue() : super.getChild(index);
     }
 
+    @Override
+    ModelNode findChild(final String name) {
+        return property.getName().equals(name) ? property.getValue() : null;
+    }
+
+    @Override
+    ModelNode findChild(final int index) {
+        return index == 0 ? property.getValue() : null;
+    }
+
     @Override
     ModelValue copy() {
         return new PropertyModelValue(property.getName(), property.getValue());
@@ -1,39 +1,301 @@
 package org.jboss.dmr.client.dispatch;
 
-import com.google.gwt.core.client.Scheduler;
+import com.google.inject.Inject;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelType;
+import org.jboss.dmr.client.Property;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
 
 /**
+ * Caches the responses of read operations. Actions opt in, see {@link org.jboss.dmr.client.dispatch.impl.DMRAction}.
+ * <p>
+ * Entries are keyed by a normalized form of the operation (address, operation name and parameters, independent of the
+ * parameter order), expire after a fixed time and are evicted in LRU order once the cache is full.
+ * Successful write operations invalidate all entries whose address is a prefix of the written address or vice versa,
+ * wildcard values (<tt>server=*</tt>) match any value.
+ * <p>
+ * Each invalidation starts a new epoch. A read takes the epoch when it is sent and passes it to
+ * {@link #put(String, ModelNode, DMRResponse, int)}: the response of a read that was in flight while
+ * a write completed might predate the write, so it is not cached.
+ * <p>
+ * Only the response payload is kept. Each hit creates a new {@link DMRResponse}, so callers never share a decoded model.
+ *
  * @author Heiko Braun
  * @date 8/29/12
  */
 public class DMRCache {
 
-    private static Map<String, DMRResponse> values = new HashMap<String, DMRResponse>();
-    private static int expiryTimeMs = 5*1000;
+    private static final int DEFAULT_MAX_SIZE = 100;
+    private static final long DEFAULT_EXPIRY_TIME_MS = 5*1000;
+    private static final String WILDCARD = "*";
+
+    private static final Set<String> CACHABLE_OPERATIONS = new HashSet<String>(Arrays.asList(
+            READ_RESOURCE_OPERATION,
+            READ_RESOURCE_DESCRIPTION_OPERATION,
+            READ_CHILDREN_NAMES_OPERATION,
+            READ_CHILDREN_TYPES_OPERATION,
+            READ_CHILDREN_RESOURCES_OPERATION,
+            READ_OPERATION_NAMES_OPERATION,
+            READ_OPERATION_DESCRIPTION_OPERATION
+    ));
+
+    private final Map<String, Entry> values;
+    private final long expiryTimeMs;
+
+    private int hits = 0;
+    private int misses = 0;
+    private int epoch = 0;
+
+    @Inject
+    public DMRCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_EXPIRY_TIME_MS);
+    }
+
+    public DMRCache(final int maxSize, long expiryTimeMs) {
+        this.expiryTimeMs = expiryTimeMs;
+        this.values = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * An operation is cachable if it (or every step of a composite) is a read operation
+     * which doesn't include runtime attributes.
+     */
+    public boolean isCachable(ModelNode operation) {
+        if(COMPOSITE.equals(operation.get(OP).asString()))
+        {
+            if(!operation.hasDefined(STEPS)) return false;
+            for(ModelNode step : operation.get(STEPS).asList())
+            {
+                if(!isCachable(step)) return false;
+            }
+            return true;
+        }
+
+        return CACHABLE_OPERATIONS.contains(operation.get(OP).asString())
+                && !(operation.hasDefined(INCLUDE_RUNTIME) && operation.get(INCLUDE_RUNTIME).asBoolean());
+    }
+
+    /**
+     * @return the normalized key for the operation: address, operation name and the parameters sorted by name.
+     * Operation headers are not part of the key.
+     */
+    public String getKey(ModelNode operation) {
+        StringBuilder sb = new StringBuilder();
+        appendKey(operation, sb);
+        return sb.toString();
+    }
+
+    private void appendKey(ModelNode operation, StringBuilder sb) {
+        sb.append(operation.get(OP).asString()).append('@');
+        for(String segment : getAddress(operation))
+            sb.append('/').append(segment);
+
+        List<String> params = new ArrayList<String>(operation.keys());
+        Collections.sort(params);
+        for(String param : params)
+        {
+            if(OP.equals(param) || ADDRESS.equals(param) || STEPS.equals(param) || OPERATION_HEADERS.equals(param))
+                continue;
+            sb.append(';').append(param).append('=').append(operation.get(param).asString());
+        }
+
+        if(operation.hasDefined(STEPS))
+        {
+            sb.append('[');
+            for(ModelNode step : operation.get(STEPS).asList())
+            {
+                appendKey(step, sb);
+                sb.append(',');
+            }
+            sb.append(']');
+        }
+    }
+
+    /**
+     * The current invalidation epoch, to be taken when a read is sent.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Cache the response of a read that has been sent in the current epoch.
+     */
+    public void put(final String key, ModelNode operation, DMRResponse response)
+    {
+        put(key, operation, response, epoch);
+    }
 
-    public void put(final String key, DMRResponse response)
+    /**
+     * Cache the response of a read, unless the cache has been invalidated since the read was sent.
+     *
+     * @param epoch the epoch at the time the read was sent, see {@link #getEpoch()}
+     */
+    public void put(final String key, ModelNode operation, DMRResponse response, int epoch)
     {
-        values.put(key, response);
-        Scheduler.get().scheduleFixedPeriod(
-                new Scheduler.RepeatingCommand() {
-                    @Override
-                    public boolean execute() {
-                        values.remove(key);
-                        return false;
-                    }
-                }, expiryTimeMs
-        );
+        if(epoch != this.epoch) return;
+
+        values.put(key, new Entry(getAddresses(operation, false), response, System.currentTimeMillis() + expiryTimeMs));
     }
 
+    /**
+     * @return a new response for a cached entry or {@code null} if there is no (unexpired) entry for this key
+     */
     public DMRResponse get(String key) {
-      return values.get(key);
+        Entry entry = values.get(key);
+        if(entry != null && entry.expires < System.currentTimeMillis())
+        {
+            values.remove(key);
+            entry = null;
+        }
+
+        if(null==entry)
+        {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return new DMRResponse(entry.responseText, entry.contentType);
+    }
+
+    /**
+     * Invalidates all entries affected by the write operation. Read operations (including the read steps
+     * of a composite) don't invalidate anything.
+     */
+    public void invalidate(ModelNode operation) {
+        List<List<String>> written = getAddresses(operation, true);
+        if(written.isEmpty()) return;
+
+        epoch++;
+        Iterator<Entry> iterator = values.values().iterator();
+        while(iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            if(entry.overlaps(written))
+                iterator.remove();
+        }
+    }
+
+    public void clear() {
+        epoch++;
+        values.clear();
     }
 
     public int size() {
         return values.size();
     }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    private static List<List<String>> getAddresses(ModelNode operation, boolean writesOnly) {
+        List<List<String>> addresses = new ArrayList<List<String>>();
+        String op = operation.get(OP).asString();
+        if(COMPOSITE.equals(op))
+        {
+            if(operation.hasDefined(STEPS))
+            {
+                for(ModelNode step : operation.get(STEPS).asList())
+                    addresses.addAll(getAddresses(step, writesOnly));
+            }
+        }
+        else if(!writesOnly || !op.startsWith("read-"))
+        {
+            addresses.add(getAddress(operation));
+        }
+        return addresses;
+    }
+
+    private static List<String> getAddress(ModelNode operation) {
+        List<String> address = new ArrayList<String>();
+        if(operation.hasDefined(ADDRESS))
+        {
+            for(ModelNode segment : operation.get(ADDRESS).asList())
+            {
+                if(segment.getType() == ModelType.PROPERTY || segment.getType() == ModelType.OBJECT)
+                {
+                    Property property = segment.asProperty();
+                    address.add(property.getName() + "=" + property.getValue().asString());
+                }
+                else
+                {
+                    address.add(segment.asString());
+                }
+            }
+        }
+        return address;
+    }
+
+    private static boolean isPrefix(List<String> prefix, List<String> address) {
+        if(prefix.size() > address.size())
+            return false;
+        for(int i=0; i<prefix.size(); i++)
+        {
+            if(!matches(prefix.get(i), address.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String segment, String other) {
+        if(segment.equals(other))
+            return true;
+
+        // type=* matches any type=value
+        int a = segment.indexOf('=');
+        int b = other.indexOf('=');
+        if(a==-1 || b==-1 || !segment.substring(0, a).equals(other.substring(0, b)))
+            return false;
+        return WILDCARD.equals(segment.substring(a+1)) || WILDCARD.equals(other.substring(b+1));
+    }
+
+    private static class Entry {
+
+        final List<List<String>> addresses;
+        final String responseText;
+        final String contentType;
+        final long expires;
+
+        Entry(List<List<String>> addresses, DMRResponse response, long expires) {
+            this.addresses = addresses;
+            this.responseText = response.getResponseText();
+            this.contentType = response.getContentType();
+            this.expires = expires;
+        }
+
+        boolean overlaps(List<List<String>> written) {
+            for(List<String> address : addresses)
+            {
+                for(List<String> other : written)
+                {
+                    if(isPrefix(address, other) || isPrefix(other, address))
+                        return true;
+                }
+            }
+            return false;
+        }
+    }
 }
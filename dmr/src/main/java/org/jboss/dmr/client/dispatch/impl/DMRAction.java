@@ -30,12 +30,17 @@ import org.jboss.dmr.client.ModelNode;
 public class DMRAction implements Action<DMRResponse> {
 
     private ModelNode operation;
-    private boolean cachable = true;
+    private boolean cachable = false;
 
     public DMRAction(ModelNode operation) {
         this.operation = operation;
     }
 
+    /**
+     * @param cachable opt in to the {@link org.jboss.dmr.client.dispatch.DMRCache}: only use it for reads whose result
+     *                 doesn't change through operations at other addresses, i.e. descriptions and the configuration
+     *                 of a subsystem
+     */
     public DMRAction(ModelNode operation, boolean cachable) {
         this.operation = operation;
         this.cachable = cachable;
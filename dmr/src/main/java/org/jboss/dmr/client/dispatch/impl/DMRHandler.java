@@ -21,6 +21,7 @@ package org.jboss.dmr.client.dispatch.impl;
 
 import com.allen_sauer.gwt.log.client.Log;
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.http.client.Request;
 import com.google.gwt.http.client.RequestBuilder;
 import com.google.gwt.http.client.RequestCallback;
@@ -29,9 +30,11 @@ import com.google.gwt.http.client.Response;
 import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.inject.Inject;
 import org.jboss.dmr.client.dispatch.ActionHandler;
+import org.jboss.dmr.client.dispatch.DMRCache;
 import org.jboss.dmr.client.dispatch.Diagnostics;
 import org.jboss.dmr.client.dispatch.DispatchRequest;
 import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelWriter;
 
 import static org.jboss.dmr.client.ModelDescriptionConstants.*;
 
@@ -47,43 +50,38 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
     private static final String HEADER_CONNECTION = "Connection";
     private static final String KEEP_ALIVE = "Keep-Alive";
 
-    private final RequestBuilder requestBuilder;
-
-    private Diagnostics diagnostics = GWT.create(Diagnostics.class);
+    // operations and responses in error messages are cut off
+    private static final int MAX_ERROR_DETAILS = 16 * 1024;
 
-    private boolean trackInvocations = diagnostics.isEnabled();
+    private final RequestBuilder requestBuilder;
 
-    private static long idCounter = 0;
+    private final DMRCache cache;
 
-    private DMREndpointConfig endpointConfig = GWT.create(DMREndpointConfig.class);
+    private boolean batching = true;
+    private final ReadBatcher batcher;
 
-    private static enum Type {
-        BEGIN("begin"),
-        END("end"),
-        SEND("requestSent"),
-        RECEIVE("responseReceived"),
-        SERIALIZED("requestSerialized"),
-        DESERIALIZED("responseDeserialized");
-
-        private String classifier;
+    private Diagnostics diagnostics = GWT.create(Diagnostics.class);
 
-        private Type(String classifier) {
-            this.classifier = classifier;
-        }
+    private final InvocationTracer tracer = new InvocationTracer(diagnostics, Scheduler.get());
 
-        public String getClassifier() {
-            return classifier;
-        }
-    }
+    private DMREndpointConfig endpointConfig = GWT.create(DMREndpointConfig.class);
 
     @Inject
-    public DMRHandler() {
+    public DMRHandler(DMRCache cache) {
+
+        this.cache = cache;
 
         requestBuilder = new RequestBuilder(RequestBuilder.POST,endpointConfig.getUrl());
 
         requestBuilder.setHeader(HEADER_ACCEPT, DMR_ENCODED);
         requestBuilder.setHeader(HEADER_CONTENT_TYPE, DMR_ENCODED);
 
+        batcher = new ReadBatcher(cache, Scheduler.get(), new ReadBatcher.Transport() {
+            @Override
+            public void send(ModelNode operation, AsyncCallback<DMRResponse> callback) {
+                executeRequest(callback, operation);
+            }
+        });
     }
 
     @Override
@@ -92,45 +90,127 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
         assert action.getOperation()!=null;
 
         final ModelNode operation = action.getOperation();
+        final boolean cachable = action.isCachable() && cache.isCachable(operation);
+        final boolean batchable = batching && ReadBatcher.isBatchable(operation);
+
+        // writes can be large (i.e. deployments), the key is only needed for reads
+        final String key = cachable || batchable ? cache.getKey(operation) : null;
+
+        if(cachable)
+        {
+            DMRResponse cached = cache.get(key);
+            if(cached!=null)
+                return deliverCached(cached, resultCallback);
+        }
+
+        if(batchable)
+            return batcher.execute(key, operation, cachable, resultCallback);
 
-        Request request = executeRequest(resultCallback, operation);
+        // keep the order of reads issued before this operation,
+        // reads issued after it must not join the reads that are in flight
+        batcher.flush();
+        batcher.detachInFlight();
+
+        final int epoch = cache.getEpoch();
+        Request request = executeRequest(new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                resultCallback.onFailure(caught);
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result) {
+                if(cachable && !result.get().isFailure())
+                    cache.put(key, operation, result, epoch);
+                else
+                    cache.invalidate(operation);
+                resultCallback.onSuccess(result);
+            }
+        }, operation);
         DispatchRequest handle = new DispatchRequestHandle(request);
 
         return handle;
 
     }
 
-    private Request executeRequest(final AsyncCallback<DMRResponse> resultCallback, final ModelNode operation) {
+    /**
+     * When enabled, read operations issued in the same event loop tick are sent as a single composite operation.
+     */
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+        if(!batching) batcher.flush();
+    }
+
+    public boolean isBatching() {
+        return batching;
+    }
+
+    /**
+     * The phase latencies of the traced invocations. Use {@link InvocationTracer#setSampleRate(int)}
+     * to change how many invocations are traced, none unless diagnostics are enabled.
+     */
+    public InvocationTracer getTracer() {
+        return tracer;
+    }
 
-        if(idCounter==Long.MAX_VALUE)
-            idCounter = 0;
+    /**
+     * Cached responses are delivered deferred, so callers see the same (asynchronous) behaviour as for real requests.
+     */
+    private DispatchRequest deliverCached(final DMRResponse cached, final AsyncCallback<DMRResponse> resultCallback) {
+        final CachedRequestHandle handle = new CachedRequestHandle();
+        Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
+            @Override
+            public void execute() {
+                if(handle.isPending())
+                {
+                    handle.pending = false;
+                    resultCallback.onSuccess(cached);
+                }
+            }
+        });
+        return handle;
+    }
+
+    public DMRCache getCache() {
+        return cache;
+    }
+
+    private Request executeRequest(final AsyncCallback<DMRResponse> resultCallback, final ModelNode operation) {
 
         Request requestHandle = null;
         try {
 
-            final String id = String.valueOf(idCounter++);
-            trace(Type.BEGIN, id, operation);
+            final InvocationTracer.Trace trace = tracer.begin(operation);
 
             String requestData = operation.toBase64String();
-            trace(Type.SERIALIZED, id, operation);
+            mark(trace, InvocationTracer.SERIALIZED);
 
             requestHandle = requestBuilder.sendRequest(requestData, new RequestCallback() {
                 @Override
                 public void onResponseReceived(Request request, Response response) {
 
+                    mark(trace, InvocationTracer.RECEIVED);
+                    try {
+                        handleResponse(response);
+                    } finally {
+                        end(trace);
+                    }
+                }
 
-                    trace(Type.RECEIVE, id, operation);
+                private void handleResponse(Response response) {
 
                     int statusCode = response.getStatusCode();
 
                     if(200== statusCode)
                     {
-                        resultCallback.onSuccess(
-                                new DMRResponse(
-                                        response.getText(),
-                                        response.getHeader(HEADER_CONTENT_TYPE)
-                                )
+                        DMRResponse result = new DMRResponse(
+                                response.getText(),
+                                response.getHeader(HEADER_CONTENT_TYPE)
                         );
+
+                        // decoded by the callback, if at all
+                        result.setTrace(trace);
+                        resultCallback.onSuccess(result);
                     }
                     else if(401 == statusCode || 0 == statusCode)
                     {
@@ -140,7 +220,7 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
                     else if(307 == statusCode)
                     {
                         String location = response.getHeader("Location");
-                        Log.error("Redirect '"+location+"'. Could not execute "+operation.toString());
+                        Log.error("Redirect '"+location+"'. Could not execute "+details(operation));
                         redirect(location);
                     }
                     else if(503 == statusCode)
@@ -155,31 +235,34 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
                         sb.append("Unexpected HTTP response").append(": ").append(statusCode);
                         sb.append("\n\n");
                         sb.append("Request\n");
-                        sb.append(operation.toString());
+                        sb.append(details(operation));
 
                         sb.append("\n\nResponse\n\n");
                         sb.append(response.getStatusText()).append("\n");
 
                         String payload = response.getText().equals("") ? "No details" :
-                                ModelNode.fromBase64(response.getText()).toString();
+                                details(ModelNode.fromBase64(response.getText()));
 
                         sb.append(payload);
-                        resultCallback.onFailure( new Exception(sb.toString()));
+                        Exception failure = 500 == statusCode ?
+                                new OperationFailedException(sb.toString()) : new Exception(sb.toString());
+                        resultCallback.onFailure(failure);
                     }
-
-                    trace(Type.END, id, operation);
                 }
 
                 @Override
                 public void onError(Request request, Throwable e) {
 
-                    trace(Type.RECEIVE, id, operation);
-                    resultCallback.onFailure(e);
-                    trace(Type.END, id, operation);
+                    mark(trace, InvocationTracer.RECEIVED);
+                    try {
+                        resultCallback.onFailure(e);
+                    } finally {
+                        end(trace);
+                    }
                 }
             });
 
-            trace(Type.SEND, id, operation);
+            mark(trace, InvocationTracer.SENT);
 
         } catch (RequestException e) {
             resultCallback.onFailure(e);
@@ -187,52 +270,18 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
         return requestHandle;
     }
 
-    private void trace(Type type, String id, ModelNode operation) {
-
-        if(!trackInvocations) return;
-
-        //String token = getToken(operation);
-        if(Type.BEGIN.equals(type))
-        {
-            diagnostics.logRpc(type.getClassifier(), id, System.currentTimeMillis(), getToken(operation));
-        }
-        else
-        {
-            diagnostics.logRpc(type.getClassifier(), id, System.currentTimeMillis());
-        }
-
+    private static void mark(InvocationTracer.Trace trace, int event) {
+        if(trace!=null)
+            trace.mark(event);
     }
 
-    public static String getToken(ModelNode operation) {
-
-        StringBuffer sb = new StringBuffer();
-        if(operation.get(OP).asString().equals(COMPOSITE))
-        {
-            for(ModelNode step : operation.get(STEPS).asList())
-            {
-                sb.append(" _").append(getOpToken(step));
-            }
-        }
-        else
-        {
-            sb.append(getOpToken(operation));
-        }
-        return sb.toString();
+    private void end(InvocationTracer.Trace trace) {
+        if(trace!=null)
+            tracer.end(trace);
     }
 
-    private static String getOpToken(ModelNode operation) {
-        StringBuffer sb = new StringBuffer();
-        sb.append(operation.get(ADDRESS).asString())
-                .append(": ")
-                .append(operation.get(OP))
-                .append("; ")
-                .append(operation.get(CHILD_TYPE).asString())
-                .append("; ");
-
-        if(operation.get(NAME).isDefined())
-                sb.append(operation.get(NAME).asString());
-
-        return sb.toString();
+    private static String details(ModelNode node) {
+        return ModelWriter.dmr(node).limit(MAX_ERROR_DETAILS).asString();
     }
 
 
@@ -260,6 +309,32 @@ public class DMRHandler implements ActionHandler<DMRAction, DMRResponse> {
         }
     }
 
+    /**
+     * The server has executed the operation, but it failed.
+     */
+    static class OperationFailedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        OperationFailedException(String message) {
+            super(message);
+        }
+    }
+
+    class CachedRequestHandle implements DispatchRequest
+    {
+        private boolean pending = true;
+
+        @Override
+        public void cancel() {
+            pending = false;
+        }
+
+        @Override
+        public boolean isPending() {
+            return pending;
+        }
+    }
+
     public static native void redirect(String url)/*-{
         $wnd.location = url;
     }-*/;
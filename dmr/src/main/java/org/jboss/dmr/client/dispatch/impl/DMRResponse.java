@@ -31,6 +31,8 @@ public class DMRResponse implements Result<ModelNode> {
 
     private String responseText;
     private String contentType;
+    private ModelNode response;
+    private InvocationTracer.Trace trace;
     //private ResponseProcessor processor;
 
     public DMRResponse(String responseText, String contentType) {
@@ -40,13 +42,34 @@ public class DMRResponse implements Result<ModelNode> {
         //this.processor = ResponseProcessorFactory.INSTANCE.get();
     }
 
+    /**
+     * Wraps an already decoded response, i.e. a step result of a composite operation.
+     */
+    public DMRResponse(ModelNode response, String contentType) {
+        this.response = response;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Marks the trace as deserialized when the response is decoded.
+     */
+    void setTrace(InvocationTracer.Trace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Returns the decoded response. Nested objects and lists are decoded on first access
+     * and the result is memoized, so repeated calls return the same node.
+     */
     @Override
     public ModelNode get() {
 
+        if (response != null) {
+            return response;
+        }
 
-        ModelNode response = null;
         try {
-            response = ModelNode.fromBase64(responseText);
+            response = ModelNode.fromBase64Lazy(responseText);
         } catch (Throwable e) {
 
             ModelNode err = new ModelNode();
@@ -57,10 +80,24 @@ public class DMRResponse implements Result<ModelNode> {
             response = err;
         }
 
+        if (trace != null) {
+            trace.mark(InvocationTracer.DESERIALIZED);
+            trace = null;
+        }
+
         // TODO: re-enable after refactoring, might as well leverage notification API
         //processor.process(response);
 
         return response;
     }
 
+    public String getResponseText() {
+        if(null==responseText && response!=null)
+            responseText = response.toBase64String();
+        return responseText;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import com.google.gwt.core.client.Scheduler;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.dispatch.Diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Traces the phases of DMR invocations.
+ * <p/>
+ * While a request is executed only the timestamps and a reference to the operation are recorded.
+ * The latencies of the phases go into a {@link LatencyHistogram} each. The events for the
+ * {@link Diagnostics} (including the description of the operation) are created and published later on,
+ * outside the request and response handling, and only if diagnostics are enabled.
+ * <p/>
+ * With a sample rate of <tt>n</tt> every n-th invocation is traced, zero turns tracing off.
+ * All invocations are traced if diagnostics are enabled, none otherwise.
+ * <p/>
+ * A response is deserialized when the callback first accesses it, so the time spent in the callback
+ * before that is part of the deserialize phase, and responses that are never decoded have none.
+ *
+ * @author Heiko Braun
+ */
+public class InvocationTracer {
+
+    public static enum Phase {
+        SERIALIZE, SEND, RECEIVE, DESERIALIZE, CALLBACK
+    }
+
+    // the events of an invocation, in the order they occur
+    static final int BEGIN = 0;
+    static final int SERIALIZED = 1;
+    static final int SENT = 2;
+    static final int RECEIVED = 3;
+    static final int DESERIALIZED = 4;
+    static final int END = 5;
+
+    // as expected by the debug panel
+    private static final String[] CLASSIFIERS = {
+            "begin", "requestSerialized", "requestSent", "responseReceived", "responseDeserialized", "end"
+    };
+
+    static final int PUBLISH_DELAY = 500;
+    static final int MAX_PENDING = 512;
+
+    private final Diagnostics diagnostics;
+    private final Scheduler scheduler;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+    private int sampleRate;
+    private int skipped = 0;
+    private long idCounter = 0;
+
+    private final List<Trace> pending = new ArrayList<Trace>();
+    private boolean publishScheduled = false;
+    private long dropped = 0;
+
+    public InvocationTracer(Diagnostics diagnostics, Scheduler scheduler) {
+        this.diagnostics = diagnostics;
+        this.scheduler = scheduler;
+        this.sampleRate = diagnostics.isEnabled() ? 1 : 0;
+        for(int i=0; i<histograms.length; i++)
+            histograms[i] = new LatencyHistogram();
+    }
+
+    /**
+     * @param sampleRate trace every n-th invocation, zero disables tracing
+     */
+    public void setSampleRate(int sampleRate) {
+        if(sampleRate<0)
+            throw new IllegalArgumentException("Illegal sample rate: "+sampleRate);
+        this.sampleRate = sampleRate;
+        this.skipped = 0;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * @return the number of traces that have not been published, because too many have been pending
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void reset() {
+        for(LatencyHistogram histogram : histograms)
+            histogram.reset();
+        dropped = 0;
+    }
+
+    /**
+     * Start tracing an invocation.
+     *
+     * @return the trace or null if the invocation is not sampled
+     */
+    public Trace begin(ModelNode operation) {
+        if(sampleRate==0)
+            return null;
+
+        if(skipped>0)
+        {
+            skipped--;
+            return null;
+        }
+        skipped = sampleRate-1;
+
+        if(idCounter==Long.MAX_VALUE)
+            idCounter = 0;
+
+        Trace trace = new Trace(idCounter++, operation);
+        trace.mark(BEGIN);
+        return trace;
+    }
+
+    /**
+     * Record the latencies of a finished invocation and queue its events.
+     * Phases that have not been reached (i.e. on a network error) are skipped.
+     */
+    public void end(Trace trace) {
+        trace.mark(END);
+
+        long[] times = trace.times;
+        record(Phase.SERIALIZE, times, BEGIN, SERIALIZED);
+        record(Phase.SEND, times, SERIALIZED, SENT);
+        record(Phase.RECEIVE, times, SENT, RECEIVED);
+        record(Phase.DESERIALIZE, times, RECEIVED, DESERIALIZED);
+        record(Phase.CALLBACK, times, times[DESERIALIZED]!=0 ? DESERIALIZED : RECEIVED, END);
+
+        if(!diagnostics.isEnabled())
+            return;
+
+        if(pending.size()>=MAX_PENDING)
+        {
+            dropped++;
+            return;
+        }
+
+        pending.add(trace);
+        schedulePublish();
+    }
+
+    private void record(Phase phase, long[] times, int from, int to) {
+        if(times[from]!=0 && times[to]!=0)
+            histograms[phase.ordinal()].record(times[to] - times[from]);
+    }
+
+    private void schedulePublish() {
+        if(publishScheduled) return;
+
+        publishScheduled = true;
+        scheduler.scheduleFixedDelay(new Scheduler.RepeatingCommand() {
+            @Override
+            public boolean execute() {
+                publish();
+                return false;
+            }
+        }, PUBLISH_DELAY);
+    }
+
+    /**
+     * Pass the events of the pending traces to the diagnostics.
+     */
+    void publish() {
+        publishScheduled = false;
+
+        List<Trace> traces = new ArrayList<Trace>(pending);
+        pending.clear();
+
+        for(Trace trace : traces)
+        {
+            String id = String.valueOf(trace.id);
+            for(int event=BEGIN; event<=END; event++)
+            {
+                long millis = trace.times[event];
+                if(0==millis)
+                    continue;
+
+                if(BEGIN==event)
+                    diagnostics.logRpc(CLASSIFIERS[event], id, millis, getToken(trace.operation));
+                else
+                    diagnostics.logRpc(CLASSIFIERS[event], id, millis);
+            }
+        }
+    }
+
+    /**
+     * A short description of an operation: the address, operation name, child type and name
+     * of the operation or of each step of a composite.
+     */
+    public static String getToken(ModelNode operation) {
+
+        StringBuilder sb = new StringBuilder();
+        if(COMPOSITE.equals(operation.read(OP).asString()))
+        {
+            for(ModelNode step : operation.read(STEPS).asList())
+            {
+                sb.append(" _");
+                appendOpToken(sb, step);
+            }
+        }
+        else
+        {
+            appendOpToken(sb, operation);
+        }
+        return sb.toString();
+    }
+
+    private static void appendOpToken(StringBuilder sb, ModelNode operation) {
+        sb.append(operation.read(ADDRESS).asString())
+                .append(": ")
+                .append(operation.read(OP))
+                .append("; ")
+                .append(operation.read(CHILD_TYPE).asString())
+                .append("; ");
+
+        if(operation.hasDefined(NAME))
+            sb.append(operation.read(NAME).asString());
+    }
+
+    /**
+     * The timestamps of a single invocation. The operation is formatted only when the trace is published.
+     * Events marked after the end are ignored.
+     */
+    public static class Trace {
+
+        private final long id;
+        private final ModelNode operation;
+        private final long[] times = new long[END+1];
+
+        Trace(long id, ModelNode operation) {
+            this.id = id;
+            this.operation = operation;
+        }
+
+        void mark(int event) {
+            if(times[END]!=0)
+                return;
+            times[event] = System.currentTimeMillis();
+        }
+
+        long getTime(int event) {
+            return times[event];
+        }
+
+        long getId() {
+            return id;
+        }
+    }
+}
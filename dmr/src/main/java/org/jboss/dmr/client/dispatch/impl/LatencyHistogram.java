@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+/**
+ * Counts latencies in buckets with exponentially growing bounds: [0,1), [1,2), [2,4), ... [16384,32768)
+ * and one bucket for everything above. Recording a value is a few integer operations and doesn't allocate,
+ * percentiles are approximated by the upper bound of the bucket they fall into.
+ *
+ * @author Heiko Braun
+ */
+public class LatencyHistogram {
+
+    public static final int NUM_BUCKETS = 17;
+
+    private final long[] buckets = new long[NUM_BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    /**
+     * @param millis negative values (i.e. a clock adjustment) are counted as zero
+     */
+    public void record(long millis) {
+        long value = Math.max(0, millis);
+        buckets[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if(value<min) min = value;
+        if(value>max) max = value;
+    }
+
+    static int bucketOf(long millis) {
+        if(millis<1)
+            return 0;
+        if(millis>=getUpperBound(NUM_BUCKETS-2))
+            return NUM_BUCKETS-1;
+        // 1 -> 1, 2..3 -> 2, 4..7 -> 3, ...
+        return 32 - Integer.numberOfLeadingZeros((int)millis);
+    }
+
+    /**
+     * @return the exclusive upper bound of a bucket, <tt>Long.MAX_VALUE</tt> for the last one
+     */
+    public static long getUpperBound(int bucket) {
+        if(bucket<0 || bucket>=NUM_BUCKETS)
+            throw new IndexOutOfBoundsException("Bucket "+bucket);
+        return bucket==NUM_BUCKETS-1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    public long getBucketCount(int bucket) {
+        return buckets[bucket];
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return count==0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count==0 ? 0 : (double)sum / count;
+    }
+
+    /**
+     * @param percentile 0..100
+     * @return the upper bound of the bucket the percentile falls into, but at most the maximum
+     */
+    public long getPercentile(double percentile) {
+        if(percentile<0 || percentile>100)
+            throw new IllegalArgumentException("Illegal percentile: "+percentile);
+        if(count==0)
+            return 0;
+
+        long rank = Math.max(1, (long)Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for(int i=0; i<NUM_BUCKETS; i++)
+        {
+            seen += buckets[i];
+            if(seen>=rank)
+                return Math.min(max, getUpperBound(i)-1);
+        }
+        return max;
+    }
+
+    public void reset() {
+        for(int i=0; i<NUM_BUCKETS; i++)
+            buckets[i] = 0;
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + Math.round(getMean()) + "ms, p50=" + getPercentile(50)
+                + "ms, p99=" + getPercentile(99) + "ms, max=" + max + "ms";
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.dispatch.DMRCache;
+import org.jboss.dmr.client.dispatch.DispatchRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Sends the read operations issued in the same event loop tick as a single composite operation.
+ * Identical reads (same cache key) that are pending or in flight share one step, unless an operation
+ * that is not batched (i.e. a write) has been sent in between, see {@link #detachInFlight()}.
+ * <p/>
+ * If the composite fails because of one of its steps, the steps are resent one by one,
+ * so only the callers of the failing step see the failure. Transport and authentication failures
+ * are passed to all callers.
+ *
+ * @author Heiko Braun
+ */
+class ReadBatcher {
+
+    private static final String RESPONSE_HEADERS = "response-headers";
+
+    interface Transport {
+        void send(ModelNode operation, AsyncCallback<DMRResponse> callback);
+    }
+
+    private final DMRCache cache;
+    private final Scheduler scheduler;
+    private final Transport transport;
+
+    private boolean flushScheduled = false;
+    private final Map<String, BatchedOperation> pending = new LinkedHashMap<String, BatchedOperation>();
+    private final Map<String, BatchedOperation> inFlight = new HashMap<String, BatchedOperation>();
+
+    ReadBatcher(DMRCache cache, Scheduler scheduler, Transport transport) {
+        this.cache = cache;
+        this.scheduler = scheduler;
+        this.transport = transport;
+    }
+
+    static boolean isBatchable(ModelNode operation) {
+        String op = operation.get(OP).asString();
+        return op.startsWith("read-") && !operation.hasDefined(OPERATION_HEADERS);
+    }
+
+    DispatchRequest execute(String key, ModelNode operation, boolean cachable, AsyncCallback<DMRResponse> callback) {
+        BatchedOperation batched = inFlight.get(key);
+        if(null==batched)
+            batched = pending.get(key);
+
+        if(null==batched)
+        {
+            batched = new BatchedOperation(key, operation, cachable);
+            pending.put(key, batched);
+            scheduleFlush();
+        }
+        batched.callbacks.add(callback);
+        return new BatchedRequestHandle(batched, callback);
+    }
+
+    private void scheduleFlush() {
+        if(flushScheduled) return;
+
+        flushScheduled = true;
+        scheduler.scheduleFinally(new Scheduler.ScheduledCommand() {
+            @Override
+            public void execute() {
+                flush();
+            }
+        });
+    }
+
+    /**
+     * Send the pending reads now.
+     */
+    void flush() {
+        flushScheduled = false;
+        if(pending.isEmpty()) return;
+
+        final List<BatchedOperation> batch = new ArrayList<BatchedOperation>(pending.values());
+        pending.clear();
+        final int epoch = cache.getEpoch();
+        for(BatchedOperation batched : batch)
+        {
+            batched.epoch = epoch;
+            inFlight.put(batched.key, batched);
+        }
+
+        if(batch.size()==1)
+        {
+            sendSingle(batch.get(0));
+            return;
+        }
+
+        ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(ADDRESS).setEmptyList();
+        for(BatchedOperation batched : batch)
+            composite.get(STEPS).add(batched.operation);
+
+        transport.send(composite, new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                if(caught instanceof DMRHandler.OperationFailedException)
+                {
+                    resendSteps();
+                }
+                else
+                {
+                    for(BatchedOperation batched : batch)
+                        batched.onFailure(caught);
+                }
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result) {
+                ModelNode response = result.get();
+                if(response.isFailure())
+                {
+                    resendSteps();
+                    return;
+                }
+
+                List<DMRResponse> responses = demultiplex(result, batch.size());
+                for(int i=0; i<batch.size(); i++)
+                    batch.get(i).onSuccess(responses.get(i));
+            }
+
+            // a single failed step fails the whole composite
+            private void resendSteps() {
+                for(BatchedOperation batched : batch)
+                    sendSingle(batched);
+            }
+        });
+    }
+
+    /**
+     * Reads issued from now on don't join the reads that are in flight: these might have been
+     * sent before a write and return the state before it.
+     */
+    void detachInFlight() {
+        inFlight.clear();
+    }
+
+    private void sendSingle(final BatchedOperation batched) {
+        transport.send(batched.operation, batched);
+    }
+
+    /**
+     * Split the response of a composite into the responses of its steps.
+     * The response headers of the composite (i.e. the process state) are passed on to each step.
+     */
+    static List<DMRResponse> demultiplex(DMRResponse result, int numSteps) {
+        ModelNode response = result.get();
+        ModelNode steps = response.get(RESULT);
+        ModelNode headers = response.hasDefined(RESPONSE_HEADERS) ? response.get(RESPONSE_HEADERS) : null;
+
+        List<DMRResponse> responses = new ArrayList<DMRResponse>(numSteps);
+        for(int i=0; i<numSteps; i++)
+        {
+            ModelNode step = steps.get("step-" + (i + 1));
+            if(headers!=null)
+            {
+                for(String name : headers.keys())
+                {
+                    if(!step.read(RESPONSE_HEADERS).hasDefined(name))
+                        step.get(RESPONSE_HEADERS, name).set(headers.get(name));
+                }
+            }
+            responses.add(new DMRResponse(step, result.getContentType()));
+        }
+        return responses;
+    }
+
+    /**
+     * A read operation waiting to be sent as part of a batch, together with everyone interested in its result.
+     */
+    class BatchedOperation implements AsyncCallback<DMRResponse>
+    {
+        final String key;
+        final ModelNode operation;
+        final boolean cachable;
+        // the cache epoch when the operation was sent
+        int epoch;
+        final List<AsyncCallback<DMRResponse>> callbacks = new ArrayList<AsyncCallback<DMRResponse>>(1);
+
+        BatchedOperation(String key, ModelNode operation, boolean cachable) {
+            this.key = key;
+            this.operation = operation;
+            this.cachable = cachable;
+        }
+
+        // a detached operation must not remove the read that has taken its place
+        private void detach() {
+            if(inFlight.get(key)==this)
+                inFlight.remove(key);
+        }
+
+        @Override
+        public void onFailure(Throwable caught) {
+            detach();
+            for(AsyncCallback<DMRResponse> callback : new ArrayList<AsyncCallback<DMRResponse>>(callbacks))
+                callback.onFailure(caught);
+            callbacks.clear();
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            detach();
+            if(cachable && !result.get().isFailure())
+                cache.put(key, operation, result, epoch);
+
+            // every callback gets its own response, the decoded model is mutable
+            List<AsyncCallback<DMRResponse>> receivers = new ArrayList<AsyncCallback<DMRResponse>>(callbacks);
+            List<DMRResponse> responses = new ArrayList<DMRResponse>(receivers.size());
+            for(int i=0; i<receivers.size(); i++)
+                responses.add(i==0 ? result : new DMRResponse(result.getResponseText(), result.getContentType()));
+
+            callbacks.clear();
+            for(int i=0; i<receivers.size(); i++)
+                receivers.get(i).onSuccess(responses.get(i));
+        }
+    }
+
+    class BatchedRequestHandle implements DispatchRequest
+    {
+        private final BatchedOperation batched;
+        private final AsyncCallback<DMRResponse> callback;
+
+        BatchedRequestHandle(BatchedOperation batched, AsyncCallback<DMRResponse> callback) {
+            this.batched = batched;
+            this.callback = callback;
+        }
+
+        @Override
+        public void cancel() {
+            batched.callbacks.remove(callback);
+        }
+
+        @Override
+        public boolean isPending() {
+            return batched.callbacks.contains(callback);
+        }
+    }
+}
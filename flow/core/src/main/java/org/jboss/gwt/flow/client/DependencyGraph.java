@@ -0,0 +1,598 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.gwt.flow.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs functions that declare their prerequisites, working on a shared context.
+ * A function is started as soon as all of its prerequisites have proceeded, functions that don't depend on each
+ * other run concurrently. The number of functions running at the same time can be limited,
+ * see {@link #setMaxInFlight(int)}.
+ * <p/>
+ * By default the execution fails fast: if any function aborts or times out, the running functions are cancelled,
+ * no more functions are started and the outcome is immediately called with the failure.
+ * Otherwise only the functions depending on the failed one are cancelled and the outcome is called
+ * once all other functions have finished, see {@link #setFailFast(boolean)}.
+ * <p/>
+ * Functions can pass results to their dependents, see {@link StepControl}.
+ * The start and finish time of each function is recorded and can be inspected after the execution,
+ * see {@link #getNodes()}.
+ *
+ * @author Heiko Braun
+ */
+public class DependencyGraph<C>
+{
+    private final Map<String, Node<C>> nodes = new LinkedHashMap<String, Node<C>>();
+
+    private TimeoutScheduler scheduler;
+    private int maxInFlight = 0;
+    private boolean failFast = true;
+
+    private Execution<C> current;
+
+    public DependencyGraph()
+    {
+    }
+
+    /**
+     * @param scheduler schedules the timeouts, by default the GWT timer is used
+     */
+    public DependencyGraph(TimeoutScheduler scheduler)
+    {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Add a function.
+     *
+     * @param id            unique name of the function
+     * @param function      the function
+     * @param prerequisites the names of the functions that need to proceed before this function is started
+     */
+    public DependencyGraph<C> add(String id, final Function<C> function, String... prerequisites)
+    {
+        return addStep(id, new Step<C>()
+        {
+            @Override
+            public void execute(StepControl<C> control)
+            {
+                function.execute(control);
+            }
+        }, prerequisites);
+    }
+
+    /**
+     * Add a function that makes use of results or cancellation.
+     *
+     * @param id            unique name of the function
+     * @param step          the function
+     * @param prerequisites the names of the functions that need to proceed before this function is started
+     */
+    public DependencyGraph<C> addStep(String id, Step<C> step, String... prerequisites)
+    {
+        if (nodes.containsKey(id))
+        { throw new IllegalArgumentException("Duplicate function " + id); }
+
+        nodes.put(id, new Node<C>(id, step, prerequisites));
+        return this;
+    }
+
+    /**
+     * Fail a function that doesn't proceed or abort in time.
+     *
+     * @param id      name of a function that has been added before
+     * @param millis  the timeout in milliseconds, 0 means no timeout
+     */
+    public DependencyGraph<C> timeout(String id, int millis)
+    {
+        Node<C> node = nodes.get(id);
+        if (null == node)
+        { throw new IllegalArgumentException("Unknown function " + id); }
+        if (millis < 0)
+        { throw new IllegalArgumentException("Illegal timeout " + millis); }
+
+        node.timeout = millis;
+        return this;
+    }
+
+    /**
+     * Limit the number of functions running at the same time, i.e. the number of pending requests.
+     *
+     * @param maxInFlight the limit, 0 means unlimited
+     */
+    public DependencyGraph<C> setMaxInFlight(int maxInFlight)
+    {
+        if (maxInFlight < 0)
+        { throw new IllegalArgumentException("Illegal limit " + maxInFlight); }
+
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    public DependencyGraph<C> setFailFast(boolean failFast)
+    {
+        this.failFast = failFast;
+        return this;
+    }
+
+    /**
+     * Execute the functions. A graph can only run one execution at a time.
+     *
+     * @return a handle to cancel the execution
+     * @throws IllegalStateException if a prerequisite is unknown, the prerequisites form a cycle
+     *                               or the graph is still executing
+     */
+    public Execution<C> execute(final C context, final Outcome<C> outcome)
+    {
+        if (current != null && !current.isDone())
+        { throw new IllegalStateException("Graph is still executing"); }
+
+        verify();
+
+        for (Node<C> node : nodes.values())
+        { node.reset(); }
+
+        current = new Execution<C>(this, context, outcome);
+        current.drain();
+        return current;
+    }
+
+    /**
+     * @return the functions in the order they have been added, including the timing of the last execution
+     */
+    public List<Node<C>> getNodes()
+    {
+        return new ArrayList<Node<C>>(nodes.values());
+    }
+
+    private TimeoutScheduler getScheduler()
+    {
+        if (null == scheduler)
+        { scheduler = new GwtTimeoutScheduler(); }
+        return scheduler;
+    }
+
+    private void verify()
+    {
+        // Kahn: strip nodes without unresolved prerequisites until none are left
+        Map<String, Integer> unresolved = new HashMap<String, Integer>();
+        for (Node<C> node : nodes.values())
+        {
+            node.dependencies.clear();
+            for (String prerequisite : node.prerequisites)
+            {
+                Node<C> dependency = nodes.get(prerequisite);
+                if (null == dependency)
+                { throw new IllegalStateException("Unknown prerequisite " + prerequisite + " of " + node.id); }
+                node.dependencies.add(dependency);
+            }
+            unresolved.put(node.id, node.prerequisites.length);
+        }
+
+        List<String> resolved = new ArrayList<String>();
+        for (Node<C> node : nodes.values())
+        {
+            if (node.prerequisites.length == 0)
+            { resolved.add(node.id); }
+        }
+
+        int count = 0;
+        while (count < resolved.size())
+        {
+            String id = resolved.get(count++);
+            for (Node<C> node : nodes.values())
+            {
+                for (String prerequisite : node.prerequisites)
+                {
+                    if (prerequisite.equals(id))
+                    {
+                        int remaining = unresolved.get(node.id) - 1;
+                        unresolved.put(node.id, remaining);
+                        if (remaining == 0)
+                        { resolved.add(node.id); }
+                    }
+                }
+            }
+        }
+
+        if (resolved.size() < nodes.size())
+        { throw new IllegalStateException("Cyclic prerequisites in " + nodes.keySet()); }
+    }
+
+
+    public enum State
+    {
+        PENDING, RUNNING, FINISHED, FAILED, TIMED_OUT, CANCELLED;
+
+        boolean isFailure()
+        {
+            return this == FAILED || this == TIMED_OUT || this == CANCELLED;
+        }
+    }
+
+
+    /**
+     * A function within the graph and the timing of its last execution.
+     */
+    public static class Node<C>
+    {
+        private final String id;
+        private final Step<C> step;
+        private final String[] prerequisites;
+        private final List<Node<C>> dependencies = new ArrayList<Node<C>>();
+        private int timeout;
+
+        private State state;
+        private long started;
+        private long finished;
+        private Object result;
+        private TimeoutScheduler.Timeout pendingTimeout;
+        private List<Runnable> cancelHandlers;
+
+        Node(String id, Step<C> step, String[] prerequisites)
+        {
+            this.id = id;
+            this.step = step;
+            this.prerequisites = prerequisites;
+            reset();
+        }
+
+        void reset()
+        {
+            state = State.PENDING;
+            started = -1;
+            finished = -1;
+            result = null;
+            pendingTimeout = null;
+            cancelHandlers = null;
+        }
+
+        public String getId()
+        {
+            return id;
+        }
+
+        public String[] getPrerequisites()
+        {
+            return prerequisites;
+        }
+
+        public int getTimeout()
+        {
+            return timeout;
+        }
+
+        public State getState()
+        {
+            return state;
+        }
+
+        /**
+         * @return the start time in milliseconds or -1 if the function hasn't been started
+         */
+        public long getStarted()
+        {
+            return started;
+        }
+
+        /**
+         * @return the time when the function proceeded, aborted or was cancelled, -1 if it's still running
+         */
+        public long getFinished()
+        {
+            return finished;
+        }
+
+        /**
+         * @return the execution time in milliseconds or -1 if the function hasn't been started or finished
+         */
+        public long getDuration()
+        {
+            return started >= 0 && finished >= 0 ? finished - started : -1;
+        }
+
+        @Override
+        public String toString()
+        {
+            return id + " (" + state + ", " + getDuration() + " ms)";
+        }
+    }
+
+
+    /**
+     * A single execution of the graph.
+     */
+    public static class Execution<C>
+    {
+        private final DependencyGraph<C> graph;
+        private final C context;
+        private final Outcome<C> outcome;
+
+        private int remaining;
+        private int running;
+        private boolean draining;
+        private boolean failed;
+        private boolean cancelled;
+        private boolean done;
+
+        Execution(DependencyGraph<C> graph, C context, Outcome<C> outcome)
+        {
+            this.graph = graph;
+            this.context = context;
+            this.outcome = outcome;
+            this.remaining = graph.nodes.size();
+        }
+
+        /**
+         * Cancel the running functions and don't start any others. The outcome is not called.
+         */
+        public void cancel()
+        {
+            if (done)
+            { return; }
+
+            cancelled = true;
+            done = true;
+            cancelAll();
+        }
+
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        /**
+         * @return true if the outcome has been called or the execution has been cancelled
+         */
+        public boolean isDone()
+        {
+            return done;
+        }
+
+        /**
+         * @return the result of a function that has proceeded or null
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T getResult(String id)
+        {
+            Node<C> node = graph.nodes.get(id);
+            return node != null && node.state == State.FINISHED ? (T) node.result : null;
+        }
+
+        /**
+         * Start all functions whose prerequisites are met. Functions that proceed synchronously
+         * re-enter this method, the outer invocation picks up their dependents instead of recursing.
+         */
+        void drain()
+        {
+            if (draining)
+            { return; }
+
+            draining = true;
+            try
+            {
+                boolean changed = true;
+                while (changed && !done)
+                {
+                    changed = false;
+                    for (Node<C> node : graph.nodes.values())
+                    {
+                        if (done)
+                        { break; }
+
+                        if (node.state != State.PENDING)
+                        { continue; }
+
+                        if (hasFailedDependency(node))
+                        {
+                            // never going to run
+                            finish(node, State.CANCELLED, null);
+                            changed = true;
+                        }
+                        else if (isReady(node) && (graph.maxInFlight == 0 || running < graph.maxInFlight))
+                        {
+                            start(node);
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                draining = false;
+            }
+
+            if (!done && remaining == 0)
+            {
+                done = true;
+                if (failed)
+                { outcome.onFailure(context); }
+                else
+                { outcome.onSuccess(context); }
+            }
+        }
+
+        private boolean isReady(Node<C> node)
+        {
+            for (Node<C> dependency : node.dependencies)
+            {
+                if (dependency.state != State.FINISHED)
+                { return false; }
+            }
+            return true;
+        }
+
+        private boolean hasFailedDependency(Node<C> node)
+        {
+            for (Node<C> dependency : node.dependencies)
+            {
+                if (dependency.state.isFailure())
+                { return true; }
+            }
+            return false;
+        }
+
+        private void start(final Node<C> node)
+        {
+            node.state = State.RUNNING;
+            node.started = System.currentTimeMillis();
+            running++;
+
+            if (node.timeout > 0)
+            {
+                node.pendingTimeout = graph.getScheduler().schedule(node.timeout, new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        node.pendingTimeout = null;
+                        complete(node, State.TIMED_OUT, null);
+                    }
+                });
+            }
+
+            // a step throwing instead of calling abort() fails like one that aborts
+            try
+            {
+                node.step.execute(new StepControl<C>()
+                {
+                    @Override
+                    public void proceed()
+                    {
+                        complete(node, State.FINISHED, null);
+                    }
+
+                    @Override
+                    public void proceed(Object result)
+                    {
+                        complete(node, State.FINISHED, result);
+                    }
+
+                    @Override
+                    public void abort()
+                    {
+                        complete(node, State.FAILED, null);
+                    }
+
+                    @Override
+                    public C getContext()
+                    {
+                        return context;
+                    }
+
+                    @Override
+                    public <T> T getResult(String id)
+                    {
+                        return Execution.this.getResult(id);
+                    }
+
+                    @Override
+                    public boolean isCancelled()
+                    {
+                        return node.state == State.CANCELLED || node.state == State.TIMED_OUT;
+                    }
+
+                    @Override
+                    public void onCancel(Runnable handler)
+                    {
+                        if (isCancelled())
+                        { handler.run(); }
+                        else if (node.state == State.RUNNING)
+                        {
+                            if (null == node.cancelHandlers)
+                            { node.cancelHandlers = new ArrayList<Runnable>(); }
+                            node.cancelHandlers.add(handler);
+                        }
+                    }
+                });
+            }
+            catch (RuntimeException e)
+            {
+                // thrown after the step completed, i.e. by a dependent or the outcome
+                if (node.state != State.RUNNING)
+                { throw e; }
+                complete(node, State.FAILED, null);
+            }
+        }
+
+        /**
+         * A running function proceeded, aborted or timed out.
+         */
+        private void complete(Node<C> node, State state, Object result)
+        {
+            if (done || node.state != State.RUNNING)
+            { return; }
+
+            finish(node, state, result);
+
+            if (state.isFailure())
+            {
+                failed = true;
+                if (graph.failFast)
+                {
+                    done = true;
+                    cancelAll();
+                    outcome.onFailure(context);
+                    return;
+                }
+            }
+
+            drain();
+        }
+
+        private void finish(Node<C> node, State state, Object result)
+        {
+            if (node.state == State.RUNNING)
+            { running--; }
+
+            node.state = state;
+            node.result = result;
+            node.finished = System.currentTimeMillis();
+            remaining--;
+
+            if (node.pendingTimeout != null)
+            {
+                node.pendingTimeout.cancel();
+                node.pendingTimeout = null;
+            }
+
+            List<Runnable> handlers = node.cancelHandlers;
+            node.cancelHandlers = null;
+            if (handlers != null && state != State.FINISHED && state != State.FAILED)
+            {
+                for (Runnable handler : handlers)
+                { handler.run(); }
+            }
+        }
+
+        private void cancelAll()
+        {
+            for (Node<C> node : graph.nodes.values())
+            {
+                if (node.state == State.PENDING || node.state == State.RUNNING)
+                { finish(node, State.CANCELLED, null); }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.gwt.flow.client;
+
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Default {@link TimeoutScheduler} based on the GWT timer.
+ *
+ * @author Heiko Braun
+ */
+class GwtTimeoutScheduler implements TimeoutScheduler {
+
+    @Override
+    public Timeout schedule(int delayMillis, final Runnable task) {
+        final Timer timer = new Timer() {
+            @Override
+            public void run() {
+                task.run();
+            }
+        };
+        timer.schedule(delayMillis);
+
+        return new Timeout() {
+            @Override
+            public void cancel() {
+                timer.cancel();
+            }
+        };
+    }
+}
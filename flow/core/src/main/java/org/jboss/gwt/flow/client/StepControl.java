@@ -0,0 +1,50 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.gwt.flow.client;
+
+/**
+ * Execution control handle passed into the functions of a {@link DependencyGraph}.
+ * Adds result passing and cancellation to the plain {@link Control}.
+ *
+ * @author Heiko Braun
+ */
+public interface StepControl<C> extends Control<C> {
+
+    /**
+     * Proceed and make a result available to the functions that depend on this one.
+     */
+    void proceed(Object result);
+
+    /**
+     * @return the result of a function that has already proceeded or null
+     */
+    <T> T getResult(String id);
+
+    /**
+     * @return true if the function has timed out or the execution has been cancelled.
+     * Calls to {@link #proceed()} and {@link #abort()} are ignored from then on.
+     */
+    boolean isCancelled();
+
+    /**
+     * Register a handler that is called once if the function times out or the execution is cancelled,
+     * i.e. to discard a pending request. Called immediately if the function has already been cancelled.
+     */
+    void onCancel(Runnable handler);
+}
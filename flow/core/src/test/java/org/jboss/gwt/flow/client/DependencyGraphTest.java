@@ -0,0 +1,376 @@
+package org.jboss.gwt.flow.client;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class DependencyGraphTest {
+
+    private List<String> started;
+    private Map<String, StepControl<List<String>>> pending;
+    private ManualScheduler scheduler;
+    private RecordingOutcome outcome;
+
+    @Before
+    public void setUp() {
+        started = new ArrayList<String>();
+        pending = new HashMap<String, StepControl<List<String>>>();
+        scheduler = new ManualScheduler();
+        outcome = new RecordingOutcome();
+    }
+
+    @Test
+    public void prerequisitesAreRespected() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .add("a", immediate("a"))
+                .addStep("b", deferred("b"), "a")
+                .addStep("c", deferred("c"), "a")
+                .add("d", immediate("d"), "b", "c");
+
+        graph.execute(started, outcome);
+
+        // b and c run concurrently
+        assertEquals(list("a", "b", "c"), started);
+
+        pending.get("c").proceed();
+        assertEquals(3, started.size());
+
+        pending.get("b").proceed();
+        assertEquals(list("a", "b", "c", "d"), started);
+        assertEquals(1, outcome.successes);
+        assertEquals(0, outcome.failures);
+
+        for(DependencyGraph.Node<List<String>> node : graph.getNodes())
+            assertEquals(DependencyGraph.State.FINISHED, node.getState());
+    }
+
+    @Test
+    public void duplicateProceedIsIgnored() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("a", deferred("a"))
+                .add("b", immediate("b"), "a");
+
+        graph.execute(started, outcome);
+        pending.get("a").proceed();
+        pending.get("a").proceed();
+        pending.get("a").abort();
+
+        assertEquals(list("a", "b"), started);
+        assertEquals(1, outcome.successes);
+        assertEquals(0, outcome.failures);
+    }
+
+    @Test
+    public void resultsArePassed() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("host", new Step<List<String>>() {
+                    @Override
+                    public void execute(StepControl<List<String>> control) {
+                        control.proceed("master");
+                    }
+                })
+                .addStep("servers", new Step<List<String>>() {
+                    @Override
+                    public void execute(StepControl<List<String>> control) {
+                        String host = control.getResult("host");
+                        control.getContext().add(host + "/server-one");
+                        control.proceed();
+                    }
+                }, "host");
+
+        DependencyGraph.Execution<List<String>> execution = graph.execute(started, outcome);
+
+        assertEquals(list("master/server-one"), started);
+        assertEquals("master", execution.getResult("host"));
+        assertNull(execution.getResult("unknown"));
+    }
+
+    @Test
+    public void failFastCancelsRunningFunctions() {
+        final List<String> cancelled = new ArrayList<String>();
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("a", deferred("a"))
+                .addStep("b", new Step<List<String>>() {
+                    @Override
+                    public void execute(StepControl<List<String>> control) {
+                        control.onCancel(new Runnable() {
+                            @Override
+                            public void run() {
+                                cancelled.add("b");
+                            }
+                        });
+                    }
+                })
+                .add("c", immediate("c"), "a");
+
+        graph.execute(started, outcome);
+        pending.get("a").abort();
+
+        assertEquals(list("b"), cancelled);
+        assertEquals(list("a"), started);
+        assertEquals(1, outcome.failures);
+        assertEquals(0, outcome.successes);
+        assertEquals(DependencyGraph.State.FAILED, graph.getNodes().get(0).getState());
+        assertEquals(DependencyGraph.State.CANCELLED, graph.getNodes().get(1).getState());
+        assertEquals(DependencyGraph.State.CANCELLED, graph.getNodes().get(2).getState());
+    }
+
+    @Test
+    public void throwingStepFails() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("a", new Step<List<String>>() {
+                    @Override
+                    public void execute(StepControl<List<String>> control) {
+                        throw new IllegalStateException("broken");
+                    }
+                })
+                .add("b", immediate("b"), "a");
+
+        graph.execute(started, outcome);
+
+        assertEquals(0, started.size());
+        assertEquals(1, outcome.failures);
+        assertEquals(0, outcome.successes);
+        assertEquals(DependencyGraph.State.FAILED, graph.getNodes().get(0).getState());
+        assertEquals(DependencyGraph.State.CANCELLED, graph.getNodes().get(1).getState());
+    }
+
+    @Test
+    public void failuresPropagateToDependents() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .setFailFast(false)
+                .addStep("a", deferred("a"))
+                .addStep("b", deferred("b"))
+                .add("c", immediate("c"), "a")
+                .add("d", immediate("d"), "c");
+
+        graph.execute(started, outcome);
+        pending.get("a").abort();
+
+        // b is still running
+        assertEquals(0, outcome.failures);
+        assertEquals(DependencyGraph.State.CANCELLED, graph.getNodes().get(3).getState());
+
+        pending.get("b").proceed();
+        assertEquals(list("a", "b"), started);
+        assertEquals(1, outcome.failures);
+        assertEquals(0, outcome.successes);
+    }
+
+    @Test
+    public void timeout() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("slow", deferred("slow"))
+                .addStep("fast", deferred("fast"))
+                .timeout("slow", 1000)
+                .timeout("fast", 1000);
+
+        graph.execute(started, outcome);
+        assertEquals(2, scheduler.timeouts.size());
+
+        pending.get("fast").proceed();
+        assertTrue(scheduler.timeouts.get(1).cancelled);
+
+        scheduler.fire(0);
+        assertTrue(pending.get("slow").isCancelled());
+        assertEquals(DependencyGraph.State.TIMED_OUT, graph.getNodes().get(0).getState());
+        assertEquals(1, outcome.failures);
+
+        // too late
+        pending.get("slow").proceed();
+        assertEquals(0, outcome.successes);
+    }
+
+    @Test
+    public void maxInFlight() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler).setMaxInFlight(2);
+        for(int i=0; i<5; i++)
+            graph.addStep("host-" + i, deferred("host-" + i));
+
+        graph.execute(started, outcome);
+        assertEquals(list("host-0", "host-1"), started);
+
+        pending.get("host-1").proceed();
+        assertEquals(list("host-0", "host-1", "host-2"), started);
+
+        pending.get("host-0").proceed();
+        pending.get("host-2").proceed();
+        assertEquals(5, started.size());
+
+        pending.get("host-3").proceed();
+        pending.get("host-4").proceed();
+        assertEquals(1, outcome.successes);
+    }
+
+    @Test
+    public void cancel() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("a", deferred("a"))
+                .add("b", immediate("b"), "a")
+                .timeout("a", 1000);
+
+        DependencyGraph.Execution<List<String>> execution = graph.execute(started, outcome);
+        execution.cancel();
+
+        assertTrue(execution.isDone());
+        assertTrue(execution.isCancelled());
+        assertTrue(pending.get("a").isCancelled());
+        assertTrue(scheduler.timeouts.get(0).cancelled);
+
+        pending.get("a").proceed();
+        assertEquals(list("a"), started);
+        assertEquals(0, outcome.successes);
+        assertEquals(0, outcome.failures);
+
+        // the graph can be executed again
+        started.clear();
+        graph.execute(started, outcome);
+        pending.get("a").proceed();
+        assertEquals(list("a", "b"), started);
+        assertEquals(1, outcome.successes);
+    }
+
+    @Test
+    public void emptyGraph() {
+        new DependencyGraph<List<String>>(scheduler).execute(started, outcome);
+        assertEquals(1, outcome.successes);
+    }
+
+    @Test
+    public void longChainDoesNotRecurse() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler);
+        graph.add("step-0", immediate("step-0"));
+        for(int i=1; i<5000; i++)
+            graph.add("step-" + i, immediate("step-" + i), "step-" + (i-1));
+
+        graph.execute(started, outcome);
+        assertEquals(5000, started.size());
+        assertEquals(1, outcome.successes);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cycle() {
+        new DependencyGraph<List<String>>(scheduler)
+                .add("a", immediate("a"), "b")
+                .add("b", immediate("b"), "a")
+                .execute(started, outcome);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unknownPrerequisite() {
+        new DependencyGraph<List<String>>(scheduler)
+                .add("a", immediate("a"), "b")
+                .execute(started, outcome);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void concurrentExecution() {
+        DependencyGraph<List<String>> graph = new DependencyGraph<List<String>>(scheduler)
+                .addStep("a", deferred("a"));
+
+        graph.execute(started, outcome);
+        graph.execute(started, outcome);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateId() {
+        new DependencyGraph<List<String>>(scheduler)
+                .add("a", immediate("a"))
+                .add("a", immediate("a"));
+    }
+
+    @Test
+    public void executionIsNotCancelledByDefault() {
+        DependencyGraph.Execution<List<String>> execution = new DependencyGraph<List<String>>(scheduler)
+                .add("a", immediate("a"))
+                .execute(started, outcome);
+
+        assertTrue(execution.isDone());
+        assertFalse(execution.isCancelled());
+    }
+
+    private Function<List<String>> immediate(final String name) {
+        return new Function<List<String>>() {
+            @Override
+            public void execute(Control<List<String>> control) {
+                control.getContext().add(name);
+                control.proceed();
+            }
+        };
+    }
+
+    private Step<List<String>> deferred(final String name) {
+        return new Step<List<String>>() {
+            @Override
+            public void execute(StepControl<List<String>> control) {
+                control.getContext().add(name);
+                pending.put(name, control);
+            }
+        };
+    }
+
+    private static List<String> list(String... items) {
+        List<String> list = new ArrayList<String>();
+        for(String item : items)
+            list.add(item);
+        return list;
+    }
+
+    static class RecordingOutcome implements Outcome<List<String>> {
+        int successes;
+        int failures;
+
+        @Override
+        public void onFailure(List<String> context) {
+            failures++;
+        }
+
+        @Override
+        public void onSuccess(List<String> context) {
+            successes++;
+        }
+    }
+
+    static class ManualScheduler implements TimeoutScheduler {
+        final List<ManualTimeout> timeouts = new ArrayList<ManualTimeout>();
+
+        @Override
+        public Timeout schedule(int delayMillis, Runnable task) {
+            ManualTimeout timeout = new ManualTimeout(task);
+            timeouts.add(timeout);
+            return timeout;
+        }
+
+        void fire(int index) {
+            ManualTimeout timeout = timeouts.get(index);
+            if(!timeout.cancelled)
+                timeout.task.run();
+        }
+    }
+
+    static class ManualTimeout implements TimeoutScheduler.Timeout {
+        final Runnable task;
+        boolean cancelled;
+
+        ManualTimeout(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
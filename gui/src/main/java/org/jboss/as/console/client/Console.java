@@ -58,7 +58,7 @@ import org.jboss.as.console.client.plugins.RuntimeExtensionRegistry;
 import org.jboss.as.console.client.plugins.SubsystemRegistry;
 import org.jboss.as.console.client.shared.Preferences;
 import org.jboss.as.console.client.shared.help.HelpSystem;
-import org.jboss.gwt.flow.client.Async;
+import org.jboss.gwt.flow.client.DependencyGraph;
 import org.jboss.gwt.flow.client.Outcome;
 
 /**
@@ -119,11 +119,27 @@ public class Console implements EntryPoint {
                     System.out.println(key.getTitle()+": "+ prefValue);
                 }
 
+                // Bootstrap functions and their prerequisites.
+                // Functions that don't depend on each other are executed concurrently.
+
+                final DependencyGraph<BootstrapContext> bootstrap = new DependencyGraph<BootstrapContext>()
+                        .add("google-viz", new LoadGoogleViz())
+                        .add("execution-mode", new ExecutionMode(MODULES.getDispatchAsync()))
+                        .add("compat-matrix", new LoadCompatMatrix(MODULES.modelVersions()))
+                        .add("subsystems", new RegisterSubsystems(MODULES.getSubsystemRegistry()))
+                        .add("track-execution-mode", new TrackExecutionMode(MODULES.getAnalytics()), "execution-mode")
+                        .add("processor", new ChoseProcessor(), "execution-mode")
+                        .add("profiles", new EagerLoadProfiles(MODULES.getProfileStore(), MODULES.getCurrentSelectedProfile()),
+                                "processor", "compat-matrix", "subsystems")
+                        .add("hosts", new EagerLoadHosts(MODULES.getDomainEntityManager()), "processor");
+
                 // Bootstrap outcome: Load main application or display error message
 
                 Outcome<BootstrapContext> bootstrapOutcome = new Outcome<BootstrapContext>() {
                     @Override
                     public void onFailure(BootstrapContext context) {
+                        logTimings(bootstrap);
+
                         // currently we only deal with authentication errors
                         RootLayoutPanel.get().remove(loadingPanel);
 
@@ -137,6 +153,7 @@ public class Console implements EntryPoint {
 
                     @Override
                     public void onSuccess(BootstrapContext context) {
+                        logTimings(bootstrap);
 
                         RootLayoutPanel.get().remove(loadingPanel);
 
@@ -147,28 +164,18 @@ public class Console implements EntryPoint {
                     }
                 };
 
-                // Ordered execution: if any of these fail, the interface wil not be loaded
-
-                new Async<BootstrapContext>().waterfall(
-                        MODULES.getBootstrapContext(), // shared context
-                        bootstrapOutcome, // outcome
-
-                        // bootstrap functions
-                        new LoadGoogleViz(),
-                        new ExecutionMode(MODULES.getDispatchAsync()),
-                        new TrackExecutionMode(MODULES.getAnalytics()),
-                        new LoadCompatMatrix(MODULES.modelVersions()),
-                        new RegisterSubsystems(MODULES.getSubsystemRegistry()),
-                        new ChoseProcessor(),
-                        new EagerLoadProfiles(MODULES.getProfileStore(), MODULES.getCurrentSelectedProfile()),
-                        new EagerLoadHosts(MODULES.getDomainEntityManager())
-                );
-
+                // if any of these fail, the interface wil not be loaded
+                bootstrap.execute(MODULES.getBootstrapContext(), bootstrapOutcome);
             }
 
         });
     }
 
+    private static void logTimings(DependencyGraph<BootstrapContext> bootstrap) {
+        for(DependencyGraph.Node<BootstrapContext> node : bootstrap.getNodes())
+            Log.info("Bootstrap " + node);
+    }
+
     public static void info(String message) {
         getMessageCenter().notify(
                 new Message(message, Message.Severity.Info)
@@ -90,6 +90,7 @@ import org.jboss.as.console.client.plugins.RuntimeLHSItemExtensionRegistryImpl;
 import org.jboss.as.console.client.plugins.SubsystemRegistry;
 import org.jboss.as.console.client.plugins.SubsystemRegistryImpl;
 import org.jboss.as.console.client.shared.deployment.DeploymentStore;
+import org.jboss.dmr.client.dispatch.DMRCache;
 import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.dmr.client.dispatch.HandlerMapping;
 import org.jboss.as.console.client.shared.state.ResponseProcessorFactory;
@@ -109,6 +110,7 @@ import org.jboss.as.console.client.shared.general.SocketBindingView;
 import org.jboss.as.console.client.shared.help.HelpSystem;
 import org.jboss.as.console.client.shared.model.SubsystemStore;
 import org.jboss.as.console.client.shared.model.SubsystemStoreImpl;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.RuntimeBaseAddress;
 import org.jboss.as.console.client.shared.runtime.ds.DataSourceMetricPresenter;
 import org.jboss.as.console.client.shared.runtime.ds.DataSourceMetricView;
@@ -253,6 +255,7 @@ public class CoreUIModule extends AbstractPresenterModule {
         bind(ExpressionResolver.class).to(DefaultExpressionResolver.class).in(Singleton.class);
         bind(Baseadress.class).in(Singleton.class);
         bind(RuntimeBaseAddress.class).in(Singleton.class);
+        bind(MetricPoller.class).in(Singleton.class);
 
         // mobile:
         // bindConstant().annotatedWith(GaAccount.class).to("UA-36590267-1");
@@ -330,6 +333,7 @@ public class CoreUIModule extends AbstractPresenterModule {
         bind(DispatchAsync.class).to(DispatchAsyncImpl.class).in(Singleton.class);
         bind(HandlerMapping.class).to(HandlerRegistry.class).in(Singleton.class);
         bind(DMRHandler.class).in(Singleton.class);
+        bind(DMRCache.class).in(Singleton.class);
 
         // ----------------------------------------------------------------------
 
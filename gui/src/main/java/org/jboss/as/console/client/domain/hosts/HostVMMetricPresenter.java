@@ -21,8 +21,10 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.as.console.client.shared.jvm.LoadJVMMetricsCmd;
 import org.jboss.as.console.client.shared.jvm.model.CompositeVMMetric;
 import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.RuntimeBaseAddress;
 import org.jboss.as.console.client.shared.runtime.vm.VMMetricsManagement;
+import org.jboss.as.console.client.shared.runtime.vm.VMMetricsPolling;
 import org.jboss.as.console.client.shared.runtime.vm.VMView;
 import org.jboss.as.console.client.shared.state.DomainEntityManager;
 import org.jboss.as.console.client.shared.state.ServerSelectionChanged;
@@ -43,6 +45,7 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
 
     private HostInformationStore hostInfoStore;
     private final DomainEntityManager domainManager;
+    private final MetricPoller poller;
 
     @ProxyCodeSplit
     @NameToken(NameTokens.HostVMMetricPresenter)
@@ -58,7 +61,8 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
             EventBus eventBus, MyView view, MyProxy proxy,
             DomainEntityManager domainManager,
             DispatchAsync dispatcher, BeanFactory factory,
-            ApplicationMetaData metaData, HostInformationStore hostInfoStore
+            ApplicationMetaData metaData, HostInformationStore hostInfoStore,
+            MetricPoller poller
             ) {
         super(eventBus, view, proxy);
 
@@ -67,10 +71,13 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
         this.factory = factory;
         this.metaData = metaData;
         this.hostInfoStore = hostInfoStore;
+        this.poller = poller;
     }
 
     @Override
     public void onServerSelectionChanged(boolean isRunning) {
+        // stop polling the previous server, refresh() subscribes to the new one
+        poller.cancel(this);
         Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
             @Override
             public void execute() {
@@ -91,6 +98,12 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
         refresh();
     }
 
+    @Override
+    protected void onHide() {
+        super.onHide();
+        poller.cancel(this);
+    }
+
     @Override
     public void refresh() {
         loadVMStatus();
@@ -149,6 +162,8 @@ public class HostVMMetricPresenter extends Presenter<VMView, HostVMMetricPresent
                 );
             }
         });
+
+        VMMetricsPolling.subscribe(poller, this, RuntimeBaseAddress.get(), getView());
     }
 
 
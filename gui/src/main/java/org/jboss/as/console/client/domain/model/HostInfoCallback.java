@@ -0,0 +1,54 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.domain.model;
+
+import org.jboss.as.console.client.domain.topology.HostInfo;
+
+import java.util.List;
+
+/**
+ * Receives the hosts and their server instances page by page,
+ * see {@link HostInformationStore#loadHostsAndServerInstances(int, int, HostInfoCallback)}.
+ *
+ * @author Heiko Braun
+ */
+public abstract class HostInfoCallback extends SimpleCallback<List<HostInfo>> {
+
+    private boolean cancelled = false;
+
+    /**
+     * Called each time the server instances of another page of hosts are available.
+     * The list contains all hosts sorted by name, the server instances of hosts that have
+     * not been loaded yet are empty. The last page is passed to {@link #onSuccess(Object)} instead.
+     */
+    public void onPage(List<HostInfo> hosts) {
+    }
+
+    /**
+     * Stop loading. No more requests are sent and the callback is not notified anymore.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
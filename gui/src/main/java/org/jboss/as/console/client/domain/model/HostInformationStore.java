@@ -34,11 +34,22 @@ import java.util.Map;
 public interface HostInformationStore {
     void getHosts(AsyncCallback<List<Host>> callback);
     void loadHostsAndServerInstances(AsyncCallback<List<HostInfo>> callback);
+
+    /**
+     * Loads the server instances with a bounded number of concurrent requests. The page of hosts starting
+     * at <tt>firstHost</tt> (in the order of their names) is loaded first, the remaining pages follow.
+     */
+    void loadHostsAndServerInstances(int firstHost, int pageSize, HostInfoCallback callback);
     void loadServerInstances(String serverGroup, AsyncCallback<List<ServerInstance>> callback);
     void getServerConfigurations(String name, AsyncCallback<List<Server>> callback);
     void getServerConfiguration(String host, String server, final AsyncCallback<Server> callback);
     void getServerInstances(String host, AsyncCallback<List<ServerInstance>> callback);
 
+    /**
+     * Drop the cached server instances, the next request reads them from the server.
+     */
+    void invalidateServerInstances();
+
     void updateServerInstance(String host, final Server handle, final AsyncCallback<ServerInstance> callback);
     void getVirtualMachines(String host, final AsyncCallback<List<String>> callback) ;
 
@@ -19,13 +19,15 @@
 
 package org.jboss.as.console.client.domain.model.impl;
 
-import com.google.gwt.core.client.Scheduler;
+import com.allen_sauer.gwt.log.client.Log;
 import com.google.gwt.user.client.Command;
 import com.google.gwt.user.client.rpc.AsyncCallback;
-import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.inject.Inject;
+import com.google.web.bindery.event.shared.EventBus;
 import org.jboss.as.console.client.Console;
+import org.jboss.as.console.client.domain.events.StaleModelEvent;
 import org.jboss.as.console.client.domain.model.Host;
+import org.jboss.as.console.client.domain.model.HostInfoCallback;
 import org.jboss.as.console.client.domain.model.HostInformationStore;
 import org.jboss.as.console.client.domain.model.Server;
 import org.jboss.as.console.client.domain.model.ServerFlag;
@@ -45,6 +47,10 @@ import org.jboss.as.console.client.widgets.forms.PropertyBinding;
 import org.jboss.dmr.client.ModelDescriptionConstants;
 import org.jboss.dmr.client.ModelNode;
 import org.jboss.dmr.client.Property;
+import org.jboss.gwt.flow.client.DependencyGraph;
+import org.jboss.gwt.flow.client.Outcome;
+import org.jboss.gwt.flow.client.Step;
+import org.jboss.gwt.flow.client.StepControl;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -60,7 +66,20 @@ import static org.jboss.dmr.client.ModelDescriptionConstants.*;
  * @author Heiko Braun
  * @date 3/18/11
  */
-public class HostInfoStoreImpl implements HostInformationStore {
+public class HostInfoStoreImpl implements HostInformationStore, StaleModelEvent.StaleModelListener {
+
+    /**
+     * Upper bound for hosts queried at the same time
+     */
+    public static final int MAX_HOSTS_IN_FLIGHT = 3;
+
+    private static final int HOST_TIMEOUT = 30000;
+
+    /**
+     * Server instances are cached until a lifecycle operation or {@link StaleModelEvent} invalidates them.
+     * The TTL covers changes made outside this console.
+     */
+    private static final int INSTANCE_CACHE_TTL = 30000;
 
     private DispatchAsync dispatcher;
     private BeanFactory factory;
@@ -68,15 +87,18 @@ public class HostInfoStoreImpl implements HostInformationStore {
     private EntityAdapter<Server> serverAdapter;
     private EntityAdapter<Jvm> jvmAdapter;
     private EntityAdapter<PropertyRecord> propertyAdapter;
+    private final Map<String, CachedInstances> instanceCache = new HashMap<String, CachedInstances>();
 
     @Inject
-    public HostInfoStoreImpl(DispatchAsync dispatcher, BeanFactory factory, ApplicationMetaData propertyMeta) {
+    public HostInfoStoreImpl(DispatchAsync dispatcher, BeanFactory factory, ApplicationMetaData propertyMeta, EventBus eventBus) {
         this.dispatcher = dispatcher;
         this.factory = factory;
         this.propertyMetaData = propertyMeta;
         serverAdapter = new EntityAdapter<Server>(Server.class, propertyMeta);
         jvmAdapter = new EntityAdapter<Jvm>(Jvm.class, propertyMeta);
         propertyAdapter = new EntityAdapter<PropertyRecord>(PropertyRecord.class, propertyMeta);
+
+        eventBus.addHandler(StaleModelEvent.TYPE, this);
     }
 
     @Override
@@ -119,70 +141,157 @@ public class HostInfoStoreImpl implements HostInformationStore {
     @Override
     public void loadHostsAndServerInstances(final AsyncCallback<List<HostInfo>> callback)
     {
-        getHosts(new SimpleCallback<List<Host>>()
+        loadHostsAndServerInstances(0, MAX_HOSTS_IN_FLIGHT, new HostInfoCallback()
         {
+            @Override
+            public void onFailure(Throwable caught)
+            {
+                callback.onFailure(caught);
+            }
+
+            @Override
+            public void onSuccess(List<HostInfo> hosts)
+            {
+                callback.onSuccess(hosts);
+            }
+        });
+    }
+
+    @Override
+    public void loadHostsAndServerInstances(final int firstHost, final int pageSize, final HostInfoCallback callback)
+    {
+        getHosts(new AsyncCallback<List<Host>>()
+        {
+            @Override
+            public void onFailure(Throwable caught)
+            {
+                callback.onFailure(caught);
+            }
+
             @Override
             public void onSuccess(final List<Host> hosts)
             {
-                // The command is used to defer callback.onSuccess()
-                // until all server instances of all hosts are available
-                final Command cmd = new Command()
+                if (!callback.isCancelled())
                 {
-                    int numRequests = 0;
-                    int numResponses = 0;
-                    final List<HostInfo> hostInfos = new ArrayList<HostInfo>();
+                    loadServerInstances(hosts, firstHost, pageSize, callback);
+                }
+            }
+        });
+    }
 
-                    @Override
-                    public void execute()
+    /**
+     * Fetch the server instances host by host, at most {@link #MAX_HOSTS_IN_FLIGHT} at a time.
+     * Hosts that fail or time out are reported without server instances.
+     */
+    private void loadServerInstances(List<Host> hosts, int firstHost, int pageSize, final HostInfoCallback callback)
+    {
+        // the topology view orders the hosts by name
+        final List<HostInfo> hostInfos = new ArrayList<HostInfo>();
+        for (Host host : hosts)
+        {
+            HostInfo info = new HostInfo(host.getName(), host.isController());
+            info.setServerInstances(Collections.<ServerInstance>emptyList());
+            hostInfos.add(info);
+        }
+        Collections.sort(hostInfos);
+
+        final int numHosts = hostInfos.size();
+        final int size = Math.max(1, pageSize);
+        final int first = numHosts == 0 ? 0 : Math.max(0, Math.min(firstHost, numHosts - 1));
+
+        // pages in the order they are loaded: the requested one first, then the following, then the preceding
+        final int[] pendingPerPage = new int[(numHosts + size - 1) / size];
+        final int[] remaining = {numHosts};
+
+        DependencyGraph<List<HostInfo>> graph = new DependencyGraph<List<HostInfo>>()
+                .setMaxInFlight(MAX_HOSTS_IN_FLIGHT)
+                .setFailFast(false);
+
+        for (int i = 0; i < numHosts; i++)
+        {
+            final HostInfo info = hostInfos.get((first + i) % numHosts);
+            final int page = i / size;
+            pendingPerPage[page]++;
+
+            final Command done = new Command()
+            {
+                @Override
+                public void execute()
+                {
+                    remaining[0]--;
+                    pendingPerPage[page]--;
+                    if (pendingPerPage[page] == 0 && remaining[0] > 0 && !callback.isCancelled())
                     {
-                        for (final Host host : hosts)
+                        callback.onPage(hostInfos);
+                    }
+                }
+            };
+
+            graph.addStep(info.getName(), new Step<List<HostInfo>>()
+            {
+                @Override
+                public void execute(final StepControl<List<HostInfo>> control)
+                {
+                    if (callback.isCancelled())
+                    {
+                        control.abort();
+                        return;
+                    }
+
+                    control.onCancel(new Runnable()
+                    {
+                        @Override
+                        public void run()
                         {
-                            numRequests++;
-                            getServerInstances(host.getName(), new SimpleCallback<List<ServerInstance>>()
-                            {
-                                @Override
-                                public void onFailure(final Throwable caught)
-                                {
-                                    // log error
-                                    super.onFailure(caught);
-
-                                    numResponses++;
-                                    HostInfo info = new HostInfo(host.getName(), host.isController());
-                                    info.setServerInstances(Collections.<ServerInstance>emptyList());
-                                    hostInfos.add(info);
-                                    checkComplete();
-                                }
-
-                                @Override
-                                public void onSuccess(List<ServerInstance> serverInstances)
-                                {
-                                    numResponses++;
-                                    HostInfo info = new HostInfo(host.getName(), host.isController());
-                                    info.setServerInstances(serverInstances);
-                                    hostInfos.add(info);
-                                    checkComplete();
-                                }
-                            });
+                            Log.warn("Timeout loading server instances of host " + info.getName());
+                            done.execute();
                         }
-                    }
+                    });
 
-                    private void checkComplete()
+                    getServerInstances(info.getName(), new AsyncCallback<List<ServerInstance>>()
                     {
-                        if (numRequests == numResponses)
+                        @Override
+                        public void onFailure(Throwable caught)
                         {
-                            callback.onSuccess(hostInfos);
+                            if (!control.isCancelled())
+                            {
+                                Log.error("Failed to load server instances of host " + info.getName(), caught);
+                                done.execute();
+                                control.proceed();
+                            }
                         }
-                    }
-                };
 
-                Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand()
+                        @Override
+                        public void onSuccess(List<ServerInstance> serverInstances)
+                        {
+                            if (!control.isCancelled())
+                            {
+                                info.setServerInstances(serverInstances);
+                                done.execute();
+                                control.proceed();
+                            }
+                        }
+                    });
+                }
+            }).timeout(info.getName(), HOST_TIMEOUT);
+        }
+
+        graph.execute(hostInfos, new Outcome<List<HostInfo>>()
+        {
+            @Override
+            public void onFailure(List<HostInfo> context)
+            {
+                // timeouts: report what's there
+                onSuccess(context);
+            }
+
+            @Override
+            public void onSuccess(List<HostInfo> context)
+            {
+                if (!callback.isCancelled())
                 {
-                    @Override
-                    public void execute()
-                    {
-                        cmd.execute();
-                    }
-                });
+                    callback.onSuccess(context);
+                }
             }
         });
     }
@@ -226,19 +335,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
         operation.get(ADDRESS).setEmptyList();
 
         List<ModelNode> steps = new ArrayList<ModelNode>();
-
-        ModelNode coreModel = new ModelNode();
-        coreModel.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
-        coreModel.get(INCLUDE_RUNTIME).set(true);
-        coreModel.get(ADDRESS).add("host", host);
-        coreModel.get(CHILD_TYPE).set("server-config");
-        steps.add(coreModel);
-
-        ModelNode groupModel = new ModelNode();
-        groupModel.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
-        groupModel.get(ADDRESS).setEmptyList();
-        groupModel.get(CHILD_TYPE).set("server-group");
-        steps.add(groupModel);
+        steps.add(serverConfigsOp(host));
+        steps.add(serverGroupsOp());
 
         operation.get(STEPS).set(steps);
 
@@ -260,39 +358,54 @@ public class HostInfoStoreImpl implements HostInformationStore {
                 }
                 else
                 {
+                    callback.onSuccess(parseServerConfigs(
+                            overalResult.get("step-1").get(RESULT),
+                            overalResult.get("step-2").get(RESULT)
+                    ));
+                }
 
-                    List<Property> serverGroupsModel = overalResult.get("step-2").get(RESULT).asPropertyList();
-
-                    Map<String,String> group2profile = new HashMap<String,String>();
-
-                    for(Property group : serverGroupsModel)
-                    {
-                        group2profile.put(group.getName(), group.getValue().get("profile").asString());
-                    }
-
-
-                    List<ModelNode> serverConfigModel = overalResult.get("step-1").get(RESULT).asList();
 
-                    List<Server> records = new LinkedList<Server>();
-                    for(ModelNode item : serverConfigModel)
-                    {
-                        ModelNode model = item.asProperty().getValue();
-                        Server server = serverAdapter.fromDMR(model);
-                        server.setStarted(model.get("status").asString().equals("STARTED"));
-                        server.setProfile(group2profile.get(server.getGroup()));
-                        records.add(server);
-                    }
+            }
 
-                    // group profiles
+        });
+    }
 
-                    callback.onSuccess(records);
+    private static ModelNode serverConfigsOp(String host) {
+        ModelNode coreModel = new ModelNode();
+        coreModel.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
+        coreModel.get(INCLUDE_RUNTIME).set(true);
+        coreModel.get(ADDRESS).add("host", host);
+        coreModel.get(CHILD_TYPE).set("server-config");
+        return coreModel;
+    }
 
-                }
+    private static ModelNode serverGroupsOp() {
+        ModelNode groupModel = new ModelNode();
+        groupModel.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
+        groupModel.get(ADDRESS).setEmptyList();
+        groupModel.get(CHILD_TYPE).set("server-group");
+        return groupModel;
+    }
 
+    private List<Server> parseServerConfigs(ModelNode serverConfigModel, ModelNode serverGroupsModel) {
 
-            }
+        // group profiles
+        Map<String,String> group2profile = new HashMap<String,String>();
+        for(Property group : serverGroupsModel.asPropertyList())
+        {
+            group2profile.put(group.getName(), group.getValue().get("profile").asString());
+        }
 
-        });
+        List<Server> records = new LinkedList<Server>();
+        for(ModelNode item : serverConfigModel.asList())
+        {
+            ModelNode model = item.asProperty().getValue();
+            Server server = serverAdapter.fromDMR(model);
+            server.setStarted(model.get("status").asString().equals("STARTED"));
+            server.setProfile(group2profile.get(server.getGroup()));
+            records.add(server);
+        }
+        return records;
     }
 
     @Override
@@ -361,243 +474,114 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
 
     @Override
-    public void getServerInstances(final String host, final AsyncCallback<List<ServerInstance>> callbackReference) {
-
-
-        final Command cmd = new Command() {
-
-            private int numRequests = 0;
-            private int numResponses = 0;
-            private final AsyncCallback<List<ServerInstance>> cb = callbackReference;
-            private final String id = HTMLPanel.createUniqueId();
-
-            @Override
-            public void execute() {
-                final List<ServerInstance> instanceList = new LinkedList<ServerInstance>();
-
-                //System.out.println("*** ["+id+"] attempt to fetch server instances *** ");
-
-                getServerConfigurations(host, new SimpleCallback<List<Server>>() {
-                    @Override
-                    public void onSuccess(final List<Server> serverConfigs) {
+    public void getServerInstances(final String host, final AsyncCallback<List<ServerInstance>> callback) {
 
+        CachedInstances cached = instanceCache.get(host);
+        if(cached!=null && !cached.isExpired())
+        {
+            callback.onSuccess(new ArrayList<ServerInstance>(cached.instances));
+            return;
+        }
 
-                        if(serverConfigs.isEmpty())
-                        {
-                            callbackReference.onSuccess(Collections.EMPTY_LIST);
-                            return;
-                        }
+        // configurations and the runtime state of all servers in one go
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set(COMPOSITE);
+        operation.get(ADDRESS).setEmptyList();
+        operation.get(OPERATION_HEADERS).get(ROLLBACK_ON_RUNTIME_FAILURE).set(false);
 
-                        for(final Server handle : serverConfigs)
-                        {
+        List<ModelNode> steps = new ArrayList<ModelNode>();
+        steps.add(serverConfigsOp(host));
+        steps.add(serverGroupsOp());
+        steps.addAll(ServerRuntimeModels.steps(host));
 
-                            ModelNode operation = new ModelNode();
-                            operation.get(OP).set(COMPOSITE);
-                            operation.get(ADDRESS).setEmptyList();
-
-                            List<ModelNode> steps = new ArrayList<ModelNode>();
-
-                            final ModelNode coreData = new ModelNode();
-                            coreData.get(OP).set(READ_RESOURCE_OPERATION);
-                            coreData.get(INCLUDE_RUNTIME).set(true);
-                            coreData.get(ADDRESS).setEmptyList();
-                            coreData.get(ADDRESS).add("host", host);
-                            coreData.get(ADDRESS).add("server", handle.getName());
-                            steps.add(coreData);
-
-                            final ModelNode interfaces = new ModelNode();
-                            interfaces.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
-                            interfaces.get(INCLUDE_RUNTIME).set(true);
-                            interfaces.get(ADDRESS).add("host", host);
-                            interfaces.get(ADDRESS).add("server", handle.getName());
-                            interfaces.get(CHILD_TYPE).set("interface");
-                            steps.add(interfaces);
-
-
-                            final ModelNode socketBinding = new ModelNode();
-                            socketBinding.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
-                            socketBinding.get(INCLUDE_RUNTIME).set(true);
-                            socketBinding.get(ADDRESS).add("host", host);
-                            socketBinding.get(ADDRESS).add("server", handle.getName());
-                            socketBinding.get(CHILD_TYPE).set("socket-binding-group");
-                            steps.add(socketBinding);
-
-                           /* final ModelNode groupProfile = new ModelNode();
-                            groupProfile.get(OP).set(READ_RESOURCE_OPERATION);
-                            groupProfile.get(ADDRESS).add("server-group", handle.getGroup());
-                            steps.add(groupProfile);*/
-
-                            operation.get(STEPS).set(steps);
-
-                            numRequests++;
-
-                            dispatcher.execute(new DMRAction(operation, false), new SimpleCallback<DMRResponse>() {
-
-
-                                @Override
-                                public void onFailure(Throwable caught) {
-                                    numResponses++;
-
-                                    ServerInstance instance = createInstanceModel(handle);
-                                    instance.setHost(host);
-                                    instance.setRunning(false);
-                                    instance.setInterfaces(new HashMap<String, String>());
-                                    instance.setSocketBindings(new HashMap<String, String>());
-                                    instanceList.add(instance);
-
-                                    checkComplete(instanceList, cb);
-                                }
-
-                                @Override
-                                public void onSuccess(DMRResponse result) {
-
-                                    numResponses++;
-
-                                    ModelNode response = result.get();
-                                    ModelNode compositeResponse = response.get(RESULT);
-
-                                    ServerInstance instance = createInstanceModel(handle);
-                                    instance.setHost(host);
-                                    instance.setInterfaces(new HashMap<String, String>());
-                                    instance.setSocketBindings(new HashMap<String, String>());
-                                    instanceList.add(instance);
-
-                                    if(response.isFailure())
-                                    {
-                                        instance.setRunning(false);
-                                    }
-                                    else
-                                    {
-
-                                        ModelNode instanceModel = compositeResponse.get("step-1").get(RESULT);
-                                        instance.setRunning(handle.isStarted());
-
-                                        //instance.setProfile(instanceModel.get("profile-name").asString());
-
-                                        if(instanceModel.hasDefined("server-state"))
-                                        {
-                                            String state = instanceModel.get("server-state").asString();
-                                            if(state.equals("reload-required"))
-                                            {
-                                                instance.setFlag(ServerFlag.RELOAD_REQUIRED);
-                                            }
-                                            else if (state.equals("restart-required"))
-                                            {
-                                                instance.setFlag(ServerFlag.RESTART_REQUIRED);
-                                            }
-                                        }
-
-                                        // ---- interfaces
-                                        List<Property> interfaces = compositeResponse.get("step-2").get(RESULT).asPropertyList();
-
-                                        for(Property intf : interfaces)
-                                        {
-                                            if(intf.getValue().hasDefined("resolved-address"))
-                                            {
-                                                instance.getInterfaces().put(
-                                                        intf.getName(),
-                                                        intf.getValue().get("resolved-address").asString()
-                                                );
-                                            }
-                                        }
-
-
-                                        // ---- socket binding
-                                        List<Property> sockets = compositeResponse.get("step-3").get(RESULT).asPropertyList();
-
-                                        for(Property socket : sockets)
-                                        {
-                                            instance.getSocketBindings().put(
-                                                    socket.getName(),
-                                                    socket.getValue().get("port-offset").asString()
-                                            );
-
-                                        }
-                                    }
-
-                                    checkComplete(instanceList, cb);
-                                }
-                            });
+        operation.get(STEPS).set(steps);
 
-                        }
-                    }
-                });
+        dispatcher.execute(new DMRAction(operation, false), new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                callback.onFailure(caught);
             }
 
-            private void checkComplete(List<ServerInstance> instanceList, AsyncCallback<List<ServerInstance>> callback) {
-                if(numRequests==numResponses)
-                {
-
-                    Collections.sort(instanceList, new Comparator<ServerInstance>() {
-                        @Override
-                        public int compare(ServerInstance a, ServerInstance b) {
-                            return a.getName().compareTo(b.getName());
-                        }
-                    });
+            @Override
+            public void onSuccess(DMRResponse result) {
 
+                ModelNode response = result.get();
+                ModelNode compositeResponse = response.get(RESULT);
 
-                    //System.out.println("*** ["+id+"] complete roundtrips  *** ");
+                if(!response.hasDefined(RESULT)
+                        || !SUCCESS.equals(compositeResponse.get("step-1").get(OUTCOME).asString()))
+                {
+                    callback.onFailure(new RuntimeException("Failed to load server instances: "+response.getFailureDescription()));
+                    return;
+                }
 
-                    callback.onSuccess(instanceList);
+                List<Server> serverConfigs = parseServerConfigs(
+                        compositeResponse.get("step-1").get(RESULT),
+                        compositeResponse.get("step-2").get(RESULT)
+                );
+                ServerRuntimeModels runtime = new ServerRuntimeModels(
+                        compositeResponse.get("step-3"),
+                        compositeResponse.get("step-4"),
+                        compositeResponse.get("step-5")
+                );
+
+                List<ServerInstance> instanceList = new ArrayList<ServerInstance>(serverConfigs.size());
+                for(Server handle : serverConfigs)
+                {
+                    ServerInstance instance = createInstanceModel(handle);
+                    instance.setHost(host);
+                    instanceList.add(instance);
+
+                    String name = handle.getName();
+                    instance.setRunning(runtime.isRunning(name) && handle.isStarted());
+                    instance.setInterfaces(runtime.getInterfaces(name));
+                    instance.setSocketBindings(runtime.getSocketBindings(name));
+
+                    ServerFlag flag = runtime.getFlag(name);
+                    if(flag!=null)
+                        instance.setFlag(flag);
                 }
-            }
-        };
 
+                Collections.sort(instanceList, new Comparator<ServerInstance>() {
+                    @Override
+                    public int compare(ServerInstance a, ServerInstance b) {
+                        return a.getName().compareTo(b.getName());
+                    }
+                });
 
-        Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
-            @Override
-            public void execute() {
-                cmd.execute();
+                instanceCache.put(host, new CachedInstances(instanceList));
+                callback.onSuccess(new ArrayList<ServerInstance>(instanceList));
             }
         });
+    }
 
+    @Override
+    public void invalidateServerInstances() {
+        instanceCache.clear();
+    }
 
+    @Override
+    public void onStaleModel(String modelName) {
+        if(StaleModelEvent.SERVER_INSTANCES.equals(modelName)
+                || StaleModelEvent.SERVER_CONFIGURATIONS.equals(modelName)
+                || StaleModelEvent.SERVER_GROUPS.equals(modelName))
+        {
+            invalidateServerInstances();
+        }
+    }
 
-        /* ModelNode operation = new ModelNode();
-     operation.get(ADDRESS).setEmptyList();
-     operation.get(OP).set(COMPOSITE);
-
-     List<ModelNode> steps = new ArrayList<ModelNode>();
-
-     // ---  fetch configs
-
-     final ModelNode configOp = new ModelNode();
-     configOp.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
-     configOp.get(CHILD_TYPE).set("server-config");
-     configOp.get(ADDRESS).setEmptyList();
-     configOp.get(ADDRESS).add("host", host);
-     configOp.get(INCLUDE_RUNTIME).set(true);
-
-
-     steps.add(configOp);
-
-     // ---  fetch instance state
-
-     final ModelNode instanceOp = new ModelNode();
-     instanceOp.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
-     instanceOp.get(CHILD_TYPE).set("server");
-     instanceOp.get(ADDRESS).setEmptyList();
-     instanceOp.get(ADDRESS).add("host", host);
-     instanceOp.get(INCLUDE_RUNTIME).set(true);
-
-     steps.add(instanceOp);
-
-     operation.get(STEPS).set(steps);
-
-     System.out.println(operation);
-
-     dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
-
-         @Override
-         public void onSuccess(DMRResponse result) {
-
-             ModelNode response = result.get();
-
-             System.out.println(response);
-         }
+    private static class CachedInstances {
+        final List<ServerInstance> instances;
+        final long created;
 
-     });   */
+        CachedInstances(List<ServerInstance> instances) {
+            this.instances = instances;
+            this.created = System.currentTimeMillis();
+        }
 
+        boolean isExpired() {
+            return System.currentTimeMillis() - created > INSTANCE_CACHE_TTL;
+        }
     }
 
 
@@ -668,6 +652,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
     @Override
     public void startServer(final String host, final String configName, boolean startIt, final AsyncCallback<Boolean> callback) {
+        instanceCache.remove(host);
+
         final String actualOp = startIt ? "start" : "stop";
 
         final ModelNode operation = new ModelNode();
@@ -701,6 +687,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
     @Override
     public void reloadServer(String host, final String configName, final AsyncCallback<Boolean> callback) {
+        instanceCache.remove(host);
+
         final ModelNode operation = new ModelNode();
         operation.get(OP).set("reload");
         operation.get(ADDRESS).add("host", host);
@@ -732,6 +720,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
     @Override
     public void createServerConfig(String host, Server record, final AsyncCallback<Boolean> callback) {
+        instanceCache.remove(host);
+
         final ModelNode serverConfig = new ModelNode();
         serverConfig.get(OP).set(ModelDescriptionConstants.ADD);
         serverConfig.get(ADDRESS).add("host", host);
@@ -773,6 +763,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
     @Override
     @Deprecated
     public void saveServerConfig(String host, String name, Map<String, Object> changedValues, final AsyncCallback<Boolean> callback) {
+        instanceCache.remove(host);
+
         ModelNode proto = new ModelNode();
         proto.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
         proto.get(ADDRESS).add("host", host);
@@ -797,6 +789,8 @@ public class HostInfoStoreImpl implements HostInformationStore {
 
     @Override
     public void deleteServerConfig(String host, Server record, final AsyncCallback<Boolean> callback) {
+        instanceCache.remove(host);
+
         final ModelNode serverConfig = new ModelNode();
         serverConfig.get(OP).set(ModelDescriptionConstants.REMOVE);
         serverConfig.get(ADDRESS).add("host", host);
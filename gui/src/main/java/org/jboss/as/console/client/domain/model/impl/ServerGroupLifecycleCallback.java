@@ -95,10 +95,11 @@ public class ServerGroupLifecycleCallback extends SimpleCallback<Boolean>
                                                     .isStarted() : server.isStarted();
                                             if (!keepPolling && finishedServers.size() == servers)
                                             {
-                                                ServerGroupLifecycleCallback.this.callback.onSuccess(finishedServers);
+                                                // invalidate first, the callback reloads the server instances
                                                 Console.MODULES.getEventBus().fireEvent(
                                                         new StaleModelEvent(StaleModelEvent.SERVER_GROUPS)
                                                 );
+                                                ServerGroupLifecycleCallback.this.callback.onSuccess(finishedServers);
                                             }
                                             callback.onSuccess(keepPolling);
                                         }
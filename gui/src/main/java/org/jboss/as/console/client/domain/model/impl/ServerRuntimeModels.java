@@ -0,0 +1,173 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.client.domain.model.impl;
+
+import org.jboss.as.console.client.domain.model.ServerFlag;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.Property;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * The runtime state of the servers of a host, read with wildcard addresses (<tt>host=x/server=*</tt>)
+ * as part of a composite operation. Only <tt>read-resource</tt> and <tt>read-attribute</tt> accept
+ * wildcard addresses, so the interfaces and socket binding groups are read as <tt>server=*&#47;interface=*</tt>
+ * and <tt>server=*&#47;socket-binding-group=*</tt>.
+ * <p/>
+ * Stopped servers don't match the wildcard address, they show up in none of the steps.
+ *
+ * @author Heiko Braun
+ */
+class ServerRuntimeModels {
+
+    private final Map<String, ModelNode> runtime;
+    private final Map<String, Map<String, ModelNode>> interfaces;
+    private final Map<String, Map<String, ModelNode>> socketBindingGroups;
+
+    /**
+     * @param runtimeStep the response of the first step returned by {@link #steps(String)}
+     * @param interfaceStep the response of the second step
+     * @param socketBindingStep the response of the third step
+     */
+    ServerRuntimeModels(ModelNode runtimeStep, ModelNode interfaceStep, ModelNode socketBindingStep) {
+        this.runtime = new HashMap<String, ModelNode>();
+        for(Map.Entry<String, Map<String, ModelNode>> server : perServer(runtimeStep, null).entrySet())
+            runtime.put(server.getKey(), server.getValue().get(server.getKey()));
+
+        this.interfaces = perServer(interfaceStep, "interface");
+        this.socketBindingGroups = perServer(socketBindingStep, "socket-binding-group");
+    }
+
+    /**
+     * @return the steps to read the servers, their interfaces and socket binding groups
+     */
+    static List<ModelNode> steps(String host) {
+        List<ModelNode> steps = new ArrayList<ModelNode>(3);
+        steps.add(readResource(host, null));
+        steps.add(readResource(host, "interface"));
+        steps.add(readResource(host, "socket-binding-group"));
+        return steps;
+    }
+
+    private static ModelNode readResource(String host, String childType) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(INCLUDE_RUNTIME).set(true);
+        operation.get(ADDRESS).add("host", host);
+        operation.get(ADDRESS).add("server", "*");
+        if(childType!=null)
+            operation.get(ADDRESS).add(childType, "*");
+        return operation;
+    }
+
+    /**
+     * @return true if the server is running, i.e. its runtime model could be read
+     */
+    boolean isRunning(String server) {
+        return runtime.containsKey(server);
+    }
+
+    /**
+     * @return the pending reload or restart, null if there is none
+     */
+    ServerFlag getFlag(String server) {
+        ModelNode model = runtime.get(server);
+        if(null==model || !model.hasDefined("server-state"))
+            return null;
+
+        String state = model.get("server-state").asString();
+        if(state.equals("reload-required"))
+            return ServerFlag.RELOAD_REQUIRED;
+        else if(state.equals("restart-required"))
+            return ServerFlag.RESTART_REQUIRED;
+        return null;
+    }
+
+    /**
+     * @return the resolved address by interface name
+     */
+    Map<String, String> getInterfaces(String server) {
+        Map<String, String> addresses = new HashMap<String, String>();
+        for(Map.Entry<String, ModelNode> intf : children(interfaces, server).entrySet())
+        {
+            if(intf.getValue().hasDefined("resolved-address"))
+                addresses.put(intf.getKey(), intf.getValue().get("resolved-address").asString());
+        }
+        return addresses;
+    }
+
+    /**
+     * @return the port offset by socket binding group name
+     */
+    Map<String, String> getSocketBindings(String server) {
+        Map<String, String> offsets = new HashMap<String, String>();
+        for(Map.Entry<String, ModelNode> group : children(socketBindingGroups, server).entrySet())
+            offsets.put(group.getKey(), group.getValue().get("port-offset").asString());
+        return offsets;
+    }
+
+    private static Map<String, ModelNode> children(Map<String, Map<String, ModelNode>> models, String server) {
+        Map<String, ModelNode> children = models.get(server);
+        return children!=null ? children : Collections.<String, ModelNode>emptyMap();
+    }
+
+    /**
+     * Splits the response of a wildcard step by server and child name. Without a child type,
+     * the model of a server is keyed by the server name. Failed items are skipped.
+     */
+    private static Map<String, Map<String, ModelNode>> perServer(ModelNode step, String childType) {
+        Map<String, Map<String, ModelNode>> models = new HashMap<String, Map<String, ModelNode>>();
+        if(!SUCCESS.equals(step.get(OUTCOME).asString()) || !step.hasDefined(RESULT))
+            return models;
+
+        for(ModelNode item : step.get(RESULT).asList())
+        {
+            if(!SUCCESS.equals(item.get(OUTCOME).asString()))
+                continue;
+
+            String server = null;
+            String child = null;
+            for(Property segment : item.get(ADDRESS).asPropertyList())
+            {
+                if("server".equals(segment.getName()))
+                    server = segment.getValue().asString();
+                else if(segment.getName().equals(childType))
+                    child = segment.getValue().asString();
+            }
+            if(null==server || (childType!=null && null==child))
+                continue;
+
+            Map<String, ModelNode> children = models.get(server);
+            if(null==children)
+            {
+                children = new HashMap<String, ModelNode>();
+                models.put(server, children);
+            }
+            children.put(childType!=null ? child : server, item.get(RESULT));
+        }
+        return models;
+    }
+}
@@ -37,6 +37,7 @@ import com.gwtplatform.mvp.client.proxy.RevealContentEvent;
 import org.jboss.as.console.client.core.DomainGateKeeper;
 import org.jboss.as.console.client.core.NameTokens;
 import org.jboss.as.console.client.core.SuspendableView;
+import org.jboss.as.console.client.domain.model.HostInfoCallback;
 import org.jboss.as.console.client.domain.model.HostInformationStore;
 import org.jboss.as.console.client.domain.model.Server;
 import org.jboss.as.console.client.domain.model.ServerGroupStore;
@@ -101,6 +102,7 @@ public class TopologyPresenter extends
     private LoadExtensionCmd loadExtensionCmd;
     private boolean fake;
     private int hostIndex;
+    private HostInfoCallback pendingLoad;
 
 
     @Inject
@@ -140,6 +142,13 @@ public class TopologyPresenter extends
         loadExtensions();
     }
 
+    @Override
+    protected void onHide()
+    {
+        super.onHide();
+        cancelPendingLoad();
+    }
+
     @Override
     public void prepareFromRequest(final PlaceRequest request)
     {
@@ -158,6 +167,15 @@ public class TopologyPresenter extends
     // ------------------------------------------------------ public presenter API
 
 
+    /**
+     * Reload the topology, bypassing the cached server instances.
+     */
+    public void refresh()
+    {
+        hostInfoStore.invalidateServerInstances();
+        loadTopology();
+    }
+
     public void loadTopology()
     {
         if (fake)
@@ -166,14 +184,24 @@ public class TopologyPresenter extends
         }
         else
         {
-            hostInfoStore.loadHostsAndServerInstances(new SimpleCallback<List<HostInfo>>()
+            // the visible hosts are rendered first, the others follow page by page
+            cancelPendingLoad();
+            pendingLoad = new HostInfoCallback()
             {
+                @Override
+                public void onPage(final List<HostInfo> hosts)
+                {
+                    getView().updateHosts(deriveGroups(hosts), hostIndex);
+                }
+
                 @Override
                 public void onSuccess(final List<HostInfo> result)
                 {
+                    pendingLoad = null;
                     getView().updateHosts(deriveGroups(result), hostIndex);
                 }
-            });
+            };
+            hostInfoStore.loadHostsAndServerInstances(hostIndex, VISIBLE_HOSTS_COLUMNS, pendingLoad);
 /*
             hostInfoStore.getHosts(new SimpleCallback<List<Host>>()
             {
@@ -296,6 +324,8 @@ public class TopologyPresenter extends
                     loadTopology();
                 }
             });
+            // like startServer(), don't serve the state from before the operation
+            hostInfoStore.invalidateServerInstances();
             switch (op)
             {
                 case START:
@@ -316,6 +346,15 @@ public class TopologyPresenter extends
 
     // ------------------------------------------------------ helper methods
 
+    private void cancelPendingLoad()
+    {
+        if (pendingLoad != null)
+        {
+            pendingLoad.cancel();
+            pendingLoad = null;
+        }
+    }
+
     /**
      * Builds {@link ServerGroup} instances and populates the map {@link #serverGroups}
      * @param hosts
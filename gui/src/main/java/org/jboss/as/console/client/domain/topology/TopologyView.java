@@ -91,7 +91,7 @@ public class TopologyView extends SuspendableViewImpl implements TopologyPresent
                     @Override
                     public void onClick(ClickEvent event)
                     {
-                        presenter.loadTopology();
+                        presenter.refresh();
                     }
                 }));
 
@@ -11,10 +11,10 @@ import org.jboss.as.console.client.widgets.tables.DataProviderFilter;
 public class DeploymentFilter extends DataProviderFilter<DeploymentRecord> {
 
     public DeploymentFilter(ListDataProvider<DeploymentRecord> delegate) {
-        super(delegate, new Predicate<DeploymentRecord>() {
+        super(delegate, new KeyPredicate<DeploymentRecord>() {
             @Override
-            public boolean apply(String prefix, DeploymentRecord candiate) {
-                return candiate.getName().startsWith(prefix);
+            public String getKey(DeploymentRecord candidate) {
+                return candidate.getName();
             }
         });
     }
@@ -1,53 +1,124 @@
 package org.jboss.as.console.client.shared.runtime;
 
-import java.util.LinkedList;
-import java.util.List;
-
 /**
+ * A single sample of runtime metrics, one value per column.
+ * Numeric values are kept as primitives, so they can be charted without boxing or parsing.
+ * Text values (i.e. a query string) are supported for the plain views.
+ *
  * @author Heiko Braun
  * @date 11/3/11
  */
 public class Metric {
 
-    private List<String> values = new LinkedList<String>();
-
-    public Metric(String... values) {
-        for(String s : values)
-            add(s);
-    }
+    private double[] values;
+    private String[] text = null;
+    private int size = 0;
 
     public Metric(int... values) {
+        this.values = new double[values.length];
         for(int i : values)
-            add(String.valueOf(i));
+            add(i);
     }
 
     public Metric(long... values) {
+        this.values = new double[values.length];
         for(long l : values)
-            add(String.valueOf(l));
+            add(l);
+    }
+
+    public Metric(double... values) {
+        this.values = new double[values.length];
+        for(double d : values)
+            add(d);
+    }
+
+    public void add(double value)
+    {
+        ensureCapacity();
+        values[size++] = value;
     }
 
+    /**
+     * Add a text value. Its numeric value is undefined (NaN).
+     */
     public void add(String value)
     {
-        values.add(value);
+        ensureCapacity();
+        if(null==text)
+            text = new String[values.length];
+        else if(text.length<values.length)
+            text = copyOf(text, values.length);
+
+        text[size] = value;
+        values[size++] = Double.NaN;
+    }
+
+    private void ensureCapacity() {
+        if(size==values.length)
+        {
+            double[] grown = new double[Math.max(4, size*2)];
+            System.arraycopy(values, 0, grown, 0, size);
+            values = grown;
+        }
+    }
+
+    private static String[] copyOf(String[] source, int length) {
+        String[] copy = new String[length];
+        System.arraycopy(source, 0, copy, 0, source.length);
+        return copy;
+    }
+
+    public double getValue(int i)
+    {
+        checkIndex(i);
+        return values[i];
+    }
+
+    public long getLong(int i)
+    {
+        checkIndex(i);
+        return (long)values[i];
+    }
+
+    public boolean isText(int i)
+    {
+        checkIndex(i);
+        return text!=null && i<text.length && text[i]!=null;
     }
 
+    /**
+     * @return the text value or the formatted numeric value
+     */
     public String get(int i)
     {
-        return values.get(i);
+        return isText(i) ? text[i] : format(values[i]);
+    }
+
+    private void checkIndex(int i) {
+        if(i<0 || i>=size)
+            throw new IndexOutOfBoundsException("Index "+i+", size "+size);
     }
 
-    public List<String> getValues() {
-        return values;
+    private static String format(double value) {
+        // integral values are displayed like the longs they have been created from
+        if(value==Math.rint(value) && Math.abs(value)<1e15)
+            return String.valueOf((long)value);
+        return String.valueOf(value);
     }
 
     @Override
     public String toString() {
-        return "Metric{" +
-                "values=" + values +
-                '}';
+        StringBuilder sb = new StringBuilder("Metric{values=[");
+        for(int i=0; i<size; i++)
+        {
+            if(i>0) sb.append(", ");
+            sb.append(get(i));
+        }
+        sb.append("]}");
+        return sb.toString();
     }
 
     public int numSamples() {
-        return getValues().size();
+        return size;
     }
 }
@@ -0,0 +1,368 @@
+package org.jboss.as.console.client.shared.runtime;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.dispatch.DispatchAsync;
+import org.jboss.dmr.client.dispatch.impl.DMRAction;
+import org.jboss.dmr.client.dispatch.impl.DMRResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+
+/**
+ * Polls runtime metrics on behalf of the runtime presenters.
+ * <p/>
+ * Presenters subscribe to attributes of a resource and receive their values on each tick.
+ * All active subscriptions are merged into a single composite <tt>read-attribute</tt> operation,
+ * attributes that are subscribed more than once are read only once.
+ * <p/>
+ * The interval adapts to the server: it's doubled when a response takes longer than half the interval
+ * or fails, and it's reduced again once the server responds in time. No requests are sent while the
+ * browser tab is hidden. Presenters cancel their subscriptions in <tt>onHide()</tt>, the poller stops when
+ * no subscriptions are left.
+ *
+ * @author Heiko Braun
+ */
+public class MetricPoller {
+
+    public static final int DEFAULT_INTERVAL = 5000;
+    public static final int MAX_INTERVAL = 60000;
+
+    private final DispatchAsync dispatcher;
+    private final List<Subscription> subscriptions = new ArrayList<Subscription>();
+
+    private int interval = DEFAULT_INTERVAL;
+    private int delay = DEFAULT_INTERVAL;
+
+    private Timer timer;
+    private boolean scheduled = false;
+    private boolean pending = false;
+
+    public interface Callback {
+        void onSample(ModelNode values);
+    }
+
+    @Inject
+    public MetricPoller(DispatchAsync dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Subscribe to attributes of a resource. The first sample is delivered on the next tick,
+     * presenters typically load the initial state themselves.
+     * <p/>
+     * An existing subscription of the same owner and name is replaced.
+     * Subscriptions that fail (i.e. the resource has been removed) are cancelled.
+     *
+     * @param owner the subscriber, see {@link #cancel(Object)}
+     * @param name distinguishes the subscriptions of an owner
+     * @param address the resource address
+     * @param callback receives an object node with the values of the attributes
+     */
+    public Subscription subscribe(Object owner, String name, ModelNode address, Callback callback, String... attributes) {
+
+        for(Subscription existing : new ArrayList<Subscription>(subscriptions))
+        {
+            if(existing.owner==owner && existing.name.equals(name))
+                existing.cancel();
+        }
+
+        Subscription subscription = new Subscription(this, owner, name, address, attributes, callback);
+        subscriptions.add(subscription);
+        schedule();
+
+        return subscription;
+    }
+
+    /**
+     * Cancel all subscriptions of an owner
+     */
+    public void cancel(Object owner) {
+        for(Subscription subscription : new ArrayList<Subscription>(subscriptions))
+        {
+            if(subscription.owner==owner)
+                subscription.cancel();
+        }
+    }
+
+    public void setInterval(int interval) {
+        if(interval<=0)
+            throw new IllegalArgumentException("Illegal interval: "+interval);
+        this.interval = interval;
+        this.delay = interval;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the current delay between two polls, including the back off
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    private void remove(Subscription subscription) {
+        subscriptions.remove(subscription);
+
+        if(subscriptions.isEmpty())
+        {
+            if(timer!=null)
+                timer.cancel();
+            scheduled = false;
+            delay = interval;
+        }
+    }
+
+    private void schedule() {
+        if(subscriptions.isEmpty() || scheduled || pending)
+            return;
+
+        if(null==timer)
+        {
+            timer = new Timer() {
+                @Override
+                public void run() {
+                    scheduled = false;
+                    poll();
+                }
+            };
+        }
+
+        scheduled = true;
+        timer.schedule(delay);
+    }
+
+    private void poll() {
+
+        if(subscriptions.isEmpty())
+            return;
+
+        if(isDocumentHidden())
+        {
+            // check again later, without bothering the server
+            schedule();
+            return;
+        }
+
+        final Plan plan = new Plan(new ArrayList<Subscription>(subscriptions));
+        final double start = Duration.currentTimeMillis();
+
+        pending = true;
+        dispatcher.execute(new DMRAction(plan.getOperation(), false), new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                pending = false;
+                Log.warn("Failed to poll metrics: "+caught.getMessage());
+
+                delay = nextDelay(interval, delay, 0, true);
+                schedule();
+            }
+
+            @Override
+            public void onSuccess(DMRResponse result) {
+                pending = false;
+                long elapsed = (long)(Duration.currentTimeMillis() - start);
+
+                ModelNode response = result.get();
+                boolean failed = response.isFailure();
+                if(failed)
+                {
+                    Log.warn("Failed to poll metrics: "+response.getFailureDescription());
+                }
+
+                // a failed composite still reports which steps failed
+                if(response.hasDefined(RESULT))
+                {
+                    Map<Subscription, String> failures = plan.dispatch(response);
+                    for(Subscription subscription : failures.keySet())
+                    {
+                        Log.warn("Stop polling "+subscription.name+": "+failures.get(subscription));
+                        subscription.cancel();
+                    }
+                }
+
+                delay = nextDelay(interval, delay, elapsed, failed);
+                schedule();
+            }
+        });
+    }
+
+    /**
+     * Back off when the server is slow or fails, go back to the regular interval when it recovers.
+     */
+    static int nextDelay(int interval, int current, long elapsed, boolean failed) {
+        if(failed || elapsed > interval/2)
+            return Math.max(interval, Math.min(MAX_INTERVAL, current*2));
+        else
+            return Math.max(interval, current/2);
+    }
+
+    private static native boolean isDocumentHidden() /*-{
+        var doc = $doc;
+        return !!(doc.hidden || doc.webkitHidden || doc.mozHidden || doc.msHidden);
+    }-*/;
+
+    public static class Subscription {
+
+        private final MetricPoller poller;
+        final Object owner;
+        final String name;
+        final ModelNode address;
+        final String[] attributes;
+        final Callback callback;
+
+        private boolean cancelled = false;
+
+        Subscription(MetricPoller poller, Object owner, String name, ModelNode address, String[] attributes, Callback callback) {
+            this.poller = poller;
+            this.owner = owner;
+            this.name = name;
+            this.address = address;
+            this.attributes = attributes;
+            this.callback = callback;
+        }
+
+        public void cancel() {
+            if(!cancelled)
+            {
+                cancelled = true;
+                if(poller!=null)
+                    poller.remove(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * A single tick: the composite operation for a set of subscriptions
+     * and the mapping of its steps back to the subscriptions.
+     */
+    static class Plan {
+
+        private final List<Subscription> subscriptions;
+        private final ModelNode operation;
+        private final int[][] stepIndex;
+        private final int numSteps;
+
+        Plan(List<Subscription> subscriptions) {
+            this.subscriptions = subscriptions;
+            this.stepIndex = new int[subscriptions.size()][];
+
+            Map<String, Integer> known = new HashMap<String, Integer>();
+            List<ModelNode> steps = new ArrayList<ModelNode>();
+
+            for(int i=0; i<subscriptions.size(); i++)
+            {
+                Subscription subscription = subscriptions.get(i);
+                String resource = subscription.address.toString();
+
+                stepIndex[i] = new int[subscription.attributes.length];
+                for(int a=0; a<subscription.attributes.length; a++)
+                {
+                    String attribute = subscription.attributes[a];
+                    String key = resource + "#" + attribute;
+
+                    Integer index = known.get(key);
+                    if(null==index)
+                    {
+                        ModelNode step = new ModelNode();
+                        step.get(ADDRESS).set(subscription.address);
+                        step.get(OP).set(READ_ATTRIBUTE_OPERATION);
+                        step.get(NAME).set(attribute);
+
+                        index = steps.size();
+                        steps.add(step);
+                        known.put(key, index);
+                    }
+                    stepIndex[i][a] = index;
+                }
+            }
+
+            numSteps = steps.size();
+
+            operation = new ModelNode();
+            operation.get(OP).set(COMPOSITE);
+            operation.get(ADDRESS).setEmptyList();
+            operation.get(STEPS).set(steps);
+
+            // keeps runtime failures of one step from rolling back the others. A step failing in the model stage
+            // (i.e. the resource has been removed) still fails the whole composite, see dispatch()
+            operation.get(OPERATION_HEADERS).get(ROLLBACK_ON_RUNTIME_FAILURE).set(false);
+        }
+
+        ModelNode getOperation() {
+            return operation;
+        }
+
+        int getNumSteps() {
+            return numSteps;
+        }
+
+        /**
+         * Pass the values to the subscriptions. Subscriptions that have been cancelled
+         * in the meantime are skipped, as well as subscriptions with steps that have not been executed
+         * or have been rolled back because another step failed.
+         *
+         * @return the subscriptions whose own steps failed and the failure descriptions
+         */
+        Map<Subscription, String> dispatch(ModelNode response) {
+            Map<Subscription, String> failures = new LinkedHashMap<Subscription, String>();
+            ModelNode result = response.get(RESULT);
+
+            for(int i=0; i<subscriptions.size(); i++)
+            {
+                Subscription subscription = subscriptions.get(i);
+                if(subscription.isCancelled())
+                    continue;
+
+                ModelNode values = new ModelNode();
+                values.setEmptyObject();
+
+                boolean complete = true;
+                for(int a=0; a<subscription.attributes.length; a++)
+                {
+                    String stepName = "step-" + (stepIndex[i][a] + 1);
+                    ModelNode step = result.hasDefined(stepName) ? result.get(stepName) : null;
+                    String outcome = step!=null && step.hasDefined(OUTCOME) ? step.get(OUTCOME).asString() : null;
+
+                    if(SUCCESS.equals(outcome))
+                    {
+                        if(step.hasDefined(RESULT))
+                            values.get(subscription.attributes[a]).set(step.get(RESULT));
+                    }
+                    else if(FAILED.equals(outcome) && step.hasDefined(FAILURE_DESCRIPTION))
+                    {
+                        failures.put(subscription, step.get(FAILURE_DESCRIPTION).asString());
+                        complete = false;
+                        break;
+                    }
+                    else
+                    {
+                        // not executed or rolled back, i.e. because another step failed
+                        complete = false;
+                        break;
+                    }
+                }
+
+                if(complete)
+                    subscription.callback.onSample(values);
+            }
+
+            return failures;
+        }
+    }
+}
@@ -54,8 +54,6 @@ public abstract class Column<T> {
         return label;
     }
 
-    abstract T cast(String value);
-
     public Column getComparisonColumn() {
         return comparisonColumn;
     }
@@ -91,6 +91,10 @@ public class ColumnChartView extends AbstractChartView implements Sampler {
             throw new RuntimeException("chart is null. Did you forget to #recycle() ?");
         }
 
+        // bounded, like the line charts
+        if(timelineSeries && data.getNumberOfRows()>=LineChartView.DEFAULT_CAPACITY)
+            data.removeRow(0);
+
         if(data.getNumberOfRows()==0 || timelineSeries)
             data.addRow();
 
@@ -100,11 +104,13 @@ public class ColumnChartView extends AbstractChartView implements Sampler {
         data.setValue(nextRow, 0, new Date(System.currentTimeMillis()));
 
 
-        DataTableAdapter adapter = new DataTableAdapter(data);
-
-        for(int i=0; i<metric.getValues().size(); i++)
+        for(int i=0; i<metric.numSamples(); i++)
         {
-            adapter.setValue(nextRow, i+1, columns[i].cast(metric.get(i)));
+            double value = metric.getValue(i);
+            if(Double.isNaN(value))
+                data.setValueNull(nextRow, i+1);
+            else
+                data.setValue(nextRow, i+1, value);
         }
 
         Options options = createOptions();
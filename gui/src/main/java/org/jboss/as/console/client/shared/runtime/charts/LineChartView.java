@@ -16,6 +16,9 @@ import java.util.Date;
 /**
  * Needs to be {@link #recycle()}ed after is was hidden.
  * Typically this happens in Presenter.onReset()
+ * <p/>
+ * Samples are kept in a bounded {@link SampleBuffer} and series that exceed
+ * {@link #setMaxPoints(int)} are downsampled before they are drawn.
  *
  * @author Heiko Braun
  * @date 10/25/11
@@ -30,12 +33,38 @@ public class LineChartView extends AbstractChartView implements Sampler {
 
     private boolean timelineSeries = true;
 
+    private int capacity = DEFAULT_CAPACITY;
+    private int maxPoints = DEFAULT_MAX_POINTS;
+
+    protected SampleBuffer samples;
+    private double[] sample;
+    private double[] point;
+    private Options options;
+
+    // the buckets drawn while the series is downsampled, stride is 0 otherwise
+    private int stride = 0;
+    private long firstBucket;
+    private long lastBucket;
+
+    /**
+     * Samples retained per chart, i.e. one hour when sampling every five seconds
+     */
+    public static final int DEFAULT_CAPACITY = 720;
+
+    /**
+     * Points drawn per line. Larger series are downsampled.
+     */
+    public static final int DEFAULT_MAX_POINTS = 120;
+
     public LineChartView(int width, int height, String title) {
         super(width, height, title);
     }
 
     public LineChartView setColumns(Column... columns) {
         this.columns = columns;
+        this.samples = null;
+        this.sample = null;
+        this.point = null;
         return this;
     }
 
@@ -44,6 +73,25 @@ public class LineChartView extends AbstractChartView implements Sampler {
         return this;
     }
 
+    /**
+     * @param capacity the max number of samples retained. Older samples are discarded.
+     */
+    public LineChartView setCapacity(int capacity) {
+        this.capacity = capacity;
+        this.samples = null;
+        return this;
+    }
+
+    /**
+     * @param maxPoints the max number of points drawn per line
+     */
+    public LineChartView setMaxPoints(int maxPoints) {
+        if(maxPoints<2)
+            throw new IllegalArgumentException("Illegal number of points: "+maxPoints);
+        this.maxPoints = maxPoints;
+        return this;
+    }
+
     public Widget asWidget() {
         layout = new VerticalPanel();
 
@@ -83,48 +131,155 @@ public class LineChartView extends AbstractChartView implements Sampler {
         return options;
     }
 
+    /**
+     * The options used when drawing samples. They are created once and can be adjusted by subclasses.
+     */
+    protected Options getOptions() {
+        if(null==options)
+        {
+            options = createOptions();
+
+            AxisOptions haxis = AxisOptions.create();
+            haxis.set("showTextEvery", "25.00");
+            haxis.set("maxAlternation", "1");
+            options.setHAxisOptions(haxis);
+        }
+        return options;
+    }
+
     public void addSample(Metric metric) {
 
         if(chart==null)
             throw new RuntimeException("chart is null. did you forget to #recycle() ?");
 
-        if(data.getNumberOfRows()==0 || timelineSeries)
-            data.addRow();
+        double[] values = getSampleArray();
+        for(int i=0; i<values.length; i++)
+        {
+            values[i] = i<metric.numSamples() ? metric.getValue(i) : Double.NaN;
+        }
+
+        addSample(System.currentTimeMillis(), values);
+    }
 
-        int nextRow = data.getNumberOfRows()-1;
+    /**
+     * Record a sample and update the chart.
+     * While the series fits into {@link #setMaxPoints(int)}, the rows are updated in place.
+     * Otherwise the series is downsampled, so the table never exceeds the max points. Only the rows of the
+     * first and the last bucket change then, the table is rebuilt when the stride changes.
+     *
+     * @param values one value per column, the array is copied and can be reused (see {@link #getSampleArray()})
+     */
+    protected void addSample(long timestamp, double[] values) {
 
-        // default
-        data.setValue(nextRow, 0, new Date(System.currentTimeMillis()));
+        SampleBuffer buffer = getSamples();
 
+        if(!timelineSeries)
+            buffer.clear();
 
-        DataTableAdapter adapter = new DataTableAdapter(data);
+        int rows = data.getNumberOfRows();
+        boolean evicted = buffer.add(timestamp, values);
+        int size = buffer.size();
 
-        for(int i=0; i<metric.getValues().size(); i++)
+        if(size<=maxPoints && !evicted && rows==size-1)
+        {
+            // append
+            writeRow(data.addRow(), timestamp, values);
+            stride = 0;
+        }
+        else if(size<=maxPoints && evicted && rows==size)
+        {
+            // slide
+            data.removeRow(0);
+            writeRow(data.addRow(), timestamp, values);
+            stride = 0;
+        }
+        else if(!timelineSeries && rows==1)
+        {
+            writeRow(0, timestamp, values);
+            stride = 0;
+        }
+        else if(size>maxPoints && stride==buffer.stride(maxPoints) && rows==lastBucket-firstBucket+1)
+        {
+            // the oldest bucket has lost a sample, the latest one has gained one
+            long first = buffer.firstBucket(stride);
+            if(first>firstBucket)
+                data.removeRow(0);
+            else if(evicted)
+                writeBucket(0, first);
+            firstBucket = first;
+
+            long last = buffer.lastBucket(stride);
+            writeBucket(last>lastBucket ? data.addRow() : data.getNumberOfRows()-1, last);
+            lastBucket = last;
+        }
+        else
         {
-            adapter.setValue(nextRow, i+1, columns[i].cast(metric.get(i)));
+            if(rows>0)
+                data.removeRows(0, rows);
+
+            buffer.downsample(maxPoints, new SampleBuffer.Visitor() {
+                @Override
+                public void onPoint(int index, long time, double[] point) {
+                    writeRow(data.addRow(), time, point);
+                }
+            });
+
+            stride = size>maxPoints ? buffer.stride(maxPoints) : 0;
+            firstBucket = buffer.firstBucket(buffer.stride(maxPoints));
+            lastBucket = buffer.lastBucket(buffer.stride(maxPoints));
         }
 
-        Options options = createOptions();
+        chart.draw(data, getOptions());
+    }
+
+    /**
+     * @return an array to pass values to {@link #addSample(long, double[])}, one per column
+     */
+    protected double[] getSampleArray() {
+        if(null==sample)
+            sample = new double[columns.length];
+        return sample;
+    }
+
+    protected SampleBuffer getSamples() {
+        if(null==samples)
+            samples = new SampleBuffer(capacity, columns.length);
+        return samples;
+    }
 
-        AxisOptions haxis = AxisOptions.create();
-        haxis.set("showTextEvery", "25.00");
-        haxis.set("maxAlternation", "1");
-        options.setHAxisOptions(haxis);
+    private void writeBucket(int row, long bucket) {
+        if(null==point)
+            point = new double[columns.length];
+        long timestamp = samples.bucket(bucket, stride, point);
+        writeRow(row, timestamp, point);
+    }
 
-        chart.draw(data, options);
+    private void writeRow(int row, long timestamp, double[] values) {
+        data.setValue(row, 0, new Date(timestamp));
+        for(int i=0; i<columns.length; i++)
+        {
+            // gaps for missing values
+            if(Double.isNaN(values[i]))
+                data.setValueNull(row, i+1);
+            else
+                data.setValue(row, i+1, values[i]);
+        }
     }
 
     public void clearSamples()
     {
+        if(samples!=null)
+            samples.clear();
+
         if(chart!=null)
         {
             data = createTable();
-            chart.draw(data, createOptions());
+            chart.draw(data, getOptions());
         }
     }
 
     public long numSamples() {
-        return data.getNumberOfRows();
+        return samples!=null ? samples.size() : 0;
     }
 
     @Override
@@ -134,6 +289,9 @@ public class LineChartView extends AbstractChartView implements Sampler {
             layout.clear();
             chart=null;
 
+            if(samples!=null)
+                samples.clear();
+
             chart = new LineChart(createTable(), createOptions()) ;
             chart.setTitle(title);
             layout.add(chart);
@@ -12,9 +12,4 @@ public class NumberColumn extends Column<Integer> {
         super(AbstractDataTable.ColumnType.NUMBER, label);
         setDeytpedName(detypedName);
     }
-
-    @Override
-    Integer cast(String value) {
-        return Integer.valueOf(value).intValue();
-    }
 }
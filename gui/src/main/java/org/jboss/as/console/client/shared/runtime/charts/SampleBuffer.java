@@ -0,0 +1,207 @@
+package org.jboss.as.console.client.shared.runtime.charts;
+
+/**
+ * A bounded time series of samples, stored in primitive arrays.
+ * When the buffer is full, the oldest sample is overwritten, so the footprint
+ * stays the same no matter how long a sampler keeps running.
+ * <p/>
+ * Samples are addressed oldest first: index 0 is the oldest sample that is still retained.
+ *
+ * @author Heiko Braun
+ */
+public class SampleBuffer {
+
+    private final int capacity;
+    private final int width;
+
+    private final long[] timestamps;
+    private final double[] values;
+
+    private int head = 0;       // slot of the oldest sample
+    private int size = 0;
+    private long count = 0;     // samples added since the last clear()
+
+    /**
+     * @param capacity the max number of samples retained
+     * @param width the number of values per sample
+     */
+    public SampleBuffer(int capacity, int width) {
+        if(capacity<1)
+            throw new IllegalArgumentException("Illegal capacity: "+capacity);
+        if(width<1)
+            throw new IllegalArgumentException("Illegal width: "+width);
+
+        this.capacity = capacity;
+        this.width = width;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity*width];
+    }
+
+    /**
+     * Add a sample. The values are copied, so the array can be reused by the caller.
+     *
+     * @return true if the oldest sample has been evicted to make room
+     */
+    public boolean add(long timestamp, double[] sample) {
+        if(sample.length<width)
+            throw new IllegalArgumentException("Expected "+width+" values, but got "+sample.length);
+
+        boolean evicted = size==capacity;
+        int slot;
+        if(evicted)
+        {
+            slot = head;
+            head = (head+1) % capacity;
+        }
+        else
+        {
+            slot = (head+size) % capacity;
+            size++;
+        }
+
+        timestamps[slot] = timestamp;
+        System.arraycopy(sample, 0, values, slot*width, width);
+        count++;
+
+        return evicted;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        count = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * @return the number of samples added since the last {@link #clear()}, including evicted ones
+     */
+    public long count() {
+        return count;
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[slot(index)];
+    }
+
+    public double getValue(int index, int column) {
+        if(column<0 || column>=width)
+            throw new IndexOutOfBoundsException("Column "+column+", width "+width);
+        return values[slot(index)*width+column];
+    }
+
+    private int slot(int index) {
+        if(index<0 || index>=size)
+            throw new IndexOutOfBoundsException("Index "+index+", size "+size);
+        return (head+index) % capacity;
+    }
+
+    /**
+     * Reduce the samples to at most <tt>maxPoints</tt> points for display.
+     * Consecutive samples are averaged into buckets, each point carries the timestamp of the latest sample in it.
+     * Buckets are aligned to the absolute sample sequence, so the same samples end up in the same bucket
+     * from one call to the next and the resulting curve doesn't jitter as new samples arrive.
+     * <p/>
+     * If the buffer holds no more than <tt>maxPoints</tt> samples, each sample is passed as is.
+     *
+     * @param visitor receives the points, oldest first. The values array is reused between invocations.
+     * @return the number of points
+     */
+    public int downsample(int maxPoints, Visitor visitor) {
+        if(maxPoints<2)
+            throw new IllegalArgumentException("Illegal number of points: "+maxPoints);
+
+        double[] point = new double[width];
+
+        if(size<=maxPoints)
+        {
+            for(int i=0; i<size; i++)
+            {
+                int slot = (head+i) % capacity;
+                System.arraycopy(values, slot*width, point, 0, width);
+                visitor.onPoint(i, timestamps[slot], point);
+            }
+            return size;
+        }
+
+        int stride = stride(maxPoints);
+        int points = 0;
+        for(long bucket=firstBucket(stride); bucket<=lastBucket(stride); bucket++)
+        {
+            long timestamp = bucket(bucket, stride, point);
+            visitor.onPoint(points++, timestamp, point);
+        }
+        return points;
+    }
+
+    /**
+     * @return the number of samples per point when downsampling to <tt>maxPoints</tt>, 1 if the samples fit
+     */
+    public int stride(int maxPoints) {
+        if(size<=maxPoints)
+            return 1;
+
+        // ceil(size/(maxPoints-1)) leaves room for the partial buckets at both ends
+        return (size + maxPoints - 2) / (maxPoints-1);
+    }
+
+    /**
+     * @return the bucket of the oldest sample
+     */
+    public long firstBucket(int stride) {
+        return (count - size) / stride;
+    }
+
+    /**
+     * @return the bucket of the latest sample
+     */
+    public long lastBucket(int stride) {
+        return (count - 1) / stride;
+    }
+
+    /**
+     * Average the retained samples of a bucket, i.e. one point of {@link #downsample(int, Visitor)}.
+     * Only the first and the last bucket change when a sample is added, as long as the stride stays the same.
+     *
+     * @param point receives the averaged values
+     * @return the timestamp of the latest sample in the bucket
+     */
+    public long bucket(long bucket, int stride, double[] point) {
+        long first = count - size;  // sequence number of the oldest sample
+        int start = (int)Math.max(0, bucket*stride - first);
+        int end = (int)Math.min(size, (bucket+1)*stride - first);
+        if(start>=end)
+            throw new IndexOutOfBoundsException("Bucket "+bucket+" holds no samples");
+
+        for(int c=0; c<width; c++)
+            point[c] = 0;
+
+        for(int i=start; i<end; i++)
+        {
+            int offset = ((head+i) % capacity) * width;
+            for(int c=0; c<width; c++)
+                point[c] += values[offset+c];
+        }
+
+        int n = end-start;
+        for(int c=0; c<width; c++)
+            point[c] = point[c]/n;
+
+        return timestamps[(head+end-1) % capacity];
+    }
+
+    public interface Visitor {
+        void onPoint(int index, long timestamp, double[] values);
+    }
+}
@@ -12,9 +12,4 @@ public class TextColumn extends Column<String> {
         super(AbstractDataTable.ColumnType.STRING, label);
         setDeytpedName(detypedName);
     }
-
-    @Override
-    String cast(String value) {
-        return value;
-    }
 }
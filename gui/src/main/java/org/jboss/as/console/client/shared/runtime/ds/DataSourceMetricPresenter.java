@@ -18,6 +18,7 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.dmr.client.dispatch.impl.DMRAction;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.RuntimeBaseAddress;
 import org.jboss.as.console.client.shared.state.DomainEntityManager;
 import org.jboss.as.console.client.shared.state.ServerSelectionChanged;
@@ -50,6 +51,7 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
     private LoadDataSourceCmd loadDSCmd;
     private DataSource selectedXA;
     private final DomainEntityManager domainManager;
+    private final MetricPoller poller;
 
     @ProxyCodeSplit
     @NameToken(NameTokens.DataSourceMetricPresenter)
@@ -69,7 +71,8 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
             EventBus eventBus, MyView view, MyProxy proxy,
             PlaceManager placeManager,  DispatchAsync dispatcher,
             ApplicationMetaData metaData, RevealStrategy revealStrategy,
-            DomainEntityManager domainManager, BeanFactory factory) {
+            DomainEntityManager domainManager, BeanFactory factory,
+            MetricPoller poller) {
         super(eventBus, view, proxy);
 
         this.placeManager = placeManager;
@@ -78,6 +81,7 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
         this.revealStrategy = revealStrategy;
         this.domainManager = domainManager;
         this.factory = factory;
+        this.poller = poller;
 
         this.loadDSCmd = new LoadDataSourceCmd(dispatcher, metaData);
 
@@ -85,6 +89,7 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
 
     @Override
     public void onServerSelectionChanged(boolean isRunning) {
+        poller.cancel(this);
         getView().clearSamples();
 
         Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
@@ -132,6 +137,12 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
         refreshDatasources();
     }
 
+    @Override
+    protected void onHide() {
+        super.onHide();
+        poller.cancel(this);
+    }
+
     @Override
     protected void revealInParent() {
         revealStrategy.revealInRuntimeParent(this);
@@ -142,6 +153,7 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
         if(!currentSelection.isEnabled())
         {
             Console.error(Console.MESSAGES.subsys_jca_err_ds_notEnabled(currentSelection.getName()));
+            poller.cancel(this);
             getView().clearSamples();
             return;
         }
@@ -174,11 +186,13 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
         String subresource = isXA ? "xa-data-source": "data-source";
         String name = target.getName();
 
+        ModelNode address = RuntimeBaseAddress.get();
+        address.add("subsystem", "datasources");
+        address.add(subresource, name);
+        address.add("statistics", "pool");
+
         ModelNode operation = new ModelNode();
-        operation.get(ADDRESS).set(RuntimeBaseAddress.get());
-        operation.get(ADDRESS).add("subsystem", "datasources");
-        operation.get(ADDRESS).add(subresource, name);
-        operation.get(ADDRESS).add("statistics", "pool");
+        operation.get(ADDRESS).set(address);
 
         operation.get(OP).set(READ_RESOURCE_OPERATION);
         operation.get(INCLUDE_RUNTIME).set(true);
@@ -195,19 +209,27 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
                 else
                 {
                     ModelNode result = response.get(RESULT).asObject();
-
-                    long avail = result.get("AvailableCount").asLong();
-                    long active = result.get("ActiveCount").asLong();
-                    long max = result.get("MaxUsedCount").asLong();
-
-                    Metric poolMetric = new Metric(
-                            avail,active,max
-                    );
-
-                    getView().setDSPoolMetric(poolMetric, isXA);
+                    getView().setDSPoolMetric(asPoolMetric(result), isXA);
                 }
             }
         });
+
+        poller.subscribe(this, isXA ? "xa-pool" : "pool", address, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                getView().setDSPoolMetric(asPoolMetric(values), isXA);
+            }
+        }, "AvailableCount", "ActiveCount", "MaxUsedCount");
+    }
+
+    private static Metric asPoolMetric(ModelNode result) {
+        long avail = result.get("AvailableCount").asLong();
+        long active = result.get("ActiveCount").asLong();
+        long max = result.get("MaxUsedCount").asLong();
+
+        return new Metric(
+                avail,active,max
+        );
     }
 
     private void loadDSCacheMetrics(final boolean isXA) {
@@ -221,11 +243,13 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
         String subresource = isXA ? "xa-data-source": "data-source";
         String name = target.getName();
 
+        ModelNode address = RuntimeBaseAddress.get();
+        address.add("subsystem", "datasources");
+        address.add(subresource, name);
+        address.add("statistics", "jdbc");
+
         ModelNode operation = new ModelNode();
-        operation.get(ADDRESS).set(RuntimeBaseAddress.get());
-        operation.get(ADDRESS).add("subsystem", "datasources");
-        operation.get(ADDRESS).add(subresource, name);
-        operation.get(ADDRESS).add("statistics", "jdbc");
+        operation.get(ADDRESS).set(address);
 
         operation.get(OP).set(READ_RESOURCE_OPERATION);
         operation.get(INCLUDE_RUNTIME).set(true);
@@ -242,18 +266,26 @@ public class DataSourceMetricPresenter extends Presenter<DataSourceMetricPresent
                 else
                 {
                     ModelNode result = response.get(RESULT).asObject();
-
-                    long size = result.get("PreparedStatementCacheCurrentSize").asLong();
-                    long hit = result.get("PreparedStatementCacheHitCount").asLong();
-                    long miss = result.get("PreparedStatementCacheMissCount").asLong();
-
-                    Metric metric = new Metric(
-                            size,hit,miss
-                    );
-
-                    getView().setDSCacheMetric(metric, isXA);
+                    getView().setDSCacheMetric(asCacheMetric(result), isXA);
                 }
             }
         });
+
+        poller.subscribe(this, isXA ? "xa-cache" : "cache", address, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                getView().setDSCacheMetric(asCacheMetric(values), isXA);
+            }
+        }, "PreparedStatementCacheCurrentSize", "PreparedStatementCacheHitCount", "PreparedStatementCacheMissCount");
+    }
+
+    private static Metric asCacheMetric(ModelNode result) {
+        long size = result.get("PreparedStatementCacheCurrentSize").asLong();
+        long hit = result.get("PreparedStatementCacheHitCount").asLong();
+        long miss = result.get("PreparedStatementCacheMissCount").asLong();
+
+        return new Metric(
+                size,hit,miss
+        );
     }
 }
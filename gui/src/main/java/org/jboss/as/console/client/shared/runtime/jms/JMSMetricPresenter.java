@@ -17,6 +17,7 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.dmr.client.dispatch.impl.DMRAction;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.RuntimeBaseAddress;
 import org.jboss.as.console.client.shared.state.DomainEntityManager;
 import org.jboss.as.console.client.shared.state.ServerSelectionChanged;
@@ -47,6 +48,7 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
     private LoadJMSCmd loadJMSCmd;
     private Queue selectedQueue;
     private final DomainEntityManager domainManager;
+    private final MetricPoller poller;
 
 
     @ProxyCodeSplit
@@ -76,13 +78,15 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
             EventBus eventBus, MyView view, MyProxy proxy,
             DispatchAsync dispatcher,
             ApplicationMetaData metaData, RevealStrategy revealStrategy,
-            DomainEntityManager domainManager, BeanFactory factory) {
+            DomainEntityManager domainManager, BeanFactory factory,
+            MetricPoller poller) {
         super(eventBus, view, proxy);
 
         this.dispatcher = dispatcher;
         this.revealStrategy = revealStrategy;
         this.domainManager = domainManager;
         this.factory = factory;
+        this.poller = poller;
 
         this.loadJMSCmd = new LoadJMSCmd(dispatcher, factory, metaData);
     }
@@ -107,6 +111,7 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
         Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
             @Override
             public void execute() {
+                poller.cancel(JMSMetricPresenter.this);
                 if(isVisible()) refresh();
             }
         });
@@ -139,11 +144,13 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
 
         getView().clearSamples();
 
+        ModelNode address = RuntimeBaseAddress.get();
+        address.add("subsystem", "messaging");
+        address.add("hornetq-server", "default");
+        address.add("jms-queue", selectedQueue.getName());
+
         ModelNode operation = new ModelNode();
-        operation.get(ADDRESS).set(RuntimeBaseAddress.get());
-        operation.get(ADDRESS).add("subsystem", "messaging");
-        operation.get(ADDRESS).add("hornetq-server", "default");
-        operation.get(ADDRESS).add("jms-queue", selectedQueue.getName());
+        operation.get(ADDRESS).set(address);
 
         operation.get(OP).set(READ_RESOURCE_OPERATION);
         operation.get(INCLUDE_RUNTIME).set(true);
@@ -160,31 +167,41 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
                 else
                 {
                     ModelNode result = response.get(RESULT).asObject();
+                    updateQueueMetrics(result);
+                }
+            }
+        });
 
-                    long messageCount = result.get("message-count").asLong();
-                    long messagesAdded = result.get("messages-added").asLong();
-                    long delivering = result.get("delivering-count").asLong();
+        poller.subscribe(this, "queue", address, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                updateQueueMetrics(values);
+            }
+        }, "message-count", "messages-added", "delivering-count", "scheduled-count", "consumer-count");
+    }
 
-                    Metric queueInflight = new Metric(
-                            messageCount,
-                            delivering
-                    );
+    private void updateQueueMetrics(ModelNode result) {
+        long messageCount = result.get("message-count").asLong();
+        long messagesAdded = result.get("messages-added").asLong();
+        long delivering = result.get("delivering-count").asLong();
 
-                    Metric queueProcessed = new Metric(
-                            messagesAdded,
-                            result.get("scheduled-count").asLong()
-                    );
+        Metric queueInflight = new Metric(
+                messageCount,
+                delivering
+        );
 
-                    Metric queueConsumer = new Metric(
-                            result.get("consumer-count").asLong()
-                    );
+        Metric queueProcessed = new Metric(
+                messagesAdded,
+                result.get("scheduled-count").asLong()
+        );
 
-                    getView().setQueueInflight(queueInflight);
-                    getView().setQueueProcessed(queueProcessed);
-                    getView().setQueueConsumer(queueConsumer);
-                }
-            }
-        });
+        Metric queueConsumer = new Metric(
+                result.get("consumer-count").asLong()
+        );
+
+        getView().setQueueInflight(queueInflight);
+        getView().setQueueProcessed(queueProcessed);
+        getView().setQueueConsumer(queueConsumer);
     }
 
     private void loadTopicMetrics() {
@@ -194,11 +211,13 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
 
         getView().clearSamples();
 
+        ModelNode address = RuntimeBaseAddress.get();
+        address.add("subsystem", "messaging");
+        address.add("hornetq-server", "default");
+        address.add("jms-topic", selectedTopic.getName());
+
         ModelNode operation = new ModelNode();
-        operation.get(ADDRESS).set(RuntimeBaseAddress.get());
-        operation.get(ADDRESS).add("subsystem", "messaging");
-        operation.get(ADDRESS).add("hornetq-server", "default");
-        operation.get(ADDRESS).add("jms-topic", selectedTopic.getName());
+        operation.get(ADDRESS).set(address);
 
         operation.get(OP).set(READ_RESOURCE_OPERATION);
         operation.get(INCLUDE_RUNTIME).set(true);
@@ -215,34 +234,48 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
                 else
                 {
                     ModelNode result = response.get(RESULT).asObject();
+                    updateTopicMetrics(result);
+                }
+            }
+        });
+
+        poller.subscribe(this, "topic", address, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                updateTopicMetrics(values);
+            }
+        },
+                "message-count", "delivering-count", "messages-added",
+                "durable-message-count", "non-durable-message-count",
+                "subscription-count", "durable-subscription-count", "non-durable-subscription-count"
+        );
+    }
 
-                    long messageCount = result.get("message-count").asLong();
-                    long delivering = result.get("delivering-count").asLong();
+    private void updateTopicMetrics(ModelNode result) {
+        long messageCount = result.get("message-count").asLong();
+        long delivering = result.get("delivering-count").asLong();
 
-                    Metric topicInflight = new Metric(
-                            messageCount,
-                            delivering
-                    );
+        Metric topicInflight = new Metric(
+                messageCount,
+                delivering
+        );
 
-                    Metric topicProcessed = new Metric(
-                            result.get("messages-added").asLong(),
-                            result.get("durable-message-count").asLong(),
-                            result.get("non-durable-message-count").asLong()
+        Metric topicProcessed = new Metric(
+                result.get("messages-added").asLong(),
+                result.get("durable-message-count").asLong(),
+                result.get("non-durable-message-count").asLong()
 
-                    );
+        );
 
-                    Metric topicSubscriptions = new Metric(
-                            result.get("subscription-count").asLong(),
-                            result.get("durable-subscription-count").asLong(),
-                            result.get("non-durable-subscription-count").asLong()
-                    );
+        Metric topicSubscriptions = new Metric(
+                result.get("subscription-count").asLong(),
+                result.get("durable-subscription-count").asLong(),
+                result.get("non-durable-subscription-count").asLong()
+        );
 
-                    getView().setTopicInflight(topicInflight);
-                    getView().setTopicProcessed(topicProcessed);
-                    getView().setTopicSubscriptions(topicSubscriptions);
-                }
-            }
-        });
+        getView().setTopicInflight(topicInflight);
+        getView().setTopicProcessed(topicProcessed);
+        getView().setTopicSubscriptions(topicSubscriptions);
     }
 
     @Override
@@ -259,6 +292,12 @@ public class JMSMetricPresenter extends Presenter<JMSMetricPresenter.MyView, JMS
         refresh();
     }
 
+    @Override
+    protected void onHide() {
+        super.onHide();
+        poller.cancel(this);
+    }
+
     @Override
     protected void revealInParent() {
         revealStrategy.revealInRuntimeParent(this);
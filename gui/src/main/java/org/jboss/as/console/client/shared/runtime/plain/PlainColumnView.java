@@ -137,22 +137,20 @@ public class PlainColumnView implements Sampler {
         if(baselineIndex>metric.numSamples())
             throw new RuntimeException("Illegal baseline index "+baselineIndex+" on number of samples "+metric.numSamples());
 
-        Long baseline = baselineIndex >= 0 ?
-                Long.valueOf(metric.get(baselineIndex)) : -1;
+        double baseline = baselineIndex >= 0 ?
+                metric.getValue(baselineIndex) : -1;
 
         for(Column c : columns)
         {
             int dataIndex = row - ROW_OFFSET;
-            String actualValue = metric.get(dataIndex);
+            if(dataIndex>=metric.numSamples())
+                throw new RuntimeException("Metric value at index "+dataIndex+" is missing");
 
-            if(null==actualValue)
-                throw new RuntimeException("Metric value at index "+dataIndex+" is null");
-
-            grid.setText(row, 1, actualValue );
+            grid.setText(row, 1, metric.get(dataIndex) );
 
             if(c.getComparisonColumn()!=null && baseline>0)
             {
-                stacks.get(dataIndex).setRatio(baseline, Double.valueOf(actualValue));
+                stacks.get(dataIndex).setRatio(baseline, metric.getValue(dataIndex));
             }
             else if(c.getComparisonColumn()!=null && baseline<0)
             {
@@ -15,6 +15,7 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.dmr.client.dispatch.impl.DMRAction;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.RuntimeBaseAddress;
 import org.jboss.as.console.client.shared.state.ServerSelectionChanged;
 import org.jboss.as.console.client.shared.subsys.RevealStrategy;
@@ -38,6 +39,7 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
     private AddressBinding addressBinding;
     private EntityAdapter<TransactionManager> entityAdapter;
     private RevealStrategy revealStrategy;
+    private MetricPoller poller;
 
     @ProxyCodeSplit
     @NameToken(NameTokens.TXMetrics)
@@ -56,11 +58,13 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
     public TXMetricPresenter(
             EventBus eventBus, MyView view, MyProxy proxy,
             DispatchAsync dispatcher,
-            ApplicationMetaData metaData, RevealStrategy revealStrategy) {
+            ApplicationMetaData metaData, RevealStrategy revealStrategy,
+            MetricPoller poller) {
         super(eventBus, view, proxy);
 
         this.dispatcher = dispatcher;
         this.revealStrategy = revealStrategy;
+        this.poller = poller;
 
         this.addressBinding = metaData.getBeanMetaData(TransactionManager.class).getAddress();
         this.entityAdapter = new EntityAdapter<TransactionManager>(TransactionManager.class, metaData);
@@ -68,6 +72,8 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
 
     @Override
     public void onServerSelectionChanged(boolean isRunning) {
+        // stop polling the previous server, refresh() subscribes to the new one
+        poller.cancel(this);
          Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
             @Override
             public void execute() {
@@ -90,6 +96,12 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
         refresh();
     }
 
+    @Override
+    protected void onHide() {
+        super.onHide();
+        poller.cancel(this);
+    }
+
     @Override
     protected void revealInParent() {
         revealStrategy.revealInRuntimeParent(this);
@@ -110,24 +122,37 @@ public class TXMetricPresenter extends Presenter<TXMetricPresenter.MyView, TXMet
                 ModelNode result = dmrResponse.get();
 
                 TransactionManager metrics = entityAdapter.fromDMR(result.get(RESULT));
-
-                getView().setTxMetric(new Metric(
-                        metrics.getNumTransactions(),
-                        metrics.getNumCommittedTransactions(),
-                        metrics.getNumAbortedTransactions(),
-                        metrics.getNumTimeoutTransactions()
-                        ));
-
-                getView().setRollbackMetric(new Metric(
-                        metrics.getNumApplicationRollback(),
-                        metrics.getNumResourceRollback()
-                ));
-
+                updateMetrics(metrics);
 
                 //provideRandomMetrics();
 
             }
         });
+
+        poller.subscribe(this, "transactions", operation.get(ADDRESS), new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                updateMetrics(entityAdapter.fromDMR(values));
+            }
+        },
+                "number-of-transactions", "number-of-committed-transactions",
+                "number-of-aborted-transactions", "number-of-timed-out-transactions",
+                "number-of-application-rollbacks", "number-of-resource-rollbacks"
+        );
+    }
+
+    private void updateMetrics(TransactionManager metrics) {
+        getView().setTxMetric(new Metric(
+                metrics.getNumTransactions(),
+                metrics.getNumCommittedTransactions(),
+                metrics.getNumAbortedTransactions(),
+                metrics.getNumTimeoutTransactions()
+                ));
+
+        getView().setRollbackMetric(new Metric(
+                metrics.getNumApplicationRollback(),
+                metrics.getNumResourceRollback()
+        ));
     }
 
 }
@@ -3,7 +3,6 @@ package org.jboss.as.console.client.shared.runtime.vm;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.visualization.client.visualizations.corechart.AxisOptions;
 import com.google.gwt.visualization.client.visualizations.corechart.LineChart;
-import com.google.gwt.visualization.client.visualizations.corechart.Options;
 import org.jboss.as.console.client.Console;
 import org.jboss.as.console.client.shared.help.StaticHelpPanel;
 import org.jboss.as.console.client.shared.runtime.Metric;
@@ -13,7 +12,7 @@ import org.jboss.as.console.client.shared.runtime.charts.LineChartView;
 import org.jboss.as.console.client.shared.runtime.charts.NumberColumn;
 import org.jboss.as.console.client.shared.runtime.plain.PlainColumnView;
 
-import java.util.Date;
+import java.util.Arrays;
 
 /**
  * @author Heiko Braun
@@ -82,7 +81,7 @@ public class HeapChartView implements Sampler {
         long[] converted = new long[metric.numSamples()];
         for(int i=0; i<metric.numSamples();i++)
         {
-            converted[i] = toMB(Long.valueOf(metric.get(i)).longValue());
+            converted[i] = toMB(metric.getLong(i));
         }
         sampler.addSample(new Metric(converted));
     }
@@ -114,8 +113,8 @@ public class HeapChartView implements Sampler {
 
         @Override
         public void addSample(Metric metric) {
-            long used = Long.valueOf(metric.get(0));
-            long max = Long.valueOf(metric.get(1));
+            long used = metric.getLong(0);
+            long max = metric.getLong(1);
 
             long usedMb = ( used/1024)/1024;
             long maxMb = (max/1024)/1024;
@@ -127,25 +126,15 @@ public class HeapChartView implements Sampler {
                 layout.add(chart);
             }
 
-            data.addRow();
-            int nextRow = data.getNumberOfRows()-1;
-
-            // default
-            data.setValue(nextRow, 0, new Date(System.currentTimeMillis()));
-
-            data.setValue(nextRow, 1, usedMb);
-
-            Options options = createOptions();
             AxisOptions vaxis = AxisOptions.create();
             vaxis.setMaxValue(maxMb);
-            options.setVAxisOptions(vaxis);
-
-            AxisOptions haxis = AxisOptions.create();
-            haxis.set("showTextEvery", "25.00");
-            haxis.set("maxAlternation", "1");
-            options.setHAxisOptions(haxis);
+            getOptions().setVAxisOptions(vaxis);
 
-            chart.draw(data, options);
+            // only the used heap is drawn
+            double[] values = getSampleArray();
+            Arrays.fill(values, Double.NaN);
+            values[0] = usedMb;
+            addSample(System.currentTimeMillis(), values);
         }
     }
 
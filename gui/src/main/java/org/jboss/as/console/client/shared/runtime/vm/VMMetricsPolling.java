@@ -0,0 +1,60 @@
+package org.jboss.as.console.client.shared.runtime.vm;
+
+import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
+import org.jboss.dmr.client.ModelNode;
+
+/**
+ * Subscribes a {@link VMView} to the memory and thread metrics of a server.
+ * Shared by the standalone and domain presenters.
+ *
+ * @author Heiko Braun
+ */
+public class VMMetricsPolling {
+
+    private VMMetricsPolling() {
+    }
+
+    /**
+     * @param baseAddress the server address, empty on a standalone server
+     */
+    public static void subscribe(MetricPoller poller, Object owner, ModelNode baseAddress, final VMView view) {
+
+        ModelNode memory = platformMBean(baseAddress, "memory");
+        poller.subscribe(owner, "vm-memory", memory, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                view.setHeap(asMetric(values.get("heap-memory-usage")));
+                view.setNonHeap(asMetric(values.get("non-heap-memory-usage")));
+            }
+        }, "heap-memory-usage", "non-heap-memory-usage");
+
+        ModelNode threading = platformMBean(baseAddress, "threading");
+        poller.subscribe(owner, "vm-threads", threading, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                view.setThreads(new Metric(
+                        values.get("thread-count").asLong(),
+                        values.get("daemon-thread-count").asLong()
+                ));
+            }
+        }, "thread-count", "daemon-thread-count");
+    }
+
+    private static ModelNode platformMBean(ModelNode baseAddress, String type) {
+        ModelNode address = new ModelNode();
+        address.set(baseAddress);
+        address.add("core-service", "platform-mbean");
+        address.add("type", type);
+        return address;
+    }
+
+    private static Metric asMetric(ModelNode usage) {
+        return new Metric(
+                usage.get("max").asLong(-1),
+                usage.get("used").asLong(-1),
+                usage.get("committed").asLong(-1),
+                usage.get("init").asLong(-1)
+        );
+    }
+}
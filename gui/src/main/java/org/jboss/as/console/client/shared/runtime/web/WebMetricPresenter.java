@@ -17,6 +17,7 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.dmr.client.dispatch.impl.DMRAction;
 import org.jboss.dmr.client.dispatch.impl.DMRResponse;
 import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.RuntimeBaseAddress;
 import org.jboss.as.console.client.shared.state.ServerSelectionChanged;
 import org.jboss.as.console.client.shared.subsys.RevealStrategy;
@@ -42,6 +43,7 @@ public class WebMetricPresenter extends Presenter<WebMetricPresenter.MyView, Web
     private HttpConnector selectedConnector;
     private BeanFactory factory;
     private final LoadConnectorCmd cmd;
+    private final MetricPoller poller;
 
     @ProxyCodeSplit
     @NameToken(NameTokens.WebMetricPresenter)
@@ -60,13 +62,14 @@ public class WebMetricPresenter extends Presenter<WebMetricPresenter.MyView, Web
             EventBus eventBus, MyView view, MyProxy proxy,
             DispatchAsync dispatcher,
             ApplicationMetaData metaData, RevealStrategy revealStrategy,
-            BeanFactory factory) {
+            BeanFactory factory, MetricPoller poller) {
         super(eventBus, view, proxy);
 
         this.dispatcher = dispatcher;
         this.revealStrategy = revealStrategy;
         this.factory = factory;
         this.cmd = new LoadConnectorCmd(dispatcher, factory);
+        this.poller = poller;
     }
 
     public void setSelectedConnector(HttpConnector selection) {
@@ -82,6 +85,7 @@ public class WebMetricPresenter extends Presenter<WebMetricPresenter.MyView, Web
          Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
             @Override
             public void execute() {
+                poller.cancel(WebMetricPresenter.this);
                 getView().clearSamples();
                 if(isVisible()) refresh();
             }
@@ -108,10 +112,12 @@ public class WebMetricPresenter extends Presenter<WebMetricPresenter.MyView, Web
 
         getView().clearSamples();
 
+        ModelNode address = RuntimeBaseAddress.get();
+        address.add("subsystem", "web");
+        address.add("connector", selectedConnector.getName());
+
         ModelNode operation = new ModelNode();
-        operation.get(ADDRESS).set(RuntimeBaseAddress.get());
-        operation.get(ADDRESS).add("subsystem", "web");
-        operation.get(ADDRESS).add("connector", selectedConnector.getName());
+        operation.get(ADDRESS).set(address);
 
         operation.get(OP).set(READ_RESOURCE_OPERATION);
         operation.get(INCLUDE_RUNTIME).set(true);
@@ -128,18 +134,26 @@ public class WebMetricPresenter extends Presenter<WebMetricPresenter.MyView, Web
                 else
                 {
                     ModelNode result = response.get(RESULT).asObject();
-
-                    Metric metric = new Metric(
-                            result.get("requestCount").asLong(),
-                            result.get("errorCount").asLong(),
-                            result.get("processingTime").asLong(),
-                            result.get("maxTime").asLong()
-                    );
-
-                    getView().setConnectorMetric(metric);
+                    getView().setConnectorMetric(asConnectorMetric(result));
                 }
             }
         });
+
+        poller.subscribe(this, "connector", address, new MetricPoller.Callback() {
+            @Override
+            public void onSample(ModelNode values) {
+                getView().setConnectorMetric(asConnectorMetric(values));
+            }
+        }, "requestCount", "errorCount", "processingTime", "maxTime");
+    }
+
+    private static Metric asConnectorMetric(ModelNode result) {
+        return new Metric(
+                result.get("requestCount").asLong(),
+                result.get("errorCount").asLong(),
+                result.get("processingTime").asLong(),
+                result.get("maxTime").asLong()
+        );
     }
 
     @Override
@@ -156,6 +170,12 @@ public class WebMetricPresenter extends Presenter<WebMetricPresenter.MyView, Web
         refresh();
     }
 
+    @Override
+    protected void onHide() {
+        super.onHide();
+        poller.cancel(this);
+    }
+
     @Override
     protected void revealInParent() {
         revealStrategy.revealInRuntimeParent(this);
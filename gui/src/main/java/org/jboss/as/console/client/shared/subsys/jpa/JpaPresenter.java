@@ -90,7 +90,7 @@ public class JpaPresenter extends Presenter<JpaPresenter.MyView, JpaPresenter.My
         ModelNode operation = beanMetaData.getAddress().asResource(Baseadress.get());
         operation.get(OP).set(READ_RESOURCE_OPERATION);
 
-        dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
+        dispatcher.execute(new DMRAction(operation, true), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
                 ModelNode response  = result.get();
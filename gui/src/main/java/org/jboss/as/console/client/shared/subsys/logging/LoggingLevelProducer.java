@@ -52,7 +52,7 @@ public class LoggingLevelProducer {
         operation.get(ADDRESS).add("subsystem", "logging");
         operation.get(ADDRESS).add("console-handler", "*");
         
-        dispatcher.execute(new DMRAction(operation), new DmrCallback() {
+        dispatcher.execute(new DMRAction(operation, true), new DmrCallback() {
             @Override
             public void onDmrSuccess(ModelNode response) {
                 List<ModelNode> resultList = response.get("result").asList();
@@ -106,7 +106,7 @@ public class OSGiConfigurationPresenter extends Presenter<OSGiConfigurationPrese
     private void loadOSGiDetails() {
         ModelNode operation = createOperation(READ_RESOURCE_OPERATION);
 
-        dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
+        dispatcher.execute(new DMRAction(operation, true), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
                 ModelNode response = result.get();
@@ -163,7 +163,7 @@ public class SecurityDomainsPresenter
         operation.get(ADDRESS).add(SECURITY_DOMAIN, "*");
         operation.get(ADDRESS).add(type, CLASSIC);
 
-        dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
+        dispatcher.execute(new DMRAction(operation, true), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
                 ModelNode response = result.get();
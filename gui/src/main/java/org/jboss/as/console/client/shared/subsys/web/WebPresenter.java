@@ -203,7 +203,7 @@ public class WebPresenter extends Presenter<WebPresenter.MyView, WebPresenter.My
         operation.get(ADDRESS).add("subsystem", "web");
         operation.get(RECURSIVE).set(true);
 
-        dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
+        dispatcher.execute(new DMRAction(operation, true), new SimpleCallback<DMRResponse>() {
 
             @Override
             public void onSuccess(DMRResponse result) {
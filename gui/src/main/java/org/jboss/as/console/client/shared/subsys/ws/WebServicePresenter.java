@@ -100,7 +100,7 @@ public class WebServicePresenter extends Presenter<WebServicePresenter.MyView, W
 
         operation.get(OP).set(READ_RESOURCE_OPERATION);
 
-        dispatcher.execute(new DMRAction(operation), new SimpleCallback<DMRResponse>() {
+        dispatcher.execute(new DMRAction(operation, true), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse result) {
                 ModelNode response = result.get();
@@ -15,7 +15,9 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 import org.jboss.as.console.client.shared.jvm.LoadJVMMetricsCmd;
 import org.jboss.as.console.client.shared.jvm.model.CompositeVMMetric;
 import org.jboss.as.console.client.shared.runtime.Metric;
+import org.jboss.as.console.client.shared.runtime.MetricPoller;
 import org.jboss.as.console.client.shared.runtime.vm.VMMetricsManagement;
+import org.jboss.as.console.client.shared.runtime.vm.VMMetricsPolling;
 import org.jboss.as.console.client.shared.runtime.vm.VMView;
 import org.jboss.as.console.client.shared.state.ServerSelectionChanged;
 import org.jboss.as.console.client.widgets.forms.ApplicationMetaData;
@@ -31,6 +33,7 @@ public class VMMetricsPresenter
 
     private ApplicationMetaData metaData;
     private LoadJVMMetricsCmd loadMetricCmd;
+    private MetricPoller poller;
 
     @ProxyCodeSplit
     @NameToken(NameTokens.VirtualMachine)
@@ -43,10 +46,12 @@ public class VMMetricsPresenter
     @Inject
     public VMMetricsPresenter(
             EventBus eventBus, MyView view, MyProxy proxy,
-            DispatchAsync dispatcher, BeanFactory factory, ApplicationMetaData propertyMetaData) {
+            DispatchAsync dispatcher, BeanFactory factory, ApplicationMetaData propertyMetaData,
+            MetricPoller poller) {
         super(eventBus, view, proxy);
 
         this.metaData = propertyMetaData;
+        this.poller = poller;
         this.loadMetricCmd = new LoadJVMMetricsCmd(dispatcher, factory, new ModelNode(), metaData);
     }
 
@@ -60,6 +65,7 @@ public class VMMetricsPresenter
     @Override
     protected void onHide() {
         super.onHide();
+        poller.cancel(this);
     }
 
 
@@ -108,6 +114,7 @@ public class VMMetricsPresenter
             }
         });
 
+        VMMetricsPolling.subscribe(poller, this, new ModelNode(), getView());
     }
 
     @Override
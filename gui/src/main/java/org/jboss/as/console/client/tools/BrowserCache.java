@@ -0,0 +1,79 @@
+package org.jboss.as.console.client.tools;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.Property;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the management model as it's browsed, keyed by address.
+ * <p/>
+ * Child types and names reflect the current state of the model and are dropped on refresh.
+ * Resource descriptions rarely change and are kept for the session.
+ *
+ * @author Heiko Braun
+ */
+class BrowserCache {
+
+    private final Map<String, List<ModelNode>> childTypes = new HashMap<String, List<ModelNode>>();
+    private final Map<String, List<ModelNode>> childNames = new HashMap<String, List<ModelNode>>();
+    private final Map<String, ModelNode> descriptions = new HashMap<String, ModelNode>();
+
+    List<ModelNode> getChildTypes(ModelNode address) {
+        return childTypes.get(key(address));
+    }
+
+    void putChildTypes(ModelNode address, List<ModelNode> types) {
+        childTypes.put(key(address), types);
+    }
+
+    /**
+     * @param typeAddress the parent address followed by <tt>type=*</tt>
+     */
+    List<ModelNode> getChildNames(ModelNode typeAddress) {
+        return childNames.get(key(typeAddress));
+    }
+
+    void putChildNames(ModelNode typeAddress, List<ModelNode> names) {
+        childNames.put(key(typeAddress), names);
+    }
+
+    ModelNode getDescription(ModelNode address) {
+        return descriptions.get(key(address));
+    }
+
+    void putDescription(ModelNode address, ModelNode description) {
+        descriptions.put(key(address), description);
+    }
+
+    /**
+     * Drop the child types and names. Descriptions are kept.
+     */
+    void refresh() {
+        childTypes.clear();
+        childNames.clear();
+    }
+
+    /**
+     * The address of the children of a given type, as used by the browser view
+     */
+    static ModelNode typeAddress(ModelNode parent, String type) {
+        ModelNode address = new ModelNode();
+        address.setEmptyList();
+        for(Property segment : parent.asPropertyList())
+            address.add(segment.getName(), segment.getValue().asString());
+        address.add(type, "*");
+        return address;
+    }
+
+    static String key(ModelNode address) {
+        StringBuilder key = new StringBuilder("/");
+        for(Property segment : address.asPropertyList())
+        {
+            key.append(segment.getName()).append("=").append(segment.getValue().asString()).append("/");
+        }
+        return key.toString();
+    }
+}
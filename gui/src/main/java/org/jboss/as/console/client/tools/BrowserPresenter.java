@@ -32,6 +32,7 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
     private DispatchAsync dispatcher;
     private boolean hasBeenRevealed;
     private DefaultWindow window;
+    private final BrowserCache cache = new BrowserCache();
 
     public interface MyView extends PopupView {
         void setPresenter(BrowserPresenter presenter);
@@ -73,6 +74,13 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
 
     public void readChildrenTypes(final ModelNode address) {
 
+        List<ModelNode> cached = cache.getChildTypes(address);
+        if(cached!=null)
+        {
+            getView().updateChildrenTypes(address, cached);
+            return;
+        }
+
         ModelNode operation  = new ModelNode();
         operation.get(ADDRESS).set(address);
         operation.get(OP).set(READ_CHILDREN_TYPES_OPERATION);
@@ -81,13 +89,74 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
                 final ModelNode response = dmrResponse.get();
-                getView().updateChildrenTypes(address, response.get(RESULT).asList());
+                List<ModelNode> types = response.get(RESULT).asList();
+                if(!response.isFailure())
+                    cache.putChildTypes(address, types);
+
+                getView().updateChildrenTypes(address, types);
+                prefetchChildrenNames(address, types);
+            }
+        });
+    }
+
+    /**
+     * Read the names of all child types in one go, so expanding a type doesn't need another round trip.
+     */
+    private void prefetchChildrenNames(ModelNode address, List<ModelNode> types) {
+
+        final List<ModelNode> typeAddresses = new ArrayList<ModelNode>();
+        List<ModelNode> steps = new ArrayList<ModelNode>();
+        for(ModelNode type : types)
+        {
+            ModelNode typeAddress = BrowserCache.typeAddress(address, type.asString());
+            if(cache.getChildNames(typeAddress)!=null)
+                continue;
+
+            ModelNode step = new ModelNode();
+            step.get(ADDRESS).set(address);
+            step.get(OP).set(READ_CHILDREN_NAMES_OPERATION);
+            step.get(CHILD_TYPE).set(type.asString());
+            steps.add(step);
+            typeAddresses.add(typeAddress);
+        }
+
+        if(steps.isEmpty())
+            return;
+
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(COMPOSITE);
+        operation.get(ADDRESS).setEmptyList();
+        operation.get(STEPS).set(steps);
+
+        dispatcher.execute(new DMRAction(operation), new AsyncCallback<DMRResponse>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                // names are read on demand then
+                Log.warn("Failed to prefetch children names: "+caught.getMessage());
+            }
+
+            @Override
+            public void onSuccess(DMRResponse dmrResponse) {
+                final ModelNode result = dmrResponse.get().get(RESULT);
+                for(int i=0; i<typeAddresses.size(); i++)
+                {
+                    ModelNode stepResult = result.get("step-" + (i+1));
+                    if(SUCCESS.equals(stepResult.get(OUTCOME).asString()))
+                        cache.putChildNames(typeAddresses.get(i), stepResult.get(RESULT).asList());
+                }
             }
         });
     }
 
     public void readChildrenNames(final ModelNode address) {
 
+        List<ModelNode> cached = cache.getChildNames(address);
+        if(cached!=null)
+        {
+            getView().updateChildrenNames(address, cached);
+            return;
+        }
+
         final List<ModelNode> addressList = address.asList();
         ModelNode typeDenominator = null;
         List<ModelNode> actualAddress = new ArrayList<ModelNode>();
@@ -111,7 +180,11 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
                 final ModelNode response = dmrResponse.get();
-                getView().updateChildrenNames(address, response.get(RESULT).asList());
+                List<ModelNode> names = response.get(RESULT).asList();
+                if(!response.isFailure())
+                    cache.putChildNames(address, names);
+
+                getView().updateChildrenNames(address, names);
             }
         });
 
@@ -126,12 +199,22 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
 
         List<ModelNode> steps = new ArrayList<ModelNode>();
 
-        // the description
-        ModelNode descriptionOp  = new ModelNode();
-        descriptionOp.get(ADDRESS).set(address);
-        descriptionOp.get(OP).set(READ_RESOURCE_DESCRIPTION_OPERATION);
-        descriptionOp.get(OPERATIONS).set(true);
-        steps.add(descriptionOp);
+        // the description, unless it's known already
+        final ModelNode cachedDescription = cache.getDescription(address);
+        if(cachedDescription!=null)
+        {
+            getView().updateDescription(address, cachedDescription);
+        }
+        else
+        {
+            ModelNode descriptionOp  = new ModelNode();
+            descriptionOp.get(ADDRESS).set(address);
+            descriptionOp.get(OP).set(READ_RESOURCE_DESCRIPTION_OPERATION);
+            descriptionOp.get(OPERATIONS).set(true);
+            steps.add(descriptionOp);
+        }
+        final String descriptionStep = cachedDescription!=null ? null : "step-1";
+        final String resourceStep = cachedDescription!=null ? "step-1" : "step-2";
 
         // the actual values
         final ModelNode resourceOp  = new ModelNode();
@@ -152,7 +235,7 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
                 for(Property step : propertyList)
                 {
                     ModelNode stepResult = step.getValue();
-                    if(step.getName().equals("step-1"))
+                    if(step.getName().equals(descriptionStep))
                     {
                         ModelNode desc = null;
                         if(ModelType.LIST.equals(stepResult.get(RESULT).getType()))
@@ -171,9 +254,12 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
                             }
                         }
 
+                        if(desc.isDefined())
+                            cache.putDescription(address, desc);
+
                         getView().updateDescription(address, desc);
                     }
-                    else if(step.getName().equals("step-2"))
+                    else if(step.getName().equals(resourceStep))
                     {
                         if(!stepResult.isFailure())
                             getView().updateResource(address, stepResult.get(RESULT).asObject());
@@ -186,19 +272,28 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
     }
 
     public void onRefresh() {
+        cache.refresh();
         readChildrenTypes(new ModelNode().setEmptyList());
 
     }
 
     // ---------- Storage Presenter  ----
 
-    public void loadDmrDescription(ModelNode address, final AsyncCallback<ModelNode> callback) {
+    public void loadDmrDescription(final ModelNode address, final AsyncCallback<ModelNode> callback) {
+
+        ModelNode cached = cache.getDescription(address);
+        if(cached!=null)
+        {
+            callback.onSuccess(cached);
+            return;
+        }
+
         ModelNode descriptionOp  = new ModelNode();
         descriptionOp.get(ADDRESS).set(address);
         descriptionOp.get(OP).set(READ_RESOURCE_DESCRIPTION_OPERATION);
         descriptionOp.get(OPERATIONS).set(true);
 
-        dispatcher.execute(new DMRAction(descriptionOp), new SimpleCallback<DMRResponse>() {
+        dispatcher.execute(new DMRAction(descriptionOp, true), new SimpleCallback<DMRResponse>() {
             @Override
             public void onSuccess(DMRResponse dmrResponse) {
 
@@ -222,6 +317,7 @@ public class BrowserPresenter extends PresenterWidget<BrowserPresenter.MyView>{
                         actualDescriptionNode = result;
                     }
 
+                    cache.putDescription(address, actualDescriptionNode);
                     callback.onSuccess(actualDescriptionNode);
                 }
             }}
@@ -11,6 +11,7 @@ import org.jboss.as.console.client.shared.help.StaticHelpPanel;
 import org.jboss.ballroom.client.widgets.tools.ToolButton;
 import org.jboss.ballroom.client.widgets.tools.ToolStrip;
 import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelWriter;
 import org.jboss.dmr.client.Property;
 
 /**
@@ -19,8 +20,14 @@ import org.jboss.dmr.client.Property;
  */
 public class RawView {
 
+    // characters per step, the dump is built incrementally to keep the UI responsive
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    // larger models are cut off
+    private static final int MAX_SIZE = 2 * 1024 * 1024;
 
     private HTML dump;
+    private int generation = 0;
     private BrowserPresenter presenter;
     private ModelNode currentAddress;
 
@@ -66,31 +73,55 @@ public class RawView {
     public void display(ModelNode address, Property model)
     {
         currentAddress = address;
-        SafeHtmlBuilder parsed = parse(model.getValue().toString());
-        dump.setHTML(parsed.toSafeHtml());
-    }
 
-    private static SafeHtmlBuilder parse(String s) {
-
-        SafeHtmlBuilder html = new SafeHtmlBuilder();
+        final int current = ++generation;
+        final ModelWriter writer = ModelWriter.dmr(model.getValue()).limit(MAX_SIZE);
+        final SafeHtmlBuilder html = new SafeHtmlBuilder();
+        final StringBuilder text = new StringBuilder();
 
         html.appendHtmlConstant("<pre class='model-dump'>");
 
-        String[] lines = s.split("\n");
+        Scheduler.get().scheduleIncremental(new Scheduler.RepeatingCommand() {
+            @Override
+            public boolean execute() {
+                if(current!=generation)
+                    return false; // superseded
+
+                boolean more = writer.write(text, CHUNK_SIZE);
+
+                // complete lines only, the remainder is carried over to the next chunk
+                int end = more ? text.lastIndexOf("\n") : text.length();
+                if(end>0 || (end==0 && more))
+                {
+                    appendLines(html, text.substring(0, end));
+                    text.delete(0, more ? end+1 : end);
+                }
+
+                if(!more)
+                {
+                    html.appendHtmlConstant("</pre>");
+                    dump.setHTML(html.toSafeHtml());
+                }
+                return more;
+            }
+        });
+    }
+
+    private static void appendLines(SafeHtmlBuilder html, String s) {
+
+        String[] lines = s.split("\n", -1);
         for(String line : lines)
         {
             html.appendHtmlConstant("<span class='browser-dump-line'>");
             html.appendEscaped(line).appendHtmlConstant("<br/>");
             html.appendHtmlConstant("</span>");
         }
-
-        html.appendHtmlConstant("</pre>");
-        return html;
     }
 
     public void clearDisplay()
     {
         currentAddress = null;
+        generation++;
         dump.setHTML("");
     }
 
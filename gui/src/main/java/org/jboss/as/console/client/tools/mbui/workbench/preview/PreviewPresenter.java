@@ -40,6 +40,7 @@ import org.jboss.mbui.gui.behaviour.NavigationDelegate;
 import org.jboss.mbui.gui.behaviour.as7.CoreGUIContext;
 import org.jboss.mbui.gui.kernel.Framework;
 import org.jboss.mbui.gui.kernel.Kernel;
+import org.jboss.mbui.gui.reification.preparation.DescriptionRepository;
 import org.jboss.mbui.model.structure.QName;
 
 import static org.jboss.as.console.client.tools.mbui.workbench.NameTokens.preview;
@@ -70,12 +71,23 @@ public class PreviewPresenter extends Presenter<PreviewPresenter.MyView, Preview
                 Console.MODULES.getCurrentUser()
         );
 
+        // descriptions depend on the console model version and the server version
+        final DescriptionRepository descriptionRepository = new DescriptionRepository(
+                Console.MODULES.modelVersions().get("core-version") + "/" +
+                        Console.MODULES.getBootstrapContext().getProdVersion()
+        );
+
         // mbui kernel instance
         this.kernel = new Kernel(sampleRepository, new Framework() {
             @Override
             public DispatchAsync getDispatcher() {
                 return dispatcher;
             }
+
+            @Override
+            public DescriptionRepository getDescriptionRepository() {
+                return descriptionRepository;
+            }
         }, globalContext);
     }
 
@@ -0,0 +1,215 @@
+package org.jboss.as.console.client.widgets.forms;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.ModelType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The property bindings of a bean type, prepared for the conversions in {@link EntityAdapter}:
+ * paths are split and the value converter and accessors are resolved once per property, rather than once per property and entity.
+ * <p/>
+ * Plans are built on first use and shared by all adapters of the same type.
+ *
+ * @author Heiko Braun
+ */
+class BindingPlan {
+
+    private static final Map<ApplicationMetaData, Map<Class<?>, BindingPlan>> plans =
+            new HashMap<ApplicationMetaData, Map<Class<?>, BindingPlan>>();
+
+    private static final ModelNode UNDEFINED;
+
+    static {
+        UNDEFINED = new ModelNode();
+        UNDEFINED.protect();
+    }
+
+    private final List<Step> steps;
+
+    private BindingPlan(List<PropertyBinding> bindings, Mutator mutator) {
+        List<Step> steps = new ArrayList<Step>(bindings.size());
+        for(PropertyBinding binding : bindings)
+            steps.add(new Step(binding, mutator));
+
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    static BindingPlan forType(ApplicationMetaData metaData, Class<?> type) {
+        Map<Class<?>, BindingPlan> byType = plans.get(metaData);
+        if(null==byType)
+        {
+            byType = new HashMap<Class<?>, BindingPlan>();
+            plans.put(metaData, byType);
+        }
+
+        BindingPlan plan = byType.get(type);
+        if(null==plan)
+        {
+            plan = new BindingPlan(metaData.getBeanMetaData(type).getProperties(), metaData.getMutator(type));
+            byType.put(type, plan);
+        }
+        return plan;
+    }
+
+    List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Lookup a (nested) value without creating the path as a side effect, which <tt>ModelNode.get()</tt> would do.
+     *
+     * @return the value or a protected undefined node
+     */
+    static ModelNode resolve(ModelNode payload, String[] path) {
+        ModelNode node = payload;
+        for(String segment : path)
+        {
+            if(!node.has(segment))
+                return UNDEFINED;
+            node = node.get(segment);
+        }
+        return node;
+    }
+
+    /**
+     * A single property binding.
+     */
+    static class Step {
+        final PropertyBinding binding;
+        final String javaName;
+        final String detypedName;
+        final String[] path;
+        final Converter converter;
+
+        private final Setter setter;
+        private final Getter getter;
+
+        Step(PropertyBinding binding, Mutator mutator) {
+            this.binding = binding;
+            this.javaName = binding.getJavaName();
+            this.detypedName = binding.getDetypedName();
+            this.path = detypedName.split("/");
+            this.converter = Converter.forJavaType(binding.getJavaTypeName());
+
+            // a binding without accessors fails right away (IllegalArgumentException)
+            this.setter = mutator!=null ? mutator.setter(javaName) : null;
+            this.getter = mutator!=null ? mutator.getter(javaName) : null;
+        }
+
+        Object fromDMR(ModelNode value) {
+            return converter.fromDMR(binding, value);
+        }
+
+        void setValue(Object entity, Object value) {
+            setter.invoke(entity, value);
+        }
+
+        Object getValue(Object entity) {
+            return getter.invoke(entity);
+        }
+    }
+
+    /**
+     * Converts DMR values to the java type of a property. Undefined values are turned into defaults of
+     * the proper type, otherwise ClassCastExceptions occur down the line (after boxing).
+     */
+    enum Converter {
+
+        BOOLEAN(ModelType.BOOLEAN) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return value.isDefined() ? value.asBoolean() : false;
+            }
+        },
+        LONG(ModelType.LONG) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return value.isDefined() ? value.asLong() : -1L;
+            }
+        },
+        INTEGER(ModelType.INT) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return value.isDefined() ? value.asInt() : -1;
+            }
+        },
+        DOUBLE(ModelType.DOUBLE) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return value.isDefined() ? value.asDouble() : -1.0;
+            }
+        },
+        FLOAT(null) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return value.isDefined() ? value.asDouble() : -1.0;
+            }
+        },
+        STRING(ModelType.STRING) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return value.isDefined() ? value.asString() : "";
+            }
+        },
+
+        /**
+         * Lists are converted by the nested adapter, see {@link PropertyBinding#getEntityAdapterForList()}
+         */
+        LIST(ModelType.LIST) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                if(value.isDefined() && !value.asList().isEmpty())
+                {
+                    List<ModelNode> items = value.asList();
+                    if(items.get(0).getType().equals(ModelType.PROPERTY))
+                        return binding.getEntityAdapterForList().fromDMRPropertyList(value.asPropertyList());
+                    else
+                        return binding.getEntityAdapterForList().fromDMRList(items);
+                }
+                return new LinkedList();
+            }
+        },
+
+        /**
+         * Types that are not bound: they are skipped when reading DMR
+         */
+        NONE(null) {
+            @Override
+            Object fromDMR(PropertyBinding binding, ModelNode value) {
+                return null;
+            }
+        };
+
+        private final ModelType modelType;
+
+        Converter(ModelType modelType) {
+            this.modelType = modelType;
+        }
+
+        abstract Object fromDMR(PropertyBinding binding, ModelNode value);
+
+        /**
+         * @return the model type used when writing DMR or null if the type can't be written
+         */
+        ModelType getModelType() {
+            return modelType;
+        }
+
+        static Converter forJavaType(String javaTypeName) {
+            if("java.lang.Boolean".equals(javaTypeName)) return BOOLEAN;
+            if("java.lang.Long".equals(javaTypeName)) return LONG;
+            if("java.lang.Integer".equals(javaTypeName)) return INTEGER;
+            if("java.lang.Double".equals(javaTypeName)) return DOUBLE;
+            if("java.lang.Float".equals(javaTypeName)) return FLOAT;
+            if("java.lang.String".equals(javaTypeName)) return STRING;
+            if("java.util.List".equals(javaTypeName)) return LIST;
+            return NONE;
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class EntityAdapter<T> {
     private final Class<?> type;
     private ApplicationMetaData metaData;
     private KeyAssignment keyAssignment = null;
+    private BindingPlan plan = null;
 
     public EntityAdapter(Class<?> type, ApplicationMetaData metaData) {
         this.type = type;
@@ -52,6 +53,12 @@ public class EntityAdapter<T> {
         return type;
     }
 
+    private BindingPlan getPlan() {
+        if (null == plan)
+            plan = BindingPlan.forType(metaData, getType());
+        return plan;
+    }
+
     /**
      * Determine if this is an EntityAdapter for a one of the supported ModelNode
      * base classes (String, Long, BigDecimal, etc).
@@ -98,7 +105,8 @@ public class EntityAdapter<T> {
      * @return an entity representation of type T
      */
     public T fromDMR(ModelNode dmr) {
-        dmr = dmr.clone(); // don't want our dmr.get() calls to have side effects TODO: necessary?
+
+        // no need to clone: values are looked up through BindingPlan.resolve(), which doesn't have side effects
 
         if (isBaseTypeAdapter()) return convertToBaseType(dmr);
 
@@ -145,146 +153,74 @@ public class EntityAdapter<T> {
             throw new IllegalArgumentException("Unknown ModelType "+dmr.getType()+": "+dmr);
         }
 
-        BeanMetaData beanMetaData = metaData.getBeanMetaData(getType());
-        Mutator mutator = metaData.getMutator(getType());
+        BindingPlan plan = getPlan();
 
-        for(PropertyBinding propBinding : beanMetaData.getProperties())
+        for(BindingPlan.Step step : plan.getSteps())
         {
-
-            String[] splitDetypedName = propBinding.getDetypedName().split("/");
-            ModelNode propValue = actualPayload.get(splitDetypedName);
+            PropertyBinding propBinding = step.binding;
+            ModelNode propValue = BindingPlan.resolve(actualPayload, step.path);
             Object value = null;
 
-            try
-            {
-
-
-                /**
-                 * EXPRESSIONS
-                 */
+            /**
+             * EXPRESSIONS
+             */
 
-                if(propBinding.doesSupportExpression())
+            if(propBinding.doesSupportExpression())
+            {
+                if(propValue.isDefined()
+                        && propValue.getType() == ModelType.EXPRESSION)
                 {
-                    if(propValue.isDefined()
-                            && propValue.getType() == ModelType.EXPRESSION)
-                    {
-                        String exprValue = actualPayload.get(propBinding.getDetypedName()).asString();
-
-                        ExpressionAdapter.setExpressionValue(entity, propBinding.getJavaName(), exprValue);
+                    ExpressionAdapter.setExpressionValue(entity, step.javaName, propValue.asString());
 
-                        continue; // expression have precedence over real values
+                    continue; // expression have precedence over real values
 
-                    }
                 }
+            }
 
-                /**
-                 * KEYS
-                 */
-
-                if(propBinding.isKey())
-                {
-                    // key resolution strategy:
-                    // a, external KeyAssignment with fallback to property name (for property types)
-                    // b, external KeyAssignment
-                    // c, resolution of a matching property
-                    // d, failure
-
-                    if(keyDelegation!=null)
-                    {
-                        value = keyDelegation.valueForKey(propBinding.getJavaName());
-                    }
-                    else if(keyAssignment!=null)
-                    {
-                        // typically keys are
-                        value = keyAssignment.valueForKey(propBinding.getJavaName());
-                    }
-                    else if(dmr.hasDefined(propBinding.getDetypedName()))
-                    {
-                        // keys are required to be strings (part of the address..)
-                        value = actualPayload.get(propBinding.getDetypedName()).asString();
-                    }
-                    else
-                    {
-                        Log.warn("Key property declared, but no key assignment available: " + propBinding);
-                    }
-                }
+            /**
+             * KEYS
+             */
 
-                /**
-                 * VALUES
-                 */
+            if(propBinding.isKey())
+            {
+                // key resolution strategy:
+                // a, external KeyAssignment with fallback to property name (for property types)
+                // b, external KeyAssignment
+                // c, resolution of a matching property
+                // d, failure
 
-                else if("java.lang.Boolean".equals(propBinding.getJavaTypeName()))
-                {
-                    if(propValue.isDefined())
-                        value = propValue.asBoolean();
-                    else
-                        value = false;
-                }
-                else if("java.lang.Long".equals(propBinding.getJavaTypeName()))
-                {
-                    if(propValue.isDefined())
-                        value = propValue.asLong();
-                    else
-                        // need to make sure to use the proper type otherwise ClassCastExceptions occur down the line (after boxing)
-                        value = -1L;
-                }
-                else if("java.lang.Integer".equals(propBinding.getJavaTypeName()))
-                {
-                    if(propValue.isDefined())
-                        value = propValue.asInt();
-                    else
-                        value = -1;
-                }
-                else if("java.lang.Double".equals(propBinding.getJavaTypeName()))
+                if(keyDelegation!=null)
                 {
-                    if(propValue.isDefined())
-                        value = propValue.asDouble();
-                    else
-                        value = -1.0;
+                    value = keyDelegation.valueForKey(step.javaName);
                 }
-                else if("java.lang.Float".equals(propBinding.getJavaTypeName()))
+                else if(keyAssignment!=null)
                 {
-                    if(propValue.isDefined())
-                        value = propValue.asDouble();
-                    else
-                        value = -1.0;
+                    // typically keys are
+                    value = keyAssignment.valueForKey(step.javaName);
                 }
-                else if("java.lang.String".equals(propBinding.getJavaTypeName()))
+                else if(actualPayload.hasDefined(step.detypedName))
                 {
-                    // default
-                    if(propValue.isDefined())
-                        value = propValue.asString();
-                    else
-                        value = "";
+                    // keys are required to be strings (part of the address..)
+                    value = actualPayload.get(step.detypedName).asString();
                 }
-                else if ("java.util.List".equals(propBinding.getJavaTypeName()))
+                else
                 {
-                    ModelNode list = actualPayload.get(splitDetypedName);
-                    if (list.isDefined() && propValue.isDefined() && !list.asList().isEmpty()) {
-                        if (list.asList().get(0).getType().equals(ModelType.PROPERTY)) {
-                            value = propBinding.getEntityAdapterForList().fromDMRPropertyList(list.asPropertyList());
-                        } else {
-                            value = propBinding.getEntityAdapterForList().fromDMRList(list.asList());
-                        }
-                    }
-                    else
-                    {
-                        value = new LinkedList();
-                    }
+                    Log.warn("Key property declared, but no key assignment available: " + propBinding);
                 }
+            }
 
-                // invoke the mutator
-                if(value!=null)
-                    mutator.setValue(entity, propBinding.getJavaName(), value);
+            /**
+             * VALUES
+             */
 
-            }
-            catch (RuntimeException e)
+            else
             {
-                //  System.out.println("Error on property binding: '"+propBinding.toString()+"'");
-                //  System.out.println(dmr);
-                throw e;
+                value = step.fromDMR(propValue);
             }
 
+            // invoke the mutator
+            if(value!=null)
+                step.setValue(entity, value);
 
         }
 
@@ -335,19 +271,19 @@ public class EntityAdapter<T> {
     {
 
         ModelNode operation = new ModelNode();
-        List<PropertyBinding> properties = metaData.getBeanMetaData(getType()).getProperties();
-        Mutator mutator = metaData.getMutator(getType());
+        BindingPlan plan = getPlan();
 
-        for(PropertyBinding property : properties)
+        for(BindingPlan.Step step : plan.getSteps())
         {
-            String[] splitDetypedName = property.getDetypedName().split("/");
+            PropertyBinding property = step.binding;
+            String[] splitDetypedName = step.path;
 
             /**
              * KEYS
              */
             //      if(property.isKey()) continue;
 
-            Object propertyValue = mutator.getValue(entity, property.getJavaName());
+            Object propertyValue = step.getValue(entity);
 
             /**
              * EXPRESSIONS
@@ -371,7 +307,10 @@ public class EntityAdapter<T> {
             if(propertyValue!=null)
             {
                 try {
-                    ModelType modelType = resolveModelType(property.getJavaTypeName());
+                    ModelType modelType = step.converter.getModelType();
+                    if (null == modelType)
+                        throw new RuntimeException("Failed to resolve ModelType for '"+ property.getJavaTypeName()+"'");
+
                     if ((modelType == ModelType.LIST) && (property.getListType() == PropertyBinding.class)) {
                         operation.get(splitDetypedName).set(modelType, property.getEntityAdapterForList().fromEntityPropertyList((List) propertyValue));
                     } else if (modelType == ModelType.LIST) {
@@ -388,29 +327,6 @@ public class EntityAdapter<T> {
         return operation;
     }
 
-    private ModelType resolveModelType(String javaTypeName) {
-
-        ModelType type = null;
-
-        if("java.lang.String".equals(javaTypeName))
-            type = ModelType.STRING;
-        else if("java.lang.Integer".equals(javaTypeName))
-            type = ModelType.INT;
-        else if("java.lang.Long".equals(javaTypeName))
-            type = ModelType.LONG;
-        else if("java.lang.Boolean".equals(javaTypeName))
-            type = ModelType.BOOLEAN;
-        else if("java.lang.Double".equals(javaTypeName))
-            type = ModelType.DOUBLE;
-        else if("java.util.List".equals(javaTypeName)) {
-            type = ModelType.LIST;
-        } else {
-            throw new RuntimeException("Failed to resolve ModelType for '"+ javaTypeName+"'");
-        }
-
-        return type;
-    }
-
     public ModelNode fromBaseTypeList(List<?> baseTypeValues, Class<?> baseType) {
         ModelNode node = new ModelNode();
         if (baseTypeValues.isEmpty()) {
@@ -1,6 +1,6 @@
 package org.jboss.as.console.client.widgets.tables;
 
-import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.event.dom.client.KeyUpEvent;
 import com.google.gwt.event.dom.client.KeyUpHandler;
 import com.google.gwt.user.client.ui.HorizontalPanel;
@@ -12,26 +12,50 @@ import com.google.gwt.view.client.ListDataProvider;
 import com.google.gwt.view.client.SelectionModel;
 import com.google.gwt.view.client.SingleSelectionModel;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * <b>Caveat</b>: You need to provide set the data provider list before creating the filter instance.
+ * <p/>
+ * Input is debounced, the filter is applied once the user stops typing for {@link #DEBOUNCE_DELAY} ms.
+ * Use a {@link KeyPredicate} where possible: the keys are indexed once per {@link #snapshot()}
+ * and extending a prefix only checks the previous matches.
+ * The data provider list is updated in place, so that only rows that actually changed are redrawn.
  *
  * @author Heiko Braun
  * @date 7/31/12
  */
 public class DataProviderFilter<T> {
 
+    public static final int DEBOUNCE_DELAY = 250;
+
     private ListDataProvider<T> delegate;
-    private ArrayList<T> origValues = new ArrayList<T>();
-    private Predicate predicate;
+    private FilterIndex<T> index;
+    private Predicate<T> predicate;
     private TextBox filter;
+    private Timer debounce;
 
     public interface Predicate<T> {
         boolean apply(String prefix, T candiate);
     }
 
+    /**
+     * Case insensitive prefix match on a single key per item.
+     */
+    public static abstract class KeyPredicate<T> implements Predicate<T> {
+
+        public abstract String getKey(T candidate);
+
+        @Override
+        public boolean apply(String prefix, T candiate) {
+            return normalize(getKey(candiate)).startsWith(normalize(prefix));
+        }
+
+        static String normalize(String key) {
+            return key!=null ? key.toLowerCase() : "";
+        }
+    }
+
     /**
      *  initialized the filter by calling {@link #snapshot()}
      * @param delegate
@@ -82,8 +106,7 @@ public class DataProviderFilter<T> {
      */
     public void snapshot() {
         // backup original
-        this.origValues.clear();
-        this.origValues.addAll(delegate.getList());
+        this.index = new FilterIndex<T>(delegate.getList(), predicate);
     }
 
     public Widget asWidget() {
@@ -97,21 +120,25 @@ public class DataProviderFilter<T> {
             @Override
             public void onKeyUp(KeyUpEvent keyUpEvent) {
 
-                Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
-
-                    @Override
-                    public void execute() {
-                        String prefix = filter.getText();
-
-                        if (prefix != null && !prefix.equals("")) {
-                            // filter by prefix
-                            filterByPrefix(prefix);
-                        } else {
-                            clearFilter();
+                if(null==debounce)
+                {
+                    debounce = new Timer() {
+                        @Override
+                        public void run() {
+                            String prefix = filter.getText();
+
+                            if (prefix != null && !prefix.equals("")) {
+                                // filter by prefix
+                                filterByPrefix(prefix);
+                            } else {
+                                clearFilter();
+                            }
                         }
-                    }
+                    };
+                }
 
-                });
+                // restarts a pending timer
+                debounce.schedule(DEBOUNCE_DELAY);
             }
         });
         HorizontalPanel panel = new HorizontalPanel();
@@ -125,27 +152,23 @@ public class DataProviderFilter<T> {
 
     public void filterByPrefix(String prefix) {
 
-        clearSelection();
-
-        final List<T> next  = new ArrayList<T>();
-        for(T item : origValues)
-        {
-            if(predicate.apply(prefix, item))
-                next.add(item);
-        }
-
-
-        delegate.getList().clear(); // cannot call setList() as that breaks the sort handler
-        delegate.getList().addAll(next);
-        delegate.flush();
-
+        List<T> next = index.filter(prefix);
+        update(next);
     }
 
     public void clearFilter() {
 
-        delegate.getList().clear(); // cannot call setList() as that breaks the sort handler
-        delegate.getList().addAll(origValues);
-        delegate.flush();
+        index.reset();
+        update(index.getValues());
+    }
+
+    private void update(List<T> next) {
 
+        // cannot call setList() as that breaks the sort handler
+        if(FilterIndex.update(delegate.getList(), next))
+        {
+            clearSelection();
+            delegate.flush();
+        }
     }
 }
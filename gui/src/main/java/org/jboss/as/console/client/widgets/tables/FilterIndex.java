@@ -0,0 +1,149 @@
+package org.jboss.as.console.client.widgets.tables;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The snapshot of a {@link DataProviderFilter} and the result of the last query.
+ * <p/>
+ * For {@link DataProviderFilter.KeyPredicate}s the lower case keys are computed once per snapshot.
+ * A prefix that extends the previous one only needs to check the previous matches,
+ * so typing a filter doesn't scan the whole snapshot on each key stroke.
+ * Other predicates are applied to all values.
+ *
+ * @author Heiko Braun
+ */
+class FilterIndex<T> {
+
+    private final List<T> values;
+    private final DataProviderFilter.Predicate<T> predicate;
+    private final String[] keys;
+
+    private String lastPrefix = null;
+    private int[] lastMatches = null;
+    private int numLastMatches = 0;
+
+    FilterIndex(List<T> values, DataProviderFilter.Predicate<T> predicate) {
+        this.values = new ArrayList<T>(values);
+        this.predicate = predicate;
+
+        if(predicate instanceof DataProviderFilter.KeyPredicate)
+        {
+            DataProviderFilter.KeyPredicate<T> keyPredicate = (DataProviderFilter.KeyPredicate<T>)predicate;
+            keys = new String[this.values.size()];
+            for(int i=0; i<keys.length; i++)
+                keys[i] = DataProviderFilter.KeyPredicate.normalize(keyPredicate.getKey(this.values.get(i)));
+        }
+        else
+        {
+            keys = null;
+        }
+    }
+
+    List<T> getValues() {
+        return values;
+    }
+
+    /**
+     * @return the values matching the prefix, in snapshot order
+     */
+    List<T> filter(String prefix) {
+
+        int[] matches;
+        int numMatches = 0;
+
+        if(keys!=null)
+        {
+            String normalized = DataProviderFilter.KeyPredicate.normalize(prefix);
+            boolean narrow = lastPrefix!=null && normalized.startsWith(lastPrefix);
+
+            if(narrow)
+            {
+                matches = new int[numLastMatches];
+                for(int i=0; i<numLastMatches; i++)
+                {
+                    int index = lastMatches[i];
+                    if(keys[index].startsWith(normalized))
+                        matches[numMatches++] = index;
+                }
+            }
+            else
+            {
+                matches = new int[keys.length];
+                for(int i=0; i<keys.length; i++)
+                {
+                    if(keys[i].startsWith(normalized))
+                        matches[numMatches++] = i;
+                }
+            }
+
+            lastPrefix = normalized;
+            lastMatches = matches;
+            numLastMatches = numMatches;
+        }
+        else
+        {
+            matches = new int[values.size()];
+            for(int i=0; i<values.size(); i++)
+            {
+                if(predicate.apply(prefix, values.get(i)))
+                    matches[numMatches++] = i;
+            }
+        }
+
+        List<T> result = new ArrayList<T>(numMatches);
+        for(int i=0; i<numMatches; i++)
+            result.add(values.get(matches[i]));
+        return result;
+    }
+
+    /**
+     * Forget the last query, i.e. when the filter is cleared.
+     */
+    void reset() {
+        lastPrefix = null;
+        lastMatches = null;
+        numLastMatches = 0;
+    }
+
+    /**
+     * Turn <tt>target</tt> into <tt>next</tt> with as few modifications as possible:
+     * the common head is kept, differing positions are replaced one by one
+     * and the tail is appended or removed from the end.
+     * With a {@link com.google.gwt.view.client.ListDataProvider} list only the modified rows are redrawn.
+     *
+     * @return false if the lists have been equal already
+     */
+    static <T> boolean update(List<T> target, List<T> next) {
+
+        int oldSize = target.size();
+        int newSize = next.size();
+        int common = Math.min(oldSize, newSize);
+
+        int head = 0;
+        while(head<common && target.get(head)==next.get(head))
+            head++;
+
+        if(head==common && oldSize==newSize)
+            return false;
+
+        for(int i=head; i<common; i++)
+        {
+            T item = next.get(i);
+            if(target.get(i)!=item)
+                target.set(i, item);
+        }
+
+        if(newSize>oldSize)
+        {
+            target.addAll(next.subList(oldSize, newSize));
+        }
+        else
+        {
+            for(int i=oldSize-1; i>=newSize; i--)
+                target.remove(i);
+        }
+
+        return true;
+    }
+}
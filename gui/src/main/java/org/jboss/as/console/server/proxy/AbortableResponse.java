@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * A response that can be taken away from the thread writing it. Once {@link #abort()} has returned,
+ * nothing reaches the wrapped response anymore: writes fail with an IOException, status and headers are ignored.
+ * <p/>
+ * Used for suspended requests the container has given up on, it completes and recycles the response
+ * while the proxy thread may still be relaying the upstream response.
+ *
+ * @author Heiko Braun
+ */
+class AbortableResponse extends HttpServletResponseWrapper {
+
+    private boolean aborted;
+
+    AbortableResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * Blocks until a write in progress has finished.
+     */
+    synchronized void abort() {
+        aborted = true;
+    }
+
+    /**
+     * Done with the response, nothing reaches it from now on either.
+     *
+     * @return false if it had been aborted already
+     */
+    synchronized boolean finish() {
+        boolean finished = !aborted;
+        aborted = true;
+        return finished;
+    }
+
+    private void check() throws IOException {
+        if (aborted)
+            throw new IOException("Response aborted");
+    }
+
+    @Override
+    public synchronized void setStatus(int sc) {
+        if (!aborted) super.setStatus(sc);
+    }
+
+    @Override
+    public synchronized void setHeader(String name, String value) {
+        if (!aborted) super.setHeader(name, value);
+    }
+
+    @Override
+    public synchronized void addHeader(String name, String value) {
+        if (!aborted) super.addHeader(name, value);
+    }
+
+    @Override
+    public synchronized void setContentType(String type) {
+        if (!aborted) super.setContentType(type);
+    }
+
+    @Override
+    public synchronized void setContentLength(int len) {
+        if (!aborted) super.setContentLength(len);
+    }
+
+    @Override
+    public synchronized void sendError(int sc) throws IOException {
+        check();
+        super.sendError(sc);
+    }
+
+    @Override
+    public synchronized void sendError(int sc, String msg) throws IOException {
+        check();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public synchronized void sendRedirect(String location) throws IOException {
+        check();
+        super.sendRedirect(location);
+    }
+
+    @Override
+    public synchronized void flushBuffer() throws IOException {
+        check();
+        super.flushBuffer();
+    }
+
+    @Override
+    public synchronized ServletOutputStream getOutputStream() throws IOException {
+        check();
+        final ServletOutputStream out = super.getOutputStream();
+        return new ServletOutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    out.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    out.write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    out.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    out.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized PrintWriter getWriter() throws IOException {
+        check();
+        final PrintWriter writer = super.getWriter();
+        return new PrintWriter(new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    writer.write(cbuf, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    writer.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (AbortableResponse.this) {
+                    check();
+                    writer.close();
+                }
+            }
+        });
+    }
+}
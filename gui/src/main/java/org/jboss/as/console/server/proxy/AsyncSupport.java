@@ -0,0 +1,135 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Access to the Servlet 3 async API without compiling against it.
+ * The proxy is built and run against Servlet 2.5 (i.e. hosted mode), where
+ * {@link #isSupported(javax.servlet.http.HttpServletRequest)} simply returns false.
+ *
+ * @author Heiko Braun
+ */
+final class AsyncSupport {
+
+    private AsyncSupport() {}
+
+    /**
+     * @return true if the container supports async processing for this request
+     */
+    static boolean isSupported(HttpServletRequest request) {
+        try {
+            return Boolean.TRUE.equals(invoke(request, "isAsyncSupported"));
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Put the request into async mode.
+     *
+     * @param timeout in ms, zero or less means no timeout
+     * @return the AsyncContext
+     */
+    static Object start(HttpServletRequest request, long timeout) {
+        try {
+            Object asyncContext = invoke(request, "startAsync");
+            Method setTimeout = method(asyncContext, "setTimeout", Long.TYPE);
+            setTimeout.invoke(asyncContext, timeout);
+            return asyncContext;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to start async processing", e);
+        }
+    }
+
+    /**
+     * Register {@code abort} to run when the request times out or fails while suspended.
+     * The AsyncListener is implemented through a dynamic proxy, its interface is looked up
+     * from the {@code addListener} method of the AsyncContext.
+     */
+    static void onAbort(Object asyncContext, final Runnable abort) {
+        Method addListener = null;
+        for (Method method : asyncContext.getClass().getMethods()) {
+            if ("addListener".equals(method.getName()) && method.getParameterTypes().length == 1) {
+                addListener = method;
+                break;
+            }
+        }
+        if (null == addListener)
+            throw new IllegalStateException("Not an AsyncContext: " + asyncContext);
+
+        Class<?> type = addListener.getParameterTypes()[0];
+        Object listener = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("onTimeout".equals(name) || "onError".equals(name))
+                    abort.run();
+                else if ("equals".equals(name))
+                    return proxy == args[0];
+                else if ("hashCode".equals(name))
+                    return System.identityHashCode(proxy);
+                else if ("toString".equals(name))
+                    return "AsyncSupport.onAbort(" + abort + ")";
+                return null;
+            }
+        });
+
+        try {
+            addListener.setAccessible(true);
+            addListener.invoke(asyncContext, listener);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to register async listener", e);
+        }
+    }
+
+    static void complete(Object asyncContext) {
+        try {
+            invoke(asyncContext, "complete");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Not an AsyncContext: " + asyncContext);
+        }
+    }
+
+    private static Object invoke(Object target, String name) throws NoSuchMethodException {
+        Method method = method(target, name);
+        try {
+            return method.invoke(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static Method method(Object target, String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        Method method = target.getClass().getMethod(name, parameterTypes);
+        // container implementation classes are not necessarily public
+        method.setAccessible(true);
+        return method;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response stream that is compressed once {@link #begin(String)} has been called,
+ * i.e. when the response turned out to be compressible. Until then it's passed through as is.
+ *
+ * @author Heiko Braun
+ */
+public class CompressingOutputStream extends FilterOutputStream {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private final OutputStream target;
+    private DeflaterOutputStream compressor;
+
+    public CompressingOutputStream(OutputStream target) {
+        super(target);
+        this.target = target;
+    }
+
+    /**
+     * Pick the content coding from an Accept-Encoding header. Gzip is preferred over deflate,
+     * codings with q=0 are excluded.
+     *
+     * @return {@link #GZIP}, {@link #DEFLATE} or null if neither is acceptable
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (null == acceptEncoding)
+            return null;
+
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            if (parts.length > 1 && isZeroQuality(parts[1]))
+                continue;
+
+            if (GZIP.equals(name) || "x-gzip".equals(name) || "*".equals(name)) gzip = true;
+            else if (DEFLATE.equals(name)) deflate = true;
+        }
+        return gzip ? GZIP : deflate ? DEFLATE : null;
+    }
+
+    private static boolean isZeroQuality(String param) {
+        String p = param.trim();
+        if (!p.startsWith("q=")) return false;
+        try {
+            return Float.parseFloat(p.substring(2)) == 0f;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true for textual payloads (i.e. DMR in it's Base64 form, JSON), which compress well
+     */
+    public static boolean isCompressible(String contentType) {
+        if (null == contentType)
+            return false;
+        String type = contentType.toLowerCase();
+        return type.startsWith("application/dmr-encoded")
+                || type.startsWith("application/json")
+                || type.startsWith("text/")
+                || type.contains("xml")
+                || type.contains("javascript");
+    }
+
+    /**
+     * Compress everything written from now on.
+     */
+    public void begin(String encoding) throws IOException {
+        if (compressor != null)
+            throw new IllegalStateException("Compression already started");
+
+        if (GZIP.equals(encoding))
+            compressor = new GZIPOutputStream(target, StreamRelay.BUFFER_SIZE);
+        else if (DEFLATE.equals(encoding))
+            compressor = new DeflaterOutputStream(target);
+        else
+            throw new IllegalArgumentException("Unsupported encoding: " + encoding);
+        out = compressor;
+    }
+
+    public boolean isCompressing() {
+        return compressor != null;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // closing the compressor finishes the stream and releases the native deflater
+        if (compressor != null)
+            compressor.close();
+        else
+            target.close();
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Bounds and keeps track of the connections {@link HttpClient} opens to the management endpoint.
+ * <p/>
+ * The sockets themselves are kept alive by the JDK's HTTP keep-alive cache, which reuses a connection
+ * once its response stream has been read and closed. This class makes sure that happens
+ * (see {@link #lease(java.net.URL)} and {@link Lease#wrap(java.io.InputStream)}), caps the number of
+ * concurrent connections per route (scheme, host and port) and records utilization metrics.
+ * <p/>
+ * Routes that have been idle longer than the idle timeout are evicted on the next lease, and their idle
+ * sockets are closed. The JDK doesn't expose the sockets it keeps alive, so the pool tracks how many of them
+ * are still alive (the JDK closes them once the keep-alive timeout of the server has expired, 5 seconds
+ * unless the server says otherwise) and closes each by taking it from the JDK's cache with
+ * {@link HttpURLConnection#connect()} and closing it with {@link HttpURLConnection#disconnect()}.
+ * Connections through an HTTP proxy are not tracked.
+ * <p/>
+ * The JDK keeps at most {@code http.maxConnections} (default 5) idle connections per destination.
+ * A pool raises it to {@code maxPerRoute}, unless it is configured higher. The setting is read once,
+ * before the first connection is opened.
+ * <p/>
+ * The metrics are published through JMX, see {@link #register()}.
+ *
+ * @author Heiko Braun
+ */
+public class ConnectionPool implements ConnectionPoolMXBean {
+
+    public static final String OBJECT_NAME = "jboss.as.console:type=ConnectionPool";
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT = 30000;
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+    // the JDK's keep-alive timeout if the server doesn't send one
+    private static final long DEFAULT_KEEP_ALIVE = 5000;
+    private static final int CLOSE_TIMEOUT = 1000;
+
+    private static volatile ConnectionPool defaultPool = new ConnectionPool(
+            DEFAULT_MAX_PER_ROUTE, DEFAULT_ACQUIRE_TIMEOUT, DEFAULT_IDLE_TIMEOUT
+    );
+
+    private final int maxPerRoute;
+    private final long acquireTimeout;
+    private final long idleTimeout;
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<String, Route>();
+
+    private final AtomicInteger leased = new AtomicInteger(0);
+    private final AtomicInteger peakLeased = new AtomicInteger(0);
+    private final AtomicLong requests = new AtomicLong(0);
+    private final AtomicLong waits = new AtomicLong(0);
+    private final AtomicLong timeouts = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+    private final AtomicLong closed = new AtomicLong(0);
+
+    public ConnectionPool(int maxPerRoute, long acquireTimeout, long idleTimeout) {
+        if (maxPerRoute < 1)
+            throw new IllegalArgumentException("maxPerRoute must be positive");
+
+        this.maxPerRoute = maxPerRoute;
+        this.acquireTimeout = acquireTimeout;
+        this.idleTimeout = idleTimeout;
+        keepAlive(maxPerRoute);
+    }
+
+    /**
+     * Let the JDK keep as many idle connections per destination as a route may use.
+     */
+    private static void keepAlive(int maxPerRoute) {
+        try {
+            String configured = System.getProperty("http.maxConnections");
+            if (configured == null || Integer.parseInt(configured.trim()) < maxPerRoute)
+                System.setProperty("http.maxConnections", String.valueOf(maxPerRoute));
+        } catch (NumberFormatException e) {
+            System.setProperty("http.maxConnections", String.valueOf(maxPerRoute));
+        } catch (SecurityException e) {
+            getLogger().warning("ConnectionPool: http.maxConnections can't be raised to " + maxPerRoute + ": " + e);
+        }
+    }
+
+    public static ConnectionPool getDefault() {
+        return defaultPool;
+    }
+
+    public static void setDefault(ConnectionPool pool) {
+        defaultPool = pool;
+    }
+
+    /**
+     * Publish the metrics of the default pool through the platform MBean server, under {@link #OBJECT_NAME}.
+     * A pool that has been published before is replaced.
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(defaultPool, name);
+        } catch (JMException e) {
+            getLogger().warning("ConnectionPool: metrics not published: " + e);
+        }
+    }
+
+    public static void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+        } catch (JMException e) {
+            getLogger().warning("ConnectionPool: metrics not unpublished: " + e);
+        }
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger("jmaki.xhp.Log");
+    }
+
+    /**
+     * Acquire a connection slot for the route of {@code url}.
+     * Blocks until a slot becomes available or the acquire timeout expires.
+     *
+     * @throws ServiceUnavailableException if no slot became available in time
+     */
+    public Lease lease(URL url) throws ServiceUnavailableException {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+
+        Route route = join(routeKey(url));
+
+        requests.incrementAndGet();
+        if (!route.permits.tryAcquire()) {
+            waits.incrementAndGet();
+            boolean acquired;
+            try {
+                acquired = route.permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                route.users.decrementAndGet();
+                timeouts.incrementAndGet();
+                throw new ServiceUnavailableException(String.valueOf(Math.max(1, acquireTimeout / 1000)));
+            }
+        }
+
+        route.touch();
+        route.reuse();
+        int current = leased.incrementAndGet();
+        int peak;
+        while (current > (peak = peakLeased.get())) {
+            if (peakLeased.compareAndSet(peak, current)) break;
+        }
+        return new Lease(route);
+    }
+
+    /**
+     * Register as a user of the route for {@code key}, creating it if necessary.
+     * Routes that are being evicted are replaced by a fresh one.
+     */
+    private Route join(String key) {
+        while (true) {
+            Route route = routes.get(key);
+            if (null == route) {
+                Route created = new Route(key, maxPerRoute);
+                route = routes.putIfAbsent(key, created);
+                if (null == route) route = created;
+            }
+
+            int users = route.users.get();
+            if (users < 0) {
+                // evicted, make way for a new one
+                routes.remove(key, route);
+            } else if (route.users.compareAndSet(users, users + 1)) {
+                return route;
+            }
+        }
+    }
+
+    private void evictIdle(long now) {
+        for (Route route : routes.values()) {
+            // only routes nobody holds or waits for, otherwise the permits would be lost
+            if (now - route.lastUsed > idleTimeout && route.users.compareAndSet(0, -1)) {
+                routes.remove(route.key, route);
+                evictions.incrementAndGet();
+                closed.addAndGet(route.closeIdle(now));
+            }
+        }
+    }
+
+    private static String routeKey(URL url) {
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    }
+
+    @Override
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * @return the number of connections currently in use
+     */
+    @Override
+    public int getLeased() {
+        return leased.get();
+    }
+
+    /**
+     * @return the highest number of connections in use at the same time
+     */
+    @Override
+    public int getPeakLeased() {
+        return peakLeased.get();
+    }
+
+    /**
+     * @return the number of leases handed out
+     */
+    @Override
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return the number of leases that had to wait for a free connection
+     */
+    @Override
+    public long getWaits() {
+        return waits.get();
+    }
+
+    /**
+     * @return the number of leases that gave up waiting
+     */
+    @Override
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of idle connections that were closed because their route was evicted
+     */
+    @Override
+    public long getClosedConnections() {
+        return closed.get();
+    }
+
+    @Override
+    public int getRoutes() {
+        return routes.size();
+    }
+
+    /**
+     * @return the number of connections in use for the route of {@code url}
+     */
+    public int getLeased(URL url) {
+        Route route = routes.get(routeKey(url));
+        return route != null ? maxPerRoute - route.permits.availablePermits() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool{leased=" + leased.get() + ", peak=" + peakLeased.get() +
+                ", maxPerRoute=" + maxPerRoute + ", routes=" + routes.size() +
+                ", requests=" + requests.get() + ", waits=" + waits.get() +
+                ", timeouts=" + timeouts.get() + ", evictions=" + evictions.get() +
+                ", closed=" + closed.get() + "}";
+    }
+
+    private static class Route {
+        final String key;
+        final Semaphore permits;
+        /** leases held or waited for, -1 once evicted */
+        final AtomicInteger users = new AtomicInteger(0);
+        volatile long lastUsed;
+
+        /** when the sockets the JDK keeps alive expire, the most recently used last */
+        private final Deque<Long> idle = new ArrayDeque<Long>();
+        private final int maxIdle;
+
+        Route(String key, int maxPerRoute) {
+            this.key = key;
+            this.permits = new Semaphore(maxPerRoute);
+            this.maxIdle = maxPerRoute;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * The response of {@code connection} has been read, the JDK keeps its socket alive unless
+         * the server asked to close it.
+         */
+        synchronized void idle(HttpURLConnection connection) {
+            if ("close".equalsIgnoreCase(connection.getHeaderField("Connection")) || connection.usingProxy())
+                return;
+
+            idle.addLast(System.currentTimeMillis() + keepAliveTimeout(connection.getHeaderField("Keep-Alive")));
+            if (idle.size() > maxIdle)
+                idle.removeFirst();
+        }
+
+        /**
+         * A lease reuses the socket that was returned last, like the JDK does.
+         */
+        synchronized void reuse() {
+            idle.pollLast();
+        }
+
+        /**
+         * Close the sockets of this route the JDK keeps alive.
+         *
+         * @return the number of connections that have been closed
+         */
+        int closeIdle(long now) {
+            int alive = 0;
+            synchronized (this) {
+                for (Long until : idle) {
+                    if (until > now) alive++;
+                }
+                idle.clear();
+            }
+
+            int count = 0;
+            for (int i = 0; i < alive; i++) {
+                try {
+                    HttpURLConnection connection = (HttpURLConnection) new URL(key + "/").openConnection();
+                    connection.setConnectTimeout(CLOSE_TIMEOUT);
+                    connection.connect();
+                    connection.disconnect();
+                    count++;
+                } catch (IOException e) {
+                    // the server has gone away, and so have the connections
+                    break;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @param header the <tt>Keep-Alive</tt> response header, i.e. <tt>timeout=15, max=100</tt>
+     * @return how long the JDK keeps the connection alive
+     */
+    static long keepAliveTimeout(String header) {
+        if (header != null) {
+            for (String param : header.split(",")) {
+                String[] pair = param.trim().split("=", 2);
+                if (pair.length == 2 && "timeout".equalsIgnoreCase(pair[0].trim())) {
+                    try {
+                        return Long.parseLong(pair[1].trim()) * 1000;
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return DEFAULT_KEEP_ALIVE;
+    }
+
+    /**
+     * A connection slot. It's released exactly once, either explicitly or when the wrapped
+     * response stream is closed.
+     */
+    public class Lease {
+        private final Route route;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private volatile HttpURLConnection connection;
+
+        private Lease(Route route) {
+            this.route = route;
+        }
+
+        /**
+         * The connection this lease is used for. Once its response stream has been closed,
+         * its socket is tracked until it expires or the route is evicted.
+         */
+        public void setConnection(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        public void release() {
+            release(false);
+        }
+
+        private void release(boolean consumed) {
+            if (released.compareAndSet(false, true)) {
+                if (consumed && connection != null)
+                    route.idle(connection);
+                route.touch();
+                leased.decrementAndGet();
+                route.permits.release();
+                route.users.decrementAndGet();
+            }
+        }
+
+        /**
+         * Wrap a response stream so that closing it releases the lease.
+         * A null stream (i.e. no response body) releases the lease right away.
+         */
+        public InputStream wrap(InputStream in) {
+            if (null == in) {
+                release();
+                return null;
+            }
+            return new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    boolean consumed = false;
+                    try {
+                        super.close();
+                        consumed = true;
+                    } finally {
+                        release(consumed);
+                    }
+                }
+            };
+        }
+    }
+}
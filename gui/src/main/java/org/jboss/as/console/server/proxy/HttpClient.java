@@ -19,11 +19,14 @@
 
 package org.jboss.as.console.server.proxy;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
+import java.net.Proxy;
 import java.net.URL;
 import java.security.Security;
 import java.util.HashMap;
@@ -37,10 +40,14 @@ import java.util.logging.Logger;
  * Minimum set of HTTPclient supporting both http and https.
  * It's aslo capable of POST, but it doesn't provide doGet because
  * the caller can just read the inputstream.
+ * <p/>
+ * An instance serves a single request. Connections are leased from the {@link ConnectionPool}
+ * and returned (and kept alive) when the response stream is closed.
  */
 public class HttpClient {
 
     private static Logger logger;
+    private static boolean sslProviderInstalled = false;
     private String proxyHost = null;
     private int proxyPort = -1;
     private boolean isHttps = false;
@@ -52,6 +59,9 @@ public class HttpClient {
 
     private XmlHttpProxy.CookieCallback callback;
 
+    private ConnectionPool pool = ConnectionPool.getDefault();
+    private ConnectionPool.Lease lease;
+
     /**
      * @param phost PROXY host name
      * @param pport PROXY port string
@@ -96,17 +106,19 @@ public class HttpClient {
     {
         if(this.callback!=null)
         {
-            Map<String, XmlHttpProxy.Cookie> cookies = callback.getCookies();
-            Iterator it = cookies.keySet().iterator();
-            while(it.hasNext())
+            StringBuilder cookie = new StringBuilder();
+            for(XmlHttpProxy.Cookie c : callback.getCookies().values())
             {
-                XmlHttpProxy.Cookie c = cookies.get(it.next());
-                if(headers==null) headers = new HashMap();
-                headers.put(
-                        "Cookie", c.name + "=" + c.value // + "; Path=" + c.path
-                );
+                if(cookie.length()>0) cookie.append("; ");
+                cookie.append(c.name).append("=").append(c.value);
             }
 
+            if(cookie.length()>0)
+            {
+                // don't touch the caller's map
+                headers = headers!=null ? new HashMap(headers) : new HashMap();
+                headers.put("Cookie", cookie.toString());
+            }
         }
         // set headers
         if (headers != null) {
@@ -180,28 +192,14 @@ public class HttpClient {
         try {
 
             if (isHttps) {
-                /* when communicating with the server which has unsigned or invalid
-                * certificate (https), SSLException or IOException is thrown.
-                * the following line is a hack to avoid that
-                */
-                Security.addProvider(new com.sun.net.ssl.internal.ssl.Provider());
-                System.setProperty("java.protocol.handler.pkgs", "com.sun.net.ssl.internal.www.protocol");
-                if (isProxy) {
-                    System.setProperty("https.proxyHost", proxyHost);
-                    System.setProperty("https.proxyPort", proxyPort + "");
-                }
-            }
-            else
-            {
-                if (isProxy)
-                {
-                    System.setProperty("http.proxyHost", proxyHost);
-                    System.setProperty("http.proxyPort", proxyPort  + "");
-                }
+                installSSLProvider();
             }
 
+            // the proxy is passed per connection rather than through the (global) system properties
             URL url = new URL(str);
-            HttpURLConnection uc = (HttpURLConnection)url.openConnection();
+            HttpURLConnection uc = isProxy ?
+                    (HttpURLConnection)url.openConnection(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyHost, proxyPort))) :
+                    (HttpURLConnection)url.openConnection();
 
             // if this header has not been set by a request set the user agent.
             if (headers == null ||
@@ -225,6 +223,41 @@ public class HttpClient {
         }
     }
 
+    private static synchronized void installSSLProvider() {
+        if (!sslProviderInstalled) {
+            /* when communicating with the server which has unsigned or invalid
+            * certificate (https), SSLException or IOException is thrown.
+            * the following line is a hack to avoid that
+            */
+            Security.addProvider(new com.sun.net.ssl.internal.ssl.Provider());
+            System.setProperty("java.protocol.handler.pkgs", "com.sun.net.ssl.internal.www.protocol");
+            sslProviderInstalled = true;
+        }
+    }
+
+    /**
+     * Lease a connection before the request is sent. Without a pool the connection is unbounded.
+     */
+    private void lease() throws ServiceUnavailableException {
+        if (pool != null && lease == null) {
+            lease = pool.lease(urlConnection.getURL());
+            lease.setConnection(urlConnection);
+        }
+    }
+
+    private InputStream released(InputStream in) {
+        return lease != null ? lease.wrap(in) : in;
+    }
+
+    /**
+     * Returns the connection to the pool. Only needed when the response stream isn't consumed and closed.
+     */
+    public void release() {
+        if (lease != null) {
+            lease.release();
+        }
+    }
+
     public String getSetCookieHeader()
     {
         return setCookieHeader;
@@ -241,9 +274,10 @@ public class HttpClient {
      * returns the inputstream from URLConnection
      * @return InputStream
      */
-    public InputStream getInputStream() {
+    public InputStream getInputStream() throws ServiceUnavailableException {
         try
         {
+            lease();
             int responseCode = this.urlConnection.getResponseCode();
 
             try
@@ -255,6 +289,8 @@ public class HttpClient {
                     HttpClient redirectClient =
                             new HttpClient(proxyHost,proxyPort, urlConnection.getHeaderField("Location"),
                                     headers, urlConnection.getRequestMethod(), callback);
+                    // runs within this client's lease, which would otherwise deadlock a route limited to one connection
+                    redirectClient.pool = null;
                     redirectClient.getInputStream().close();
                 }
             }
@@ -269,8 +305,11 @@ public class HttpClient {
             InputStream in = responseCode != HttpURLConnection.HTTP_OK ?
                     this.urlConnection.getErrorStream() : this.urlConnection.getInputStream();
 
-            return in;
+            return released(in);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
+            release();
             return null;
         }
     }
@@ -297,8 +336,42 @@ public class HttpClient {
      * @param authHeader
      * @return InputStream input stream from URLConnection
      */
-    public InputStream doPost(byte[] postData, String contentType, String authHeader) {
+    public InputStream doPost(byte[] postData, String contentType, String authHeader) throws ServiceUnavailableException {
+        return doPost(new ByteArrayInputStream(postData), postData.length, contentType, authHeader);
+    }
+
+    /**
+     * Streams the request body to the URLConnection and returns the InputStream.
+     * The body is never held in memory: with a known length it's sent in fixed length mode,
+     * otherwise chunked.
+     *
+     * @param postData the request body
+     * @param contentLength the length of the body or -1 if unknown
+     * @param contentType allows you to set the contentType of the request.
+     * @param authHeader
+     * @return InputStream input stream from URLConnection
+     */
+    public InputStream doPost(InputStream postData, int contentLength, String contentType, String authHeader) throws ServiceUnavailableException {
+        lease();
+
+        // anything failing before the response stream is handed out gives the connection back
+        boolean handedOut = false;
+        try {
+            InputStream in = post(postData, contentLength, contentType, authHeader);
+            handedOut = true;
+            return in;
+        } finally {
+            if (!handedOut) release();
+        }
+    }
+
+    private InputStream post(InputStream postData, int contentLength, String contentType, String authHeader) throws ServiceUnavailableException {
         this.urlConnection.setDoOutput(true);
+        if (contentLength >= 0)
+            this.urlConnection.setFixedLengthStreamingMode(contentLength);
+        else
+            this.urlConnection.setChunkedStreamingMode(StreamRelay.BUFFER_SIZE);
+
         if (contentType != null) this.urlConnection.setRequestProperty( "Content-type", contentType );
         if (authHeader!= null) this.urlConnection.setRequestProperty( "Authorization", authHeader);
 
@@ -307,7 +380,7 @@ public class HttpClient {
             out = this.getOutputStream();
             if(out!=null)
             {
-                out.write(postData);
+                StreamRelay.copy(postData, out);
                 out.flush();
             }
         } catch (IOException e) {
@@ -25,15 +25,16 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.net.MalformedURLException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -54,15 +55,13 @@ public class XmlHttpProxy {
     int proxyPort = -1;
     private Object config;
     private static String USAGE = "Usage:  -url service_URL  -id service_key [-url or -id required] -xslurl xsl_url [optional] -format json|xml [optional] -callback[optional] -config [optional] -resources base_directory_containing XSL stylesheets [optional]";
-    private String authHeader;
 
     public XmlHttpProxy() {}
 
-    private String contentType = "application/json";
+    // content type and status of the most recent response. Concurrent callers should use a HeaderCallback instead.
+    private volatile String contentType = "application/json";
 
-    private Map<String, Cookie> cookies = new HashMap<String, Cookie>();
-
-    int status = -1;
+    volatile int status = -1;
 
     public String getContentType() {
         return contentType;
@@ -72,9 +71,48 @@ public class XmlHttpProxy {
         return status;
     }
 
+    /**
+     * Holds the cookies the upstream service sets for a client. Implementations have to
+     * keep them apart per client, otherwise one user's session is sent on behalf of another.
+     */
     public interface CookieCallback
     {
+        /**
+         * @return the cookies to send upstream, by name
+         */
         Map<String, Cookie> getCookies();
+
+        /**
+         * Store a cookie the upstream service has set, replacing one with the same name.
+         */
+        void setCookie(Cookie cookie);
+    }
+
+    /**
+     * Keeps cookies for the duration of a single request only.
+     */
+    private static class RequestCookies implements CookieCallback
+    {
+        private final Map<String, Cookie> cookies = new ConcurrentHashMap<String, Cookie>();
+
+        public Map<String, Cookie> getCookies()
+        {
+            return cookies;
+        }
+
+        public void setCookie(Cookie cookie)
+        {
+            cookies.put(cookie.name, cookie);
+        }
+    }
+
+    /**
+     * Receives the response status and content type before the response body is relayed,
+     * i.e. while they can still be set on the client response.
+     */
+    public interface HeaderCallback
+    {
+        void onHeaders(int status, String contentType) throws IOException;
     }
 
     public XmlHttpProxy(String proxyHost, int proxyPort) {
@@ -111,6 +149,24 @@ public class XmlHttpProxy {
                                String password) throws IOException, MalformedURLException {
         doProcess(urlString, out, xslInputStream, paramsMap, headers,method, null,null, userName,password);
     }
+
+    /**
+     * Like {@link #processRequest(String, java.io.OutputStream, java.io.InputStream, java.util.Map, java.util.Map, String, String, String)},
+     * but notifies {@code headerCallback} of the response status and content type before the body is written
+     * and keeps upstream cookies in {@code cookieCallback}. A null {@code cookieCallback} keeps them for this request only.
+     */
+    public void processRequest(String urlString,
+                               OutputStream out,
+                               InputStream xslInputStream,
+                               Map paramsMap,
+                               Map headers,
+                               String method,
+                               String userName,
+                               String password,
+                               HeaderCallback headerCallback,
+                               CookieCallback cookieCallback) throws IOException, MalformedURLException {
+        doProcess(urlString, out, xslInputStream, paramsMap, headers, method, null, -1, null, userName, password, null, headerCallback, cookieCallback);
+    }
     /**
      * This method will go out and make the call and it will apply an XSLT Transformation with the
      * set of parameters provided.
@@ -129,8 +185,34 @@ public class XmlHttpProxy {
                        String postContentType,
                        String userName,
                        String password, String authHeader) throws IOException, MalformedURLException {
-        this.authHeader = authHeader;
-        doProcess(urlString, out, xslInputStream, paramsMap, headers, XmlHttpProxy.POST, postData, postContentType, userName, password);
+        doProcess(urlString, out, xslInputStream, paramsMap, headers, XmlHttpProxy.POST,
+                new ByteArrayInputStream(postData), postData.length, postContentType, userName, password, authHeader, null, null);
+    }
+
+    /**
+     * Streams the request body to the service and the response back to {@code out}.
+     *
+     * @param urlString - The URL which you are looking up
+     * @param out - The OutputStream to which the resulting document is written
+     * @param postData - the request body, read until EOF
+     * @param postLength - the length of the request body or -1 if unknown
+     * @param headerCallback - notified of the response status and content type before the body is written. May be null.
+     * @param cookieCallback - holds the cookies set by the service for this client. If null they're kept for this request only.
+     */
+    public void doPost(String urlString,
+                       OutputStream out,
+                       InputStream xslInputStream,
+                       Map paramsMap,
+                       Map headers,
+                       InputStream postData,
+                       int postLength,
+                       String postContentType,
+                       String userName,
+                       String password,
+                       String authHeader,
+                       HeaderCallback headerCallback,
+                       CookieCallback cookieCallback) throws IOException, MalformedURLException {
+        doProcess(urlString, out, xslInputStream, paramsMap, headers, XmlHttpProxy.POST, postData, postLength, postContentType, userName, password, authHeader, headerCallback, cookieCallback);
     }
 
     /**
@@ -157,6 +239,25 @@ public class XmlHttpProxy {
                           String postContentType,
                           String userName,
                           String password) throws IOException, MalformedURLException {
+        InputStream postStream = postData != null ? new ByteArrayInputStream(postData) : null;
+        int postLength = postData != null ? postData.length : -1;
+        doProcess(urlString, out, xslInputStream, paramsMap, headers, method, postStream, postLength, postContentType, userName, password, null, null, null);
+    }
+
+    private void doProcess(String urlString,
+                           OutputStream out,
+                           InputStream xslInputStream,
+                           Map paramsMap,
+                           Map headers,
+                           String method,
+                           InputStream postData,
+                           int postLength,
+                           String postContentType,
+                           String userName,
+                           String password,
+                           String authHeader,
+                           HeaderCallback headerCallback,
+                           CookieCallback cookieCallback) throws IOException, MalformedURLException {
 
         if (paramsMap == null) {
             paramsMap = new HashMap();
@@ -172,14 +273,7 @@ public class XmlHttpProxy {
 
         HttpClient httpclient = null;
 
-        CookieCallback callback = new CookieCallback()
-        {
-
-            public Map<String, Cookie> getCookies()
-            {
-                return accessCookies();
-            }
-        };
+        CookieCallback callback = cookieCallback != null ? cookieCallback : new RequestCookies();
 
         if (userName != null && password != null)
         {
@@ -190,144 +284,125 @@ public class XmlHttpProxy {
             httpclient = new HttpClient(proxyHost, proxyPort, urlString, headers, method, callback);
         }
 
-        // post data determines whether we are going to do a get or a post
-        if (postData == null) {
-            in = httpclient.getInputStream();
-        } else {
-            in = httpclient.doPost(postData, postContentType, authHeader);
-        }
-
-        // Set-Cookie header
-        if(httpclient.getSetCookieHeader()!=null)
-        {
-            String cookie = httpclient.getSetCookieHeader();
-            System.out.println("'Set-Cookie' header: "+ cookie);
-            String[] values = cookie.split(";");
+        // the stream is closed and the connection handed back whatever happens from here on
+        try {
 
-            Cookie c = new Cookie();
-            for(String v : values)
-            {
-                String[] tuple = v.split("=");
-                if("Path".equals( tuple[0].trim()))
-                    c.path = tuple[1];
-                else
-                {
-                    c.name = tuple[0].trim();
-                    c.value = tuple[1];
-                }
+            // post data determines whether we are going to do a get or a post
+            if (postData == null) {
+                in = httpclient.getInputStream();
+            } else {
+                in = httpclient.doPost(postData, postLength, postContentType, authHeader);
             }
 
-
-            List<String> toBeRemoved = new ArrayList<String>();
-            Iterator it = cookies.keySet().iterator();
-            while(it.hasNext())
+            // Set-Cookie header
+            if(httpclient.getSetCookieHeader()!=null)
             {
-                Cookie exists = cookies.get(it.next());
-                if(exists.name.equals(c.name))
-                {
-                    String msg = exists.value.equals(c.value) ?
-                            "Replace with same value: "+exists.value :
-                            "Replace with different value: "+exists.value +"->"+c.value;
+                String cookie = httpclient.getSetCookieHeader();
+                String[] values = cookie.split(";");
 
-                    System.out.println("Cookie '"+exists.name+"' exists: " + msg);
-                    // avoid doubles
-                    toBeRemoved.add(exists.name);
+                // name=value, followed by attributes, some of which (HttpOnly, Secure) have no value
+                Cookie c = new Cookie();
+                for(int i=0; i<values.length; i++)
+                {
+                    String v = values[i];
+                    int eq = v.indexOf('=');
+                    String key = (eq < 0 ? v : v.substring(0, eq)).trim();
+                    String value = eq < 0 ? "" : v.substring(eq + 1);
+                    if(i==0)
+                    {
+                        c.name = key;
+                        c.value = value;
+                    }
+                    else if("Path".equalsIgnoreCase(key))
+                        c.path = value;
                 }
-            }
 
-            // clean up
-            for(String s : toBeRemoved)
-            {
-                cookies.remove(s);
+                // keyed by name, a cookie with the same name is replaced
+                callback.setCookie(c);
             }
 
-            cookies.put(c.name, c);
-        }
-
-        int responseCode = httpclient.getResponseCode();
-        if(responseCode != 200)
-        {
-            if(401== responseCode || 403==responseCode)
-            {
-                // authentication required
-                throw new AuthenticationException(responseCode, httpclient.getHeader("WWW-Authenticate"));
-            }
-            else if(307==responseCode)
+            int responseCode = httpclient.getResponseCode();
+            if(responseCode != 200)
             {
-                // redirect
-                throw new RedirectException(httpclient.getHeader("Location"));
-            }
-            else if(503==responseCode)
-            {
-                // service unavailable
-                throw new ServiceUnavailableException(httpclient.getHeader("Retry-After"));
-            }
-            else
-            {
-                throw new IOException("Failed to open input stream, status: "+responseCode);
+                if(401== responseCode || 403==responseCode)
+                {
+                    // authentication required
+                    throw new AuthenticationException(responseCode, httpclient.getHeader("WWW-Authenticate"));
+                }
+                else if(307==responseCode)
+                {
+                    // redirect
+                    throw new RedirectException(httpclient.getHeader("Location"));
+                }
+                else if(503==responseCode)
+                {
+                    // service unavailable
+                    throw new ServiceUnavailableException(httpclient.getHeader("Retry-After"));
+                }
+                else
+                {
+                    throw new IOException("Failed to open input stream, status: "+responseCode);
+                }
             }
-        }
 
-        // read the encoding from the incoming document and default to UTF-8
-        // if an encoding is not provided
-        String ce = httpclient.getContentEncoding();
-        if (ce == null) {
-            String ct = httpclient.getContentType();
-            if (ct != null) {
-                int idx = ct.lastIndexOf("charset=");
-                if (idx >= 0) {
-                    ce = ct.substring(idx+8);
+            // read the encoding from the incoming document and default to UTF-8
+            // if an encoding is not provided
+            String ce = httpclient.getContentEncoding();
+            if (ce == null) {
+                String ct = httpclient.getContentType();
+                if (ct != null) {
+                    int idx = ct.lastIndexOf("charset=");
+                    if (idx >= 0) {
+                        ce = ct.substring(idx+8);
+                    } else {
+                        ce = "UTF-8";
+                    }
                 } else {
                     ce = "UTF-8";
                 }
-            } else {
-                ce = "UTF-8";
             }
-        }
-        // get the content type
-        this.contentType = httpclient.getContentType();
-        this.status = httpclient.getResponseCode();
-
-        // write out the content type
-        //http://www.ietf.org/rfc/rfc4627.txt
-
-        try {
+            // get the content type
+            this.contentType = httpclient.getContentType();
+            this.status = httpclient.getResponseCode();
+
+            // write out the content type
+            //http://www.ietf.org/rfc/rfc4627.txt
+            if (headerCallback != null) {
+                headerCallback.onHeaders(this.status, this.contentType);
+            }
 
-            // response stream
+            try {
 
-            byte[] buffer = new byte[1024];
-            int read = 0;
-            if (xslInputStream == null) {
-                while (true) {
-                    read = in.read(buffer);
-                    if (read <= 0) break;
-                    out.write(buffer, 0, read );
+                // response stream
+                if (xslInputStream == null) {
+                    StreamRelay.copy(in, out);
+                } else {
+                    transform(in, xslInputStream, paramsMap, out, ce);
+                }
+            } catch (Exception e) {
+                getLogger().severe("XmlHttpProxy transformation error: " + e);
+            } finally {
+                try {
+                    if (out != null) {
+                        out.flush();
+                        out.close();
+                    }
+                } catch (Exception e) {
+                    // do nothing
                 }
-            } else {
-                transform(in, xslInputStream, paramsMap, out, ce);
             }
-        } catch (Exception e) {
-            getLogger().severe("XmlHttpProxy transformation error: " + e);
         } finally {
             try {
                 if (in != null) {
                     in.close();
                 }
-                if (out != null) {
-                    out.flush();
-                    out.close();
-                }
             } catch (Exception e) {
                 // do nothing
             }
+            httpclient.release();
         }
     }
 
-    private Map<String,Cookie> accessCookies()
-    {
-        return cookies;
-    }
-
     /**
      * Do the XSLT transformation
      */
@@ -472,8 +547,10 @@ public class XmlHttpProxy {
         return ProxyConfig.parse(is);
     }
 
-    public class Cookie
+    public static class Cookie implements Serializable
     {
+        private static final long serialVersionUID = 1L;
+
         String name;
         String value;
         String path;
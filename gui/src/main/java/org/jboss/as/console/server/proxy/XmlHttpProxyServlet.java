@@ -27,8 +27,6 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -37,12 +35,20 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PropertyResourceBundle;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,6 +79,13 @@ import java.util.logging.Logger;
  *
  * <p/>
  *
+ * Context parameters <tt>maxConnectionsPerRoute</tt>, <tt>connectionAcquireTimeout</tt> and
+ * <tt>connectionIdleTimeout</tt> configure the {@link ConnectionPool}. Its metrics are published through JMX.
+ * With the servlet init parameter <tt>asyncProxy=true</tt> requests are
+ * suspended (Servlet 3 containers only, the servlet has to declare <tt>&lt;async-supported></tt>) and relayed on a fixed set of <tt>asyncProxyThreads</tt>, so that
+ * slow management operations don't hold on to container threads. Elsewhere requests are processed synchronously.
+ * <p/>
+ *
  * gwt-proxy.properties:<br>
  * <pre>
  *    service.id=domain-api
@@ -89,28 +102,33 @@ public class XmlHttpProxyServlet extends HttpServlet
     public static String REMOTE_USER = "REMOTE_USER";
 
     private static String XHP_LAST_MODIFIED = "xhp_last_modified_key";
+    private static String XHP_COOKIES = "xhp_upstream_cookies";
     private static String DEFAULT_CONFIG = "gwt-proxy.properties";
 
-    private static boolean allowXDomain = false;
-    private static boolean requireSession = false;
-    private static boolean createSession = false;
-    private static String defaultContentType = "application/dmr-encoded;charset=UTF-8";
+    private boolean allowXDomain = false;
+    private boolean requireSession = false;
+    private boolean createSession = false;
+    private String defaultContentType = "application/dmr-encoded;charset=UTF-8";
     private static boolean rDebug = false;
     private Logger logger = null;
     private XmlHttpProxy xhp = null;
     private ServletContext ctx;
-    private List<Map<String,Object>> services = null;
+
+    /**
+     * Immutable snapshot of the service configuration. It's replaced as a whole when the
+     * configuration changes, so request threads never see a partially loaded config.
+     */
+    private volatile List<Map<String,Object>> services = null;
     private String resourcesDir = "/resources/";
     private String classpathResourcesDir = "/META-INF/resources/";
     private String headerToken = "jmaki-";
     private String testToken = "xtest-";
 
-    private static String testUser;
-    private static String testPass;
-
-    private static String setCookie;
     private String configResource = null;
-    private String authHeader;
+
+    // async mode, see dispatch()
+    private ExecutorService asyncExecutor = null;
+    private long asyncTimeout = 0;
 
     public XmlHttpProxyServlet() {
         if (rDebug) {
@@ -185,6 +203,48 @@ public class XmlHttpProxyServlet extends HttpServlet
             xhp = new XmlHttpProxy();
         }
 
+        // connection pool towards the management endpoint
+        String maxConnections = ctx.getInitParameter("maxConnectionsPerRoute");
+        String acquireTimeout = ctx.getInitParameter("connectionAcquireTimeout");
+        String idleTimeout = ctx.getInitParameter("connectionIdleTimeout");
+        if (maxConnections != null || acquireTimeout != null || idleTimeout != null) {
+            try {
+                ConnectionPool.setDefault(new ConnectionPool(
+                        maxConnections != null ? Integer.parseInt(maxConnections) : ConnectionPool.DEFAULT_MAX_PER_ROUTE,
+                        acquireTimeout != null ? Long.parseLong(acquireTimeout) : ConnectionPool.DEFAULT_ACQUIRE_TIMEOUT,
+                        idleTimeout != null ? Long.parseLong(idleTimeout) : ConnectionPool.DEFAULT_IDLE_TIMEOUT
+                ));
+            } catch (NumberFormatException nfe) {
+                getLogger().severe("XmlHttpProxyServlet: intialization error. The connection pool settings must be numbers");
+                throw new ServletException("XmlHttpProxyServlet: intialization error. The connection pool settings must be numbers");
+            }
+        }
+        ConnectionPool.register();
+
+        // async mode (requires a Servlet 3 container and async-supported in web.xml)
+        if ("true".equals(config.getInitParameter("asyncProxy"))) {
+            String threads = config.getInitParameter("asyncProxyThreads");
+            String timeout = config.getInitParameter("asyncProxyTimeout");
+            try {
+                int poolSize = threads != null ? Integer.parseInt(threads) : ConnectionPool.getDefault().getMaxPerRoute();
+                asyncTimeout = timeout != null ? Long.parseLong(timeout) : 0;
+                asyncExecutor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "xhp-async-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+                getLogger().severe("XmlHttpProxyServlet: intialization. Async mode enabled with " + poolSize + " threads.");
+            } catch (NumberFormatException nfe) {
+                getLogger().severe("XmlHttpProxyServlet: intialization error. The async settings must be numbers");
+                throw new ServletException("XmlHttpProxyServlet: intialization error. The async settings must be numbers");
+            }
+        }
+
         // config override
         String servletName = config.getServletName();
         String configName = config.getInitParameter("config.name");
@@ -192,10 +252,24 @@ public class XmlHttpProxyServlet extends HttpServlet
         //System.out.println("Configure "+servletName + " through "+configResource);
     }
 
-    private void getServices(HttpServletResponse res)
+    /**
+     * @return the current service configuration, reloaded if the config file has been updated
+     */
+    private List<Map<String,Object>> getServices()
     {
-        services = new ArrayList<Map<String,Object>>();
+        List<Map<String,Object>> snapshot = services;
+        if (snapshot == null || configUpdated()) {
+            snapshot = loadServices();
+            services = snapshot;
+        }
+        return snapshot;
+    }
 
+    /**
+     * Load the service configuration. The result is shared by all request threads and must not be modified.
+     */
+    protected List<Map<String,Object>> loadServices()
+    {
         InputStream is = XmlHttpProxyServlet.class.getClassLoader()
                 .getResourceAsStream(configResource);
 
@@ -208,7 +282,10 @@ public class XmlHttpProxyServlet extends HttpServlet
             serviceConfig.put(ProxyConfig.ID, "default");
             serviceConfig.put(ProxyConfig.URL, bundle.getString("service.url"));
             serviceConfig.put(ProxyConfig.PASSTHROUGH, Boolean.valueOf(bundle.getString("service.passthrough")));
-            services.add(serviceConfig);
+
+            List<Map<String,Object>> services = new ArrayList<Map<String,Object>>();
+            services.add(Collections.unmodifiableMap(serviceConfig));
+            return Collections.unmodifiableList(services);
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to load proxy configuration");
@@ -217,20 +294,80 @@ public class XmlHttpProxyServlet extends HttpServlet
 
     }
 
+    @Override
+    public void destroy() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdownNow();
+        }
+        ConnectionPool.unregister();
+        super.destroy();
+    }
+
     public void doDelete(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.DELETE);
+        dispatch(req, res, XmlHttpProxy.DELETE);
     }
 
     public void doGet(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.GET);
+        dispatch(req, res, XmlHttpProxy.GET);
     }
 
     public void doPost(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.POST);
+        dispatch(req, res, XmlHttpProxy.POST);
     }
 
     public void doPut(HttpServletRequest req, HttpServletResponse res) {
-        doProcess(req,res, XmlHttpProxy.PUT);
+        dispatch(req, res, XmlHttpProxy.PUT);
+    }
+
+    /**
+     * In async mode the request is suspended and relayed on one of the proxy threads,
+     * so the container thread returns right away. Otherwise it's processed on the calling thread.
+     * <p/>
+     * The proxy thread completes the request. If it times out or fails while suspended, the container
+     * completes it instead and the proxy thread can't write to the response anymore. A request that is
+     * still queued is cancelled and completed right away.
+     */
+    private void dispatch(final HttpServletRequest req, final HttpServletResponse res, final String method) {
+        if (asyncExecutor == null || !AsyncSupport.isSupported(req)) {
+            doProcess(req, res, method);
+            return;
+        }
+
+        final Object asyncContext = AsyncSupport.start(req, asyncTimeout);
+        final AbortableResponse response = new AbortableResponse(res);
+        // claimed by the proxy thread, or by the listener if the request is still queued
+        final AtomicBoolean started = new AtomicBoolean(false);
+
+        AsyncSupport.onAbort(asyncContext, new Runnable() {
+            @Override
+            public void run() {
+                // the container completes and recycles the response once the listener returns
+                response.abort();
+                if (started.compareAndSet(false, true))
+                    AsyncSupport.complete(asyncContext);
+            }
+        });
+
+        try {
+            asyncExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!started.compareAndSet(false, true))
+                        return;
+                    try {
+                        doProcess(req, response, method);
+                    } finally {
+                        if (response.finish())
+                            AsyncSupport.complete(asyncContext);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (started.compareAndSet(false, true)) {
+                res.setStatus(503);
+                AsyncSupport.complete(asyncContext);
+            }
+        }
     }
 
     public void doProcess(HttpServletRequest req, HttpServletResponse res, String method)
@@ -238,27 +375,9 @@ public class XmlHttpProxyServlet extends HttpServlet
 
         boolean isPost = XmlHttpProxy.POST.equals(method);
 
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        byte[] bodyContent = null;
-
         OutputStream out = null;
         PrintWriter writer = null;
 
-        try {
-
-            BufferedInputStream in = new BufferedInputStream(req.getInputStream());
-            int next = in.read();
-            while (next > -1) {
-                bos.write(next);
-                next = in.read();
-            }
-
-            bodyContent = bos.toByteArray();
-
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
         try
         {
             HttpSession session = null;
@@ -279,9 +398,9 @@ public class XmlHttpProxyServlet extends HttpServlet
                 }
             }
             // check if the services have been loaded or if they need to be reloaded
-            if (services == null || configUpdated()) {
-                getServices(res);
-            }
+            List<Map<String,Object>> services = getServices();
+
+            // all per-request state lives on the stack, the servlet is shared by all request threads
             String urlString = null;
             String xslURLString = null;
             String userName = null;
@@ -297,7 +416,9 @@ public class XmlHttpProxyServlet extends HttpServlet
             }
             // get the headers to pass through
             Map headers = null;
-            authHeader = null;
+            String authHeader = null;
+            String testUser = null;
+            String testPass = null;
 
             // Forward all request headers starting with the header token jmaki-
             // and chop off the jmaki-
@@ -469,22 +590,44 @@ public class XmlHttpProxyServlet extends HttpServlet
                 urlString = processURL(urlString, req, res);
             }
 
-            out = res.getOutputStream();
+            // compress textual responses if the client accepts it
+            final String encoding = CompressingOutputStream.negotiate(req.getHeader("Accept-Encoding"));
+            final CompressingOutputStream compressed = encoding != null ?
+                    new CompressingOutputStream(res.getOutputStream()) : null;
+            out = compressed != null ? compressed : res.getOutputStream();
+
+            // the request body is relayed as it arrives and the response is streamed back,
+            // hence status and content type have to be set before the first byte is written
+            final HttpServletResponse response = res;
+            XmlHttpProxy.HeaderCallback headerCallback = new XmlHttpProxy.HeaderCallback() {
+                @Override
+                public void onHeaders(int status, String contentType) throws IOException {
+                    response.setContentType(contentType);
+                    response.setStatus(status);
+                    if (compressed != null) {
+                        response.setHeader("Vary", "Accept-Encoding");
+                        if (CompressingOutputStream.isCompressible(contentType)) {
+                            response.setHeader("Content-Encoding", encoding);
+                            compressed.begin(encoding);
+                        }
+                    }
+                }
+            };
 
             if (!isPost)
             {
-                xhp.processRequest(urlString, out, xslInputStream, paramsMap, headers, method, userName, password);
+                xhp.processRequest(urlString, out, xslInputStream, paramsMap, headers, method, userName, password,
+                        headerCallback, new SessionCookies(req));
             }
             else
             {
-                if (bodyContent == null)
-                    getLogger().info("XmlHttpProxyServlet attempting to post to url " + urlString + " with no body content");
-                xhp.doPost(urlString, out, xslInputStream, paramsMap, headers, bodyContent, req.getContentType(), userName, password, authHeader);
+                xhp.doPost(
+                        urlString, out, xslInputStream, paramsMap, headers,
+                        req.getInputStream(), req.getContentLength(), req.getContentType(),
+                        userName, password, authHeader, headerCallback, new SessionCookies(req)
+                );
             }
 
-            res.setContentType(xhp.getContentType());
-            res.setStatus(xhp.getStatus());
-
         }
         catch (Exception iox)
         {
@@ -621,4 +764,42 @@ public class XmlHttpProxyServlet extends HttpServlet
             getLogger().info(message);
         }
     }
+
+    /**
+     * Keeps the cookies set by the upstream service in the session of the client they were set for.
+     * The session is created with the first cookie.
+     */
+    private static class SessionCookies implements XmlHttpProxy.CookieCallback {
+        private final HttpServletRequest req;
+
+        SessionCookies(HttpServletRequest req) {
+            this.req = req;
+        }
+
+        public Map<String, XmlHttpProxy.Cookie> getCookies() {
+            HttpSession session = req.getSession(false);
+            CookieJar cookies = session != null ? (CookieJar) session.getAttribute(XHP_COOKIES) : null;
+            return cookies != null ? cookies : Collections.<String, XmlHttpProxy.Cookie>emptyMap();
+        }
+
+        public void setCookie(XmlHttpProxy.Cookie cookie) {
+            HttpSession session = req.getSession(true);
+            CookieJar cookies;
+            synchronized (session) {
+                cookies = (CookieJar) session.getAttribute(XHP_COOKIES);
+                if (cookies == null) {
+                    cookies = new CookieJar();
+                    session.setAttribute(XHP_COOKIES, cookies);
+                }
+            }
+            cookies.put(cookie.name, cookie);
+        }
+    }
+
+    /**
+     * The upstream cookies of a session, by name.
+     */
+    private static class CookieJar extends ConcurrentHashMap<String, XmlHttpProxy.Cookie> {
+        private static final long serialVersionUID = 1L;
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.jboss.mbui.gui.kernel;
 
 import org.jboss.dmr.client.dispatch.DispatchAsync;
+import org.jboss.mbui.gui.reification.preparation.DescriptionRepository;
 
 /**
  * @author Heiko Braun
@@ -9,4 +10,9 @@ import org.jboss.dmr.client.dispatch.DispatchAsync;
 public interface Framework {
 
     DispatchAsync getDispatcher();
+
+    /**
+     * @return descriptions shared across dialogs
+     */
+    DescriptionRepository getDescriptionRepository();
 }
@@ -107,7 +107,8 @@ public class Kernel implements NavigationDelegate {
             Function<Context> readOperationMetaData = new Function<Context>() {
                 @Override
                 public void execute(final Control<Context> control) {
-                    ReadOperationDescriptions operationMetaData = new ReadOperationDescriptions(framework.getDispatcher());
+                    ReadOperationDescriptions operationMetaData = new ReadOperationDescriptions(
+                            framework.getDispatcher(), framework.getDescriptionRepository());
                     operationMetaData.prepareAsync(dialog, context, new ReificationPreperation.Callback()
                     {
                         @Override
@@ -128,7 +129,8 @@ public class Kernel implements NavigationDelegate {
             Function<Context> readResourceMetaData = new Function<Context>() {
                 @Override
                 public void execute(final Control<Context> control) {
-                    ReificationPreperation readResourceDescription = new ReadResourceDescription(framework.getDispatcher());
+                    ReificationPreperation readResourceDescription = new ReadResourceDescription(
+                            framework.getDispatcher(), framework.getDescriptionRepository());
                     readResourceDescription.prepareAsync(dialog, context, new ReificationPreperation.Callback()
                     {
                         @Override
@@ -0,0 +1,143 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.mbui.gui.reification.preparation;
+
+import com.allen_sauer.gwt.log.client.Log;
+import com.google.gwt.storage.client.Storage;
+import org.jboss.dmr.client.ModelNode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resource and operation descriptions shared across dialogs, keyed by address template.
+ * <p/>
+ * Descriptions are static for a given server version. They are kept in memory for the session
+ * and persisted in the local storage of the browser (if supported), so reopening a dialog doesn't need
+ * to read them again. Persisted descriptions of another version are dropped.
+ *
+ * @author Heiko Braun
+ */
+public class DescriptionRepository
+{
+    private static final String PREFIX = "org.jboss.mbui.description.";
+    private static final String VERSION_KEY = PREFIX + "version";
+
+    private final Map<String, ModelNode> descriptions = new HashMap<String, ModelNode>();
+    private final Storage storage;
+
+    /**
+     * @param version the model version the descriptions belong to
+     */
+    public DescriptionRepository(final String version)
+    {
+        this.storage = Storage.getLocalStorageIfSupported();
+
+        if (storage != null && !version.equals(storage.getItem(VERSION_KEY)))
+        {
+            clearStorage();
+            storage.setItem(VERSION_KEY, version);
+        }
+    }
+
+    public ModelNode getResourceDescription(final String addressTemplate)
+    {
+        return get("resource:" + addressTemplate);
+    }
+
+    public void putResourceDescription(final String addressTemplate, final ModelNode description)
+    {
+        put("resource:" + addressTemplate, description);
+    }
+
+    public ModelNode getOperationDescription(final String addressTemplate, final String operation)
+    {
+        return get("operation:" + addressTemplate + ":" + operation);
+    }
+
+    public void putOperationDescription(final String addressTemplate, final String operation,
+            final ModelNode description)
+    {
+        put("operation:" + addressTemplate + ":" + operation, description);
+    }
+
+    /**
+     * Drop all descriptions, including the persisted ones.
+     */
+    public void clear()
+    {
+        descriptions.clear();
+        if (storage != null)
+        {
+            clearStorage();
+        }
+    }
+
+    private ModelNode get(final String key)
+    {
+        ModelNode description = descriptions.get(key);
+        if (description == null && storage != null)
+        {
+            String encoded = storage.getItem(PREFIX + key);
+            if (encoded != null)
+            {
+                try
+                {
+                    description = ModelNode.fromBase64(encoded);
+                    descriptions.put(key, description);
+                }
+                catch (RuntimeException e)
+                {
+                    Log.warn("Discard corrupt description " + key);
+                    storage.removeItem(PREFIX + key);
+                }
+            }
+        }
+        return description;
+    }
+
+    private void put(final String key, final ModelNode description)
+    {
+        descriptions.put(key, description);
+        if (storage != null)
+        {
+            try
+            {
+                storage.setItem(PREFIX + key, description.toBase64String());
+            }
+            catch (RuntimeException e)
+            {
+                // i.e. quota exceeded, the description is still cached for this session
+                Log.warn("Failed to persist description " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void clearStorage()
+    {
+        for (int i = storage.getLength() - 1; i >= 0; i--)
+        {
+            String key = storage.key(i);
+            if (key != null && key.startsWith(PREFIX))
+            {
+                storage.removeItem(key);
+            }
+        }
+    }
+}
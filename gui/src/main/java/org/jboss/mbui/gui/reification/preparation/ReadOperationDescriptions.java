@@ -55,6 +55,7 @@ import static org.jboss.mbui.model.mapping.MappingType.DMR;
 /**
  *
  * Reads the operation meta data associated to {@link Trigger} units.
+ * Descriptions that are known to the {@link DescriptionRepository} are not read again.
  *
  * @author Heiko Braun
  * @date 11/12/2012
@@ -62,12 +63,14 @@ import static org.jboss.mbui.model.mapping.MappingType.DMR;
 public class ReadOperationDescriptions extends ReificationPreperation
 {
     final DispatchAsync dispatcher;
+    final DescriptionRepository repository;
     private static final QName RESOURCE_OP = QName.valueOf("org.jboss.as:resource-operation");
 
-    public ReadOperationDescriptions(final DispatchAsync dispatcher)
+    public ReadOperationDescriptions(final DispatchAsync dispatcher, final DescriptionRepository repository)
     {
         super("read operation description");
         this.dispatcher = dispatcher;
+        this.repository = repository;
     }
 
     @Override
@@ -84,12 +87,24 @@ public class ReadOperationDescriptions extends ReificationPreperation
         final CollectOperationsVisitor visitor = new CollectOperationsVisitor(context);
         dialog.getInterfaceModel().accept(visitor);
 
+        if (!context.has(ContextKey.OPERATION_DESCRIPTIONS))
+        {
+            context.set(ContextKey.OPERATION_DESCRIPTIONS, new HashMap<QName, ModelNode>());
+        }
+        context.<Map>get(ContextKey.OPERATION_DESCRIPTIONS).putAll(visitor.knownDescriptions);
+
+        if (visitor.steps.isEmpty())
+        {
+            callback.onSuccess();
+            return;
+        }
+
         ModelNode compsite = new ModelNode();
         compsite.get(OP).set(COMPOSITE);
         compsite.get(ADDRESS).setEmptyList();
         compsite.get(STEPS).set(visitor.steps);
 
-        dispatcher.execute(new DMRAction(compsite), new SimpleCallback<DMRResponse>()
+        dispatcher.execute(new DMRAction(compsite, true), new SimpleCallback<DMRResponse>()
         {
             @Override
             public void onFailure(final Throwable caught)
@@ -105,17 +120,21 @@ public class ReadOperationDescriptions extends ReificationPreperation
                 // evaluate step responses
                 for (String step : visitor.stepReference.keySet())
                 {
-                    ModelNode stepResponse = response.get(RESULT).get(step);
-
-                    if (!context.has(ContextKey.OPERATION_DESCRIPTIONS))
-                    {
-                        context.set(ContextKey.OPERATION_DESCRIPTIONS, new HashMap<QName, ModelNode>());
-                    }
+                    // read-only access, don't grow the response
+                    ModelNode stepResponse = response.read(RESULT, step);
 
                     Resource<ResourceType> output = visitor.stepReference.get(step);
-                    ModelNode operationMetaData = stepResponse.get(RESULT);
+                    ModelNode operationMetaData = stepResponse.find(RESULT);
+                    if(null==operationMetaData)
+                        operationMetaData = new ModelNode();
                     context.<Map>get(ContextKey.OPERATION_DESCRIPTIONS).put(output.getId(), operationMetaData);
 
+                    if (SUCCESS.equals(stepResponse.read(OUTCOME).asString()))
+                    {
+                        repository.putOperationDescription(visitor.stepAddress.get(step),
+                                output.getId().getSuffix(), operationMetaData);
+                    }
+
                     //System.out.println(output.getId() + " > " + operationMetaData);
                 }
                 callback.onSuccess();
@@ -131,6 +150,8 @@ public class ReadOperationDescriptions extends ReificationPreperation
         List<ModelNode> steps = new ArrayList<ModelNode>();
         Set<QName> resolvedOperations = new HashSet<QName>();
         Map<String, Resource<ResourceType>> stepReference = new HashMap<String, Resource<ResourceType>>();
+        Map<String, String> stepAddress = new HashMap<String, String>();
+        Map<QName, ModelNode> knownDescriptions = new HashMap<QName, ModelNode>();
 
         public CollectOperationsVisitor(final Context context)
         {
@@ -178,7 +199,14 @@ public class ReadOperationDescriptions extends ReificationPreperation
             DMRMapping mapping = interactionUnit.findMapping(DMR);
             String address = mapping.getAddress();
 
-            if (!resolvedOperations.contains(output.getId()))
+            ModelNode known = resolvedOperations.contains(output.getId()) ?
+                    null : repository.getOperationDescription(address, operationName);
+            if (known != null)
+            {
+                knownDescriptions.put(output.getId(), known);
+                resolvedOperations.add(output.getId());
+            }
+            else if (!resolvedOperations.contains(output.getId()))
             {
                 AddressMapping addressMapping = AddressMapping.fromString(address);
                 ModelNode op = addressMapping.asResource(new DelegatingStatementContext()
@@ -212,6 +240,7 @@ public class ReadOperationDescriptions extends ReificationPreperation
 
                 resolvedOperations.add(output.getId());
                 stepReference.put("step-" + steps.size(), output);
+                stepAddress.put("step-" + steps.size(), address);
             }
 
         }
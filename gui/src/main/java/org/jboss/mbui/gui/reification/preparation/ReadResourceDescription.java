@@ -52,7 +52,8 @@ import static org.jboss.mbui.gui.reification.ContextKey.MODEL_DESCRIPTIONS;
 import static org.jboss.mbui.model.mapping.MappingType.DMR;
 
 /**
- * TODO Implement caching for resource descriptions (memory, local storage, ...)
+ * Reads the resource descriptions of a dialog. Descriptions that are known to the
+ * {@link DescriptionRepository} are not read again.
  *
  * @author Harald Pehl
  * @date 11/12/2012
@@ -60,11 +61,13 @@ import static org.jboss.mbui.model.mapping.MappingType.DMR;
 public class ReadResourceDescription extends ReificationPreperation
 {
     final DispatchAsync dispatcher;
+    final DescriptionRepository repository;
 
-    public ReadResourceDescription(final DispatchAsync dispatcher)
+    public ReadResourceDescription(final DispatchAsync dispatcher, final DescriptionRepository repository)
     {
         super("read resource description");
         this.dispatcher = dispatcher;
+        this.repository = repository;
     }
 
     @Override
@@ -81,12 +84,24 @@ public class ReadResourceDescription extends ReificationPreperation
         final CollectOperationsVisitor visitor = new CollectOperationsVisitor(context);
         dialog.getInterfaceModel().accept(visitor);
 
+        if (!context.has(MODEL_DESCRIPTIONS))
+        {
+            context.set(MODEL_DESCRIPTIONS, new HashMap<QName, ModelNode>());
+        }
+        context.<Map>get(MODEL_DESCRIPTIONS).putAll(visitor.knownDescriptions);
+
+        if (visitor.steps.isEmpty())
+        {
+            callback.onSuccess();
+            return;
+        }
+
         ModelNode compsite = new ModelNode();
         compsite.get(OP).set(COMPOSITE);
         compsite.get(ADDRESS).setEmptyList();
         compsite.get(STEPS).set(visitor.steps);
 
-        dispatcher.execute(new DMRAction(compsite), new SimpleCallback<DMRResponse>()
+        dispatcher.execute(new DMRAction(compsite, true), new SimpleCallback<DMRResponse>()
         {
             @Override
             public void onFailure(final Throwable caught)
@@ -102,21 +117,24 @@ public class ReadResourceDescription extends ReificationPreperation
                 // evaluate step responses
                 for (String step : visitor.stepReference.keySet())
                 {
-                    ModelNode stepResponse = response.get(RESULT).get(step);
+                    // read-only access, don't grow the response
+                    ModelNode stepResponse = response.read(RESULT, step);
+                    boolean successful = SUCCESS.equals(stepResponse.read(OUTCOME).asString());
 
                     // might be a LIST response type (resource=*:read-resource-description)
-                    ModelNode description = ModelType.LIST == stepResponse.get(RESULT).getType() ?
-                            stepResponse.get(RESULT).asList().get(0).get(RESULT).asObject() :
-                            stepResponse.get(RESULT).asObject();
+                    ModelNode stepResult = stepResponse.read(RESULT);
+                    ModelNode description = ModelType.LIST == stepResult.getType() ?
+                            stepResult.asList().get(0).read(RESULT).asObject() :
+                            stepResult.asObject();
 
 
-                    if (!context.has(MODEL_DESCRIPTIONS))
-                    {
-                        context.set(MODEL_DESCRIPTIONS, new HashMap<QName, ModelNode>());
-                    }
-
                     DMRMapping mapping = (DMRMapping) visitor.stepReference.get(step).findMapping(DMR);
                     context.<Map>get(MODEL_DESCRIPTIONS).put(mapping.getCorrelationId(), description);
+
+                    if (successful)
+                    {
+                        repository.putResourceDescription(visitor.stepAddress.get(step), description);
+                    }
                 }
                 callback.onSuccess();
             }
@@ -130,6 +148,8 @@ public class ReadResourceDescription extends ReificationPreperation
         List<ModelNode> steps = new ArrayList<ModelNode>();
         Set<String> resolvedAdresses = new HashSet<String>();
         Map<String, InteractionUnit> stepReference = new HashMap<String, InteractionUnit>();
+        Map<String, String> stepAddress = new HashMap<String, String>();
+        Map<QName, ModelNode> knownDescriptions = new HashMap<QName, ModelNode>();
 
         public CollectOperationsVisitor(final Context context)
         {
@@ -174,7 +194,14 @@ public class ReadResourceDescription extends ReificationPreperation
             if (mapping != null)
             {
                 String address = mapping.getAddress();
-                if (!resolvedAdresses.contains(address))
+                ModelNode known = resolvedAdresses.contains(address) ? null : repository.getResourceDescription(address);
+                if (known != null)
+                {
+                    DMRMapping unitMapping = (DMRMapping) interactionUnit.findMapping(DMR);
+                    knownDescriptions.put(unitMapping.getCorrelationId(), known);
+                    resolvedAdresses.add(address);
+                }
+                else if (!resolvedAdresses.contains(address))
                 {
                     AddressMapping addressMapping = AddressMapping.fromString(address);
                     ModelNode op = addressMapping.asResource(new DelegatingStatementContext()
@@ -208,6 +235,7 @@ public class ReadResourceDescription extends ReificationPreperation
 
                     resolvedAdresses.add(address);
                     stepReference.put("step-" + steps.size(), interactionUnit);
+                    stepAddress.put("step-" + steps.size(), address);
                 }
             }
         }
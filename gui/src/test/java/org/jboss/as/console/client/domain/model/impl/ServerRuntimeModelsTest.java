@@ -0,0 +1,102 @@
+package org.jboss.as.console.client.domain.model.impl;
+
+import org.jboss.as.console.client.domain.model.ServerFlag;
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class ServerRuntimeModelsTest {
+
+    @Test
+    public void stepsUseReadResource() {
+        List<ModelNode> steps = ServerRuntimeModels.steps("master");
+
+        assertEquals(3, steps.size());
+        for(ModelNode step : steps)
+        {
+            // read-children-resources doesn't accept wildcard addresses
+            assertEquals(READ_RESOURCE_OPERATION, step.get(OP).asString());
+            assertEquals("*", step.get(ADDRESS).asPropertyList().get(1).getValue().asString());
+        }
+        assertEquals("interface", steps.get(1).get(ADDRESS).asPropertyList().get(2).getName());
+        assertEquals("socket-binding-group", steps.get(2).get(ADDRESS).asPropertyList().get(2).getName());
+    }
+
+    @Test
+    public void parseCompositeResponse() {
+        ModelNode composite = new ModelNode();
+        ModelNode runtime = success(composite.get("step-3"));
+        item(runtime, "server-one", null, null).get(RESULT).get("server-state").set("running");
+        item(runtime, "server-two", null, null).get(RESULT).get("server-state").set("reload-required");
+
+        ModelNode interfaces = success(composite.get("step-4"));
+        item(interfaces, "server-one", "interface", "public").get(RESULT).get("resolved-address").set("10.0.0.1");
+        item(interfaces, "server-one", "interface", "management").get(RESULT).get("resolved-address").set("127.0.0.1");
+        item(interfaces, "server-one", "interface", "unresolved").get(RESULT).get("resolved-address");
+        item(interfaces, "server-two", "interface", "public").get(RESULT).get("resolved-address").set("10.0.0.2");
+
+        ModelNode sockets = success(composite.get("step-5"));
+        item(sockets, "server-one", "socket-binding-group", "standard-sockets").get(RESULT).get("port-offset").set(0);
+        item(sockets, "server-two", "socket-binding-group", "standard-sockets").get(RESULT).get("port-offset").set(150);
+        ModelNode failed = item(sockets, "server-three", "socket-binding-group", "full-sockets");
+        failed.get(OUTCOME).set(FAILED);
+
+        ServerRuntimeModels models = new ServerRuntimeModels(
+                composite.get("step-3"), composite.get("step-4"), composite.get("step-5"));
+
+        assertTrue(models.isRunning("server-one"));
+        assertNull(models.getFlag("server-one"));
+        assertEquals(2, models.getInterfaces("server-one").size());
+        assertEquals("10.0.0.1", models.getInterfaces("server-one").get("public"));
+        assertEquals("127.0.0.1", models.getInterfaces("server-one").get("management"));
+        assertEquals("0", models.getSocketBindings("server-one").get("standard-sockets"));
+
+        assertTrue(models.isRunning("server-two"));
+        assertEquals(ServerFlag.RELOAD_REQUIRED, models.getFlag("server-two"));
+        assertEquals("10.0.0.2", models.getInterfaces("server-two").get("public"));
+        assertEquals("150", models.getSocketBindings("server-two").get("standard-sockets"));
+
+        // stopped servers don't match the wildcard address
+        assertFalse(models.isRunning("server-three"));
+        assertTrue(models.getInterfaces("server-three").isEmpty());
+        assertTrue(models.getSocketBindings("server-three").isEmpty());
+    }
+
+    @Test
+    public void failedStepsAreEmpty() {
+        ModelNode step = new ModelNode();
+        step.get(OUTCOME).set(FAILED);
+        step.get(FAILURE_DESCRIPTION).set("JBAS014739: No handler for read-resource");
+
+        ServerRuntimeModels models = new ServerRuntimeModels(step, step, step);
+        assertFalse(models.isRunning("server-one"));
+        assertTrue(models.getInterfaces("server-one").isEmpty());
+    }
+
+    private static ModelNode success(ModelNode step) {
+        step.get(OUTCOME).set(SUCCESS);
+        step.get(RESULT).setEmptyList();
+        return step;
+    }
+
+    private static ModelNode item(ModelNode step, String server, String childType, String child) {
+        ModelNode item = step.get(RESULT).add();
+        item.get(ADDRESS).add("host", "master");
+        item.get(ADDRESS).add("server", server);
+        if(childType!=null)
+            item.get(ADDRESS).add(childType, child);
+        item.get(OUTCOME).set(SUCCESS);
+        item.get(RESULT).setEmptyObject();
+        return item;
+    }
+}
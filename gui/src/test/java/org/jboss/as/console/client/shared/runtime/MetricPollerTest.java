@@ -0,0 +1,216 @@
+package org.jboss.as.console.client.shared.runtime;
+
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class MetricPollerTest {
+
+    @Test
+    public void subscriptionsAreMerged() {
+        Samples heap = new Samples();
+        Samples threads = new Samples();
+        Samples heapToo = new Samples();
+
+        MetricPoller.Plan plan = new MetricPoller.Plan(Arrays.asList(
+                subscription("heap", memory(), heap, "heap-memory-usage", "non-heap-memory-usage"),
+                subscription("threads", threading(), threads, "thread-count", "daemon-thread-count"),
+                subscription("heap-too", memory(), heapToo, "heap-memory-usage")
+        ));
+
+        ModelNode operation = plan.getOperation();
+        assertEquals(COMPOSITE, operation.get(OP).asString());
+        assertEquals(4, plan.getNumSteps());
+        assertEquals(4, operation.get(STEPS).asList().size());
+
+        ModelNode first = operation.get(STEPS).asList().get(0);
+        assertEquals(READ_ATTRIBUTE_OPERATION, first.get(OP).asString());
+        assertEquals("heap-memory-usage", first.get(NAME).asString());
+        assertEquals(memory(), first.get(ADDRESS));
+    }
+
+    @Test
+    public void valuesAreDispatched() {
+        Samples heap = new Samples();
+        Samples threads = new Samples();
+        Samples heapToo = new Samples();
+
+        MetricPoller.Plan plan = new MetricPoller.Plan(Arrays.asList(
+                subscription("heap", memory(), heap, "heap-memory-usage", "non-heap-memory-usage"),
+                subscription("threads", threading(), threads, "thread-count", "daemon-thread-count"),
+                subscription("heap-too", memory(), heapToo, "heap-memory-usage")
+        ));
+
+        ModelNode usage = new ModelNode();
+        usage.get("used").set(1024L);
+
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT).get("step-1").set(success(usage));
+        response.get(RESULT).get("step-2").set(success(new ModelNode().set(2048L)));
+        response.get(RESULT).get("step-3").set(success(new ModelNode().set(42)));
+        response.get(RESULT).get("step-4").set(success(new ModelNode().set(12)));
+
+        Map<MetricPoller.Subscription, String> failures = plan.dispatch(response);
+        assertTrue(failures.isEmpty());
+
+        assertEquals(1, heap.values.size());
+        assertEquals(1024L, heap.values.get(0).get("heap-memory-usage").get("used").asLong());
+        assertEquals(2048L, heap.values.get(0).get("non-heap-memory-usage").asLong());
+
+        assertEquals(42, threads.values.get(0).get("thread-count").asInt());
+        assertEquals(12, threads.values.get(0).get("daemon-thread-count").asInt());
+
+        assertEquals(1, heapToo.values.size());
+        assertEquals(1024L, heapToo.values.get(0).get("heap-memory-usage").get("used").asLong());
+        assertFalse(heapToo.values.get(0).has("non-heap-memory-usage"));
+    }
+
+    @Test
+    public void failuresAreReported() {
+        Samples heap = new Samples();
+        Samples threads = new Samples();
+
+        MetricPoller.Subscription heapSubscription = subscription("heap", memory(), heap, "heap-memory-usage");
+        MetricPoller.Subscription threadSubscription = subscription("threads", threading(), threads, "thread-count");
+
+        MetricPoller.Plan plan = new MetricPoller.Plan(Arrays.asList(heapSubscription, threadSubscription));
+
+        ModelNode failure = new ModelNode();
+        failure.get(OUTCOME).set(FAILED);
+        failure.get(FAILURE_DESCRIPTION).set("No such resource");
+
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(FAILED);
+        response.get(RESULT).get("step-1").set(failure);
+        response.get(RESULT).get("step-2").get(OUTCOME).set("cancelled");
+
+        Map<MetricPoller.Subscription, String> failures = plan.dispatch(response);
+
+        assertEquals(1, failures.size());
+        assertEquals("No such resource", failures.get(heapSubscription));
+        assertTrue(heap.values.isEmpty());
+
+        // not executed, but not failed either
+        assertFalse(failures.containsKey(threadSubscription));
+        assertTrue(threads.values.isEmpty());
+    }
+
+    @Test
+    public void rolledBackStepsAreNotFailures() {
+        Samples heap = new Samples();
+        Samples threads = new Samples();
+
+        MetricPoller.Subscription heapSubscription = subscription("heap", memory(), heap, "heap-memory-usage");
+        MetricPoller.Subscription threadSubscription = subscription("threads", threading(), threads, "thread-count");
+
+        MetricPoller.Plan plan = new MetricPoller.Plan(Arrays.asList(heapSubscription, threadSubscription));
+
+        // a model stage failure rolls back the steps that did succeed
+        ModelNode rolledBack = new ModelNode();
+        rolledBack.get(OUTCOME).set(FAILED);
+        rolledBack.get(RESULT).set(42);
+        rolledBack.get(ROLLED_BACK).set(true);
+
+        ModelNode failure = new ModelNode();
+        failure.get(OUTCOME).set(FAILED);
+        failure.get(FAILURE_DESCRIPTION).set("No such resource");
+        failure.get(ROLLED_BACK).set(true);
+
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(FAILED);
+        response.get(RESULT).get("step-1").set(rolledBack);
+        response.get(RESULT).get("step-2").set(failure);
+
+        Map<MetricPoller.Subscription, String> failures = plan.dispatch(response);
+
+        assertEquals(1, failures.size());
+        assertEquals("No such resource", failures.get(threadSubscription));
+        assertFalse(failures.containsKey(heapSubscription));
+        assertTrue(heap.values.isEmpty());
+    }
+
+    @Test
+    public void cancelledSubscriptionsAreSkipped() {
+        Samples heap = new Samples();
+        MetricPoller.Subscription subscription = subscription("heap", memory(), heap, "heap-memory-usage");
+        MetricPoller.Plan plan = new MetricPoller.Plan(Arrays.asList(subscription));
+
+        subscription.cancel();
+
+        ModelNode response = new ModelNode();
+        response.get(RESULT).get("step-1").set(success(new ModelNode().set(1L)));
+        plan.dispatch(response);
+
+        assertTrue(heap.values.isEmpty());
+    }
+
+    @Test
+    public void backOff() {
+        int interval = MetricPoller.DEFAULT_INTERVAL;
+
+        // responsive server
+        assertEquals(interval, MetricPoller.nextDelay(interval, interval, 100, false));
+
+        // slow or failing server
+        int delay = MetricPoller.nextDelay(interval, interval, interval, false);
+        assertEquals(2*interval, delay);
+        delay = MetricPoller.nextDelay(interval, delay, 0, true);
+        assertEquals(4*interval, delay);
+
+        for(int i=0; i<10; i++)
+            delay = MetricPoller.nextDelay(interval, delay, 0, true);
+        assertEquals(MetricPoller.MAX_INTERVAL, delay);
+
+        // recovery
+        for(int i=0; i<10; i++)
+            delay = MetricPoller.nextDelay(interval, delay, 100, false);
+        assertEquals(interval, delay);
+    }
+
+    private static MetricPoller.Subscription subscription(String name, ModelNode address, Samples samples, String... attributes) {
+        return new MetricPoller.Subscription(null, samples, name, address, attributes, samples);
+    }
+
+    private static ModelNode success(ModelNode result) {
+        ModelNode step = new ModelNode();
+        step.get(OUTCOME).set(SUCCESS);
+        step.get(RESULT).set(result);
+        return step;
+    }
+
+    private static ModelNode memory() {
+        ModelNode address = new ModelNode();
+        address.add("core-service", "platform-mbean");
+        address.add("type", "memory");
+        return address;
+    }
+
+    private static ModelNode threading() {
+        ModelNode address = new ModelNode();
+        address.add("core-service", "platform-mbean");
+        address.add("type", "threading");
+        return address;
+    }
+
+    static class Samples implements MetricPoller.Callback {
+        List<ModelNode> values = new ArrayList<ModelNode>();
+
+        @Override
+        public void onSample(ModelNode values) {
+            this.values.add(values);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.jboss.as.console.client.shared.runtime;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class MetricTest {
+
+    @Test
+    public void numericValues() {
+        Metric metric = new Metric(1024L, 3L, Long.MAX_VALUE / 1024);
+
+        assertEquals(3, metric.numSamples());
+        assertEquals(1024.0, metric.getValue(0), 0);
+        assertEquals(3L, metric.getLong(1));
+        assertEquals("1024", metric.get(0));
+        assertFalse(metric.isText(0));
+    }
+
+    @Test
+    public void fractions() {
+        Metric metric = new Metric(0.5);
+        assertEquals("0.5", metric.get(0));
+    }
+
+    @Test
+    public void textValues() {
+        Metric metric = new Metric(10, 20);
+        metric.add("select p from Person p");
+        metric.add(30);
+
+        assertEquals(4, metric.numSamples());
+        assertTrue(metric.isText(2));
+        assertEquals("select p from Person p", metric.get(2));
+        assertTrue(Double.isNaN(metric.getValue(2)));
+        assertFalse(metric.isText(3));
+        assertEquals("30", metric.get(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBounds() {
+        new Metric(1, 2).getValue(2);
+    }
+}
@@ -0,0 +1,200 @@
+package org.jboss.as.console.client.shared.runtime.charts;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class SampleBufferTest {
+
+    @Test
+    public void addAndRead() {
+        SampleBuffer buffer = new SampleBuffer(4, 2);
+        double[] sample = new double[2];
+
+        for(int i=0; i<3; i++)
+        {
+            sample[0] = i;
+            sample[1] = i*10;
+            assertFalse(buffer.add(1000+i, sample));
+        }
+
+        assertEquals(3, buffer.size());
+        assertEquals(3, buffer.count());
+        assertEquals(1000, buffer.getTimestamp(0));
+        assertEquals(2.0, buffer.getValue(2, 0), 0);
+        assertEquals(20.0, buffer.getValue(2, 1), 0);
+    }
+
+    @Test
+    public void oldestSamplesAreEvicted() {
+        SampleBuffer buffer = new SampleBuffer(3, 1);
+
+        for(int i=0; i<10; i++)
+        {
+            boolean evicted = buffer.add(i, new double[]{i});
+            assertEquals(i>=3, evicted);
+        }
+
+        assertEquals(3, buffer.size());
+        assertEquals(10, buffer.count());
+        assertEquals(7, buffer.getTimestamp(0));
+        assertEquals(7.0, buffer.getValue(0, 0), 0);
+        assertEquals(9.0, buffer.getValue(2, 0), 0);
+    }
+
+    @Test
+    public void clear() {
+        SampleBuffer buffer = new SampleBuffer(3, 1);
+        for(int i=0; i<5; i++)
+            buffer.add(i, new double[]{i});
+
+        buffer.clear();
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.count());
+
+        buffer.add(42, new double[]{42});
+        assertEquals(1, buffer.size());
+        assertEquals(42.0, buffer.getValue(0, 0), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBounds() {
+        SampleBuffer buffer = new SampleBuffer(3, 1);
+        buffer.add(0, new double[]{0});
+        buffer.getValue(1, 0);
+    }
+
+    @Test
+    public void smallSeriesAreNotDownsampled() {
+        SampleBuffer buffer = new SampleBuffer(10, 1);
+        for(int i=0; i<5; i++)
+            buffer.add(i, new double[]{i});
+
+        Points points = new Points();
+        assertEquals(5, buffer.downsample(10, points));
+        assertEquals(5, points.values.size());
+        assertEquals(3.0, points.values.get(3), 0);
+        assertEquals(Long.valueOf(3), points.timestamps.get(3));
+    }
+
+    @Test
+    public void downsampleIsBounded() {
+        SampleBuffer buffer = new SampleBuffer(720, 1);
+
+        for(int i=0; i<2000; i++)
+        {
+            buffer.add(i, new double[]{i});
+
+            if(buffer.size()>120)
+            {
+                Points points = new Points();
+                int n = buffer.downsample(120, points);
+                assertTrue("Too many points: "+n, n<=120);
+                assertEquals(n, points.values.size());
+
+                // the latest sample is always included
+                assertEquals(Long.valueOf(i), points.timestamps.get(n-1));
+            }
+        }
+    }
+
+    @Test
+    public void downsampleAverages() {
+        SampleBuffer buffer = new SampleBuffer(100, 2);
+        for(int i=0; i<100; i++)
+            buffer.add(i, new double[]{i, 1});
+
+        Points points = new Points();
+        int n = buffer.downsample(10, points);
+
+        double sum = 0;
+        for(int i=0; i<n; i++)
+        {
+            assertEquals(1.0, points.second.get(i), 0);
+            sum += points.values.get(i);
+        }
+
+        // stride is 12, the first bucket holds the samples 0..11
+        assertEquals(5.5, points.values.get(0), 0);
+        assertTrue(sum>0);
+    }
+
+    @Test
+    public void bucketsAreStable() {
+        SampleBuffer buffer = new SampleBuffer(50, 1);
+        for(int i=0; i<50; i++)
+            buffer.add(i, new double[]{i});
+
+        Points before = new Points();
+        buffer.downsample(10, before);
+
+        buffer.add(50, new double[]{50});
+
+        Points after = new Points();
+        buffer.downsample(10, after);
+
+        // complete buckets in the middle don't change when a sample is added
+        int offset = after.timestamps.indexOf(before.timestamps.get(1));
+        assertTrue(offset>=0);
+        assertEquals(before.values.get(1), after.values.get(offset));
+    }
+
+    @Test
+    public void onlyOuterBucketsChange() {
+        SampleBuffer buffer = new SampleBuffer(100, 1);
+        double[] point = new double[1];
+        Points before = null;
+
+        for(int i=0; i<500; i++)
+        {
+            int previous = buffer.stride(10);
+            buffer.add(i, new double[]{i});
+
+            Points after = new Points();
+            int n = buffer.downsample(10, after);
+            if(buffer.size()<=10)
+                continue;
+
+            // the points are the buckets
+            int stride = buffer.stride(10);
+            assertEquals(buffer.lastBucket(stride) - buffer.firstBucket(stride) + 1, n);
+            assertEquals(Long.valueOf(buffer.bucket(buffer.firstBucket(stride), stride, point)), after.timestamps.get(0));
+            assertEquals(after.values.get(0), point[0], 0);
+
+            if(before!=null && stride==previous)
+            {
+                // a point in between is the same as the one at the same timestamp before
+                for(int p=1; p<n-1; p++)
+                {
+                    int offset = before.timestamps.indexOf(after.timestamps.get(p));
+                    assertTrue(offset>0);
+                    assertEquals(before.values.get(offset), after.values.get(p));
+                }
+            }
+            before = after;
+        }
+    }
+
+    class Points implements SampleBuffer.Visitor {
+        List<Long> timestamps = new ArrayList<Long>();
+        List<Double> values = new ArrayList<Double>();
+        List<Double> second = new ArrayList<Double>();
+
+        @Override
+        public void onPoint(int index, long timestamp, double[] point) {
+            assertEquals(timestamps.size(), index);
+            timestamps.add(timestamp);
+            values.add(point[0]);
+            if(point.length>1)
+                second.add(point[1]);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.jboss.as.console.client.tools;
+
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Heiko Braun
+ */
+public class BrowserCacheTest {
+
+    @Test
+    public void prefetchedNamesMatchTheViewAddress() {
+        BrowserCache cache = new BrowserCache();
+
+        ModelNode parent = new ModelNode();
+        parent.add("subsystem", "messaging");
+        List<ModelNode> names = Collections.singletonList(new ModelNode().set("default"));
+        cache.putChildNames(BrowserCache.typeAddress(parent, "hornetq-server"), names);
+
+        // the address as created by BrowserView.toAddress()
+        ModelNode viewAddress = new ModelNode();
+        viewAddress.setEmptyList();
+        viewAddress.add("subsystem", "messaging");
+        viewAddress.add("hornetq-server", "*");
+
+        assertEquals(names, cache.getChildNames(viewAddress));
+    }
+
+    @Test
+    public void refreshKeepsDescriptions() {
+        BrowserCache cache = new BrowserCache();
+        ModelNode root = new ModelNode().setEmptyList();
+        ModelNode address = new ModelNode();
+        address.add("subsystem", "logging");
+
+        cache.putChildTypes(root, Collections.singletonList(new ModelNode().set("subsystem")));
+        cache.putChildNames(BrowserCache.typeAddress(root, "subsystem"), Collections.singletonList(new ModelNode().set("logging")));
+        cache.putDescription(address, new ModelNode().set("description", "The logging subsystem"));
+
+        cache.refresh();
+
+        assertNull(cache.getChildTypes(root));
+        assertNull(cache.getChildNames(BrowserCache.typeAddress(root, "subsystem")));
+        assertNotNull(cache.getDescription(address));
+    }
+}
@@ -0,0 +1,207 @@
+package org.jboss.as.console.client.widgets.forms;
+
+import org.jboss.dmr.client.ModelNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Binds a 2000 entity payload through {@link EntityAdapter} and the shared {@link BindingPlan}.
+ *
+ * @author Heiko Braun
+ */
+public class BindingPlanTest {
+
+    private static final int ENTITIES = 2000;
+
+    private TestMetaData metaData;
+
+    @Before
+    public void setUp() {
+        metaData = new TestMetaData();
+
+        final EntityAdapter<String> names = new EntityAdapter<String>(String.class, metaData);
+        List<PropertyBinding> bindings = new ArrayList<PropertyBinding>();
+        bindings.add(new PropertyBinding("name", "name", "java.lang.String", false, false));
+        bindings.add(new PropertyBinding("port", "port", "java.lang.Integer", false, false));
+        bindings.add(new PropertyBinding("enabled", "enabled", "java.lang.Boolean", false, false));
+        bindings.add(new PropertyBinding("maxPoolSize", "pool/max", "java.lang.Long", false, false));
+        bindings.add(new PropertyBinding("aliases", "aliases", "java.util.List", false, false) {
+            @Override
+            public EntityAdapter getEntityAdapterForList() {
+                return names;
+            }
+        });
+        metaData.register(Server.class, bindings, Server.mutator());
+    }
+
+    @Test
+    public void bindEntities() {
+        List<ModelNode> payload = new ArrayList<ModelNode>(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++) {
+            ModelNode server = new ModelNode();
+            server.get("name").set("server-" + i);
+            server.get("port").set(8080 + i);
+            server.get("enabled").set(i % 2 == 0);
+            if (i % 3 == 0) {
+                server.get("pool", "max").set(20L + i);
+                server.get("aliases").add("alias-" + i).add("backup-" + i);
+            }
+            payload.add(server);
+        }
+
+        List<Server> servers = new EntityAdapter<Server>(Server.class, metaData).fromDMRList(payload);
+
+        assertEquals(ENTITIES, servers.size());
+        for (int i = 0; i < ENTITIES; i++) {
+            Server server = servers.get(i);
+            assertEquals("server-" + i, server.name);
+            assertEquals(Integer.valueOf(8080 + i), server.port);
+            assertEquals(i % 2 == 0, server.enabled);
+            if (i % 3 == 0) {
+                assertEquals(Long.valueOf(20L + i), server.maxPoolSize);
+                assertEquals(Arrays.asList("alias-" + i, "backup-" + i), server.aliases);
+            } else {
+                // defaults for undefined values, the payload is left alone
+                assertEquals(Long.valueOf(-1L), server.maxPoolSize);
+                assertEquals(0, server.aliases.size());
+                assertFalse(payload.get(i).has("pool"));
+                assertFalse(payload.get(i).has("aliases"));
+            }
+        }
+    }
+
+    @Test
+    public void roundTrip() {
+        Server server = new Server();
+        server.name = "default";
+        server.port = 9990;
+        server.enabled = true;
+        server.maxPoolSize = 10L;
+
+        EntityAdapter<Server> adapter = new EntityAdapter<Server>(Server.class, metaData);
+        Server copy = adapter.fromDMR(adapter.fromEntity(server));
+
+        assertEquals("default", copy.name);
+        assertEquals(Integer.valueOf(9990), copy.port);
+        assertEquals(true, copy.enabled);
+        assertEquals(Long.valueOf(10L), copy.maxPoolSize);
+        assertEquals(0, copy.aliases.size());
+    }
+
+    @Test
+    public void missingAccessor() {
+        List<PropertyBinding> bindings = new ArrayList<PropertyBinding>();
+        bindings.add(new PropertyBinding("name", "name", "java.lang.String", false, false));
+        metaData.register(Object.class, bindings, new Mutator<Object>());
+
+        try {
+            BindingPlan.forType(metaData, Object.class);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // no setter for field name
+        }
+    }
+
+    @Test
+    public void undefinedIsProtected() {
+        ModelNode undefined = BindingPlan.resolve(new ModelNode(), new String[]{"pool", "max"});
+        assertFalse(undefined.isDefined());
+        assertSame(undefined, BindingPlan.resolve(new ModelNode().set("x", 1), new String[]{"y"}));
+        try {
+            undefined.set(1);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // shared by all callers
+        }
+    }
+
+    public static class Server {
+        String name;
+        Integer port;
+        Boolean enabled;
+        Long maxPoolSize;
+        List aliases;
+
+        static Mutator<Server> mutator() {
+            Mutator<Server> mutator = new Mutator<Server>();
+            mutator.register("name", new Setter<Server>() {
+                public void invoke(Server entity, Object value) { entity.name = (String) value; }
+            });
+            mutator.register("name", new Getter<Server>() {
+                public Object invoke(Server entity) { return entity.name; }
+            });
+            mutator.register("port", new Setter<Server>() {
+                public void invoke(Server entity, Object value) { entity.port = (Integer) value; }
+            });
+            mutator.register("port", new Getter<Server>() {
+                public Object invoke(Server entity) { return entity.port; }
+            });
+            mutator.register("enabled", new Setter<Server>() {
+                public void invoke(Server entity, Object value) { entity.enabled = (Boolean) value; }
+            });
+            mutator.register("enabled", new Getter<Server>() {
+                public Object invoke(Server entity) { return entity.enabled; }
+            });
+            mutator.register("maxPoolSize", new Setter<Server>() {
+                public void invoke(Server entity, Object value) { entity.maxPoolSize = (Long) value; }
+            });
+            mutator.register("maxPoolSize", new Getter<Server>() {
+                public Object invoke(Server entity) { return entity.maxPoolSize; }
+            });
+            mutator.register("aliases", new Setter<Server>() {
+                public void invoke(Server entity, Object value) { entity.aliases = (List) value; }
+            });
+            mutator.register("aliases", new Getter<Server>() {
+                public Object invoke(Server entity) { return entity.aliases; }
+            });
+            return mutator;
+        }
+    }
+
+    private static class TestMetaData implements ApplicationMetaData {
+        private final Map<Class<?>, BeanMetaData> beans = new HashMap<Class<?>, BeanMetaData>();
+        private final Map<Class<?>, Mutator> mutators = new HashMap<Class<?>, Mutator>();
+
+        void register(Class<?> type, List<PropertyBinding> bindings, Mutator mutator) {
+            beans.put(type, new BeanMetaData(type, new AddressBinding(), bindings));
+            mutators.put(type, mutator);
+        }
+
+        public List<PropertyBinding> getBindingsForType(Class<?> type) {
+            return beans.get(type).getProperties();
+        }
+
+        public BeanMetaData getBeanMetaData(Class<?> type) {
+            return beans.get(type);
+        }
+
+        public Mutator getMutator(Class<?> type) {
+            return mutators.get(type);
+        }
+
+        public <T> EntityFactory<T> getFactory(final Class<T> type) {
+            if (type != Server.class)
+                return null;
+            return new EntityFactory<T>() {
+                public T create() {
+                    return (T) new Server();
+                }
+            };
+        }
+
+        public FormMetaData getFormMetaData(Class<?> type) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.jboss.as.console.client.widgets.tables;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class FilterIndexTest {
+
+    private static final DataProviderFilter.KeyPredicate<String> BY_NAME = new DataProviderFilter.KeyPredicate<String>() {
+        @Override
+        public String getKey(String candidate) {
+            return candidate;
+        }
+    };
+
+    @Test
+    public void caseInsensitivePrefix() {
+        FilterIndex<String> index = new FilterIndex<String>(
+                Arrays.asList("Foo.war", "bar.ear", "foobar.jar", "baz.war"), BY_NAME);
+
+        assertEquals(Arrays.asList("Foo.war", "foobar.jar"), index.filter("fOO"));
+        assertEquals(Arrays.asList("bar.ear", "baz.war"), index.filter("ba"));
+        assertEquals(0, index.filter("x").size());
+    }
+
+    @Test
+    public void narrowAndWiden() {
+        FilterIndex<String> index = new FilterIndex<String>(
+                Arrays.asList("a1", "ab1", "abc1", "abc2", "b1"), BY_NAME);
+
+        assertEquals(4, index.filter("a").size());
+        assertEquals(3, index.filter("ab").size());
+        assertEquals(Arrays.asList("abc1", "abc2"), index.filter("abc"));
+
+        // back space: the previous matches are not sufficient
+        assertEquals(3, index.filter("ab").size());
+        assertEquals(Arrays.asList("b1"), index.filter("b"));
+
+        index.reset();
+        assertEquals(Arrays.asList("abc2"), index.filter("abc2"));
+    }
+
+    @Test
+    public void genericPredicate() {
+        DataProviderFilter.Predicate<String> contains = new DataProviderFilter.Predicate<String>() {
+            @Override
+            public boolean apply(String prefix, String candiate) {
+                return candiate.contains(prefix);
+            }
+        };
+
+        FilterIndex<String> index = new FilterIndex<String>(Arrays.asList("xa", "ab", "b"), contains);
+        assertEquals(Arrays.asList("xa", "ab"), index.filter("a"));
+        assertEquals(Arrays.asList("ab"), index.filter("ab"));
+    }
+
+    @Test
+    public void snapshotIsCopied() {
+        List<String> values = new ArrayList<String>(Arrays.asList("a", "b"));
+        FilterIndex<String> index = new FilterIndex<String>(values, BY_NAME);
+        values.clear();
+
+        assertEquals(Arrays.asList("a", "b"), index.getValues());
+    }
+
+    @Test
+    public void updateUnchanged() {
+        List<String> target = new ArrayList<String>(Arrays.asList("a", "b"));
+        assertFalse(FilterIndex.update(target, Arrays.asList("a", "b")));
+    }
+
+    @Test
+    public void updateShrinkAndGrow() {
+        List<String> all = Arrays.asList("a", "b", "c", "d", "e");
+        RecordingList target = new RecordingList(all);
+
+        assertTrue(FilterIndex.update(target, Arrays.asList("a", "c", "e")));
+        assertEquals(Arrays.asList("a", "c", "e"), target);
+        // the head is kept, "a" is not touched
+        assertEquals(1, target.firstModified);
+
+        target.firstModified = Integer.MAX_VALUE;
+        assertTrue(FilterIndex.update(target, all));
+        assertEquals(all, target);
+        assertEquals(1, target.firstModified);
+    }
+
+    /**
+     * Records the smallest index that has been modified, like the data provider list does.
+     */
+    static class RecordingList extends ArrayList<String> {
+        int firstModified = Integer.MAX_VALUE;
+
+        RecordingList(List<String> values) {
+            super(values);
+        }
+
+        @Override
+        public String set(int index, String element) {
+            firstModified = Math.min(firstModified, index);
+            return super.set(index, element);
+        }
+
+        @Override
+        public String remove(int index) {
+            firstModified = Math.min(firstModified, index);
+            return super.remove(index);
+        }
+
+        @Override
+        public boolean addAll(java.util.Collection<? extends String> c) {
+            firstModified = Math.min(firstModified, size());
+            return super.addAll(c);
+        }
+    }
+}
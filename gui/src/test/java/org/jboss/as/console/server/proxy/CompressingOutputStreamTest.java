@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.as.console.server.proxy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class CompressingOutputStreamTest
+{
+    @Test
+    public void negotiate()
+    {
+        assertNull(CompressingOutputStream.negotiate(null));
+        assertNull(CompressingOutputStream.negotiate("identity"));
+        assertEquals("gzip", CompressingOutputStream.negotiate("gzip, deflate, sdch"));
+        assertEquals("gzip", CompressingOutputStream.negotiate("deflate;q=0.5, gzip"));
+        assertEquals("deflate", CompressingOutputStream.negotiate("gzip;q=0, deflate"));
+        assertEquals("gzip", CompressingOutputStream.negotiate("*"));
+        assertNull(CompressingOutputStream.negotiate("gzip;q=0.0"));
+    }
+
+    @Test
+    public void compressible()
+    {
+        assertTrue(CompressingOutputStream.isCompressible("application/dmr-encoded;charset=UTF-8"));
+        assertTrue(CompressingOutputStream.isCompressible("application/json"));
+        assertTrue(CompressingOutputStream.isCompressible("text/html"));
+        assertFalse(CompressingOutputStream.isCompressible("application/octet-stream"));
+        assertFalse(CompressingOutputStream.isCompressible(null));
+    }
+
+    @Test
+    public void passThroughUntilStarted() throws IOException
+    {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        CompressingOutputStream out = new CompressingOutputStream(target);
+        out.write("plain".getBytes("UTF-8"));
+        out.close();
+        assertEquals("plain", target.toString("UTF-8"));
+    }
+
+    @Test
+    public void emptyBody() throws IOException
+    {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        CompressingOutputStream out = new CompressingOutputStream(target);
+        out.begin(CompressingOutputStream.GZIP);
+        out.close();
+
+        // still a valid (empty) gzip stream
+        assertEquals(-1, new GZIPInputStream(new ByteArrayInputStream(target.toByteArray())).read());
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.as.console.server.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Load test against a local stub of the management endpoint.
+ *
+ * @author Heiko Braun
+ */
+public class ConnectionPoolTest
+{
+    private static final int MAX_PER_ROUTE = 4;
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 25;
+
+    private HttpServer server;
+    private String url;
+    private ConnectionPool pool;
+    private ConnectionPool previous;
+
+    private final Set<Integer> clientPorts = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+
+    @Before
+    public void setUp() throws IOException
+    {
+        // the stub writes headers and body separately, don't let Nagle delay the body
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.createContext("/management", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                try
+                {
+                    Thread.sleep(5);
+                    byte[] body = exchange.getRequestURI().getQuery().getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/management";
+
+        previous = ConnectionPool.getDefault();
+        pool = new ConnectionPool(MAX_PER_ROUTE, 10000, 60000);
+        ConnectionPool.setDefault(pool);
+    }
+
+    @After
+    public void tearDown()
+    {
+        ConnectionPool.setDefault(previous);
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    public void concurrentRequests() throws Exception
+    {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int thread = t;
+            results.add(clients.submit(new Callable<Integer>()
+            {
+                @Override
+                public Integer call() throws Exception
+                {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++)
+                    {
+                        String query = "t=" + thread + "&i=" + i;
+                        HttpClient client = new HttpClient(null, -1, url + "?" + query, null, XmlHttpProxy.GET, null);
+                        assertEquals(query, read(client.getInputStream()));
+                    }
+                    return REQUESTS_PER_THREAD;
+                }
+            }));
+        }
+
+        int total = 0;
+        for (Future<Integer> result : results)
+            total += result.get();
+        clients.shutdown();
+
+        assertEquals(THREADS * REQUESTS_PER_THREAD, total);
+        assertEquals(total, pool.getRequests());
+        assertEquals(0, pool.getLeased());
+        assertTrue("route limit exceeded: " + pool.getPeakLeased(), pool.getPeakLeased() <= MAX_PER_ROUTE);
+        assertTrue("connections are not reused: " + clientPorts.size(), clientPorts.size() <= 2 * MAX_PER_ROUTE);
+    }
+
+    @Test
+    public void acquireTimeout() throws Exception
+    {
+        ConnectionPool small = new ConnectionPool(1, 50, 60000);
+        ConnectionPool.Lease lease = small.lease(new URL(url));
+        try
+        {
+            small.lease(new URL(url));
+            fail("Expected ServiceUnavailableException");
+        }
+        catch (ServiceUnavailableException e)
+        {
+            assertEquals(1, small.getTimeouts());
+        }
+
+        lease.release();
+        lease.release(); // idempotent
+        assertEquals(0, small.getLeased());
+        small.lease(new URL(url)).release();
+    }
+
+    @Test
+    public void idleRoutesAreEvicted() throws Exception
+    {
+        ConnectionPool evicting = new ConnectionPool(2, 50, 0);
+        evicting.lease(new URL("http://127.0.0.1:1/a")).release();
+        Thread.sleep(5);
+        ConnectionPool.Lease lease = evicting.lease(new URL("http://127.0.0.1:2/b"));
+
+        assertEquals(1, evicting.getRoutes());
+        assertEquals(1, evicting.getEvictions());
+        lease.release();
+    }
+
+    @Test
+    public void evictionClosesIdleConnections() throws Exception
+    {
+        pool = new ConnectionPool(MAX_PER_ROUTE, 10000, 0);
+        ConnectionPool.setDefault(pool);
+
+        // the JDK would keep the socket alive for another 5 seconds
+        assertEquals("a", read(new HttpClient(null, -1, url + "?a", null, XmlHttpProxy.GET, null).getInputStream()));
+        assertEquals(1, clientPorts.size());
+
+        Thread.sleep(5);
+        pool.lease(new URL("http://127.0.0.1:1/other")).release();
+        assertEquals(1, pool.getEvictions());
+        assertEquals(1, pool.getClosedConnections());
+
+        assertEquals("c", read(new HttpClient(null, -1, url + "?c", null, XmlHttpProxy.GET, null).getInputStream()));
+        assertEquals("reconnected", 2, clientPorts.size());
+    }
+
+    @Test
+    public void keepAliveCoversRoute() throws Exception
+    {
+        new ConnectionPool(MAX_PER_ROUTE * 10, 50, 0);
+        assertTrue(Integer.parseInt(System.getProperty("http.maxConnections")) >= MAX_PER_ROUTE * 10);
+
+        // never lowered
+        new ConnectionPool(1, 50, 0);
+        assertTrue(Integer.parseInt(System.getProperty("http.maxConnections")) >= MAX_PER_ROUTE * 10);
+    }
+
+    @Test
+    public void metricsArePublished() throws Exception
+    {
+        ConnectionPool.register();
+        try
+        {
+            pool.lease(new URL(url)).release();
+            Object requests = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName(ConnectionPool.OBJECT_NAME), "Requests");
+            assertEquals(1L, requests);
+        }
+        finally
+        {
+            ConnectionPool.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(ConnectionPool.OBJECT_NAME)));
+    }
+
+    @Test
+    public void routesInUseAreNotEvicted() throws Exception
+    {
+        ConnectionPool evicting = new ConnectionPool(1, 50, 0);
+        URL route = new URL("http://127.0.0.1:1/a");
+        ConnectionPool.Lease lease = evicting.lease(route);
+        Thread.sleep(5);
+        evicting.lease(new URL("http://127.0.0.1:2/b")).release();
+
+        assertEquals(0, evicting.getEvictions());
+        assertEquals(1, evicting.getLeased(route));
+        try
+        {
+            evicting.lease(route);
+            fail("Expected ServiceUnavailableException");
+        }
+        catch (ServiceUnavailableException e)
+        {
+            // the permit is still held
+        }
+        lease.release();
+        evicting.lease(route).release();
+    }
+
+    private static String read(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try
+        {
+            StreamRelay.copy(in, out);
+        }
+        finally
+        {
+            in.close();
+        }
+        return out.toString("UTF-8");
+    }
+}
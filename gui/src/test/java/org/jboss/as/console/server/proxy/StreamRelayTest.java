@@ -0,0 +1,66 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.as.console.server.proxy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Heiko Braun
+ */
+public class StreamRelayTest
+{
+    @Test
+    public void copyLargePayload() throws IOException
+    {
+        byte[] payload = new byte[10 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(payload);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length);
+        long copied = StreamRelay.copy(new ByteArrayInputStream(payload), out);
+
+        assertEquals(payload.length, copied);
+        assertArrayEquals(payload, out.toByteArray());
+    }
+
+    @Test
+    public void copyEmpty() throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, StreamRelay.copy(new ByteArrayInputStream(new byte[0]), out));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void buffersAreReused() throws IOException
+    {
+        byte[] first = StreamRelay.acquire();
+        StreamRelay.release(first);
+        assertSame(first, StreamRelay.acquire());
+        StreamRelay.release(first);
+    }
+}
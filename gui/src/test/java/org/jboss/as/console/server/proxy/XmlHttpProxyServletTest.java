@@ -0,0 +1,590 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+package org.jboss.as.console.server.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Stress test for concurrent requests through a single servlet instance.
+ * The stub echoes the forwarded headers and body, so any state leaking between requests shows up in the response.
+ *
+ * @author Heiko Braun
+ */
+public class XmlHttpProxyServletTest
+{
+    private static final int THREADS = 24;
+    private static final int REQUESTS_PER_THREAD = 40;
+
+    private static final int ASYNC_THREADS = 50;
+    private static final int SLOW_REQUESTS = 300;
+    private static final long SLOW_RESPONSE_MS = 250;
+
+    private HttpServer server;
+    private String serviceUrl;
+    private XmlHttpProxyServlet servlet;
+    private ConnectionPool previousPool;
+    private final CountDownLatch slowArrived = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception
+    {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(ASYNC_THREADS));
+        server.createContext("/management", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                StreamRelay.copy(exchange.getRequestBody(), body);
+
+                if (exchange.getRequestURI().getPath().endsWith("/slow"))
+                {
+                    slowArrived.countDown();
+                    try
+                    {
+                        Thread.sleep(SLOW_RESPONSE_MS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                String auth = exchange.getRequestHeaders().getFirst("Authorization");
+                String id = exchange.getRequestHeaders().getFirst("Request-Id");
+                String echo = (auth != null ? auth : "none") + "|" + id + "|" + body.toString("UTF-8");
+
+                // a new upstream session on every call, echoing the one the client sent
+                if (exchange.getRequestURI().getPath().endsWith("/cookie"))
+                {
+                    echo += "|" + exchange.getRequestHeaders().getFirst("Cookie");
+                    exchange.getResponseHeaders().set("Set-Cookie", "JSESSIONID=" + id + "; Path=/; HttpOnly");
+                }
+
+                byte[] response = echo.getBytes("UTF-8");
+                exchange.getResponseHeaders().set("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(200, response.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(response);
+                out.close();
+            }
+        });
+        server.start();
+
+        serviceUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/management";
+        previousPool = ConnectionPool.getDefault();
+        servlet = servlet(Collections.<String, String>emptyMap(), Collections.<String, String>emptyMap());
+    }
+
+    private XmlHttpProxyServlet servlet(final Map<String, String> contextParams, final Map<String, String> initParams)
+            throws Exception
+    {
+        XmlHttpProxyServlet servlet = new XmlHttpProxyServlet()
+        {
+            @Override
+            protected List<Map<String, Object>> loadServices()
+            {
+                Map<String, Object> service = new HashMap<String, Object>();
+                service.put(ProxyConfig.ID, "default");
+                service.put(ProxyConfig.URL, serviceUrl);
+                service.put(ProxyConfig.PASSTHROUGH, Boolean.TRUE);
+                return Collections.singletonList(Collections.unmodifiableMap(service));
+            }
+        };
+        servlet.init(mock(ServletConfig.class, new Stub()
+        {
+            @Override
+            Object invoke(String method, Object[] args)
+            {
+                if ("getServletContext".equals(method))
+                    return mock(ServletContext.class, new Stub()
+                    {
+                        @Override
+                        Object invoke(String method, Object[] args)
+                        {
+                            return "getInitParameter".equals(method) ? contextParams.get(args[0]) : null;
+                        }
+                    });
+                if ("getServletName".equals(method))
+                    return "gwtProxy";
+                if ("getInitParameter".equals(method))
+                    return initParams.get(args[0]);
+                return null;
+            }
+        }));
+        return servlet;
+    }
+
+    @After
+    public void tearDown()
+    {
+        servlet.destroy();
+        ConnectionPool.setDefault(previousPool);
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    public void noHeaderLeakage() throws Exception
+    {
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+        for (int t = 0; t < THREADS; t++)
+        {
+            final int thread = t;
+            results.add(clients.submit(new Callable<Integer>()
+            {
+                @Override
+                public Integer call() throws Exception
+                {
+                    start.await();
+                    // one user per thread, upstream cookies must stay with the user they were set for
+                    HttpSession session = session();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++)
+                    {
+                        String id = thread + "-" + i;
+                        // every other request comes without credentials and must not pick up someone else's
+                        String auth = i % 2 == 0 ? "Bearer " + id : null;
+                        String body = "{\"operation\":\"read-resource\",\"id\":\"" + id + "\"}";
+
+                        Map<String, String> headers = new HashMap<String, String>();
+                        headers.put("jmaki-Request-Id", id);
+                        if (auth != null) headers.put("Authorization", auth);
+
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        int[] status = new int[1];
+                        servlet.doPost(request("/cookie", headers, body, null, session), response(out, status));
+
+                        String cookie = i > 0 ? "JSESSIONID=" + thread + "-" + (i - 1) : "null";
+                        assertEquals(200, status[0]);
+                        assertEquals((auth != null ? auth : "none") + "|" + id + "|" + body + "|" + cookie,
+                                out.toString("UTF-8"));
+                    }
+                    return REQUESTS_PER_THREAD;
+                }
+            }));
+        }
+
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results)
+            total += result.get();
+        clients.shutdown();
+
+        assertEquals(THREADS * REQUESTS_PER_THREAD, total);
+    }
+
+    @Test
+    public void asyncSlowUpstream() throws Exception
+    {
+        servlet.destroy();
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("asyncProxy", "true");
+        params.put("asyncProxyThreads", String.valueOf(ASYNC_THREADS));
+        servlet = servlet(Collections.singletonMap("maxConnectionsPerRoute", String.valueOf(ASYNC_THREADS)), params);
+
+        CountDownLatch completed = new CountDownLatch(SLOW_REQUESTS);
+        List<ByteArrayOutputStream> responses = new ArrayList<ByteArrayOutputStream>();
+
+        // a single container thread dispatches all requests
+        long start = System.nanoTime();
+        for (int i = 0; i < SLOW_REQUESTS; i++)
+        {
+            Map<String, String> headers = new HashMap<String, String>();
+            headers.put("jmaki-Request-Id", String.valueOf(i));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            responses.add(out);
+            servlet.doPost(request("/slow", headers, "slow-" + i, new TestAsyncContext(completed)), response(out, new int[1]));
+        }
+        long dispatched = System.nanoTime() - start;
+
+        assertTrue("requests did not complete", completed.await(60, TimeUnit.SECONDS));
+
+        for (int i = 0; i < SLOW_REQUESTS; i++)
+            assertEquals("none|" + i + "|slow-" + i, responses.get(i).toString("UTF-8"));
+
+        int proxyThreads = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            if (thread.getName().startsWith("xhp-async-")) proxyThreads++;
+
+        // a synchronous dispatch would have taken SLOW_REQUESTS * SLOW_RESPONSE_MS on the calling thread
+        assertTrue("container thread was blocked", dispatched < SLOW_REQUESTS * SLOW_RESPONSE_MS / 10 * 1000000);
+        assertTrue(proxyThreads <= ASYNC_THREADS);
+    }
+
+    @Test
+    public void asyncTimeoutStopsWriting() throws Exception
+    {
+        servlet.destroy();
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("asyncProxy", "true");
+        params.put("asyncProxyThreads", "1");
+        servlet = servlet(Collections.<String, String>emptyMap(), params);
+
+        CountDownLatch completed = new CountDownLatch(1);
+        TestAsyncContext timingOut = new TestAsyncContext(new CountDownLatch(1));
+        TestAsyncContext queued = new TestAsyncContext(new CountDownLatch(1));
+        TestAsyncContext next = new TestAsyncContext(completed);
+        ByteArrayOutputStream timedOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream cancelled = new ByteArrayOutputStream();
+        servlet.doPost(request("/slow", new HashMap<String, String>(), "slow", timingOut), response(timedOut, new int[1]));
+        servlet.doPost(request("", new HashMap<String, String>(), "queued", queued), response(cancelled, new int[1]));
+        servlet.doPost(request("", new HashMap<String, String>(), "next", next), response(new ByteArrayOutputStream(), new int[1]));
+
+        // the container gives up on the first request while it's still waiting for the upstream,
+        // and completes it itself
+        assertTrue(slowArrived.await(10, TimeUnit.SECONDS));
+        timingOut.timeout();
+        assertEquals(0, timingOut.completions.get());
+
+        // nobody would complete a request that never started
+        queued.timeout();
+        assertEquals(1, queued.completions.get());
+
+        // the single worker has finished the first request once the last one completes
+        assertTrue("requests did not complete", completed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, next.completions.get());
+        assertEquals(0, timingOut.completions.get());
+        assertEquals("nothing written after the timeout", 0, timedOut.size());
+        assertEquals(1, queued.completions.get());
+        assertEquals(0, cancelled.size());
+    }
+
+    @Test
+    public void compressedResponse() throws Exception
+    {
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            payload.append("{\"operation\":\"read-resource\",\"address\":[\"subsystem\",\"datasources\"]}");
+
+        for (String encoding : new String[]{"gzip", "deflate"})
+        {
+            Map<String, String> requestHeaders = new HashMap<String, String>();
+            requestHeaders.put("Accept-Encoding", encoding);
+            requestHeaders.put("jmaki-Request-Id", encoding);
+            Map<String, String> responseHeaders = new HashMap<String, String>();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int[] status = new int[1];
+
+            servlet.doPost(request("", requestHeaders, payload.toString(), null), response(out, status, responseHeaders));
+
+            assertEquals(200, status[0]);
+            assertEquals(encoding, responseHeaders.get("Content-Encoding"));
+            assertEquals("Accept-Encoding", responseHeaders.get("Vary"));
+
+            InputStream in = "gzip".equals(encoding) ?
+                    new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())) :
+                    new InflaterInputStream(new ByteArrayInputStream(out.toByteArray()));
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            StreamRelay.copy(in, decoded);
+            assertEquals("none|" + encoding + "|" + payload, decoded.toString("UTF-8"));
+            assertTrue(out.size() < payload.length() / 10);
+        }
+    }
+
+    @Test
+    public void failingHeaderCallbackReleasesConnection() throws Exception
+    {
+        ConnectionPool pool = new ConnectionPool(1, 1000, ConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        ConnectionPool.setDefault(pool);
+        XmlHttpProxy proxy = new XmlHttpProxy();
+
+        // with a leaked connection the second request would time out
+        for (int i = 0; i < 3; i++)
+        {
+            try
+            {
+                proxy.doPost(serviceUrl, new ByteArrayOutputStream(), null, null, new HashMap(),
+                        new ByteArrayInputStream("x".getBytes("UTF-8")), 1, "text/plain", null, null, null,
+                        new XmlHttpProxy.HeaderCallback()
+                        {
+                            @Override
+                            public void onHeaders(int status, String contentType) throws IOException
+                            {
+                                throw new IOException("client gone");
+                            }
+                        }, null);
+                fail("callback failure swallowed");
+            }
+            catch (IOException expected)
+            {
+                assertEquals("client gone", expected.getMessage());
+            }
+            assertEquals(0, pool.getLeased());
+        }
+    }
+
+    @Test
+    public void httpOnlyCookieReleasesConnection() throws Exception
+    {
+        ConnectionPool pool = new ConnectionPool(2, 1000, ConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        ConnectionPool.setDefault(pool);
+        XmlHttpProxy proxy = new XmlHttpProxy();
+
+        // more requests than the route allows, a leaked connection fails the third one
+        for (int i = 0; i < 5; i++)
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            proxy.doPost(serviceUrl + "/cookie", out, null, null, new HashMap(),
+                    new ByteArrayInputStream("x".getBytes("UTF-8")), 1, "text/plain", null, null, null, null, null);
+
+            // without a cookie callback the cookie isn't kept beyond the request
+            assertEquals("none|null|x|null", out.toString("UTF-8"));
+            assertEquals(0, pool.getLeased());
+        }
+    }
+
+    /**
+     * The Servlet 3 methods {@link AsyncSupport} looks for.
+     */
+    public interface AsyncRequest extends HttpServletRequest
+    {
+        boolean isAsyncSupported();
+
+        TestAsyncContext startAsync();
+    }
+
+    /**
+     * Stands in for the Servlet 3 AsyncListener, {@link AsyncSupport} implements whatever {@code addListener} takes.
+     */
+    public interface AsyncListener
+    {
+        void onComplete(Object event);
+
+        void onTimeout(Object event);
+
+        void onError(Object event);
+
+        void onStartAsync(Object event);
+    }
+
+    public static class TestAsyncContext
+    {
+        private final CountDownLatch completed;
+        private final List<AsyncListener> listeners = new CopyOnWriteArrayList<AsyncListener>();
+        final AtomicInteger completions = new AtomicInteger(0);
+
+        TestAsyncContext(CountDownLatch completed)
+        {
+            this.completed = completed;
+        }
+
+        public void setTimeout(long timeout) {}
+
+        public void addListener(AsyncListener listener)
+        {
+            listeners.add(listener);
+        }
+
+        public void complete()
+        {
+            completions.incrementAndGet();
+            completed.countDown();
+        }
+
+        void timeout()
+        {
+            for (AsyncListener listener : listeners)
+                listener.onTimeout(null);
+        }
+    }
+
+    private static HttpServletRequest request(final String path, final Map<String, String> headers, final String body,
+                                              final TestAsyncContext asyncContext) throws IOException
+    {
+        return request(path, headers, body, asyncContext, null);
+    }
+
+    private static HttpServletRequest request(final String path, final Map<String, String> headers, final String body,
+                                              final TestAsyncContext asyncContext, final HttpSession session)
+            throws IOException
+    {
+        final byte[] content = body.getBytes("UTF-8");
+        final InputStream in = new ByteArrayInputStream(content);
+        return mock(asyncContext != null ? AsyncRequest.class : HttpServletRequest.class, new Stub()
+        {
+            @Override
+            Object invoke(String method, Object[] args)
+            {
+                if ("isAsyncSupported".equals(method))
+                    return true;
+                if ("startAsync".equals(method))
+                    return asyncContext;
+                if ("getHeaderNames".equals(method))
+                    return Collections.enumeration(headers.keySet());
+                if ("getHeaders".equals(method))
+                    return Collections.enumeration(Collections.singletonList(headers.get(args[0])));
+                if ("getHeader".equals(method))
+                    return headers.get(args[0]);
+                if ("getRequestURI".equals(method))
+                    return "/app/proxy/management" + path;
+                if ("getServletPath".equals(method))
+                    return "/app/proxy/management";
+                if ("getSession".equals(method))
+                    return session;
+                if ("getContentType".equals(method))
+                    return "application/json";
+                if ("getContentLength".equals(method))
+                    return content.length;
+                if ("getInputStream".equals(method))
+                    return new ServletInputStream()
+                    {
+                        @Override
+                        public int read() throws IOException
+                        {
+                            return in.read();
+                        }
+
+                        @Override
+                        public int read(byte[] b, int off, int len) throws IOException
+                        {
+                            return in.read(b, off, len);
+                        }
+                    };
+                return null;
+            }
+        });
+    }
+
+    private static HttpSession session()
+    {
+        final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        return mock(HttpSession.class, new Stub()
+        {
+            @Override
+            Object invoke(String method, Object[] args)
+            {
+                if ("getAttribute".equals(method))
+                    return attributes.get(args[0]);
+                if ("setAttribute".equals(method))
+                    attributes.put((String) args[0], args[1]);
+                return null;
+            }
+        });
+    }
+
+    private static HttpServletResponse response(final OutputStream out, final int[] status)
+    {
+        return response(out, status, new HashMap<String, String>());
+    }
+
+    private static HttpServletResponse response(final OutputStream out, final int[] status, final Map<String, String> headers)
+    {
+        return mock(HttpServletResponse.class, new Stub()
+        {
+            @Override
+            Object invoke(String method, Object[] args)
+            {
+                if ("setStatus".equals(method))
+                    status[0] = (Integer) args[0];
+                if ("setHeader".equals(method))
+                    headers.put((String) args[0], (String) args[1]);
+                if ("getOutputStream".equals(method))
+                    return new ServletOutputStream()
+                    {
+                        @Override
+                        public void write(int b) throws IOException
+                        {
+                            out.write(b);
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException
+                        {
+                            out.write(b, off, len);
+                        }
+                    };
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T mock(Class<? extends T> type, final Stub stub)
+    {
+        return (T) java.lang.reflect.Proxy.newProxyInstance(
+                XmlHttpProxyServletTest.class.getClassLoader(), new Class[]{type},
+                new InvocationHandler()
+                {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                    {
+                        Object result = stub.invoke(method.getName(), args);
+                        if (result == null && method.getReturnType() == boolean.class)
+                            return false;
+                        if (result == null && method.getReturnType() == int.class)
+                            return 0;
+                        return result;
+                    }
+                });
+    }
+
+    private static class Stub
+    {
+        Object invoke(String method, Object[] args)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.benchmark;
+
+import org.jboss.as.console.client.widgets.tables.FilterIndexBenchmark;
+import org.jboss.as.console.server.proxy.StreamRelayBenchmark;
+import org.jboss.dmr.client.FootprintBenchmark;
+import org.jboss.dmr.client.ModelWriterBenchmark;
+import org.jboss.dmr.client.WireSizeBenchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks, all of them or the ones named (by simple class name) on the command line.
+ * Run with <tt>mvn verify -Pbenchmarks</tt> in <tt>testsuite/smoke</tt>, after the <tt>gui</tt> module has been built,
+ * and select benchmarks with <tt>-Dbenchmarks=...</tt>.
+ *
+ * @author Heiko Braun
+ */
+public class Benchmarks {
+
+    static List<Benchmark> all() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        benchmarks.add(new StreamRelayBenchmark());
+        benchmarks.add(new WireSizeBenchmark());
+        benchmarks.add(new FilterIndexBenchmark());
+        benchmarks.add(new FootprintBenchmark());
+        benchmarks.add(new ModelWriterBenchmark());
+        return benchmarks;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> selected = Arrays.asList(args);
+        Harness harness = new Harness(System.out);
+        for (Benchmark benchmark : all()) {
+            if (selected.isEmpty() || selected.contains(benchmark.getClass().getSimpleName())) {
+                benchmark.run(harness);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.benchmark;
+
+import java.io.PrintStream;
+
+/**
+ * Timing, memory measurement and reporting shared by the benchmarks.
+ *
+ * @author Heiko Braun
+ */
+public class Harness {
+
+    private final PrintStream out;
+    private int sink;
+
+    public Harness(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Warm up with the same number of rounds, then time the task.
+     *
+     * @return the average time per round in nanoseconds
+     */
+    public long time(int rounds, Task task) throws Exception {
+        for (int i = 0; i < rounds; i++) {
+            consume(task.run());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            consume(task.run());
+        }
+        return (System.nanoTime() - start) / rounds;
+    }
+
+    /**
+     * @return the heap retained by each result of the task, in bytes
+     */
+    public long retained(int copies, Task task) throws Exception {
+        Object[] results = new Object[copies];
+        long before = usedMemory();
+        for (int i = 0; i < copies; i++) {
+            results[i] = task.run();
+        }
+        long after = usedMemory();
+
+        // keep the results reachable until after the measurement
+        for (Object result : results) {
+            consume(result);
+        }
+        return (after - before) / copies;
+    }
+
+    public void report(Benchmark benchmark, String line) {
+        out.println(benchmark.getClass().getSimpleName() + ": " + line);
+    }
+
+    /**
+     * @return nanoseconds as microseconds, for reporting
+     */
+    public static long micros(long nanos) {
+        return nanos / 1000;
+    }
+
+    /**
+     * @return the throughput in MB/s of {@code bytes} processed in {@code nanos}
+     */
+    public static long megabytesPerSecond(long bytes, long nanos) {
+        return Math.round(bytes / (1024.0 * 1024.0) / (nanos / 1e9));
+    }
+
+    private void consume(Object result) {
+        // the JIT can't drop work whose result is used
+        sink += result != null ? 1 : 0;
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public interface Task {
+        /**
+         * @return the result of one round
+         */
+        Object run() throws Exception;
+    }
+}
@@ -0,0 +1,95 @@
+package org.jboss.as.console.client.widgets.tables;
+
+import org.jboss.as.console.benchmark.Benchmark;
+import org.jboss.as.console.benchmark.Harness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Types a prefix into a filter over 10k rows, compares the full scan with a plain
+ * <tt>startsWith</tt> (the previous implementation) with the incremental filter.
+ *
+ * @author Heiko Braun
+ */
+public class FilterIndexBenchmark implements Benchmark {
+
+    private static final int ROWS = 10000;
+    private static final int ROUNDS = 200;
+    private static final String TYPED = "deployment-4";
+
+    /**
+     * What the filters did before, e.g. <tt>DeploymentFilter</tt>
+     */
+    private static final DataProviderFilter.Predicate<String> STARTS_WITH = new DataProviderFilter.Predicate<String>() {
+        @Override
+        public boolean apply(String prefix, String candiate) {
+            return candiate.startsWith(prefix);
+        }
+    };
+
+    private static final DataProviderFilter.KeyPredicate<String> BY_NAME = new DataProviderFilter.KeyPredicate<String>() {
+        @Override
+        public String getKey(String candidate) {
+            return candidate;
+        }
+    };
+
+    @Override
+    public void run(Harness harness) throws Exception {
+
+        // lower case, so that both filters match the same rows
+        Random random = new Random(42);
+        final List<String> rows = new ArrayList<String>(ROWS);
+        for(int i=0; i<ROWS; i++)
+            rows.add((random.nextBoolean() ? "deployment-" : "jms-queue-") + random.nextInt(100000) + ".war");
+
+        long full = harness.time(ROUNDS, new Harness.Task() {
+            @Override
+            public Object run() {
+                return fullScan(rows);
+            }
+        });
+
+        final FilterIndex<String> index = new FilterIndex<String>(rows, BY_NAME);
+        long incremental = harness.time(ROUNDS, new Harness.Task() {
+            @Override
+            public Object run() {
+                return incremental(rows, index);
+            }
+        });
+
+        harness.report(this, ROWS + " rows, " + TYPED.length() + " key strokes: full scan " +
+                Harness.micros(full) + " us, incremental " + Harness.micros(incremental) + " us");
+    }
+
+    private static List<String> fullScan(List<String> rows) {
+        List<String> display = new ArrayList<String>(rows);
+        for(int i=1; i<=TYPED.length(); i++)
+        {
+            String prefix = TYPED.substring(0, i);
+            List<String> next = new ArrayList<String>();
+            for(String row : rows)
+            {
+                if(STARTS_WITH.apply(prefix, row))
+                    next.add(row);
+            }
+            display.clear();
+            display.addAll(next);
+        }
+        display.clear();
+        display.addAll(rows);
+        return display;
+    }
+
+    private static List<String> incremental(List<String> rows, FilterIndex<String> index) {
+        List<String> display = new ArrayList<String>(rows);
+        for(int i=1; i<=TYPED.length(); i++)
+            FilterIndex.update(display, index.filter(TYPED.substring(0, i)));
+
+        index.reset();
+        FilterIndex.update(display, index.getValues());
+        return display;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.as.console.server.proxy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.jboss.as.console.benchmark.Benchmark;
+import org.jboss.as.console.benchmark.Harness;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Relays request and response bodies of different sizes through {@link XmlHttpProxy} to a stub management
+ * endpoint on the loopback interface, over the pooled keep-alive connections.
+ *
+ * @author Heiko Braun
+ */
+public class StreamRelayBenchmark implements Benchmark {
+
+    private static final int[] SIZES = {1024, 64 * 1024, 4 * 1024 * 1024};
+    private static final int BYTES_PER_SIZE = 64 * 1024 * 1024;
+
+    @Override
+    public void run(Harness harness) throws Exception {
+        final byte[] payload = new byte[SIZES[SIZES.length - 1]];
+        new Random(7).nextBytes(payload);
+
+        // without it the stub's responses wait on delayed ACKs, 40 ms each
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        server.setExecutor(executor);
+        server.createContext("/management", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                // GET returns ?size bytes, POST consumes the body and returns its length
+                int size;
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    size = (int) StreamRelay.copy(exchange.getRequestBody(), new Sink());
+                    byte[] length = String.valueOf(size).getBytes("US-ASCII");
+                    exchange.sendResponseHeaders(200, length.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(length);
+                    out.close();
+                } else {
+                    size = Integer.parseInt(exchange.getRequestURI().getQuery());
+                    exchange.getResponseHeaders().set("Content-Type", "application/dmr-encoded");
+                    exchange.sendResponseHeaders(200, size);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(payload, 0, size);
+                    out.close();
+                }
+            }
+        });
+        server.start();
+
+        try {
+            final String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/management";
+            final XmlHttpProxy proxy = new XmlHttpProxy();
+
+            for (final int size : SIZES) {
+                int rounds = Math.max(20, BYTES_PER_SIZE / size / 8);
+
+                long response = harness.time(rounds, new Harness.Task() {
+                    @Override
+                    public Object run() throws Exception {
+                        Sink sink = new Sink();
+                        proxy.processRequest(url + "?" + size, sink, null, null, null, XmlHttpProxy.GET, null, null);
+                        return sink.count == size ? sink : null;
+                    }
+                });
+
+                long request = harness.time(rounds, new Harness.Task() {
+                    @Override
+                    public Object run() throws Exception {
+                        Sink sink = new Sink();
+                        InputStream body = new ByteArrayInputStream(payload, 0, size);
+                        proxy.doPost(url, sink, null, null, null, body, size, "application/dmr-encoded",
+                                null, null, null, null, null);
+                        return sink;
+                    }
+                });
+
+                harness.report(this, (size / 1024) + " KB: response " + Harness.micros(response) + " us (" +
+                        Harness.megabytesPerSecond(size, response) + " MB/s), request " + Harness.micros(request) +
+                        " us (" + Harness.megabytesPerSecond(size, request) + " MB/s)");
+            }
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Sink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
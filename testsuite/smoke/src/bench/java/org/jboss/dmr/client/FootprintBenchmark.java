@@ -0,0 +1,67 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.jboss.as.console.benchmark.Benchmark;
+import org.jboss.as.console.benchmark.Harness;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+
+/**
+ * Retained heap of decoded DMR responses, with and without compact object maps.
+ *
+ * @author Heiko Braun
+ */
+public class FootprintBenchmark implements Benchmark {
+
+    private static final int COPIES = 20;
+
+    @Override
+    public void run(Harness harness) throws Exception {
+        report(harness, "read-resource-description (datasources)",
+                WireSizeTest.response(WireSizeTest.description(40, 3)));
+        report(harness, "read-children-resources (2000 datasources)",
+                WireSizeTest.response(WireSizeTest.resources(2000)));
+    }
+
+    private void report(Harness harness, String name, ModelNode payload) throws Exception {
+        final String base64 = payload.toBase64String();
+        Harness.Task decode = new Harness.Task() {
+            @Override
+            public Object run() {
+                ModelNode node = ModelNode.fromBase64(base64);
+                node.get(RESULT).keys();
+                return node;
+            }
+        };
+
+        long linked;
+        try {
+            ObjectModelValue.maxCompactSize = 0;
+            linked = harness.retained(COPIES, decode);
+        } finally {
+            ObjectModelValue.maxCompactSize = CompactMap.MAX_SIZE;
+        }
+        long compact = harness.retained(COPIES, decode);
+
+        harness.report(this, name + ": retained " + (linked / 1024) + " KB with LinkedHashMap, " +
+                (compact / 1024) + " KB compact (" + (100 * compact / linked) + "%)");
+    }
+}
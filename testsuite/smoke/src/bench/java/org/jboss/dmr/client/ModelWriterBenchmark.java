@@ -0,0 +1,69 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.jboss.as.console.benchmark.Benchmark;
+import org.jboss.as.console.benchmark.Harness;
+
+/**
+ * Times the {@link ModelWriter} against the recursive formatter.
+ *
+ * @author Heiko Braun
+ */
+public class ModelWriterBenchmark implements Benchmark {
+
+    private static final int ROUNDS = 20;
+
+    @Override
+    public void run(Harness harness) throws Exception {
+        final ModelNode node = WireSizeTest.response(WireSizeTest.resources(2000));
+        node.get("description").set(WireSizeTest.description(40, 3));
+
+        long format = harness.time(ROUNDS, new Harness.Task() {
+            @Override
+            public Object run() {
+                return ModelWriterTest.dmr(node);
+            }
+        });
+        long writer = harness.time(ROUNDS, new Harness.Task() {
+            @Override
+            public Object run() {
+                return ModelWriter.dmr(node).asString();
+            }
+        });
+        long formatJson = harness.time(ROUNDS, new Harness.Task() {
+            @Override
+            public Object run() {
+                return ModelWriterTest.json(node, false);
+            }
+        });
+        long writerJson = harness.time(ROUNDS, new Harness.Task() {
+            @Override
+            public Object run() {
+                return ModelWriter.json(node, false).asString();
+            }
+        });
+
+        int length = ModelWriterTest.dmr(node).length();
+        harness.report(this, "format " + (length / 1024) + " KB: dmr " + Harness.micros(format) + " us, writer " +
+                Harness.micros(writer) + " us; json " + Harness.micros(formatJson) + " us, writer " +
+                Harness.micros(writerJson) + " us");
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.jboss.as.console.benchmark.Benchmark;
+import org.jboss.as.console.benchmark.Harness;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+
+/**
+ * Bytes on the wire and decode time of DMR payloads in their different encodings.
+ *
+ * @author Heiko Braun
+ */
+public class WireSizeBenchmark implements Benchmark {
+
+    private static final int ROUNDS = 10;
+
+    @Override
+    public void run(Harness harness) throws Exception {
+        report(harness, "read-resource-description (datasources)", WireSizeTest.response(WireSizeTest.description(40, 3)));
+        report(harness, "read-children-resources (2000 datasources)", WireSizeTest.response(WireSizeTest.resources(2000)));
+    }
+
+    private void report(Harness harness, String name, ModelNode payload) throws Exception {
+        DataOutput out = new DataOutput();
+        payload.writeExternal(out);
+        byte[] binary = out.getBytes();
+        String base64 = payload.toBase64String();
+        byte[] text = base64.getBytes("US-ASCII");
+
+        long eager = harness.time(ROUNDS, decode(base64, false));
+        long lazy = harness.time(ROUNDS, decode(base64, true));
+
+        harness.report(this, name + ": binary " + binary.length + " bytes, base64 " + text.length +
+                ", base64+gzip " + WireSizeTest.gzip(text).length + ", base64+deflate " + deflate(text).length +
+                ", binary+gzip " + WireSizeTest.gzip(binary).length +
+                "; decode " + Harness.micros(eager) + " us, lazy " + Harness.micros(lazy) + " us");
+    }
+
+    private static Harness.Task decode(final String base64, final boolean lazy) {
+        return new Harness.Task() {
+            @Override
+            public Object run() {
+                ModelNode node = lazy ? ModelNode.fromBase64Lazy(base64) : ModelNode.fromBase64(base64);
+                return node.get(RESULT).keys();
+            }
+        };
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DeflaterOutputStream out = new DeflaterOutputStream(bytes);
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+}
@@ -23,8 +23,13 @@ import org.junit.Test;
 
 import static org.jboss.dmr.client.ModelDescriptionConstants.ADDRESS;
 import static org.jboss.dmr.client.ModelDescriptionConstants.OP;
+import static org.jboss.dmr.client.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+import static org.jboss.dmr.client.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 /**
  * @author Heiko Braun
@@ -210,4 +215,106 @@ public class Base64Test {
 
     }
 
+    @Test
+    public void testStreamingDecoder() throws Exception {
+
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        for (int i = 0; i < 100; i++) {
+            ModelNode server = response.get(RESULT).get("server-" + i);
+            server.get("name").set("server-" + i);
+            server.get("auto-start").set(i % 2 == 0);
+            server.get("socket-binding-port-offset").set(i * 100);
+            server.get("uptime").set(1000L * i);
+            server.get("group").set("main-server-group");
+        }
+
+        // with and without line breaks, and for all three padding variants
+        for (String suffix : new String[]{"", "a", "ab"}) {
+            response.get("padding").set(suffix);
+            String base64 = response.toBase64String();
+            byte[] expected = Base64.decode(base64);
+
+            DataInput streaming = new Base64DataInput(base64);
+            byte[] actual = new byte[expected.length];
+            streaming.readFully(actual);
+            assertArrayEquals(expected, actual);
+            assertEquals(-1, streaming.read());
+
+            String wrapped = Base64.encodeBytes(expected, Base64.DO_BREAK_LINES);
+            assertEquals(response, ModelNode.fromBase64(wrapped));
+        }
+    }
+
+    @Test
+    public void testLazyDecoding() throws Exception {
+
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        for (int i = 0; i < 10; i++) {
+            ModelNode datasource = response.get(RESULT).get("ds-" + i);
+            datasource.get("jndi-name").set("java:/ds-" + i);
+            datasource.get("min-pool-size").set(i);
+            datasource.get("max-pool-size").set(20L);
+            datasource.get("connection-properties").add("user", "sa");
+            datasource.get("connection-properties").add("password", "sa");
+        }
+        response.get(RESULT, "ds-1", "enabled").set(true);
+
+        String base64 = response.toBase64String();
+
+        ModelNode lazy = ModelNode.fromBase64Lazy(base64);
+        assertEquals("java:/ds-3", lazy.get(RESULT).get("ds-3").get("jndi-name").asString());
+        assertEquals(2, lazy.get(RESULT, "ds-7", "connection-properties").asList().size());
+        assertEquals(response, lazy);
+        assertEquals(base64, lazy.toBase64String());
+    }
+
+    @Test
+    public void testLazyDecodingNested() throws Exception {
+
+        ModelNode response = new ModelNode();
+        ModelNode node = response;
+        for (int i = 0; i < 6; i++) {
+            node.get("name").set("level-" + i);
+            node.get("list").add(i).add(new ModelNode().set("p" + i, new ModelNode().set("x", i)));
+            node.get("empty").setEmptyObject();
+            node = node.get("child");
+        }
+        node.set("leaf");
+
+        // line breaks shift the quanta against the decoded bytes
+        String base64 = response.toBase64String();
+        StringBuilder wrapped = new StringBuilder();
+        for (int i = 0; i < base64.length(); i += 76) {
+            wrapped.append(base64, i, Math.min(i + 76, base64.length())).append("\r\n");
+        }
+
+        ModelNode lazy = ModelNode.fromBase64Lazy(wrapped.toString());
+        assertEquals("leaf", lazy.get("child", "child", "child", "child", "child", "child").asString());
+        assertEquals(2, lazy.get("child", "child", "list").get(1).asProperty().getValue().get("x").asInt());
+        assertEquals(response, lazy);
+        assertEquals(response, ModelNode.fromBase64Lazy(base64).clone());
+    }
+
+    @Test
+    public void testLazyDecodingTruncated() throws Exception {
+
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT, "ds-1", "connection-properties").add("user", "sa");
+        response.get(RESULT, "ds-1", "jndi-name").set("java:/ds-1");
+
+        byte[] bytes = Base64.decode(response.toBase64String());
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        // the nested result is not decoded, but its extent must be complete
+        try {
+            ModelNode.fromBase64Lazy(Base64.encodeBytes(truncated));
+            fail("Truncated input accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
 }
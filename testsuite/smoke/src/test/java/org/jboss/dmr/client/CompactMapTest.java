@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class CompactMapTest {
+
+    @Test
+    public void putGetRemove() {
+        CompactMap map = new CompactMap();
+        for (int i = 0; i < 10; i++) {
+            map.put("key-" + i, new ModelNode().set(i));
+        }
+
+        assertEquals(10, map.size());
+        assertEquals(7, map.get("key-7").asInt());
+        assertNull(map.get("foo"));
+
+        assertEquals(3, map.put("key-3", new ModelNode().set(33)).asInt());
+        assertEquals(10, map.size());
+
+        assertEquals(0, map.remove("key-0").asInt());
+        assertNull(map.remove("key-0"));
+        assertFalse(map.containsKey("key-0"));
+
+        List<String> keys = new ArrayList<String>(map.keySet());
+        assertEquals("key-1", keys.get(0));
+        assertEquals("key-9", keys.get(8));
+        assertEquals(33, map.get("key-3").asInt());
+    }
+
+    @Test
+    public void iteratorRemove() {
+        CompactMap map = new CompactMap(2);
+        for (String key : Arrays.asList("a", "b", "c", "d")) {
+            map.put(key, new ModelNode().set(key));
+        }
+
+        Iterator<Map.Entry<String, ModelNode>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next().getKey();
+            if (key.equals("a") || key.equals("c")) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(Arrays.asList("b", "d"), new ArrayList<String>(map.keySet()));
+    }
+
+    @Test
+    public void equalsLinkedHashMap() {
+        CompactMap compact = new CompactMap();
+        Map<String, ModelNode> linked = new LinkedHashMap<String, ModelNode>();
+        for (int i = 0; i < 5; i++) {
+            compact.put("key-" + i, new ModelNode().set(i));
+            linked.put("key-" + i, new ModelNode().set(i));
+        }
+
+        assertEquals(linked, compact);
+        assertEquals(compact, linked);
+        assertEquals(linked.hashCode(), compact.hashCode());
+    }
+
+    @Test
+    public void largeObjects() {
+        ModelNode node = new ModelNode();
+        for (int i = 0; i < 100; i++) {
+            node.get("key-" + i).set(i);
+        }
+
+        assertEquals(100, node.keys().size());
+        assertEquals(42, node.get("key-42").asInt());
+        assertEquals("key-0", node.keys().iterator().next());
+
+        ModelNode decoded = ModelNode.fromBase64(node.toBase64String());
+        assertEquals(node, decoded);
+        assertTrue(decoded.clone().get("key-99").isDefined());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Decoded DMR responses are the same with and without compact object maps.
+ * The retained heap is reported by {@link FootprintBenchmark}.
+ *
+ * @author Heiko Braun
+ */
+public class FootprintTest {
+
+    @After
+    public void restore() {
+        ObjectModelValue.maxCompactSize = CompactMap.MAX_SIZE;
+    }
+
+    @Test
+    public void testResourceDescription() throws Exception {
+        verify(WireSizeTest.response(WireSizeTest.description(40, 3)));
+    }
+
+    @Test
+    public void testResourceList() throws Exception {
+        verify(WireSizeTest.response(WireSizeTest.resources(2000)));
+    }
+
+    private static void verify(ModelNode payload) throws Exception {
+        String base64 = payload.toBase64String();
+
+        ObjectModelValue.maxCompactSize = 0;
+        ModelNode linked = ModelNode.fromBase64(base64);
+
+        ObjectModelValue.maxCompactSize = CompactMap.MAX_SIZE;
+        ModelNode compact = ModelNode.fromBase64(base64);
+
+        assertEquals(payload, linked);
+        assertEquals(payload, compact);
+        assertEquals(payload.get(RESULT).keys(), compact.get(RESULT).keys());
+
+        // compact maps grow beyond their initial size
+        for (int i = 0; i <= CompactMap.MAX_SIZE; i++)
+            compact.get("added-" + i).set(i);
+        assertTrue(compact.has("added-" + CompactMap.MAX_SIZE));
+        assertTrue(compact.get(RESULT).isDefined());
+        assertEquals(payload, ModelNode.fromBase64(base64));
+    }
+}
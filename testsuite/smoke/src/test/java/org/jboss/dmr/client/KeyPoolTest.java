@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.dmr.client.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class KeyPoolTest {
+
+    @Test
+    public void keysAreShared() {
+        ModelNode description = WireSizeTest.response(WireSizeTest.description(10, 0));
+        String base64 = description.toBase64String();
+
+        ModelNode first = ModelNode.fromBase64(base64);
+        ModelNode second = ModelNode.fromBase64Lazy(base64);
+        assertEquals(description, first);
+        assertEquals(description, second);
+
+        ModelNode a = first.get(RESULT, ATTRIBUTES, "attribute-1");
+        ModelNode b = second.get(RESULT, ATTRIBUTES, "attribute-2");
+        Iterator<String> keysA = a.keys().iterator();
+        Iterator<String> keysB = b.keys().iterator();
+        while (keysA.hasNext()) {
+            assertSame(keysA.next(), keysB.next());
+        }
+
+        // well-known keys are the constants themselves
+        assertSame(DESCRIPTION, first.get(RESULT).keys().iterator().next());
+    }
+
+    @Test
+    public void nonAsciiKeys() {
+        ModelNode node = new ModelNode();
+        node.get("gr\u00fc\u00dfe").set(1);
+        node.get("\u20ac-sign").set(2);
+        node.get("plain").set("gr\u00fc\u00dfe", 3);
+
+        ModelNode decoded = ModelNode.fromBase64(node.toBase64String());
+        assertEquals(node, decoded);
+        assertEquals(2, decoded.get("\u20ac-sign").asInt());
+        assertEquals("gr\u00fc\u00dfe", decoded.get("plain").asProperty().getName());
+    }
+
+    @Test
+    public void longKeysAreNotPooled() {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i <= KeyPool.MAX_KEY_LENGTH; i++) {
+            key.append('x');
+        }
+        ModelNode node = new ModelNode();
+        node.get(key.toString()).set(true);
+
+        ModelNode decoded = ModelNode.fromBase64(node.toBase64String());
+        assertTrue(decoded.get(key.toString()).asBoolean());
+    }
+
+    @Test
+    public void learnedKeysAreEvicted() {
+        KeyPool pool = new KeyPool(DESCRIPTION);
+        int keys = KeyPool.CACHE_SIZE * 4;
+        for (int i = 0; i < keys; i++) {
+            byte[] encoded = ("datasource-" + i).getBytes();
+            pool.put(encoded, encoded.length, "datasource-" + i);
+        }
+
+        // a large child listing neither grows the pool nor crowds out the well-known keys
+        int pooled = 0;
+        for (int i = 0; i < keys; i++) {
+            if (get(pool, "datasource-" + i) != null) {
+                pooled++;
+            }
+        }
+        assertTrue(pooled <= KeyPool.CACHE_SIZE);
+        assertSame(DESCRIPTION, get(pool, DESCRIPTION));
+
+        // the keys that keep coming back are learned again
+        byte[] encoded = "value-type".getBytes();
+        assertNull(get(pool, "value-type"));
+        pool.put(encoded, encoded.length, "value-type");
+        assertEquals("value-type", get(pool, "value-type"));
+    }
+
+    private static String get(KeyPool pool, String key) {
+        byte[] encoded = key.getBytes();
+        return pool.get(encoded, encoded.length, KeyPool.hash(encoded, encoded.length));
+    }
+}
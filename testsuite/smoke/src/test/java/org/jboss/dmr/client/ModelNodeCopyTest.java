@@ -0,0 +1,151 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Heiko Braun
+ */
+public class ModelNodeCopyTest {
+
+    private static ModelNode description() {
+        ModelNode node = new ModelNode();
+        node.get("description").set("A resource");
+        node.get("attributes", "name", "type").set(ModelType.STRING);
+        node.get("attributes", "port", "type").set(ModelType.INT);
+        node.get("children").setEmptyObject();
+        return node;
+    }
+
+    @Test
+    public void findDoesNotModify() {
+        ModelNode node = description();
+        ModelNode before = node.clone();
+
+        assertNull(node.find("result"));
+        assertNull(node.find("attributes", "foo", "type"));
+        assertNull(node.find("description", "foo"));
+        assertEquals(ModelType.INT, node.find("attributes", "port", "type").asType());
+        assertFalse(node.hasDefined("result"));
+
+        assertFalse(node.read("result", "step-1").isDefined());
+        assertEquals("undefined", node.read("outcome").asString());
+
+        assertEquals(before, node);
+        assertFalse(node.has("result"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readResultOnMissIsProtected() {
+        new ModelNode().read("foo").set(1);
+    }
+
+    @Test
+    public void findInLists() {
+        ModelNode list = new ModelNode();
+        list.add("a").add("b");
+
+        assertEquals("b", list.find(1).asString());
+        assertNull(list.find(2));
+        assertEquals(2, list.asInt());
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        ModelNode original = description();
+        ModelNode clone = original.clone();
+        assertEquals(original, clone);
+
+        clone.get("attributes", "port", "type").set(ModelType.LONG);
+        clone.get("description").set("changed");
+        clone.remove("children");
+
+        assertEquals(ModelType.INT, original.get("attributes", "port", "type").asType());
+        assertEquals("A resource", original.get("description").asString());
+        assertTrue(original.has("children"));
+
+        original.get("attributes", "name", "nillable").set(true);
+        assertFalse(clone.get("attributes", "name").has("nillable"));
+    }
+
+    @Test
+    public void originalModifiedAfterClone() {
+        ModelNode original = description();
+        ModelNode clone = original.clone();
+
+        original.get("attributes", "port", "type").set(ModelType.LONG);
+        original.get("new").set(1);
+
+        assertEquals(ModelType.INT, clone.get("attributes", "port", "type").asType());
+        assertFalse(clone.has("new"));
+    }
+
+    @Test
+    public void findOnSharedNodeDoesNotLeak() {
+        ModelNode original = description();
+        ModelNode clone = original.clone();
+
+        clone.find("attributes", "port").get("type").set(ModelType.LONG);
+        assertEquals(ModelType.INT, original.get("attributes", "port", "type").asType());
+    }
+
+    @Test
+    public void propertyListOfClone() {
+        ModelNode original = description();
+        ModelNode clone = original.asObject();
+
+        // property values are copies as well
+        for(Property property : clone.get("attributes").asPropertyList())
+            property.getValue().get("type").set(ModelType.BOOLEAN);
+
+        assertEquals(ModelType.STRING, original.get("attributes", "name", "type").asType());
+        assertEquals(ModelType.STRING, clone.get("attributes", "name", "type").asType());
+        assertEquals(2, clone.get("attributes").asPropertyList().size());
+    }
+
+    @Test
+    public void cloneOfProtectedNode() {
+        ModelNode original = description();
+        original.protect();
+
+        ModelNode clone = original.clone();
+        clone.get("attributes", "port", "type").set(ModelType.LONG);
+        clone.get("new").set(1);
+
+        assertEquals(ModelType.INT, original.get("attributes", "port", "type").asType());
+        assertFalse(original.has("new"));
+    }
+
+    @Test
+    public void cloneOfLazyNode() {
+        ModelNode lazy = ModelNode.fromBase64Lazy(description().toBase64String());
+        ModelNode clone = lazy.clone();
+
+        clone.get("description").set("changed");
+        assertEquals("A resource", lazy.get("description").asString());
+        assertEquals(description(), lazy);
+    }
+}
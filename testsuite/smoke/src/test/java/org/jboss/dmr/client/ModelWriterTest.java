@@ -0,0 +1,120 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the {@link ModelWriter} with the recursive formatter.
+ *
+ * @author Heiko Braun
+ */
+public class ModelWriterTest {
+
+    private static ModelNode mixed() {
+        ModelNode node = new ModelNode();
+        node.get("string").set("quote \" backslash \\ slash / tab \t newline \n control \u0001 \u0085 \u2028 umlaut \u00fc");
+        node.get("int").set(42);
+        node.get("long").set(42L);
+        node.get("double").set(4.2);
+        node.get("boolean").set(true);
+        node.get("decimal").set(new BigDecimal("1.5"));
+        node.get("type").set(ModelType.STRING);
+        node.get("expression").setExpression("${jboss.bind.address:127.0.0.1}");
+        node.get("bytes").set(new byte[]{1, 2, 3});
+        node.get("undefined");
+        node.get("empty-object").setEmptyObject();
+        node.get("empty-list").setEmptyList();
+        node.get("single").get("only").set("one");
+        node.get("list").add("a").add(1).add(new ModelNode().set("nested", "property"));
+        node.get("property").set("name", new ModelNode().set("value"));
+        node.get("property-object").set("name", WireSizeTest.description(2, 0));
+        node.get("nested", "deeper", "deepest").add("x").add("y");
+        return node;
+    }
+
+    static String dmr(ModelNode node) {
+        StringBuilder builder = new StringBuilder();
+        node.format(builder, 0, true);
+        return builder.toString();
+    }
+
+    static String json(ModelNode node, boolean compact) {
+        StringBuilder builder = new StringBuilder();
+        node.formatAsJSON(builder, 0, !compact);
+        return builder.toString();
+    }
+
+    @Test
+    public void sameAsFormatter() {
+        for (ModelNode node : new ModelNode[]{mixed(), WireSizeTest.response(WireSizeTest.description(10, 2)),
+                new ModelNode(), new ModelNode().set("plain"), new ModelNode().set("p", 1)}) {
+            assertEquals(dmr(node), ModelWriter.dmr(node).asString());
+            assertEquals(json(node, false), ModelWriter.json(node, false).asString());
+            assertEquals(json(node, true), ModelWriter.json(node, true).asString());
+        }
+    }
+
+    @Test
+    public void chunks() {
+        ModelNode node = WireSizeTest.response(WireSizeTest.resources(200));
+        String expected = dmr(node);
+
+        ModelWriter writer = ModelWriter.dmr(node);
+        StringBuilder all = new StringBuilder();
+        StringBuilder chunk = new StringBuilder();
+        int chunks = 0;
+        boolean more;
+        do {
+            more = writer.write(chunk, 1000);
+            all.append(chunk);
+            chunk.setLength(0);
+            chunks++;
+        } while (more);
+
+        assertEquals(expected, all.toString());
+        assertTrue(chunks > expected.length() / 2000);
+        assertFalse(writer.isTruncated());
+    }
+
+    @Test
+    public void limit() {
+        ModelNode node = WireSizeTest.response(WireSizeTest.resources(200));
+        String expected = dmr(node);
+
+        ModelWriter writer = ModelWriter.dmr(node).limit(5000);
+        StringBuilder out = new StringBuilder();
+        while (writer.write(out, 700)) {
+            // continue
+        }
+
+        assertTrue(writer.isTruncated());
+        assertEquals(expected.substring(0, 5000) + ModelWriter.TRUNCATED, out.toString());
+
+        String small = ModelWriter.dmr(mixed()).limit(100000).asString();
+        assertEquals(dmr(mixed()), small);
+    }
+}
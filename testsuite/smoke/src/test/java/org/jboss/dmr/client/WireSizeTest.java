@@ -0,0 +1,118 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.dmr.client.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.dmr.client.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.dmr.client.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.dmr.client.ModelDescriptionConstants.RESULT;
+import static org.jboss.dmr.client.ModelDescriptionConstants.SUCCESS;
+import static org.jboss.dmr.client.ModelDescriptionConstants.TYPE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DMR payloads survive the Base64 encoding and compress below their binary size.
+ * The sizes and decode times are reported by {@link WireSizeBenchmark}.
+ *
+ * @author Heiko Braun
+ */
+public class WireSizeTest {
+
+    @Test
+    public void testResourceDescription() throws Exception {
+        verify(response(description(40, 3)));
+    }
+
+    @Test
+    public void testResourceList() throws Exception {
+        verify(response(resources(2000)));
+    }
+
+    private static void verify(ModelNode payload) throws IOException {
+        DataOutput out = new DataOutput();
+        payload.writeExternal(out);
+        byte[] binary = out.getBytes();
+        String base64 = payload.toBase64String();
+
+        assertEquals(SUCCESS, ModelNode.fromBase64(base64).get(OUTCOME).asString());
+        assertEquals(payload.get(RESULT).keys(), ModelNode.fromBase64Lazy(base64).get(RESULT).keys());
+        // compression more than recovers the Base64 overhead
+        assertTrue(gzip(base64.getBytes("US-ASCII")).length < binary.length);
+    }
+
+    static ModelNode response(ModelNode result) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT).set(result);
+        return response;
+    }
+
+    static ModelNode description(int attributes, int depth) {
+        ModelNode description = new ModelNode();
+        description.get(DESCRIPTION).set("A JDBC data-source configuration");
+        for (int i = 0; i < attributes; i++) {
+            ModelNode attribute = description.get(ATTRIBUTES, "attribute-" + i);
+            attribute.get(TYPE).set(i % 3 == 0 ? ModelType.INT : ModelType.STRING);
+            attribute.get(DESCRIPTION).set("Specifies the behaviour of attribute " + i + " of this data-source");
+            attribute.get("expressions-allowed").set(true);
+            attribute.get("nillable").set(i % 2 == 0);
+            attribute.get("access-type").set("read-write");
+            attribute.get("storage").set("configuration");
+            attribute.get("restart-required").set("no-services");
+        }
+        if (depth > 0) {
+            ModelNode child = description.get(CHILDREN, "connection-properties");
+            child.get(DESCRIPTION).set("The connection-properties element");
+            child.get("model-description", "*").set(description(attributes / 2, depth - 1));
+        }
+        return description;
+    }
+
+    static ModelNode resources(int count) {
+        ModelNode resources = new ModelNode();
+        for (int i = 0; i < count; i++) {
+            ModelNode ds = resources.get("DataSource" + i);
+            ds.get("jndi-name").set("java:jboss/datasources/DataSource" + i);
+            ds.get("connection-url").set("jdbc:h2:mem:test" + i + ";DB_CLOSE_DELAY=-1");
+            ds.get("driver-name").set("h2");
+            ds.get("enabled").set(i % 2 == 0);
+            ds.get("min-pool-size").set(0);
+            ds.get("max-pool-size").set(20);
+            ds.get("user-name").set("sa");
+        }
+        return resources;
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+}
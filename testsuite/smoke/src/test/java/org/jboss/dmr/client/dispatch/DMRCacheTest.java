@@ -0,0 +1,191 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch;
+
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.dispatch.impl.DMRResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Heiko Braun
+ */
+public class DMRCacheTest {
+
+    private DMRCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new DMRCache(2, 60 * 1000);
+    }
+
+    @Test
+    public void testNormalizedKey() {
+        ModelNode a = readResource("datasources");
+        a.get(RECURSIVE).set(true);
+        a.get("include-defaults").set(false);
+
+        ModelNode b = new ModelNode();
+        b.get("include-defaults").set(false);
+        b.get(ADDRESS).add("subsystem", "datasources");
+        b.get(RECURSIVE).set(true);
+        b.get(OP).set(READ_RESOURCE_OPERATION);
+        b.get(OPERATION_HEADERS).get("rollback-on-runtime-failure").set(false);
+
+        assertEquals(cache.getKey(a), cache.getKey(b));
+        assertFalse(cache.getKey(a).equals(cache.getKey(readResource("datasources"))));
+    }
+
+    @Test
+    public void testCachable() {
+        assertTrue(cache.isCachable(readResource("web")));
+
+        ModelNode runtime = readResource("web");
+        runtime.get(INCLUDE_RUNTIME).set(true);
+        assertFalse(cache.isCachable(runtime));
+
+        ModelNode write = new ModelNode();
+        write.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        write.get(ADDRESS).add("subsystem", "web");
+        assertFalse(cache.isCachable(write));
+
+        ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(ADDRESS).setEmptyList();
+        composite.get(STEPS).add(readResource("web"));
+        composite.get(STEPS).add(readResource("ejb3"));
+        assertTrue(cache.isCachable(composite));
+        composite.get(STEPS).add(write);
+        assertFalse(cache.isCachable(composite));
+    }
+
+    @Test
+    public void testHitsAndLRU() {
+        put(readResource("web"));
+        put(readResource("ejb3"));
+
+        assertNotNull(cache.get(cache.getKey(readResource("web"))));
+        put(readResource("jpa"));
+
+        assertNull(cache.get(cache.getKey(readResource("ejb3"))));
+        assertNotNull(cache.get(cache.getKey(readResource("jpa"))));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testExpiry() {
+        cache = new DMRCache(10, -1);
+        put(readResource("web"));
+        assertNull(cache.get(cache.getKey(readResource("web"))));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidation() {
+        ModelNode root = new ModelNode();
+        root.get(OP).set(READ_CHILDREN_NAMES_OPERATION);
+        root.get(ADDRESS).setEmptyList();
+        root.get(CHILD_TYPE).set("subsystem");
+
+        cache = new DMRCache(10, 60 * 1000);
+        put(root);
+        put(readResource("web"));
+        put(readResource("ejb3"));
+
+        ModelNode write = new ModelNode();
+        write.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        write.get(ADDRESS).add("subsystem", "web").add("connector", "http");
+
+        cache.invalidate(readResource("ejb3"));
+        assertEquals(3, cache.size());
+
+        cache.invalidate(write);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(cache.getKey(readResource("ejb3"))));
+    }
+
+    @Test
+    public void testWildcardInvalidation() {
+        ModelNode servers = new ModelNode();
+        servers.get(OP).set(READ_RESOURCE_OPERATION);
+        servers.get(ADDRESS).add("host", "master").add("server", "*").add("subsystem", "web");
+
+        ModelNode hosts = new ModelNode();
+        hosts.get(OP).set(READ_RESOURCE_OPERATION);
+        hosts.get(ADDRESS).add("host", "*");
+
+        cache = new DMRCache(10, 60 * 1000);
+        put(servers);
+        put(hosts);
+        put(readResource("web"));
+
+        ModelNode write = new ModelNode();
+        write.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        write.get(ADDRESS).add("host", "master").add("server", "server-one");
+
+        cache.invalidate(write);
+        assertEquals(1, cache.size());
+        assertNotNull(cache.get(cache.getKey(readResource("web"))));
+
+        // the value of another type is not a wildcard
+        put(servers);
+        ModelNode other = new ModelNode();
+        other.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        other.get(ADDRESS).add("host", "master").add("server-config", "server-one");
+        cache.invalidate(other);
+        assertNotNull(cache.get(cache.getKey(servers)));
+    }
+
+    @Test
+    public void testEpoch() {
+        ModelNode write = new ModelNode();
+        write.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        write.get(ADDRESS).add("subsystem", "jpa");
+
+        // reads don't start a new epoch
+        int epoch = cache.getEpoch();
+        cache.invalidate(readResource("web"));
+        assertEquals(epoch, cache.getEpoch());
+
+        // sent before the write completed, even if the addresses don't overlap
+        cache.invalidate(write);
+        ModelNode web = readResource("web");
+        cache.put(cache.getKey(web), web, new DMRResponse(web.toBase64String(), "application/dmr-encoded"), epoch);
+        assertEquals(0, cache.size());
+
+        cache.put(cache.getKey(web), web, new DMRResponse(web.toBase64String(), "application/dmr-encoded"), cache.getEpoch());
+        assertEquals(1, cache.size());
+    }
+
+    private void put(ModelNode operation) {
+        cache.put(cache.getKey(operation), operation, new DMRResponse(operation.toBase64String(), "application/dmr-encoded"));
+    }
+
+    private ModelNode readResource(String subsystem) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(ADDRESS).add("subsystem", subsystem);
+        return operation;
+    }
+}
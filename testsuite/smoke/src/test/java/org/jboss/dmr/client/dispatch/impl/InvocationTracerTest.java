@@ -0,0 +1,218 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.testing.StubScheduler;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.dispatch.Diagnostics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Heiko Braun
+ */
+public class InvocationTracerTest {
+
+    private RecordingDiagnostics diagnostics;
+    private StubScheduler scheduler;
+    private InvocationTracer tracer;
+
+    @Before
+    public void setUp() {
+        diagnostics = new RecordingDiagnostics();
+        scheduler = new StubScheduler();
+        tracer = new InvocationTracer(diagnostics, scheduler);
+    }
+
+    @Test
+    public void histogramBuckets() {
+        assertEquals(0, LatencyHistogram.bucketOf(0));
+        assertEquals(1, LatencyHistogram.bucketOf(1));
+        assertEquals(2, LatencyHistogram.bucketOf(3));
+        assertEquals(3, LatencyHistogram.bucketOf(4));
+        assertEquals(15, LatencyHistogram.bucketOf(32767));
+        assertEquals(16, LatencyHistogram.bucketOf(32768));
+        assertEquals(16, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+
+        for(int i=0; i<99; i++)
+            histogram.record(5);
+        histogram.record(1000);
+        histogram.record(-1);
+
+        assertEquals(101, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(7, histogram.getPercentile(50));
+        assertEquals(1000, histogram.getPercentile(100));
+        assertEquals(99, histogram.getBucketCount(LatencyHistogram.bucketOf(5)));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void sampling() {
+        ModelNode operation = readResource("subsystem", "web");
+
+        tracer.setSampleRate(3);
+        int sampled = 0;
+        for(int i=0; i<9; i++)
+        {
+            InvocationTracer.Trace trace = tracer.begin(operation);
+            if(trace!=null)
+            {
+                assertEquals(0, i % 3);
+                sampled++;
+            }
+        }
+        assertEquals(3, sampled);
+
+        tracer.setSampleRate(0);
+        assertNull(tracer.begin(operation));
+    }
+
+    @Test
+    public void publishDeferred() {
+        ModelNode operation = readResource("subsystem", "web");
+        ModelNode snapshot = operation.clone();
+
+        InvocationTracer.Trace trace = tracer.begin(operation);
+        trace.mark(InvocationTracer.SERIALIZED);
+        trace.mark(InvocationTracer.SENT);
+        trace.mark(InvocationTracer.RECEIVED);
+        tracer.end(trace);
+
+        // nothing is formatted or logged while the request is handled
+        assertTrue(diagnostics.events.isEmpty());
+        assertEquals(snapshot, operation);
+        assertEquals(1, tracer.getHistogram(InvocationTracer.Phase.RECEIVE).getCount());
+        assertEquals(1, tracer.getHistogram(InvocationTracer.Phase.CALLBACK).getCount());
+        assertEquals(0, tracer.getHistogram(InvocationTracer.Phase.DESERIALIZE).getCount());
+
+        List<Scheduler.RepeatingCommand> commands = scheduler.getRepeatingCommands();
+        assertEquals(1, commands.size());
+        assertFalse(commands.get(0).execute());
+
+        // the deserialized event has not been recorded
+        assertEquals(5, diagnostics.events.size());
+        assertEquals("begin " + trace.getId() + " " + InvocationTracer.getToken(operation), diagnostics.events.get(0));
+        assertEquals("requestSerialized " + trace.getId(), diagnostics.events.get(1));
+        assertEquals("end " + trace.getId(), diagnostics.events.get(4));
+        assertEquals(snapshot, operation);
+    }
+
+    @Test
+    public void disabledDiagnostics() {
+        diagnostics.enabled = false;
+        tracer = new InvocationTracer(diagnostics, scheduler);
+        assertEquals(0, tracer.getSampleRate());
+        assertNull(tracer.begin(readResource("subsystem", "web")));
+
+        tracer.setSampleRate(1);
+        InvocationTracer.Trace trace = tracer.begin(readResource("subsystem", "web"));
+        trace.mark(InvocationTracer.RECEIVED);
+        tracer.end(trace);
+
+        assertTrue(scheduler.getRepeatingCommands().isEmpty());
+        assertEquals(1, tracer.getHistogram(InvocationTracer.Phase.CALLBACK).getCount());
+    }
+
+    @Test
+    public void deserializedOnFirstDecode() {
+        ModelNode operation = readResource("subsystem", "web");
+        InvocationTracer.Trace trace = tracer.begin(operation);
+        trace.mark(InvocationTracer.RECEIVED);
+
+        DMRResponse response = new DMRResponse(operation.toBase64String(), "application/dmr-encoded");
+        response.setTrace(trace);
+        assertEquals(0, trace.getTime(InvocationTracer.DESERIALIZED));
+
+        assertEquals(operation, response.get());
+        long deserialized = trace.getTime(InvocationTracer.DESERIALIZED);
+        assertTrue(deserialized > 0);
+        tracer.end(trace);
+        assertEquals(1, tracer.getHistogram(InvocationTracer.Phase.DESERIALIZE).getCount());
+
+        // marks after the end are ignored
+        trace.mark(InvocationTracer.SENT);
+        assertEquals(0, trace.getTime(InvocationTracer.SENT));
+    }
+
+    @Test
+    public void compositeToken() {
+        ModelNode composite = new ModelNode();
+        composite.get(OP).set(COMPOSITE);
+        composite.get(ADDRESS).setEmptyList();
+        composite.get(STEPS).add(readResource("subsystem", "web"));
+        composite.get(STEPS).add(readResource("subsystem", "ejb3"));
+
+        String token = InvocationTracer.getToken(composite);
+        assertTrue(token, token.startsWith(" _"));
+        assertTrue(token, token.contains("web"));
+        assertTrue(token, token.contains("ejb3"));
+    }
+
+    private static ModelNode readResource(String type, String name) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(ADDRESS).add(type, name);
+        return operation;
+    }
+
+    static class RecordingDiagnostics implements Diagnostics {
+
+        boolean enabled = true;
+        final List<String> events = new ArrayList<String>();
+
+        @Override
+        public void logError(String module, double millis, String errMsg) {
+        }
+
+        @Override
+        public void logRpc(String type, String id, double millis, String method) {
+            events.add(type + " " + id + " " + method);
+        }
+
+        @Override
+        public void logRpc(String type, String id, double millis) {
+            events.add(type + " " + id);
+        }
+
+        @Override
+        public void logEvent(String moduleName, String subSystem, String eventGroup, double millis, String type) {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011 Red Hat Inc. and/or its affiliates and other contributors
+ * as indicated by the @author tags. All rights reserved.
+ * See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU Lesser General Public License, v. 2.1.
+ * This program is distributed in the hope that it will be useful, but WITHOUT A
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * You should have received a copy of the GNU Lesser General Public License,
+ * v.2.1 along with this distribution; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA  02110-1301, USA.
+ */
+
+package org.jboss.dmr.client.dispatch.impl;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.testing.StubScheduler;
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import org.jboss.dmr.client.ModelNode;
+import org.jboss.dmr.client.dispatch.DMRCache;
+import org.jboss.dmr.client.dispatch.DispatchRequest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.jboss.dmr.client.ModelDescriptionConstants.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Heiko Braun
+ */
+public class ReadBatcherTest {
+
+    private static final String CONTENT_TYPE = "application/dmr-encoded";
+
+    private DMRCache cache;
+    private StubScheduler scheduler;
+    private RecordingTransport transport;
+    private ReadBatcher batcher;
+
+    @Before
+    public void setUp() {
+        cache = new DMRCache();
+        scheduler = new StubScheduler();
+        transport = new RecordingTransport();
+        batcher = new ReadBatcher(cache, scheduler, transport);
+    }
+
+    @Test
+    public void batchAndDeduplicate() {
+        RecordingCallback web1 = execute(readResource("web"));
+        RecordingCallback web2 = execute(readResource("web"));
+        RecordingCallback ejb = execute(readResource("ejb3"));
+
+        assertTrue(transport.operations.isEmpty());
+        assertEquals(1, scheduler.getScheduledCommands().size());
+        runScheduled();
+
+        assertEquals(1, transport.operations.size());
+        ModelNode composite = transport.operations.get(0);
+        assertEquals(COMPOSITE, composite.get(OP).asString());
+        assertEquals(2, composite.get(STEPS).asList().size());
+
+        // an identical read issued while in flight joins the batch
+        RecordingCallback web3 = execute(readResource("web"));
+        assertTrue(scheduler.getScheduledCommands().isEmpty());
+
+        ModelNode response = success(new ModelNode());
+        response.get(RESULT, "step-1").set(success(new ModelNode().set("web")));
+        response.get(RESULT, "step-2").set(success(new ModelNode().set("ejb3")));
+        response.get("response-headers", "process-state").set("reload-required");
+        transport.callbacks.get(0).onSuccess(new DMRResponse(response.toBase64String(), CONTENT_TYPE));
+
+        assertEquals("web", web1.result().get(RESULT).asString());
+        assertEquals("web", web2.result().get(RESULT).asString());
+        assertEquals("web", web3.result().get(RESULT).asString());
+        assertEquals("ejb3", ejb.result().get(RESULT).asString());
+        assertNotSame(web1.result(), web2.result());
+
+        // the process state of the composite is passed on
+        assertEquals("reload-required", ejb.result().get("response-headers", "process-state").asString());
+        assertEquals("reload-required", web2.result().get("response-headers", "process-state").asString());
+    }
+
+    @Test
+    public void singleRead() {
+        RecordingCallback web = execute(readResource("web"));
+        runScheduled();
+
+        assertEquals(readResource("web"), transport.operations.get(0));
+        transport.callbacks.get(0).onSuccess(new DMRResponse(success(new ModelNode().set("web")), CONTENT_TYPE));
+        assertEquals("web", web.result().get(RESULT).asString());
+    }
+
+    @Test
+    public void cancel() {
+        RecordingCallback web1 = new RecordingCallback();
+        DispatchRequest request = batcher.execute(key(readResource("web")), readResource("web"), false, web1);
+        RecordingCallback web2 = execute(readResource("web"));
+        runScheduled();
+
+        assertTrue(request.isPending());
+        request.cancel();
+        assertFalse(request.isPending());
+
+        transport.callbacks.get(0).onSuccess(new DMRResponse(success(new ModelNode().set("web")), CONTENT_TYPE));
+        assertNull(web1.response);
+        assertNotNull(web2.response);
+    }
+
+    @Test
+    public void failedStepIsResent() {
+        RecordingCallback web = execute(readResource("web"));
+        RecordingCallback ejb = execute(readResource("ejb3"));
+        runScheduled();
+
+        transport.callbacks.get(0).onFailure(new DMRHandler.OperationFailedException("step-2 failed"));
+        assertEquals(3, transport.operations.size());
+        assertEquals(readResource("web"), transport.operations.get(1));
+        assertEquals(readResource("ejb3"), transport.operations.get(2));
+
+        transport.callbacks.get(1).onSuccess(new DMRResponse(success(new ModelNode().set("web")), CONTENT_TYPE));
+        transport.callbacks.get(2).onFailure(new DMRHandler.OperationFailedException("no such resource"));
+
+        assertEquals("web", web.result().get(RESULT).asString());
+        assertEquals("no such resource", ejb.failure.getMessage());
+    }
+
+    @Test
+    public void transportFailureIsNotResent() {
+        RecordingCallback web = execute(readResource("web"));
+        RecordingCallback ejb = execute(readResource("ejb3"));
+        runScheduled();
+
+        Exception unauthorized = new Exception("Authentication required.");
+        transport.callbacks.get(0).onFailure(unauthorized);
+
+        assertEquals(1, transport.operations.size());
+        assertSame(unauthorized, web.failure);
+        assertSame(unauthorized, ejb.failure);
+
+        // nothing is left in flight
+        execute(readResource("web"));
+        runScheduled();
+        assertEquals(2, transport.operations.size());
+    }
+
+    @Test
+    public void cachedAfterSuccess() {
+        ModelNode operation = readResource("web");
+        batcher.execute(key(operation), operation, true, new RecordingCallback());
+        runScheduled();
+
+        transport.callbacks.get(0).onSuccess(new DMRResponse(success(new ModelNode().set("web")), CONTENT_TYPE));
+        assertNotNull(cache.get(key(operation)));
+
+        ModelNode failing = readResource("ejb3");
+        batcher.execute(key(failing), failing, true, new RecordingCallback());
+        runScheduled();
+
+        ModelNode failed = new ModelNode();
+        failed.get(OUTCOME).set(FAILED);
+        failed.get(FAILURE_DESCRIPTION).set("no such resource");
+        transport.callbacks.get(1).onSuccess(new DMRResponse(failed, CONTENT_TYPE));
+        assertNull(cache.get(key(failing)));
+    }
+
+    @Test
+    public void noJoinAfterWrite() {
+        RecordingCallback before = execute(readResource("web"));
+        runScheduled();
+
+        // a write is sent, the next identical read is sent on its own
+        batcher.flush();
+        batcher.detachInFlight();
+        RecordingCallback after = execute(readResource("web"));
+        runScheduled();
+        assertEquals(2, transport.operations.size());
+
+        transport.callbacks.get(0).onSuccess(new DMRResponse(success(new ModelNode().set("old")), CONTENT_TYPE));
+        assertEquals("old", before.result().get(RESULT).asString());
+        assertNull(after.response);
+
+        // the earlier read doesn't remove the later one from the reads in flight
+        RecordingCallback joined = execute(readResource("web"));
+        assertTrue(scheduler.getScheduledCommands().isEmpty());
+        transport.callbacks.get(1).onSuccess(new DMRResponse(success(new ModelNode().set("new")), CONTENT_TYPE));
+        assertEquals("new", after.result().get(RESULT).asString());
+        assertEquals("new", joined.result().get(RESULT).asString());
+    }
+
+    @Test
+    public void notCachedAfterWrite() {
+        ModelNode operation = readResource("web");
+        RecordingCallback web = new RecordingCallback();
+        batcher.execute(key(operation), operation, true, web);
+        runScheduled();
+
+        // a write completes while the read is in flight
+        ModelNode write = new ModelNode();
+        write.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+        write.get(ADDRESS).add("subsystem", "web");
+        cache.invalidate(write);
+
+        transport.callbacks.get(0).onSuccess(new DMRResponse(success(new ModelNode().set("web")), CONTENT_TYPE));
+        assertEquals("web", web.result().get(RESULT).asString());
+        assertNull(cache.get(key(operation)));
+    }
+
+    private RecordingCallback execute(ModelNode operation) {
+        RecordingCallback callback = new RecordingCallback();
+        batcher.execute(key(operation), operation, false, callback);
+        return callback;
+    }
+
+    private String key(ModelNode operation) {
+        return cache.getKey(operation);
+    }
+
+    private void runScheduled() {
+        List<Scheduler.ScheduledCommand> commands = new ArrayList<Scheduler.ScheduledCommand>(scheduler.getScheduledCommands());
+        scheduler.getScheduledCommands().clear();
+        for(Scheduler.ScheduledCommand command : commands)
+            command.execute();
+    }
+
+    private static ModelNode success(ModelNode result) {
+        ModelNode response = new ModelNode();
+        response.get(OUTCOME).set(SUCCESS);
+        response.get(RESULT).set(result);
+        return response;
+    }
+
+    private static ModelNode readResource(String subsystem) {
+        ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(ADDRESS).add("subsystem", subsystem);
+        return operation;
+    }
+
+    static class RecordingTransport implements ReadBatcher.Transport {
+
+        final List<ModelNode> operations = new ArrayList<ModelNode>();
+        final List<AsyncCallback<DMRResponse>> callbacks = new ArrayList<AsyncCallback<DMRResponse>>();
+
+        @Override
+        public void send(ModelNode operation, AsyncCallback<DMRResponse> callback) {
+            operations.add(operation);
+            callbacks.add(callback);
+        }
+    }
+
+    static class RecordingCallback implements AsyncCallback<DMRResponse> {
+
+        DMRResponse response;
+        Throwable failure;
+
+        @Override
+        public void onFailure(Throwable caught) {
+            failure = caught;
+        }
+
+        @Override
+        public void onSuccess(DMRResponse result) {
+            response = result;
+        }
+
+        ModelNode result() {
+            assertNotNull("No response", response);
+            return response.get();
+        }
+    }
+}